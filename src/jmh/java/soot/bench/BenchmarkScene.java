@@ -0,0 +1,95 @@
+package soot.bench;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import soot.Body;
+import soot.G;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.options.Options;
+
+/**
+ * Loads the fixed input the benchmarks run on. The input is a jar or class directory given by the system property
+ * {@value #INPUT_PROPERTY}; by default the compiled system test targets of the build are used, so that results stay
+ * comparable between runs of the same checkout.
+ */
+public final class BenchmarkScene {
+  public static final String INPUT_PROPERTY = "soot.bench.input";
+
+  private static final String DEFAULT_INPUT = "target/systemTest-target-classes";
+
+  private BenchmarkScene() {
+  }
+
+  /**
+   * Resets Soot and loads the benchmark input as application classes. In whole-program mode all concrete application
+   * methods become entry points, since the input need not have a main method.
+   */
+  public static void load(boolean wholeProgram) {
+    G.reset();
+    final Options opts = Options.v();
+    final File input = new File(System.getProperty(INPUT_PROPERTY, DEFAULT_INPUT));
+    if (!input.exists()) {
+      throw new IllegalStateException("Benchmark input " + input.getAbsolutePath() + " does not exist; set -D"
+          + INPUT_PROPERTY + " or run the test-compile phase first");
+    }
+    opts.set_prepend_classpath(true);
+    opts.set_process_dir(Collections.singletonList(input.getAbsolutePath()));
+    opts.set_src_prec(Options.src_prec_only_class);
+    opts.set_allow_phantom_refs(true);
+    opts.set_output_format(Options.output_format_none);
+    opts.set_whole_program(wholeProgram);
+    Scene.v().loadNecessaryClasses();
+    if (wholeProgram) {
+      Scene.v().setEntryPoints(concreteMethods());
+    }
+  }
+
+  /** Returns the concrete methods of the application classes. */
+  public static List<SootMethod> concreteMethods() {
+    List<SootMethod> ret = new ArrayList<SootMethod>();
+    for (SootClass c : Scene.v().getApplicationClasses()) {
+      for (SootMethod m : c.getMethods()) {
+        if (m.isConcrete()) {
+          ret.add(m);
+        }
+      }
+    }
+    return ret;
+  }
+
+  /** Returns the Jimple bodies of the concrete application methods, building them with the jb pack if necessary. */
+  public static List<Body> bodies() {
+    List<Body> ret = new ArrayList<Body>();
+    for (SootMethod m : concreteMethods()) {
+      ret.add(m.retrieveActiveBody());
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,83 @@
+package soot.bench;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import soot.Body;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.graph.ExceptionalUnitGraphFactory;
+import soot.toolkits.scalar.InitAnalysis;
+
+/**
+ * Measures how many times per second the unit graphs of all benchmark bodies can be built, and how often a forward flow
+ * analysis can be solved over all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FlowAnalysisBenchmark {
+  private List<Body> bodies;
+  private List<ExceptionalUnitGraph> graphs;
+
+  @Setup
+  public void setup() {
+    BenchmarkScene.load(false);
+    bodies = BenchmarkScene.bodies();
+    graphs = new ArrayList<ExceptionalUnitGraph>(bodies.size());
+    for (Body b : bodies) {
+      graphs.add(ExceptionalUnitGraphFactory.createExceptionalUnitGraph(b));
+    }
+  }
+
+  @Benchmark
+  public void exceptionalUnitGraph(Blackhole bh) {
+    for (Body b : bodies) {
+      bh.consume(ExceptionalUnitGraphFactory.createExceptionalUnitGraph(b));
+    }
+  }
+
+  @Benchmark
+  public void forwardFlowAnalysis(Blackhole bh) {
+    for (ExceptionalUnitGraph g : graphs) {
+      bh.consume(new InitAnalysis(g));
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package soot.bench;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import heros.DefaultSeeds;
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import soot.Local;
+import soot.PackManager;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.toolkits.ide.ForkJoinIFDSSolver;
+import soot.jimple.toolkits.ide.JimpleIFDSSolver;
+import soot.jimple.toolkits.ide.exampleproblems.IFDSPossibleTypes;
+import soot.jimple.toolkits.ide.exampleproblems.IFDSReachingDefinitions;
+import soot.jimple.toolkits.ide.exampleproblems.IFDSUninitializedVariables;
+import soot.jimple.toolkits.ide.icfg.JimpleBasedInterproceduralCFG;
+import soot.toolkits.scalar.Pair;
+
+/**
+ * Compares heros' IFDS solver with {@link ForkJoinIFDSSolver} on the example problems. Since the benchmark input need not
+ * have a main method, the problems are seeded at the start of every concrete application method instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IFDSSolverBenchmark {
+
+  @Param({ "heros", "forkjoin" })
+  public String solver;
+
+  @Param({ "reachingDefinitions", "possibleTypes", "uninitializedVariables" })
+  public String problem;
+
+  private List<Unit> seeds;
+
+  @Setup
+  public void setup() {
+    BenchmarkScene.load(true);
+    PackManager.v().getPack("cg").apply();
+    seeds = new ArrayList<Unit>();
+    for (SootMethod m : BenchmarkScene.concreteMethods()) {
+      seeds.add(m.retrieveActiveBody().getUnits().getFirst());
+    }
+  }
+
+  @Benchmark
+  public Object solve() {
+    return solve(createProblem());
+  }
+
+  private <D> Object solve(IFDSTabulationProblem<Unit, D, SootMethod, InterproceduralCFG<Unit, SootMethod>> p) {
+    if ("forkjoin".equals(solver)) {
+      ForkJoinIFDSSolver<D, InterproceduralCFG<Unit, SootMethod>> s
+          = new ForkJoinIFDSSolver<D, InterproceduralCFG<Unit, SootMethod>>(p);
+      s.solve();
+      return s;
+    } else {
+      JimpleIFDSSolver<D, InterproceduralCFG<Unit, SootMethod>> s
+          = new JimpleIFDSSolver<D, InterproceduralCFG<Unit, SootMethod>>(p);
+      s.solve();
+      return s;
+    }
+  }
+
+  private IFDSTabulationProblem<Unit, ?, SootMethod, InterproceduralCFG<Unit, SootMethod>> createProblem() {
+    final InterproceduralCFG<Unit, SootMethod> icfg = new JimpleBasedInterproceduralCFG();
+    switch (problem) {
+      case "reachingDefinitions":
+        return new IFDSReachingDefinitions(icfg) {
+          @Override
+          public Map<Unit, Set<Pair<Value, Set<DefinitionStmt>>>> initialSeeds() {
+            return DefaultSeeds.make(seeds, zeroValue());
+          }
+        };
+      case "possibleTypes":
+        return new IFDSPossibleTypes(icfg) {
+          @Override
+          public Map<Unit, Set<Pair<Value, Type>>> initialSeeds() {
+            return DefaultSeeds.make(seeds, zeroValue());
+          }
+        };
+      case "uninitializedVariables":
+        return new IFDSUninitializedVariables(icfg) {
+          @Override
+          public Map<Unit, Set<Local>> initialSeeds() {
+            return DefaultSeeds.make(seeds, zeroValue());
+          }
+        };
+      default:
+        throw new IllegalArgumentException("Unknown problem " + problem);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package soot.bench;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import soot.PackManager;
+import soot.options.Options;
+
+/**
+ * Measures whole phases on the benchmark input: building all Jimple bodies (jb), building the call graph with Spark
+ * (cg.spark), and the whole-jimple transformation pack with the transformers enabled by the current options on top of it
+ * (wjtp). Everything the measured phase depends on is done in the per-invocation setup, starting from a freshly reset
+ * Scene.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PipelineBenchmark {
+  @Param({ "jb", "cg.spark", "wjtp" })
+  public String phase;
+
+  @Setup(Level.Invocation)
+  public void setup() {
+    final boolean wholeProgram = !"jb".equals(phase);
+    BenchmarkScene.load(wholeProgram);
+    if (wholeProgram) {
+      Options.v().setPhaseOption("cg.spark", "on");
+      BenchmarkScene.bodies();
+      if ("wjtp".equals(phase)) {
+        PackManager.v().getPack("cg").apply();
+      }
+    }
+  }
+
+  @Benchmark
+  public void run() {
+    switch (phase) {
+      case "jb":
+        BenchmarkScene.bodies();
+        break;
+      case "cg.spark":
+        PackManager.v().getPack("cg").apply();
+        break;
+      case "wjtp":
+        PackManager.v().getPack("wjtp").apply();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown phase " + phase);
+    }
+  }
+}
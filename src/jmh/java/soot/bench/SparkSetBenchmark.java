@@ -0,0 +1,142 @@
+package soot.bench;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import soot.PhaseOptions;
+import soot.RefType;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.sets.P2SetFactory;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.options.SparkOptions;
+
+/**
+ * Measures the throughput of the points-to set operations Spark's propagators spend most of their time in, for each set
+ * implementation. The sets are filled with a fixed pseudo-random selection of allocation nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SparkSetBenchmark {
+  private static final int NODES = 20000;
+  private static final int SETS = 64;
+
+  @Param({ "hash", "bit", "hybrid", "array", "heintze", "sharedlist", "double", "offheap" })
+  public String setImpl;
+
+  @Param({ "16", "1024" })
+  public int setSize;
+
+  private PAG pag;
+  private P2SetFactory factory;
+  private AllocNode[] nodes;
+  private PointsToSetInternal[] sets;
+
+  @Setup
+  public void setup() {
+    BenchmarkScene.load(false);
+    Map<String, String> opts = new HashMap<String, String>(PhaseOptions.v().getPhaseOptions("cg.spark"));
+    opts.put("set-impl", setImpl);
+    pag = new PAG(new SparkOptions(opts));
+    factory = pag.getSetFactory();
+
+    final RefType object = RefType.v("java.lang.Object");
+    nodes = new AllocNode[NODES];
+    for (int i = 0; i < NODES; i++) {
+      nodes[i] = pag.makeAllocNode(i, object, null);
+    }
+    Random rnd = new Random(42);
+    sets = new PointsToSetInternal[SETS];
+    for (int i = 0; i < SETS; i++) {
+      sets[i] = factory.newSet(null, pag);
+      for (int j = 0; j < setSize; j++) {
+        sets[i].add(nodes[rnd.nextInt(NODES)]);
+      }
+    }
+  }
+
+  @Benchmark
+  public int addAll() {
+    PointsToSetInternal acc = factory.newSet(null, pag);
+    for (PointsToSetInternal s : sets) {
+      acc.addAll(s, null);
+    }
+    return acc.size();
+  }
+
+  @Benchmark
+  public int addAllWithExclude() {
+    int changed = 0;
+    for (int i = 1; i < SETS; i++) {
+      PointsToSetInternal target = factory.newSet(null, pag);
+      if (target.addAll(sets[i], sets[i - 1])) {
+        changed++;
+      }
+    }
+    return changed;
+  }
+
+  @Benchmark
+  public int contains() {
+    int found = 0;
+    for (PointsToSetInternal s : sets) {
+      for (int i = 0; i < NODES; i += 7) {
+        if (s.contains(nodes[i])) {
+          found++;
+        }
+      }
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int intersect() {
+    int intersecting = 0;
+    for (int i = 1; i < SETS; i++) {
+      if (sets[i].hasNonEmptyIntersection(sets[i - 1])) {
+        intersecting++;
+      }
+    }
+    return intersecting;
+  }
+}
@@ -0,0 +1,108 @@
+package soot.bench;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import soot.Body;
+import soot.RefType;
+import soot.Scene;
+import soot.Unit;
+import soot.toolkits.exceptions.ThrowableSet;
+import soot.toolkits.exceptions.UnitThrowAnalysis;
+
+/**
+ * Measures the throughput of the throw analysis over all units of the benchmark bodies, and of the set operations that
+ * ExceptionalUnitGraph performs on the resulting ThrowableSets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ThrowableSetBenchmark {
+  private List<Unit> units;
+  private List<ThrowableSet> thrown;
+  private RefType[] catchers;
+
+  @Setup
+  public void setup() {
+    BenchmarkScene.load(false);
+    units = new ArrayList<Unit>();
+    for (Body b : BenchmarkScene.bodies()) {
+      units.addAll(b.getUnits());
+    }
+    thrown = new ArrayList<ThrowableSet>(units.size());
+    for (Unit u : units) {
+      thrown.add(UnitThrowAnalysis.v().mightThrow(u));
+    }
+    final Scene sc = Scene.v();
+    catchers = new RefType[] { sc.getRefType("java.lang.Throwable"), sc.getRefType("java.lang.Exception"),
+        sc.getRefType("java.lang.RuntimeException"), sc.getRefType("java.lang.Error"),
+        sc.getRefType("java.lang.NullPointerException") };
+  }
+
+  @Benchmark
+  public void mightThrow(Blackhole bh) {
+    final UnitThrowAnalysis ta = UnitThrowAnalysis.v();
+    for (Unit u : units) {
+      bh.consume(ta.mightThrow(u));
+    }
+  }
+
+  @Benchmark
+  public void addAndCatch(Blackhole bh) {
+    ThrowableSet acc = ThrowableSet.Manager.v().EMPTY;
+    for (ThrowableSet s : thrown) {
+      acc = acc.add(s);
+      for (RefType catcher : catchers) {
+        bh.consume(s.whichCatchableAs(catcher));
+      }
+    }
+    bh.consume(acc);
+  }
+
+  @Benchmark
+  public void catchableAs(Blackhole bh) {
+    for (ThrowableSet s : thrown) {
+      for (RefType catcher : catchers) {
+        bh.consume(s.catchableAs(catcher));
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package soot.bench;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import soot.Body;
+import soot.PhaseOptions;
+import soot.jimple.JimpleBody;
+import soot.jimple.toolkits.typing.fast.TypeResolver;
+
+/**
+ * Measures the throughput of local type inference over all benchmark bodies. The bodies are built with the type assigner
+ * and all phases that depend on its result disabled; every invocation types fresh copies of them, so the measured time
+ * includes cloning the bodies.
+ *
+ * {@link #inferTypesPerBody()} types one body per invocation, so its score is in bodies per second. Running it before and
+ * after a change to the typing engine compares the two on the same bodies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TypeResolverBenchmark {
+  private static final String[] TYPED_PHASES = { "jb.tr", "jb.ulp", "jb.lns", "jb.cp", "jb.dae", "jb.cp-ule", "jb.lp",
+      "jb.ne" };
+
+  private List<JimpleBody> untypedBodies;
+  private int next;
+
+  @Setup
+  public void setup() {
+    BenchmarkScene.load(false);
+    for (String phase : TYPED_PHASES) {
+      PhaseOptions.v().setPhaseOption(phase, "enabled:false");
+    }
+    untypedBodies = new ArrayList<JimpleBody>();
+    for (Body b : BenchmarkScene.bodies()) {
+      untypedBodies.add((JimpleBody) b);
+    }
+  }
+
+  @Benchmark
+  public int inferTypes() {
+    int typed = 0;
+    for (JimpleBody b : untypedBodies) {
+      JimpleBody copy = (JimpleBody) b.clone();
+      new TypeResolver(copy).inferTypes();
+      typed += copy.getLocalCount();
+    }
+    return typed;
+  }
+
+  @Benchmark
+  public int inferTypesPerBody() {
+    JimpleBody b = untypedBodies.get(next);
+    next = (next + 1) % untypedBodies.size();
+    JimpleBody copy = (JimpleBody) b.clone();
+    new TypeResolver(copy).inferTypes();
+    return copy.getLocalCount();
+  }
+}
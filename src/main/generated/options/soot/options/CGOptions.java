@@ -142,6 +142,18 @@ public class CGOptions {
     return soot.PhaseOptions.getBoolean(options, "resolve-all-abstract-invokes");
   }
 
+  /**
+   * Compact Call Graph Storage -- Index call graph edges with int arrays instead of hash maps.
+   *
+   * When this option is set to true, the call graph indexes its edges with primitive int arrays keyed by the method and
+   * unit numberers of the Scene instead of hash maps and hash sets. This considerably reduces the memory needed per edge
+   * on large call graphs, at the price of linear scans when looking up or removing a single edge of a call site. With the
+   * verbose option, the estimated number of bytes per edge is reported after the call graph has been built.
+   */
+  public boolean compact_storage() {
+    return soot.PhaseOptions.getBoolean(options, "compact-storage");
+  }
+
   /**
    * JDK version -- JDK version for native methods.
    *
@@ -547,6 +547,58 @@ public class Options extends OptionsBase {
                     || option.equals("no-drop-bodies-after-load")
             )
                 drop_bodies_after_load = false;
+            else if (false
+                    || option.equals("body-cache-dir")
+            ) {
+                if (!hasMoreOptions()) {
+                    G.v().out.println("No value given for option -" + option);
+                    return false;
+                }
+
+                String value = nextOption();
+                if (body_cache_dir.isEmpty())
+                    body_cache_dir = value;
+                else {
+                    G.v().out.println("Duplicate values " + body_cache_dir + " and " + value + " for option -" + option);
+                    return false;
+                }
+            }
+            else if (false
+                    || option.equals("classpath-index")
+            ) {
+                if (!hasMoreOptions()) {
+                    G.v().out.println("No value given for option -" + option);
+                    return false;
+                }
+
+                String value = nextOption();
+                if (classpath_index.isEmpty())
+                    classpath_index = value;
+                else {
+                    G.v().out.println("Duplicate values " + classpath_index + " and " + value + " for option -" + option);
+                    return false;
+                }
+            }
+            else if (false
+                    || option.equals("scene-image")
+            ) {
+                if (!hasMoreOptions()) {
+                    G.v().out.println("No value given for option -" + option);
+                    return false;
+                }
+
+                String value = nextOption();
+                if (scene_image.isEmpty())
+                    scene_image = value;
+                else {
+                    G.v().out.println("Duplicate values " + scene_image + " and " + value + " for option -" + option);
+                    return false;
+                }
+            }
+            else if (false
+                    || option.equals("scene-image-rebuild-pta")
+            )
+                scene_image_rebuild_pta = true;
             else if (false
                     || option.equals("d")
                     || option.equals("output-dir")
@@ -897,6 +949,10 @@ public class Options extends OptionsBase {
                     || option.equals("output-jar")
             )
                 output_jar = true;
+            else if (false
+                    || option.equals("streaming-output")
+            )
+                streaming_output = true;
             else if (false
                     || option.equals("hierarchy-dirs")
             )
@@ -1438,6 +1494,50 @@ public class Options extends OptionsBase {
                     || option.equals("subtract-gc")
             )
                 subtract_gc = true;
+            else if (false
+                    || option.equals("phase-telemetry")
+            ) {
+                if (!hasMoreOptions()) {
+                    G.v().out.println("No value given for option -" + option);
+                    return false;
+                }
+
+                String value = nextOption();
+                if (phase_telemetry.isEmpty())
+                    phase_telemetry = value;
+                else {
+                    G.v().out.println("Duplicate values " + phase_telemetry + " and " + value + " for option -" + option);
+                    return false;
+                }
+            }
+            else if (false
+                    || option.equals("phase-telemetry-jfr")
+            )
+                phase_telemetry_jfr = true;
+            else if (false
+                    || option.equals("parallel-flow-threshold")
+            ) {
+                if (!hasMoreOptions()) {
+                    G.v().out.println("No value given for option -" + option);
+                    return false;
+                }
+
+                String value = nextOption();
+                if(parallel_flow_threshold == -1)
+                    parallel_flow_threshold = Integer.valueOf(value);
+                else {
+                    G.v().out.println("Duplicate values " + parallel_flow_threshold + " and " + value + " for option -" + option);
+                    return false;
+                }
+            }
+            else if (false
+                    || option.equals("compact-unit-chains")
+            )
+                compact_unit_chains = true;
+            else if (false
+                    || option.equals("soft-bodies")
+            )
+                soft_bodies = true;
             else if (false
                     || option.equals("no-writeout-body-releasing")
             )
@@ -1664,6 +1764,20 @@ public class Options extends OptionsBase {
     private boolean drop_bodies_after_load = true;
     public void set_drop_bodies_after_load(boolean setting) { drop_bodies_after_load = setting; }
 
+    public String body_cache_dir() { return body_cache_dir; }
+    public void set_body_cache_dir(String setting) { body_cache_dir = setting; }
+    private String body_cache_dir = "";
+    public String classpath_index() { return classpath_index; }
+    public void set_classpath_index(String setting) { classpath_index = setting; }
+    private String classpath_index = "";
+    public String scene_image() { return scene_image; }
+    public void set_scene_image(String setting) { scene_image = setting; }
+    private String scene_image = "";
+
+    public boolean scene_image_rebuild_pta() { return scene_image_rebuild_pta; }
+    private boolean scene_image_rebuild_pta = false;
+    public void set_scene_image_rebuild_pta(boolean setting) { scene_image_rebuild_pta = setting; }
+
     public String output_dir() { return output_dir; }
     public void set_output_dir(String setting) { output_dir = setting; }
     private String output_dir = "";
@@ -1685,6 +1799,10 @@ public class Options extends OptionsBase {
     private boolean output_jar = false;
     public void set_output_jar(boolean setting) { output_jar = setting; }
 
+    public boolean streaming_output() { return streaming_output; }
+    private boolean streaming_output = false;
+    public void set_streaming_output(boolean setting) { streaming_output = setting; }
+
     public boolean hierarchy_dirs() { return hierarchy_dirs; }
     private boolean hierarchy_dirs = false;
     public void set_hierarchy_dirs(boolean setting) { hierarchy_dirs = setting; }
@@ -1837,6 +1955,26 @@ public class Options extends OptionsBase {
     private boolean subtract_gc = false;
     public void set_subtract_gc(boolean setting) { subtract_gc = setting; }
 
+    public String phase_telemetry() { return phase_telemetry; }
+    public void set_phase_telemetry(String setting) { phase_telemetry = setting; }
+    private String phase_telemetry = "";
+
+    public boolean phase_telemetry_jfr() { return phase_telemetry_jfr; }
+    private boolean phase_telemetry_jfr = false;
+    public void set_phase_telemetry_jfr(boolean setting) { phase_telemetry_jfr = setting; }
+
+    public int parallel_flow_threshold() { return parallel_flow_threshold; }
+    public void set_parallel_flow_threshold(int setting) { parallel_flow_threshold = setting; }
+    private int parallel_flow_threshold = -1;
+
+    public boolean compact_unit_chains() { return compact_unit_chains; }
+    private boolean compact_unit_chains = false;
+    public void set_compact_unit_chains(boolean setting) { compact_unit_chains = setting; }
+
+    public boolean soft_bodies() { return soft_bodies; }
+    private boolean soft_bodies = false;
+    public void set_soft_bodies(boolean setting) { soft_bodies = setting; }
+
     public boolean no_writeout_body_releasing() { return no_writeout_body_releasing; }
     private boolean no_writeout_body_releasing = false;
     public void set_no_writeout_body_releasing(boolean setting) { no_writeout_body_releasing = setting; }
@@ -1898,6 +2036,10 @@ public class Options extends OptionsBase {
                 + padOpt("-polyglot", "Use Java 1.4 Polyglot frontend instead of JastAdd")
                 + padOpt("-permissive-resolving", "Use alternative sources when classes cannot be found using the normal resolving strategy")
                 + padOpt("-drop-bodies-after-load", "Drop the method source after it has served its purpose of loading the method body")
+                + padOpt("-body-cache-dir ARG", "Cache Jimple bodies created from class files in ARG")
+                + padOpt("-classpath-index ARG", "Index the class path archives and persist the index in ARG")
+                + padOpt("-scene-image ARG", "Restore the Scene and call graph from ARG, or save them there")
+                + padOpt("-scene-image-rebuild-pta", "Do not use the scene image when cg.spark or cg.paddle is enabled")
                 + "\nOutput Options:\n"
                 + padOpt("-d ARG -output-dir ARG", "Store output files in ARG")
                 + padOpt("-f ARG -output-format ARG", "Set output format for Soot")
@@ -1933,6 +2075,7 @@ public class Options extends OptionsBase {
                     + padVal("1.11 11", "Force Java 1.11 as output version (Experimental).")
                     + padVal("1.12 12", "Force Java 1.12 as output version (Experimental).")
                 + padOpt("-outjar, -output-jar", "Make output dir a Jar file instead of dir")
+                + padOpt("-streaming-output", "Write each class as soon as its body packs have run")
                 + padOpt("-hierarchy-dirs", "Generate class hierarchy directories for Jimple/Shimple")
                 + padOpt("-xml-attributes", "Save tags to XML attributes for Eclipse")
                 + padOpt("-print-tags, -print-tags-in-output", "Print tags in output files after stmt")
@@ -1995,6 +2138,10 @@ public class Options extends OptionsBase {
                 + "\nMiscellaneous Options:\n"
                 + padOpt("-time", "Report time required for transformations")
                 + padOpt("-subtract-gc", "Subtract gc from time")
+                + padOpt("-phase-telemetry ARG", "Write per-phase timing and allocation statistics as JSON to ARG")
+                + padOpt("-phase-telemetry-jfr", "Emit a Java Flight Recorder event for every pack and transform application")
+                + padOpt("-compact-unit-chains", "Store the statements of method bodies in array-backed chains")
+                + padOpt("-soft-bodies", "Allow method bodies to be released under memory pressure")
                 + padOpt("-no-writeout-body-releasing", "Disables the release of method bodies after writeout. This flag is used internally.");
     }
 
@@ -2373,7 +2520,8 @@ public class Options extends OptionsBase {
                     + padOpt("reflection-log", "Uses a reflection log to resolve reflective calls.")
                     + padOpt("guards (ignore)", "Describes how to guard the program from unsound assumptions.")
                     + padOpt("types-for-invoke (false)", "Uses reaching types inferred by the pointer analysis to resolve reflective calls.")
-                    + padOpt("resolve-all-abstract-invokes (false)", "Causes methods invoked on abstract classes to be resolved even if there are no non-abstract children of the classes in the Scene.");
+                    + padOpt("resolve-all-abstract-invokes (false)", "Causes methods invoked on abstract classes to be resolved even if there are no non-abstract children of the classes in the Scene.")
+                    + padOpt("compact-storage (false)", "Index call graph edges with int arrays instead of hash maps");
 
         if (phaseName.equals("cg.cha"))
             return "Phase " + phaseName + ":\n"
@@ -2413,6 +2561,7 @@ public class Options extends OptionsBase {
                         + padVal("merge", "Unfinished field reference merging algorithms")
                         + padVal("alias", "Alias-edge based algorithm")
                         + padVal("none", "Disable propagation")
+                        + padVal("parallel", "Worklist-based algorithm using several threads")
                     + padOpt("set-impl", "Select points-to set implementation")
                         + padVal("hash", "Use Java HashSet")
                         + padVal("bit", "Bit vector")
@@ -2421,6 +2570,7 @@ public class Options extends OptionsBase {
                         + padVal("heintze", "Heintze's shared bit-vector and overflow list representation")
                         + padVal("sharedlist", "Shared list representation")
                         + padVal("double (default)", "Double set representation for incremental propagation")
+                        + padVal("offheap", "Hybrid representation with bit vectors in a memory-mapped arena")
                     + padOpt("double-set-old", "Select implementation of points-to set for old part of double set")
                         + padVal("hash", "Use Java HashSet")
                         + padVal("bit", "Bit vector")
@@ -2456,6 +2606,7 @@ public class Options extends OptionsBase {
                     + padOpt("geom-worklist (PQ)", "Worklist type")
                         + padVal("PQ (default)", "Priority Queue")
                         + padVal("FIFO", "FIFO Queue")
+                        + padVal("Parallel", "Rounds processed by several threads")
                     + padOpt("geom-dump-verbose ()", "Filename for detailed execution log")
                     + padOpt("geom-verify-name ()", "Filename for verification file")
                     + padOpt("geom-eval (0)", "Precision evaluation methodologies")
@@ -3309,7 +3460,8 @@ public class Options extends OptionsBase {
                     "reflection-log",
                     "guards",
                     "types-for-invoke",
-                    "resolve-all-abstract-invokes"
+                    "resolve-all-abstract-invokes",
+                    "compact-storage"
             );
 
         if (phaseName.equals("cg.cha"))
@@ -4038,7 +4190,8 @@ public class Options extends OptionsBase {
                     + "trim-clinit:true "
                     + "guards:ignore "
                     + "types-for-invoke:false "
-                    + "resolve-all-abstract-invokes:false ";
+                    + "resolve-all-abstract-invokes:false "
+                    + "compact-storage:false ";
 
         if (phaseName.equals("cg.cha"))
             return ""
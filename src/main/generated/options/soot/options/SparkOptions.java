@@ -457,6 +457,7 @@ public class SparkOptions {
   public static final int propagator_merge = 4;
   public static final int propagator_alias = 5;
   public static final int propagator_none = 6;
+  public static final int propagator_parallel = 7;
 
   /**
    * Propagator -- Select propagation algorithm.
@@ -480,6 +481,8 @@ public class SparkOptions {
       return propagator_alias;
     if (s.equalsIgnoreCase("none"))
       return propagator_none;
+    if (s.equalsIgnoreCase("parallel"))
+      return propagator_parallel;
 
     throw new RuntimeException(String.format("Invalid value %s of phase option propagator", s));
   }
@@ -491,6 +494,7 @@ public class SparkOptions {
   public static final int set_impl_heintze = 5;
   public static final int set_impl_sharedlist = 6;
   public static final int set_impl_double = 7;
+  public static final int set_impl_offheap = 8;
 
   /**
    * Set Implementation -- Select points-to set implementation.
@@ -516,6 +520,8 @@ public class SparkOptions {
       return set_impl_sharedlist;
     if (s.equalsIgnoreCase("double"))
       return set_impl_double;
+    if (s.equalsIgnoreCase("offheap"))
+      return set_impl_offheap;
 
     throw new RuntimeException(String.format("Invalid value %s of phase option set-impl", s));
   }
@@ -615,12 +621,14 @@ public class SparkOptions {
 
   public static final int geom_worklist_PQ = 1;
   public static final int geom_worklist_FIFO = 2;
+  public static final int geom_worklist_Parallel = 3;
 
   /**
    * Worklist type -- Worklist type.
    *
-   * Specifies the worklist used for selecting the next propagation pointer. All possible options are: PQ, FIFO. They stand
-   * for the priority queue (sorted by the last fire time and topology order) and FIFO queue.
+   * Specifies the worklist used for selecting the next propagation pointer. All possible options are: PQ, FIFO, Parallel.
+   * They stand for the priority queue (sorted by the last fire time and topology order), FIFO queue and rounds processed by
+   * several threads.
    */
   public int geom_worklist() {
     String s = soot.PhaseOptions.getString(options, "geom-worklist");
@@ -631,6 +639,8 @@ public class SparkOptions {
       return geom_worklist_PQ;
     if (s.equalsIgnoreCase("FIFO"))
       return geom_worklist_FIFO;
+    if (s.equalsIgnoreCase("Parallel"))
+      return geom_worklist_Parallel;
 
     throw new RuntimeException(String.format("Invalid value %s of phase option geom-worklist", s));
   }
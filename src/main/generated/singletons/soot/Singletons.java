@@ -2567,4 +2567,60 @@ public class Singletons {
     protected void release_soot_toolkits_scalar_LocalDefsFactory() {
     	instance_soot_toolkits_scalar_LocalDefsFactory = null;
     }
+
+    private soot.jimple.cache.JimpleBodyCache instance_soot_jimple_cache_JimpleBodyCache;
+    public soot.jimple.cache.JimpleBodyCache soot_jimple_cache_JimpleBodyCache() {
+        if (instance_soot_jimple_cache_JimpleBodyCache == null) {
+	       	synchronized (this) {
+		        if (instance_soot_jimple_cache_JimpleBodyCache == null)
+	        		instance_soot_jimple_cache_JimpleBodyCache = new soot.jimple.cache.JimpleBodyCache(g);
+	       	}
+       	}
+        return instance_soot_jimple_cache_JimpleBodyCache;
+    }
+    protected void release_soot_jimple_cache_JimpleBodyCache() {
+    	instance_soot_jimple_cache_JimpleBodyCache = null;
+    }
+
+    private soot.PhaseTelemetry instance_soot_PhaseTelemetry;
+    public soot.PhaseTelemetry soot_PhaseTelemetry() {
+        if (instance_soot_PhaseTelemetry == null) {
+	       	synchronized (this) {
+		        if (instance_soot_PhaseTelemetry == null)
+	        		instance_soot_PhaseTelemetry = new soot.PhaseTelemetry(g);
+	       	}
+       	}
+        return instance_soot_PhaseTelemetry;
+    }
+    protected void release_soot_PhaseTelemetry() {
+    	instance_soot_PhaseTelemetry = null;
+    }
+
+    private soot.SoftBodies instance_soot_SoftBodies;
+    public soot.SoftBodies soot_SoftBodies() {
+        if (instance_soot_SoftBodies == null) {
+	       	synchronized (this) {
+		        if (instance_soot_SoftBodies == null)
+	        		instance_soot_SoftBodies = new soot.SoftBodies(g);
+	       	}
+       	}
+        return instance_soot_SoftBodies;
+    }
+    protected void release_soot_SoftBodies() {
+    	instance_soot_SoftBodies = null;
+    }
+
+    private soot.jimple.cache.SceneImage instance_soot_jimple_cache_SceneImage;
+    public soot.jimple.cache.SceneImage soot_jimple_cache_SceneImage() {
+        if (instance_soot_jimple_cache_SceneImage == null) {
+	       	synchronized (this) {
+		        if (instance_soot_jimple_cache_SceneImage == null)
+	        		instance_soot_jimple_cache_SceneImage = new soot.jimple.cache.SceneImage(g);
+	       	}
+       	}
+        return instance_soot_jimple_cache_SceneImage;
+    }
+    protected void release_soot_jimple_cache_SceneImage() {
+    	instance_soot_jimple_cache_SceneImage = null;
+    }
 }
\ No newline at end of file
@@ -42,6 +42,7 @@ import soot.options.Options;
 import soot.tagkit.AbstractHost;
 import soot.tagkit.CodeAttribute;
 import soot.tagkit.Tag;
+import soot.util.ArrayChain;
 import soot.util.Chain;
 import soot.util.EscapedWriter;
 import soot.util.HashChain;
@@ -87,9 +88,10 @@ public abstract class Body extends AbstractHost implements Serializable {
   protected Chain<Trap> trapChain = new HashChain<>();
 
   /**
-   * The chain of units for this Body.
+   * The chain of units for this Body. An {@link ArrayChain} is used if the compact-unit-chains option is set.
    */
-  protected UnitPatchingChain unitChain = new UnitPatchingChain(new HashChain<>());
+  protected UnitPatchingChain unitChain
+      = new UnitPatchingChain(Options.v().compact_unit_chains() ? new ArrayChain<Unit>() : new HashChain<Unit>());
 
   /**
    * Lazy initialized array containing some validators in order to validate the Body.
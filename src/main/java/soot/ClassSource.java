@@ -43,6 +43,15 @@ public abstract class ClassSource {
    */
   public abstract Dependencies resolve(SootClass sc);
 
+  /**
+   * Performs the part of {@link #resolve(SootClass)} that does not depend on the {@link Scene}, e.g. reading and parsing
+   * the underlying file. The {@link SootResolver} may call this method on a worker thread before calling
+   * {@link #resolve(SootClass)} on the resolving thread. Implementations must therefore not touch any shared state here.
+   * The default implementation does nothing.
+   */
+  public void prepare() {
+  }
+
   public void close() {
   }
 }
@@ -0,0 +1,331 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Maps the names of all entries in the archives on the class path to the position of the first archive that contains them,
+ * so that finding a class in the archives takes a single hash table lookup instead of one lookup per archive.
+ *
+ * The entry names of an archive are read from its central directory, which is memory-mapped instead of being opened
+ * through {@link ZipFile}. If an index file is given, the entry names of every archive are stored in it together with the
+ * modification time and size of the archive, and are reused by later runs as long as both are unchanged.
+ */
+public class ClasspathIndex {
+  private static final Logger logger = LoggerFactory.getLogger(ClasspathIndex.class);
+
+  private static final int MAGIC = 0x53435049; // "SCPI"
+  private static final int VERSION = 1;
+
+  private static final int END_HEADER_SIGNATURE = 0x06054b50;
+  private static final int END_HEADER_SIZE = 22;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+  private final List<String> classPath;
+  private final int[] directories;
+  private final Map<String, Integer> entryToPosition;
+  private final int reused;
+  private final int scanned;
+
+  private ClasspathIndex(List<String> classPath, int[] directories, Map<String, Integer> entryToPosition, int reused,
+      int scanned) {
+    this.classPath = classPath;
+    this.directories = directories;
+    this.entryToPosition = entryToPosition;
+    this.reused = reused;
+    this.scanned = scanned;
+  }
+
+  /**
+   * Builds the index for the archives on the given class path.
+   *
+   * @param classPath
+   *          the exploded class path
+   * @param archives
+   *          the positions in <code>classPath</code> that denote zip or jar archives
+   * @param directories
+   *          the positions in <code>classPath</code> that denote directories
+   * @param indexFile
+   *          the file the entry names are persisted in, or <code>null</code> to keep the index in memory only
+   */
+  public static ClasspathIndex create(List<String> classPath, BitSet archives, BitSet directories, Path indexFile) {
+    Map<String, ArchiveEntries> stored = indexFile == null ? new HashMap<String, ArchiveEntries>() : read(indexFile);
+
+    Map<String, Integer> entryToPosition = new HashMap<String, Integer>();
+    List<ArchiveEntries> current = new ArrayList<ArchiveEntries>();
+    int reused = 0;
+    int scanned = 0;
+    for (int pos = archives.nextSetBit(0); pos >= 0; pos = archives.nextSetBit(pos + 1)) {
+      String path = classPath.get(pos);
+      File f = new File(path);
+      long lastModified = f.lastModified();
+      long length = f.length();
+
+      ArchiveEntries entries = stored.get(path);
+      if (entries != null && entries.lastModified == lastModified && entries.length == length) {
+        reused++;
+      } else {
+        try {
+          entries = new ArchiveEntries(path, lastModified, length, readEntryNames(f));
+        } catch (IOException e) {
+          throw new RuntimeException(
+              "Error: Failed to retrieve the archive entries list for the archive at path '" + path + "'.", e);
+        }
+        scanned++;
+      }
+      current.add(entries);
+
+      final Integer position = pos;
+      for (String name : entries.names) {
+        entryToPosition.putIfAbsent(name, position);
+      }
+    }
+
+    if (indexFile != null && (scanned > 0 || stored.size() != current.size())) {
+      write(indexFile, current);
+    }
+    logger.debug("Indexed {} class path entries; {} archives reused, {} scanned", entryToPosition.size(), reused, scanned);
+    return new ClasspathIndex(classPath, directories.stream().toArray(), entryToPosition, reused, scanned);
+  }
+
+  /**
+   * Returns the position in the class path of the first archive that contains the given entry, or <code>-1</code> if no
+   * archive contains it.
+   */
+  public int lookup(String entryName) {
+    Integer pos = entryToPosition.get(entryName);
+    return pos == null ? -1 : pos;
+  }
+
+  /**
+   * Returns the class path this index was built for.
+   */
+  public List<String> getClassPath() {
+    return classPath;
+  }
+
+  /**
+   * Returns the positions of the directories on the class path in ascending order. These are not indexed and have to be
+   * searched separately.
+   */
+  public int[] getDirectoryPositions() {
+    return directories;
+  }
+
+  /**
+   * Returns the number of archives whose entries were taken from the index file.
+   */
+  public int getReusedArchiveCount() {
+    return reused;
+  }
+
+  /**
+   * Returns the number of archives whose entries had to be read from the archive itself.
+   */
+  public int getScannedArchiveCount() {
+    return scanned;
+  }
+
+  /**
+   * Returns the names of all file entries of the given archive. The central directory is memory-mapped and parsed directly;
+   * archives that use features this does not handle (such as zip64 or data preceding the archive) are read through
+   * {@link ZipFile} instead.
+   */
+  static List<String> readEntryNames(File archive) throws IOException {
+    List<String> names = readCentralDirectory(archive);
+    if (names == null) {
+      names = new ArrayList<String>();
+      try (ZipFile zip = new ZipFile(archive)) {
+        for (Enumeration<? extends ZipEntry> it = zip.entries(); it.hasMoreElements();) {
+          ZipEntry e = it.nextElement();
+          if (!e.isDirectory()) {
+            names.add(e.getName());
+          }
+        }
+      }
+    }
+    return names;
+  }
+
+  private static List<String> readCentralDirectory(File archive) throws IOException {
+    try (FileChannel ch = FileChannel.open(archive.toPath(), StandardOpenOption.READ)) {
+      final long size = ch.size();
+      if (size < END_HEADER_SIZE) {
+        return null;
+      }
+      final int tailSize = (int) Math.min(size, END_HEADER_SIZE + MAX_COMMENT_LENGTH);
+      final MappedByteBuffer tail = ch.map(FileChannel.MapMode.READ_ONLY, size - tailSize, tailSize);
+      tail.order(ByteOrder.LITTLE_ENDIAN);
+
+      int end = tailSize - END_HEADER_SIZE;
+      while (end >= 0 && tail.getInt(end) != END_HEADER_SIGNATURE) {
+        end--;
+      }
+      if (end < 0) {
+        return null;
+      }
+      final int count = tail.getShort(end + 10) & 0xFFFF;
+      final long dirSize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+      final long dirOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+      if (count == 0xFFFF || dirSize == 0xFFFFFFFFL || dirOffset == 0xFFFFFFFFL
+          || dirOffset + dirSize != size - tailSize + end) {
+        return null;
+      }
+
+      final MappedByteBuffer dir = ch.map(FileChannel.MapMode.READ_ONLY, dirOffset, dirSize);
+      dir.order(ByteOrder.LITTLE_ENDIAN);
+      final List<String> names = new ArrayList<String>(count);
+      byte[] buf = new byte[256];
+      int pos = 0;
+      for (int i = 0; i < count; i++) {
+        if (pos + CENTRAL_HEADER_SIZE > dirSize || dir.getInt(pos) != CENTRAL_HEADER_SIGNATURE) {
+          return null;
+        }
+        final int nameLength = dir.getShort(pos + 28) & 0xFFFF;
+        final int extraLength = dir.getShort(pos + 30) & 0xFFFF;
+        final int commentLength = dir.getShort(pos + 32) & 0xFFFF;
+        if (pos + CENTRAL_HEADER_SIZE + nameLength > dirSize) {
+          return null;
+        }
+        if (nameLength > buf.length) {
+          buf = new byte[nameLength];
+        }
+        dir.position(pos + CENTRAL_HEADER_SIZE);
+        dir.get(buf, 0, nameLength);
+        if (nameLength > 0 && buf[nameLength - 1] != '/') {
+          names.add(new String(buf, 0, nameLength, StandardCharsets.UTF_8));
+        }
+        pos += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+      }
+      return names;
+    }
+  }
+
+  private static Map<String, ArchiveEntries> read(Path indexFile) {
+    Map<String, ArchiveEntries> result = new HashMap<String, ArchiveEntries>();
+    try (InputStream is = Files.newInputStream(indexFile);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        logger.debug("Ignoring class path index {} in an unknown format", indexFile);
+        return result;
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        String path = in.readUTF();
+        long lastModified = in.readLong();
+        long length = in.readLong();
+        int count = in.readInt();
+        List<String> names = new ArrayList<String>(count);
+        for (int j = 0; j < count; j++) {
+          names.add(in.readUTF());
+        }
+        result.put(path, new ArchiveEntries(path, lastModified, length, names));
+      }
+    } catch (NoSuchFileException e) {
+      // Nothing indexed yet
+    } catch (IOException e) {
+      logger.warn("Could not read class path index " + indexFile + ", rebuilding it", e);
+      result.clear();
+    }
+    return result;
+  }
+
+  private static void write(Path indexFile, List<ArchiveEntries> archives) {
+    try {
+      Path dir = indexFile.toAbsolutePath().getParent();
+      Files.createDirectories(dir);
+      Path tmp = Files.createTempFile(dir, "tmp", null);
+      try {
+        try (OutputStream os = Files.newOutputStream(tmp);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+          out.writeInt(MAGIC);
+          out.writeInt(VERSION);
+          out.writeInt(archives.size());
+          for (ArchiveEntries a : archives) {
+            out.writeUTF(a.path);
+            out.writeLong(a.lastModified);
+            out.writeLong(a.length);
+            out.writeInt(a.names.size());
+            for (String name : a.names) {
+              out.writeUTF(name);
+            }
+          }
+        }
+        try {
+          Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+    } catch (IOException e) {
+      logger.warn("Could not write class path index " + indexFile, e);
+    }
+  }
+
+  private static final class ArchiveEntries {
+    final String path;
+    final long lastModified;
+    final long length;
+    final List<String> names;
+
+    ArchiveEntries(String path, long lastModified, long length, List<String> names) {
+      this.path = path;
+      this.lastModified = lastModified;
+      this.length = length;
+      this.names = names;
+    }
+  }
+}
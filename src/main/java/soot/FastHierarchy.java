@@ -1,7 +1,7 @@
 package soot;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /*-
  * #%L
@@ -37,10 +37,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import soot.dotnet.types.DotnetBasicTypes;
 import soot.jimple.spark.internal.TypeManager;
 import soot.options.Options;
+import soot.toolkits.scalar.Pair;
 import soot.util.ConcurrentHashMultiMap;
 import soot.util.MultiMap;
 import soot.util.NumberedString;
@@ -59,7 +61,32 @@ public class FastHierarchy {
 
   protected static final int USE_INTERVALS_BOUNDARY = 100;
 
-  protected Table<SootClass, NumberedString, SootMethod> typeToVtbl = HashBasedTable.create();
+  /**
+   * The maximum number of entries in each of the memos for queries that the interval numbering cannot answer directly.
+   */
+  protected static final int MEMO_CAPACITY = 100000;
+
+  /**
+   * Memoized dispatch results, keyed by the receiver class and the sub-signature of the invoked method.
+   */
+  protected final Cache<Pair<SootClass, NumberedString>, SootMethod> typeToVtbl = newMemo();
+
+  /**
+   * Memoized results of {@link #canStoreClass(SootClass, SootClass)} for interface parents, which cannot be decided from the
+   * intervals alone. The key holds the numbers of the child and the parent class.
+   */
+  protected final Cache<Long, Boolean> interfaceStoreMemo = newMemo();
+
+  /**
+   * Least common ancestors of pairs of reference types, as computed by type inference.
+   */
+  protected final Cache<Pair<RefType, RefType>, Collection<Type>> leastCommonAncestorMemo = newMemo();
+
+  /**
+   * Interfaces for which {@link #getAllImplementersOfInterface(SootClass)} found no implementers. These are not recorded in
+   * {@link #interfaceToAllImplementers}, which cannot hold empty sets.
+   */
+  protected final Set<SootClass> interfacesWithoutImplementers = ConcurrentHashMap.newKeySet();
 
   /**
    * This map holds all key,value pairs such that value.getSuperclass() == key. This is one of the three maps that hold the
@@ -182,6 +209,30 @@ public class FastHierarchy {
     }
   }
 
+  private static <K, V> Cache<K, V> newMemo() {
+    return CacheBuilder.newBuilder().maximumSize(MEMO_CAPACITY)
+        .concurrencyLevel(Runtime.getRuntime().availableProcessors()).build();
+  }
+
+  /**
+   * Drops all memoized query results. The {@link Scene} calls this when it discards this hierarchy because the class
+   * hierarchy has changed, so that clients that still hold on to it do not keep the memos alive.
+   */
+  public void invalidateMemos() {
+    typeToVtbl.invalidateAll();
+    interfaceStoreMemo.invalidateAll();
+    leastCommonAncestorMemo.invalidateAll();
+    interfacesWithoutImplementers.clear();
+  }
+
+  /**
+   * Returns the memo in which type inference keeps the least common ancestors of pairs of reference types. It is shared by
+   * all bodies that are typed against this hierarchy.
+   */
+  public Cache<Pair<RefType, RefType>, Collection<Type>> getLeastCommonAncestorMemo() {
+    return leastCommonAncestorMemo;
+  }
+
   protected void buildInverseMaps() {
     for (SootClass cl : sc.getClasses().getElementsUnsorted()) {
       if (cl.resolvingLevel() < SootClass.HIERARCHY) {
@@ -230,7 +281,7 @@ public class FastHierarchy {
     parent.checkLevel(SootClass.HIERARCHY);
 
     Set<SootClass> result = interfaceToAllImplementers.get(parent);
-    if (!result.isEmpty()) {
+    if (!result.isEmpty() || interfacesWithoutImplementers.contains(parent)) {
       return result;
     }
     result = new HashSet<>();
@@ -241,7 +292,11 @@ public class FastHierarchy {
       result.addAll(getAllImplementersOfInterface(subinterface));
     }
     result.addAll(interfaceToImplementers.get(parent));
-    interfaceToAllImplementers.putAll(parent, result);
+    if (result.isEmpty()) {
+      interfacesWithoutImplementers.add(parent);
+    } else {
+      interfaceToAllImplementers.putAll(parent, result);
+    }
     return result;
   }
 
@@ -394,26 +449,42 @@ public class FastHierarchy {
         return getAllSubinterfaces(parent).contains(child);
       }
     } else {
-      final Set<SootClass> impl = getAllImplementersOfInterface(parent);
-      if (impl.size() > USE_INTERVALS_BOUNDARY) {
-        // If we have more than 100 entries it is quite time consuming to check each and every
-        // implementing class
-        // if it is the "child" class. Therefore we use an alternative implementation which just
-        // checks the client
-        // class it's super classes and all the interfaces it implements.
-
-        return canStoreClassClassic(child, parent);
-      } else {
-        // If we only have a few entries, you can't beat the performance of a plain old loop
-        // in combination with the interval approach.
-        for (SootClass c : impl) {
-          Interval interval = classToInterval.get(c);
-          if (interval != null && interval.isSubrange(childInterval)) {
-            return true;
-          }
+      // parent is an interface and child is a class
+      final int childNumber = child.getNumber();
+      final int parentNumber = parent.getNumber();
+      if (childNumber == 0 || parentNumber == 0) {
+        return canStoreClassInterface(child, childInterval, parent);
+      }
+      final Long key = ((long) childNumber << 32) | parentNumber;
+      Boolean r = interfaceStoreMemo.getIfPresent(key);
+      if (r == null) {
+        r = canStoreClassInterface(child, childInterval, parent);
+        interfaceStoreMemo.put(key, r);
+      }
+      return r;
+    }
+  }
+
+  private boolean canStoreClassInterface(SootClass child, Interval childInterval, SootClass parent) {
+    final Set<SootClass> impl = getAllImplementersOfInterface(parent);
+    if (impl.size() > USE_INTERVALS_BOUNDARY) {
+      // If we have more than 100 entries it is quite time consuming to check each and every
+      // implementing class
+      // if it is the "child" class. Therefore we use an alternative implementation which just
+      // checks the client
+      // class it's super classes and all the interfaces it implements.
+
+      return canStoreClassClassic(child, parent);
+    } else {
+      // If we only have a few entries, you can't beat the performance of a plain old loop
+      // in combination with the interval approach.
+      for (SootClass c : impl) {
+        Interval interval = classToInterval.get(c);
+        if (interval != null && interval.isSubrange(childInterval)) {
+          return true;
         }
-        return false;
       }
+      return false;
     }
   }
 
@@ -868,7 +939,7 @@ public class FastHierarchy {
     }
 
     {
-      SootMethod resolvedMethod = typeToVtbl.get(baseType, methodSignature);
+      SootMethod resolvedMethod = typeToVtbl.getIfPresent(new Pair<SootClass, NumberedString>(baseType, methodSignature));
       if (resolvedMethod != null) {
         return resolvedMethod;
       }
@@ -887,7 +958,7 @@ public class FastHierarchy {
           }
 
           if (!candidate.isAbstract()) {
-            typeToVtbl.put(baseType, methodSignature, candidate);
+            typeToVtbl.put(new Pair<SootClass, NumberedString>(baseType, methodSignature), candidate);
           }
           return candidate;
         }
@@ -936,7 +1007,7 @@ public class FastHierarchy {
     }
 
     if (candidate != null) {
-      typeToVtbl.put(baseType, methodSignature, candidate);
+      typeToVtbl.put(new Pair<SootClass, NumberedString>(baseType, methodSignature), candidate);
     }
     return candidate;
   }
@@ -37,6 +37,7 @@ import soot.dava.internal.SET.SETBasicBlock;
 import soot.dava.internal.SET.SETNode;
 import soot.dexpler.DalvikThrowAnalysis;
 import soot.jimple.spark.pag.MethodPAG;
+import soot.jimple.spark.pag.PAG;
 import soot.jimple.spark.pag.Parm;
 import soot.jimple.spark.sets.P2SetFactory;
 import soot.jimple.toolkits.annotation.arraycheck.Array2ndDimensionSymbol;
@@ -60,6 +61,11 @@ public class G extends Singletons {
   }
 
   public static void reset() {
+    // Close the off-heap storage of the points-to sets, which the garbage collector would only free eventually
+    final PAG pag = objectGetter.getG().Scene_pointsToGraph;
+    if (pag != null) {
+      pag.release();
+    }
     objectGetter.reset();
   }
 
@@ -98,6 +104,10 @@ public class G extends Singletons {
   public HashMap<SETNode, SETBasicBlock> SETBasicBlock_binding = new HashMap<SETNode, SETBasicBlock>();
   public boolean ASTAnalysis_modified;
   public NativeHelper NativeHelper_helper = null;
+  /**
+   * The PAG behind the active points-to analysis of the {@link Scene}, which is released when it is replaced.
+   */
+  public PAG Scene_pointsToGraph;
   public P2SetFactory newSetFactory;
   public P2SetFactory oldSetFactory;
   public Map<Pair<SootMethod, Integer>, Parm> Parm_pairToElement = new HashMap<Pair<SootMethod, Integer>, Parm>();
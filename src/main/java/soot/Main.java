@@ -25,6 +25,7 @@ package soot;
 import static java.net.URLEncoder.encode;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -275,6 +276,19 @@ public class Main {
         Timers.v().printProfilingInformation();
       }
 
+      if (SoftBodies.v().isEnabled()) {
+        SoftBodies.v().printStatistics();
+      }
+
+      final String telemetryFile = Options.v().phase_telemetry();
+      if (!telemetryFile.isEmpty()) {
+        try {
+          PhaseTelemetry.v().writeJson(new File(telemetryFile));
+        } catch (IOException e) {
+          throw new CompilationDeathException("Cannot write phase telemetry to " + telemetryFile, e);
+        }
+      }
+
     } catch (CompilationDeathException e) {
       Timers.v().totalTimer.end();
       if (e.getStatus() != CompilationDeathException.COMPILATION_SUCCEEDED) {
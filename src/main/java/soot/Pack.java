@@ -115,7 +115,10 @@ public abstract class Pack implements HasPhaseOptions, Iterable<Transform> {
     if (!PhaseOptions.getBoolean(options, "enabled")) {
       return;
     }
+    final PhaseTelemetry telemetry = PhaseTelemetry.v();
+    final PhaseTelemetry.Sample sample = telemetry.start(name);
     internalApply();
+    telemetry.end(sample, 0);
   }
 
   public final void apply(Body b) {
@@ -123,7 +126,10 @@ public abstract class Pack implements HasPhaseOptions, Iterable<Transform> {
     if (!PhaseOptions.getBoolean(options, "enabled")) {
       return;
     }
+    final PhaseTelemetry telemetry = PhaseTelemetry.v();
+    final PhaseTelemetry.Sample sample = telemetry.start(name);
     internalApply(b);
+    telemetry.end(sample, 1);
   }
 
   @Override
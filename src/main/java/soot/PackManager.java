@@ -24,6 +24,7 @@ package soot;
 
 import heros.solver.CountingThreadPoolExecutor;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -68,6 +69,7 @@ import soot.grimp.Grimp;
 import soot.grimp.GrimpBody;
 import soot.grimp.toolkits.base.ConstructorFolder;
 import soot.jimple.JimpleBody;
+import soot.jimple.cache.SceneImage;
 import soot.jimple.paddle.PaddleHook;
 import soot.jimple.spark.SparkTransformer;
 import soot.jimple.spark.fieldrw.FieldTagAggregator;
@@ -138,6 +140,7 @@ import soot.toolkits.scalar.LocalSplitter;
 import soot.toolkits.scalar.SharedInitializationLocalSplitter;
 import soot.toolkits.scalar.UnusedLocalEliminator;
 import soot.util.EscapedWriter;
+import soot.util.JarEntryWriter;
 import soot.util.JasminOutputStream;
 import soot.util.PhaseDumper;
 import soot.xml.TagCollector;
@@ -154,6 +157,8 @@ public class PackManager {
   private final List<Pack> packList = new LinkedList<Pack>();
   private boolean onlyStandardPacks = false;
   private JarOutputStream jarFile = null;
+  private JarEntryWriter jarWriter = null;
+  private boolean outputStreamed = false;
   protected DexPrinter dexPrinter = null;
 
   public PackManager(Singletons.Global g) {
@@ -499,6 +504,13 @@ public class PackManager {
     if (Options.v().whole_program() || Options.v().whole_shimple()) {
       runWholeProgramPacks();
     }
+    if (Options.v().streaming_output()) {
+      if (canStreamOutput()) {
+        runBodyPacksAndStreamOutput();
+        return;
+      }
+      logger.warn("Streaming output is not supported for this output format or in interactive mode, ignoring it.");
+    }
     retrieveAllBodies();
 
     // Create tags from all values we only have in code assignments now
@@ -558,7 +570,15 @@ public class PackManager {
     return jarFile;
   }
 
+  /**
+   * Writes the application classes in the selected output format. Does nothing if the classes have already been written
+   * by {@link #runPacks()} because <code>-streaming-output</code> is enabled.
+   */
   public void writeOutput() {
+    if (outputStreamed) {
+      outputStreamed = false;
+      return;
+    }
     setupJAR();
     if (Options.v().verbose()) {
       PhaseDumper.v().dumpBefore("output");
@@ -615,8 +635,11 @@ public class PackManager {
       getPack("wstp").apply();
       getPack("wsop").apply();
     } else {
-      getPack("wjpp").apply();
-      getPack("cg").apply();
+      if (!SceneImage.v().isRestored()) {
+        getPack("wjpp").apply();
+        getPack("cg").apply();
+        SceneImage.v().saveFromOptions();
+      }
       getPack("wjtp").apply();
       getPack("wjop").apply();
       getPack("wjap").apply();
@@ -662,9 +685,15 @@ public class PackManager {
     CountingThreadPoolExecutor executor
         = new CountingThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
 
+    final boolean softBodies = SoftBodies.v().isEnabled();
     while (classes.hasNext()) {
       final SootClass c = classes.next();
-      executor.execute(() -> runBodyPacks(c));
+      executor.execute(() -> {
+        runBodyPacks(c);
+        if (softBodies) {
+          softenBodies(c);
+        }
+      });
     }
 
     // Wait till all packs have been executed
@@ -687,6 +716,139 @@ public class PackManager {
     }
   }
 
+  private boolean canStreamOutput() {
+    return Options.v().output_format() != Options.output_format_dava && !Options.v().interactive_mode()
+        && !soot.jbco.Main.metrics;
+  }
+
+  /**
+   * Runs the body packs on the application classes and writes each class as soon as its packs have finished, instead of
+   * retrieving all bodies up front and writing the output afterwards. Bodies are only retrieved by the class that is being
+   * transformed and are released once it has been written, so the bodies in memory are bounded by the classes in flight.
+   * As with the parallel body packs, this assumes that the body packs of a class do not use the bodies of other classes. In
+   * whole-program mode, the bodies carry the changes of the whole-program packs, which would be lost if a released body was
+   * re-created from its source, so they are only released once all classes have been written, as without streaming.
+   * Entries for an output jar are serialized in memory and written by a dedicated thread, whose bounded queue blocks the
+   * workers when writing falls behind.
+   */
+  private void runBodyPacksAndStreamOutput() {
+    int threadNum = Options.v().num_threads();
+    if (threadNum < 1) {
+      threadNum = Runtime.getRuntime().availableProcessors();
+    }
+    final int format = Options.v().output_format();
+    final boolean releaseBodies = !Options.v().no_writeout_body_releasing();
+    final boolean releaseEarly = releaseBodies && !Options.v().whole_program() && !Options.v().whole_shimple();
+
+    if (format == Options.output_format_dex || format == Options.output_format_force_dex) {
+      dexPrinter = new DexPrinter();
+    } else if (Options.v().output_jar() && format != Options.output_format_none) {
+      String outFileName = SourceLocator.v().getOutputJarName();
+      try {
+        jarWriter = new JarEntryWriter(new FileOutputStream(outFileName), 2 * threadNum);
+      } catch (IOException e) {
+        throw new CompilationDeathException("Cannot open output Jar file " + outFileName, e);
+      }
+    }
+
+    CountingThreadPoolExecutor executor
+        = new CountingThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    for (Iterator<SootClass> classes = reachableClasses(); classes.hasNext();) {
+      final SootClass c = classes.next();
+      executor.execute(() -> runBodyPacksAndStreamClass(c, releaseEarly));
+    }
+
+    // Wait till all classes have been transformed and written
+    try {
+      executor.awaitCompletion();
+      executor.shutdown();
+    } catch (InterruptedException e) {
+      // Something went horribly wrong
+      throw new RuntimeException("Could not wait for pack threads to finish: " + e.getMessage(), e);
+    }
+
+    try {
+      if (jarWriter != null) {
+        jarWriter.close();
+      }
+    } catch (IOException e) {
+      throw new CompilationDeathException("Error writing output jar", e);
+    } finally {
+      jarWriter = null;
+    }
+
+    // If something went wrong, we tell the world
+    Throwable exception = executor.getException();
+    if (exception != null) {
+      if (exception instanceof RuntimeException) {
+        throw (RuntimeException) exception;
+      } else {
+        throw new RuntimeException(exception);
+      }
+    }
+
+    if (dexPrinter != null) {
+      dexPrinter.print();
+      dexPrinter = null;
+    }
+    if (releaseBodies && !releaseEarly) {
+      releaseBodies(reachableClasses());
+    }
+    outputStreamed = true;
+  }
+
+  private void runBodyPacksAndStreamClass(SootClass c, boolean releaseBodies) {
+    if (Options.v().validate()) {
+      c.validate();
+    }
+    if (!c.isPhantom) {
+      ConstantInitializerToTagTransformer.v().transformClass(c, true);
+    }
+    runBodyPacks(c);
+    // Without streaming, the inner class attributes are aggregated once the body packs of all classes have finished
+    InnerClassTagAggregator.v().transformClass(c);
+
+    final int format = Options.v().output_format();
+    if (format == Options.output_format_dex || format == Options.output_format_force_dex) {
+      synchronized (dexPrinter) {
+        dexPrinter.add(c);
+      }
+    } else if (format == Options.output_format_class && !Options.v().jasmin_backend()) {
+      streamClass(c);
+    } else {
+      // the printers keep shared state
+      synchronized (this) {
+        streamClass(c);
+      }
+    }
+
+    if (releaseBodies) {
+      releaseBodies(c);
+    }
+  }
+
+  private void streamClass(SootClass c) {
+    if (jarWriter == null) {
+      writeClass(c);
+    } else {
+      final int format = Options.v().output_format();
+      if (format == Options.output_format_jimple && !c.isPhantom) {
+        ConstantValueToInitializerTransformer.v().transformClass(c);
+      }
+      String fileName = getOutputFileName(c, format);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      printClass(c, format, out, fileName);
+      try {
+        jarWriter.write(fileName, out.toByteArray());
+      } catch (IOException e) {
+        throw new CompilationDeathException("Cannot output file " + fileName, e);
+      }
+    }
+    if (Options.v().xml_attributes() && Options.v().output_format() == Options.output_format_jimple) {
+      processXMLForClass(c);
+    }
+  }
+
   private void handleInnerClasses() {
     InnerClassTagAggregator.v().internalTransform("", null);
   }
@@ -1082,17 +1244,10 @@ public class PackManager {
         break;
     }
 
-    String fileName = SourceLocator.v().getFileNameFor(c, format);
-    if (Options.v().gzip()) {
-      fileName = fileName + ".gz";
-    }
-
-    OutputStream streamOut = null;
-    PrintWriter writerOut = null;
+    String fileName = getOutputFileName(c, format);
+    OutputStream streamOut;
     try {
       if (jarFile != null) {
-        // Fix path delimiters according to ZIP specification
-        fileName = fileName.replace("\\", "/");
         JarEntry entry = new JarEntry(fileName);
         entry.setMethod(ZipEntry.DEFLATED);
         jarFile.putNextEntry(entry);
@@ -1101,19 +1256,55 @@ public class PackManager {
         new File(fileName).getParentFile().mkdirs();
         streamOut = new FileOutputStream(fileName);
       }
+      logger.debug("Writing to " + fileName);
+    } catch (IOException e) {
+      throw new CompilationDeathException("Cannot output file " + fileName, e);
+    }
+
+    printClass(c, format, streamOut, fileName);
+
+    try {
+      if (jarFile == null) {
+        streamOut.close();
+      } else {
+        jarFile.closeEntry();
+      }
+    } catch (IOException e) {
+      throw new CompilationDeathException("Cannot close output file " + fileName);
+    }
+  }
+
+  private String getOutputFileName(SootClass c, int format) {
+    String fileName = SourceLocator.v().getFileNameFor(c, format);
+    if (Options.v().gzip()) {
+      fileName = fileName + ".gz";
+    }
+    if (jarFile != null || jarWriter != null) {
+      // Fix path delimiters according to ZIP specification
+      fileName = fileName.replace("\\", "/");
+    }
+    return fileName;
+  }
+
+  /**
+   * Prints the given class in the given output format to the given stream, which is flushed but not closed.
+   */
+  private void printClass(SootClass c, int format, OutputStream out, String fileName) {
+    OutputStream streamOut = out;
+    GZIPOutputStream gzipOut = null;
+    try {
       if (Options.v().gzip()) {
-        streamOut = new GZIPOutputStream(streamOut);
+        streamOut = gzipOut = new GZIPOutputStream(streamOut);
       }
       if (format == Options.output_format_class) {
         if (Options.v().jasmin_backend()) {
           streamOut = new JasminOutputStream(streamOut);
         }
       }
-      writerOut = new PrintWriter(new OutputStreamWriter(streamOut));
-      logger.debug("Writing to " + fileName);
     } catch (IOException e) {
       throw new CompilationDeathException("Cannot output file " + fileName, e);
     }
+    PrintWriter writerOut = new PrintWriter(new OutputStreamWriter(streamOut));
 
     if (Options.v().xml_attributes()) {
       Printer.v().setOption(Printer.ADD_JIMPLE_LN);
@@ -1159,11 +1350,8 @@ public class PackManager {
 
     try {
       writerOut.flush();
-      if (jarFile == null) {
-        streamOut.close();
-        writerOut.close();
-      } else {
-        jarFile.closeEntry();
+      if (gzipOut != null) {
+        gzipOut.finish();
       }
     } catch (IOException e) {
       throw new CompilationDeathException("Cannot close output file " + fileName);
@@ -1234,12 +1422,23 @@ public class PackManager {
     }
   }
 
+  /**
+   * Lets the garbage collector release the bodies of the given class under memory pressure, see
+   * {@link SootMethod#softenActiveBody()}.
+   */
+  private void softenBodies(SootClass cl) {
+    for (SootMethod m : new ArrayList<SootMethod>(cl.getMethods())) {
+      m.softenActiveBody();
+    }
+  }
+
   private void retrieveAllBodies() {
     // The old coffi front-end is not thread-safe
     int threadNum = Options.v().coffi() ? 1 : Runtime.getRuntime().availableProcessors();
     CountingThreadPoolExecutor executor
         = new CountingThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
 
+    final boolean softBodies = SoftBodies.v().isEnabled();
     for (Iterator<SootClass> clIt = reachableClasses(); clIt.hasNext();) {
       SootClass cl = clIt.next();
       // note: the following is a snapshot iterator;
@@ -1247,7 +1446,17 @@ public class PackManager {
       // are added during resolution
       for (SootMethod m : new ArrayList<SootMethod>(cl.getMethods())) {
         if (m.isConcrete()) {
-          executor.execute(() -> m.retrieveActiveBody());
+          if (softBodies) {
+            // Bodies that have just been created can be re-derived from their method source
+            executor.execute(() -> {
+              if (!m.hasActiveBody()) {
+                m.retrieveActiveBody();
+                m.softenActiveBody(true);
+              }
+            });
+          } else {
+            executor.execute(() -> m.retrieveActiveBody());
+          }
         }
       }
     }
@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,8 +61,9 @@ public class PhaseOptions {
     return G.v().soot_PhaseOptions();
   }
 
+  // Body creation, which runs on several threads, may set options of the jb phases
   private final Map<HasPhaseOptions, Map<String, String>> phaseToOptionMap
-      = new HashMap<HasPhaseOptions, Map<String, String>>();
+      = new ConcurrentHashMap<HasPhaseOptions, Map<String, String>>();
 
   public Map<String, String> getPhaseOptions(String phaseName) {
     return getPhaseOptions(getPM().getPhase(phaseName));
@@ -139,11 +141,7 @@ public class PhaseOptions {
   }
 
   private Map<String, String> mapForPhase(HasPhaseOptions phase) {
-    Map<String, String> optionMap = phaseToOptionMap.get(phase);
-    if (optionMap == null) {
-      phaseToOptionMap.put(phase, optionMap = new HashMap<String, String>());
-    }
-    return optionMap;
+    return phaseToOptionMap.computeIfAbsent(phase, k -> new ConcurrentHashMap<String, String>());
   }
 
   private String getKey(String option) {
@@ -255,6 +253,6 @@ public class PhaseOptions {
     if (!declaresOption(phaseName, getKey(option))) {
       throw new RuntimeException("No option " + option + " for phase " + phaseName);
     }
-    optionMap.put(getKey(option), getValue(option));
+    optionMap.putIfAbsent(getKey(option), getValue(option));
   }
 }
@@ -0,0 +1,435 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.options.Options;
+
+/**
+ * Records wall-clock time, CPU time, allocated bytes and the number of bodies processed for every application of a
+ * {@link Pack} or {@link Transform}. Statistics are kept per phase and thread. They can be written as JSON and, on JVMs
+ * that ship Java Flight Recorder, emitted as <code>soot.Phase</code> events.
+ *
+ * Recording is switched on by the <code>-phase-telemetry</code> and <code>-phase-telemetry-jfr</code> options, or by
+ * {@link #setEnabled(boolean)}. CPU time and allocated bytes are reported as 0 if the JVM cannot measure them per thread.
+ */
+public class PhaseTelemetry {
+  private static final Logger logger = LoggerFactory.getLogger(PhaseTelemetry.class);
+
+  private final ConcurrentMap<String, ConcurrentMap<Long, PhaseStats>> phases
+      = new ConcurrentHashMap<String, ConcurrentMap<Long, PhaseStats>>();
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+  private final com.sun.management.ThreadMXBean allocations;
+  private final boolean cpuTimeSupported;
+  private volatile boolean enabled;
+  private volatile JfrSink jfr;
+  private boolean jfrInitialized;
+
+  public PhaseTelemetry(Singletons.Global g) {
+    this.cpuTimeSupported = threads.isThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+    com.sun.management.ThreadMXBean a = null;
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      a = (com.sun.management.ThreadMXBean) threads;
+      if (!a.isThreadAllocatedMemorySupported() || !a.isThreadAllocatedMemoryEnabled()) {
+        a = null;
+      }
+    }
+    this.allocations = a;
+  }
+
+  public static PhaseTelemetry v() {
+    return G.v().soot_PhaseTelemetry();
+  }
+
+  /** Returns whether phase applications are currently being recorded. */
+  public boolean isEnabled() {
+    if (enabled) {
+      return true;
+    }
+    Options opts = Options.v();
+    return !opts.phase_telemetry().isEmpty() || opts.phase_telemetry_jfr();
+  }
+
+  /** Enables recording regardless of the telemetry options. */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isCpuTimeSupported() {
+    return cpuTimeSupported;
+  }
+
+  public boolean isAllocationSupported() {
+    return allocations != null;
+  }
+
+  /**
+   * Starts measuring an application of the given phase on the current thread.
+   *
+   * @return the sample to pass to {@link #end(Sample, int)}, or <code>null</code> if recording is disabled
+   */
+  public Sample start(String phaseName) {
+    if (!isEnabled()) {
+      return null;
+    }
+    final long threadId = Thread.currentThread().getId();
+    JfrSink sink = jfrSink();
+    Object event = sink == null ? null : sink.begin();
+    return new Sample(phaseName, threadId, System.nanoTime(), cpuTime(), allocatedBytes(threadId), event);
+  }
+
+  /**
+   * Finishes the given sample, which must have been started on the current thread, and adds it to the statistics of its
+   * phase.
+   *
+   * @param bodies
+   *          the number of method bodies the phase processed
+   */
+  public void end(Sample sample, int bodies) {
+    if (sample == null) {
+      return;
+    }
+    final long wall = System.nanoTime() - sample.wallStart;
+    final long cpu = cpuTimeSupported ? cpuTime() - sample.cpuStart : 0;
+    final long allocated = allocations != null ? allocatedBytes(sample.threadId) - sample.allocatedStart : 0;
+    stats(sample.phaseName, sample.threadId).add(wall, cpu, allocated, bodies);
+    if (sample.event != null) {
+      jfr.commit(sample.event, sample.phaseName, bodies, cpu, allocated);
+    }
+  }
+
+  private PhaseStats stats(String phaseName, long threadId) {
+    ConcurrentMap<Long, PhaseStats> perThread = phases.get(phaseName);
+    if (perThread == null) {
+      ConcurrentMap<Long, PhaseStats> m = new ConcurrentHashMap<Long, PhaseStats>();
+      perThread = phases.putIfAbsent(phaseName, m);
+      if (perThread == null) {
+        perThread = m;
+      }
+    }
+    PhaseStats s = perThread.get(threadId);
+    if (s == null) {
+      // only the thread itself creates and updates its entry
+      s = new PhaseStats(phaseName, threadId);
+      perThread.put(threadId, s);
+    }
+    return s;
+  }
+
+  private long cpuTime() {
+    return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : 0;
+  }
+
+  private long allocatedBytes(long threadId) {
+    return allocations != null ? allocations.getThreadAllocatedBytes(threadId) : 0;
+  }
+
+  private JfrSink jfrSink() {
+    if (!Options.v().phase_telemetry_jfr()) {
+      return null;
+    }
+    synchronized (this) {
+      if (!jfrInitialized) {
+        jfr = JfrSink.create();
+        jfrInitialized = true;
+      }
+      return jfr;
+    }
+  }
+
+  /** Discards all statistics recorded so far. */
+  public void reset() {
+    phases.clear();
+  }
+
+  /**
+   * Returns the statistics recorded so far, one entry per phase and thread, ordered by phase name and thread id.
+   */
+  public List<PhaseStats> getStatistics() {
+    List<PhaseStats> result = new ArrayList<PhaseStats>();
+    for (ConcurrentMap<Long, PhaseStats> perThread : phases.values()) {
+      for (PhaseStats s : perThread.values()) {
+        result.add(s.copy());
+      }
+    }
+    Collections.sort(result, new Comparator<PhaseStats>() {
+      @Override
+      public int compare(PhaseStats o1, PhaseStats o2) {
+        int c = o1.getPhaseName().compareTo(o2.getPhaseName());
+        return c != 0 ? c : Long.compare(o1.getThreadId(), o2.getThreadId());
+      }
+    });
+    return result;
+  }
+
+  /** Writes the statistics recorded so far as JSON to the given file. */
+  public void writeJson(File file) throws IOException {
+    File parent = file.getAbsoluteFile().getParentFile();
+    if (parent != null) {
+      parent.mkdirs();
+    }
+    try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+      writeJson(out);
+    }
+  }
+
+  /**
+   * Writes the statistics recorded so far as JSON. Every phase has its totals over all threads, followed by a
+   * <code>threads</code> array with the same counters for each thread that applied it. Times are in nanoseconds.
+   */
+  public void writeJson(Writer out) throws IOException {
+    out.write("{\n  \"cpuTimeSupported\": " + cpuTimeSupported + ",\n");
+    out.write("  \"allocationSupported\": " + (allocations != null) + ",\n");
+    out.write("  \"phases\": [");
+    List<PhaseStats> all = getStatistics();
+    for (int i = 0; i < all.size();) {
+      String phaseName = all.get(i).getPhaseName();
+      PhaseStats total = new PhaseStats(phaseName, -1);
+      int j = i;
+      for (; j < all.size() && all.get(j).getPhaseName().equals(phaseName); j++) {
+        total.add(all.get(j));
+      }
+      out.write(i == 0 ? "\n    {" : ",\n    {");
+      out.write("\"phase\": ");
+      writeString(out, phaseName);
+      out.write(", ");
+      writeCounters(out, total);
+      out.write(", \"threads\": [");
+      for (int k = i; k < j; k++) {
+        out.write(k == i ? "\n      {" : ",\n      {");
+        out.write("\"threadId\": " + all.get(k).getThreadId() + ", ");
+        writeCounters(out, all.get(k));
+        out.write("}");
+      }
+      out.write("\n    ]}");
+      i = j;
+    }
+    out.write("\n  ]\n}\n");
+  }
+
+  private static void writeCounters(Writer out, PhaseStats s) throws IOException {
+    out.write("\"invocations\": " + s.getInvocations());
+    out.write(", \"bodies\": " + s.getBodies());
+    out.write(", \"wallNanos\": " + s.getWallNanos());
+    out.write(", \"maxWallNanos\": " + s.getMaxWallNanos());
+    out.write(", \"cpuNanos\": " + s.getCpuNanos());
+    out.write(", \"allocatedBytes\": " + s.getAllocatedBytes());
+  }
+
+  private static void writeString(Writer out, String s) throws IOException {
+    out.write('"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c == '"' || c == '\\') {
+        out.write('\\');
+        out.write(c);
+      } else if (c < 0x20) {
+        out.write(String.format("\\u%04x", (int) c));
+      } else {
+        out.write(c);
+      }
+    }
+    out.write('"');
+  }
+
+  /** An application of a phase that is being measured. */
+  public static final class Sample {
+    final String phaseName;
+    final long threadId;
+    final long wallStart;
+    final long cpuStart;
+    final long allocatedStart;
+    final Object event;
+
+    Sample(String phaseName, long threadId, long wallStart, long cpuStart, long allocatedStart, Object event) {
+      this.phaseName = phaseName;
+      this.threadId = threadId;
+      this.wallStart = wallStart;
+      this.cpuStart = cpuStart;
+      this.allocatedStart = allocatedStart;
+      this.event = event;
+    }
+  }
+
+  /** Accumulated counters of one phase on one thread. */
+  public static final class PhaseStats {
+    private final String phaseName;
+    private final long threadId;
+    private long invocations;
+    private long bodies;
+    private long wallNanos;
+    private long maxWallNanos;
+    private long cpuNanos;
+    private long allocatedBytes;
+
+    PhaseStats(String phaseName, long threadId) {
+      this.phaseName = phaseName;
+      this.threadId = threadId;
+    }
+
+    synchronized void add(long wall, long cpu, long allocated, int bodies) {
+      this.invocations++;
+      this.bodies += bodies;
+      this.wallNanos += wall;
+      this.maxWallNanos = Math.max(maxWallNanos, wall);
+      this.cpuNanos += cpu;
+      this.allocatedBytes += allocated;
+    }
+
+    void add(PhaseStats other) {
+      this.invocations += other.invocations;
+      this.bodies += other.bodies;
+      this.wallNanos += other.wallNanos;
+      this.maxWallNanos = Math.max(maxWallNanos, other.maxWallNanos);
+      this.cpuNanos += other.cpuNanos;
+      this.allocatedBytes += other.allocatedBytes;
+    }
+
+    synchronized PhaseStats copy() {
+      PhaseStats s = new PhaseStats(phaseName, threadId);
+      s.add(this);
+      return s;
+    }
+
+    public String getPhaseName() {
+      return phaseName;
+    }
+
+    public long getThreadId() {
+      return threadId;
+    }
+
+    public long getInvocations() {
+      return invocations;
+    }
+
+    public long getBodies() {
+      return bodies;
+    }
+
+    public long getWallNanos() {
+      return wallNanos;
+    }
+
+    public long getMaxWallNanos() {
+      return maxWallNanos;
+    }
+
+    public long getCpuNanos() {
+      return cpuNanos;
+    }
+
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+  }
+
+  /**
+   * Emits <code>soot.Phase</code> events through <code>jdk.jfr.EventFactory</code>. The JFR API is only accessed
+   * reflectively, so that Soot keeps building and running on Java 8 JVMs without it.
+   */
+  private static final class JfrSink {
+    private final Object factory;
+    private final Method newEvent;
+    private final Method begin;
+    private final Method end;
+    private final Method set;
+    private final Method commit;
+
+    private JfrSink(Object factory, Method newEvent, Method begin, Method end, Method set, Method commit) {
+      this.factory = factory;
+      this.newEvent = newEvent;
+      this.begin = begin;
+      this.end = end;
+      this.set = set;
+      this.commit = commit;
+    }
+
+    static JfrSink create() {
+      try {
+        Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+        Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+        Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+        Class<?> event = Class.forName("jdk.jfr.Event");
+        Constructor<?> ae = annotationElement.getConstructor(Class.class, Object.class);
+        List<Object> annotations = Arrays.asList(ae.newInstance(Class.forName("jdk.jfr.Name"), "soot.Phase"),
+            ae.newInstance(Class.forName("jdk.jfr.Label"), "Soot Phase"),
+            ae.newInstance(Class.forName("jdk.jfr.Category"), new String[] { "Soot" }));
+        Constructor<?> vd = valueDescriptor.getConstructor(Class.class, String.class);
+        // field order must match the indices used in commit()
+        List<Object> fields = Arrays.asList(vd.newInstance(String.class, "phase"), vd.newInstance(int.class, "bodies"),
+            vd.newInstance(long.class, "cpuNanos"), vd.newInstance(long.class, "allocatedBytes"));
+        Object factory = eventFactory.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+        return new JfrSink(factory, eventFactory.getMethod("newEvent"), event.getMethod("begin"), event.getMethod("end"),
+            event.getMethod("set", int.class, Object.class), event.getMethod("commit"));
+      } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+        logger.warn("Java Flight Recorder is not available, phase telemetry is not emitted as JFR events: " + e);
+        return null;
+      }
+    }
+
+    Object begin() {
+      try {
+        Object event = newEvent.invoke(factory);
+        begin.invoke(event);
+        return event;
+      } catch (ReflectiveOperationException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    void commit(Object event, String phaseName, int bodies, long cpuNanos, long allocatedBytes) {
+      try {
+        end.invoke(event);
+        set.invoke(event, 0, phaseName);
+        set.invoke(event, 1, bodies);
+        set.invoke(event, 2, cpuNanos);
+        set.invoke(event, 3, allocatedBytes);
+        commit.invoke(event);
+      } catch (ReflectiveOperationException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
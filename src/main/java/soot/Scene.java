@@ -60,10 +60,13 @@ import soot.dotnet.exceptiontoolkits.DotnetThrowAnalysis;
 import soot.dotnet.members.DotnetMethod;
 import soot.dotnet.types.DotnetBasicTypes;
 import soot.javaToJimple.DefaultLocalGenerator;
+import soot.jimple.cache.SceneImage;
 import soot.jimple.spark.internal.ClientAccessibilityOracle;
 import soot.jimple.spark.internal.PublicAndProtectedAccessibility;
+import soot.jimple.spark.pag.PAG;
 import soot.jimple.spark.pag.SparkField;
 import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.CompactCallGraph;
 import soot.jimple.toolkits.callgraph.ContextSensitiveCallGraph;
 import soot.jimple.toolkits.callgraph.ReachableMethods;
 import soot.jimple.toolkits.pointer.DumbPointerAnalysis;
@@ -117,8 +120,9 @@ public class Scene {
   protected IterableNumberer<Local> localNumberer;
   protected Numberer<Context> contextNumberer;
 
-  protected Hierarchy activeHierarchy;
-  protected FastHierarchy activeFastHierarchy;
+  // Read without locking by the worker threads of the body packs; only replaced while holding the Scene monitor
+  protected volatile Hierarchy activeHierarchy;
+  protected volatile FastHierarchy activeFastHierarchy;
   protected SideEffectAnalysis activeSideEffectAnalysis;
   protected PointsToAnalysis activePointsToAnalysis;
   protected CallGraph activeCallGraph;
@@ -816,6 +820,9 @@ public class Scene {
   protected synchronized void modifyHierarchy() {
     this.stateCount++;
     this.activeHierarchy = null;
+    if (this.activeFastHierarchy != null) {
+      this.activeFastHierarchy.invalidateMemos();
+    }
     this.activeFastHierarchy = null;
     this.activeSideEffectAnalysis = null;
     this.activePointsToAnalysis = null;
@@ -1202,13 +1209,10 @@ public class Scene {
   public SootClass getSootClassUnsafe(String className, boolean phantomNonExist) {
     RefType type = nameToClass.get(className);
     if (type != null) {
-      synchronized (type) {
-        if (type.hasSootClass()) {
-          SootClass tsc = type.getSootClass();
-          if (tsc != null) {
-            return tsc;
-          }
-        }
+      // RefType.sootClass is volatile, so the common case of an existing class needs no lock
+      SootClass tsc = type.sootClass;
+      if (tsc != null) {
+        return tsc;
       }
     }
 
@@ -1319,8 +1323,20 @@ public class Scene {
     return temp;
   }
 
-  /** Sets the active pointer analysis */
+  /**
+   * Sets the active pointer analysis. If the given analysis is a {@link PAG} other than the one set before, the previous PAG
+   * is released, see {@link PAG#release()}. Analyses that are not a PAG, such as the demand-driven refinement of a PAG, may
+   * still use it, so it is kept in that case.
+   */
   public void setPointsToAnalysis(PointsToAnalysis pa) {
+    if (pa instanceof PAG) {
+      final G g = G.v();
+      final PAG previous = g.Scene_pointsToGraph;
+      if (previous != null && previous != pa) {
+        previous.release();
+      }
+      g.Scene_pointsToGraph = (PAG) pa;
+    }
     activePointsToAnalysis = pa;
   }
 
@@ -1329,6 +1345,12 @@ public class Scene {
   }
 
   public void releasePointsToAnalysis() {
+    final G g = G.v();
+    final PAG pag = g.Scene_pointsToGraph;
+    if (pag != null) {
+      pag.release();
+      g.Scene_pointsToGraph = null;
+    }
     activePointsToAnalysis = null;
   }
 
@@ -1355,18 +1377,27 @@ public class Scene {
   }
 
   /** ************************************************************************* */
-  /** Makes a new fast hierarchy is none is active, and returns the active fast hierarchy. */
-  public synchronized FastHierarchy getOrMakeFastHierarchy() {
+  /**
+   * Makes a new fast hierarchy is none is active, and returns the active fast hierarchy. Once built, the fast hierarchy is
+   * only read (its memoization tables are concurrent), so concurrent callers share the published instance without locking
+   * until the class hierarchy is modified.
+   */
+  public FastHierarchy getOrMakeFastHierarchy() {
     FastHierarchy temp = this.activeFastHierarchy;
     if (temp == null) {
-      temp = new FastHierarchy();
-      this.activeFastHierarchy = temp;
+      synchronized (this) {
+        temp = this.activeFastHierarchy;
+        if (temp == null) {
+          temp = new FastHierarchy();
+          this.activeFastHierarchy = temp;
+        }
+      }
     }
     return temp;
   }
 
   /** Retrieves the active fast hierarchy */
-  public synchronized FastHierarchy getFastHierarchy() {
+  public FastHierarchy getFastHierarchy() {
     FastHierarchy temp = this.activeFastHierarchy;
     if (temp == null) {
       throw new RuntimeException("no active FastHierarchy present for scene");
@@ -1379,7 +1410,7 @@ public class Scene {
     activeFastHierarchy = hierarchy;
   }
 
-  public synchronized boolean hasFastHierarchy() {
+  public boolean hasFastHierarchy() {
     return activeFastHierarchy != null;
   }
 
@@ -1389,11 +1420,16 @@ public class Scene {
 
   /** ************************************************************************* */
   /** Retrieves the active hierarchy */
-  public synchronized Hierarchy getActiveHierarchy() {
+  public Hierarchy getActiveHierarchy() {
     Hierarchy temp = this.activeHierarchy;
     if (temp == null) {
-      temp = new Hierarchy();
-      this.activeHierarchy = temp;
+      synchronized (this) {
+        temp = this.activeHierarchy;
+        if (temp == null) {
+          temp = new Hierarchy();
+          this.activeHierarchy = temp;
+        }
+      }
     }
     return temp;
   }
@@ -1403,7 +1439,7 @@ public class Scene {
     activeHierarchy = hierarchy;
   }
 
-  public synchronized boolean hasActiveHierarchy() {
+  public boolean hasActiveHierarchy() {
     return activeHierarchy != null;
   }
 
@@ -1949,6 +1985,9 @@ public class Scene {
    * initialising the list of classes soot should use.
    */
   public void loadNecessaryClasses() {
+    if (SceneImage.v().restoreFromOptions()) {
+      return;
+    }
     loadBasicClasses();
 
     final Options opts = Options.v();
@@ -2242,6 +2281,9 @@ public class Scene {
    * @return A new callgraph empty object
    */
   public CallGraph internalMakeCallGraph() {
+    if (new CGOptions(PhaseOptions.v().getPhaseOptions("cg")).compact_storage()) {
+      return new CompactCallGraph();
+    }
     return new CallGraph();
   }
 
@@ -0,0 +1,196 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.jimple.JimpleBody;
+import soot.jimple.cache.JimpleBodyReader;
+import soot.jimple.cache.JimpleBodyWriter;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.options.Options;
+
+/**
+ * Support for the <code>-soft-bodies</code> option. A softened body is only held through a {@link SoftReference}, so the
+ * garbage collector may release it when the heap fills up. When the body is accessed again after it has been released, it
+ * is re-materialized either from the method source, if it has not been modified since the <code>jb</code> pack created
+ * it, or from a compact serialized snapshot taken when it was softened. Bodies that can be neither re-derived nor
+ * serialized stay pinned.
+ *
+ * In whole-program mode, results such as the call graph or points-to sets refer to the statements and locals of the
+ * bodies, which a re-materialized body does not share. While the Scene holds a call graph, only the bodies of methods
+ * without call edges that are not entry points are softened there; the other bodies are softened once the call graph has
+ * been released with {@link Scene#releaseCallGraph()}.
+ */
+public class SoftBodies {
+  private static final Logger logger = LoggerFactory.getLogger(SoftBodies.class);
+
+  private final AtomicLong softened = new AtomicLong();
+  private final AtomicLong pinned = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong fromSource = new AtomicLong();
+  private final AtomicLong fromSnapshot = new AtomicLong();
+
+  public SoftBodies(Singletons.Global g) {
+  }
+
+  public static SoftBodies v() {
+    return G.v().soot_SoftBodies();
+  }
+
+  /**
+   * Returns true if bodies may be released under memory pressure.
+   */
+  public boolean isEnabled() {
+    return Options.v().soft_bodies();
+  }
+
+  /**
+   * Returns true if the body of the given method may be softened, which is not the case in whole-program mode while the
+   * call graph may refer to its statements or a points-to analysis to its locals.
+   */
+  boolean canSoften(SootMethod m) {
+    if (!Options.v().whole_program()) {
+      return true;
+    }
+    final Scene scene = Scene.v();
+    if (!scene.hasCallGraph()) {
+      return true;
+    }
+    final CallGraph cg = scene.getCallGraph();
+    return !cg.edgesOutOf(m).hasNext() && !cg.edgesInto(m).hasNext() && !scene.getEntryPoints().contains(m);
+  }
+
+  /**
+   * A softly held body together with what is needed to re-create it.
+   */
+  static final class Handle {
+    final SoftReference<Body> body;
+    /** Serialized body, or <code>null</code> if the body is re-derived from the method source. */
+    final byte[] snapshot;
+
+    Handle(Body body, byte[] snapshot) {
+      this.body = new SoftReference<Body>(body);
+      this.snapshot = snapshot;
+    }
+  }
+
+  /**
+   * Creates a handle for the given body. If <code>derivable</code> is set, the body is known to be exactly what the method
+   * source produces and no snapshot is taken. Returns <code>null</code> if the body must stay pinned.
+   */
+  Handle soften(SootMethod m, Body body, boolean derivable) {
+    byte[] snapshot = null;
+    if (!derivable) {
+      if (!(body instanceof JimpleBody)) {
+        pinned.incrementAndGet();
+        return null;
+      }
+      snapshot = JimpleBodyWriter.toByteArray((JimpleBody) body, m.getSubSignature());
+      if (snapshot == null) {
+        logger.debug("Keeping body of " + m.getSignature() + " pinned, it cannot be serialized");
+        pinned.incrementAndGet();
+        return null;
+      }
+    }
+    softened.incrementAndGet();
+    return new Handle(body, snapshot);
+  }
+
+  /**
+   * Returns the body of the given handle, re-materializing it if it has been released. Must be called while holding the
+   * lock of the method.
+   */
+  Body materialize(SootMethod m, Handle h) {
+    Body body = h.body.get();
+    if (body != null) {
+      hits.incrementAndGet();
+      return body;
+    }
+    if (h.snapshot == null) {
+      if (m.getSource() == null) {
+        throw new RuntimeException("Cannot re-materialize the body of " + m.getSignature() + " without a method source");
+      }
+      fromSource.incrementAndGet();
+      return m.createBody();
+    }
+    try {
+      body = new JimpleBodyReader(new ByteArrayInputStream(h.snapshot)).read(m);
+    } catch (IOException e) {
+      throw new RuntimeException("Cannot re-materialize the body of " + m.getSignature(), e);
+    }
+    fromSnapshot.incrementAndGet();
+    return body;
+  }
+
+  /**
+   * Returns the number of bodies that have been softened.
+   */
+  public long getSoftenedCount() {
+    return softened.get();
+  }
+
+  /**
+   * Returns the number of bodies that stayed pinned because they could not be serialized.
+   */
+  public long getPinnedCount() {
+    return pinned.get();
+  }
+
+  /**
+   * Returns the number of accesses to softened bodies that had not been released yet.
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * Returns the number of released bodies that have been re-derived from their method source.
+   */
+  public long getRematerializedFromSourceCount() {
+    return fromSource.get();
+  }
+
+  /**
+   * Returns the number of released bodies that have been re-materialized from their snapshot.
+   */
+  public long getRematerializedFromSnapshotCount() {
+    return fromSnapshot.get();
+  }
+
+  /**
+   * Logs the counters.
+   */
+  public void printStatistics() {
+    logger.info("Soft bodies: " + getSoftenedCount() + " softened, " + getPinnedCount() + " pinned, " + getHitCount()
+        + " hits, " + getRematerializedFromSourceCount() + " re-derived from source, "
+        + getRematerializedFromSnapshotCount() + " restored from snapshot");
+  }
+}
@@ -37,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import soot.dava.DavaBody;
 import soot.dava.toolkits.base.renamer.RemoveFullyQualifiedName;
 import soot.dotnet.members.DotnetMethod;
+import soot.jimple.cache.JimpleBodyCache;
 import soot.options.Options;
 import soot.tagkit.AbstractHost;
 import soot.util.IterableSet;
@@ -99,6 +100,11 @@ public class SootMethod extends AbstractHost implements ClassMember, Numberable,
    */
   protected volatile Body activeBody;
 
+  /**
+   * Softly held body, see {@link #softenActiveBody()}. Only one of this and {@link #activeBody} is set.
+   */
+  private volatile SoftBodies.Handle softBody;
+
   /**
    * Tells this method how to find out where its body lives.
    */
@@ -370,6 +376,9 @@ public class SootMethod extends AbstractHost implements ClassMember, Numberable,
       if (activeBody != null) {
         return activeBody;
       }
+      if (softBody != null) {
+        return pinSoftBody();
+      }
 
       if (declaringClass != null) {
         declaringClass.checkLevel(SootClass.BODIES);
@@ -406,6 +415,7 @@ public class SootMethod extends AbstractHost implements ClassMember, Numberable,
     }
 
     this.activeBody = body;
+    this.softBody = null;
   }
 
   /**
@@ -431,6 +441,9 @@ public class SootMethod extends AbstractHost implements ClassMember, Numberable,
       if (activeBody != null) {
         return activeBody;
       }
+      if (softBody != null) {
+        return pinSoftBody();
+      }
 
       if (declaringClass != null) {
         declaringClass.checkLevel(SootClass.BODIES);
@@ -443,8 +456,7 @@ public class SootMethod extends AbstractHost implements ClassMember, Numberable,
         throw new RuntimeException("No method source set for method " + this);
       }
 
-      // Method sources are not expected to be thread safe
-      activeBody = ms.getBody(this, "jb");
+      activeBody = createBody();
       setActiveBody(activeBody);
 
       // If configured, we drop the method source to save memory
@@ -456,10 +468,41 @@ public class SootMethod extends AbstractHost implements ClassMember, Numberable,
   }
 
   /**
-   * Returns true if this method has an active body.
+   * Creates the body from the body cache or the method source, as produced by the <code>jb</code> pack. Must be called while
+   * holding the lock of this method.
+   */
+  Body createBody() {
+    Body body = null;
+    final JimpleBodyCache bodyCache = JimpleBodyCache.v();
+    if (bodyCache.isEnabled()) {
+      body = bodyCache.load(this);
+    }
+    if (body == null) {
+      // Method sources are not expected to be thread safe
+      body = ms.getBody(this, "jb");
+      if (body != null && bodyCache.isEnabled()) {
+        bodyCache.store(this, body);
+      }
+    }
+    return body;
+  }
+
+  /**
+   * Makes the softly held body the active body again, re-materializing it if it has been released. Must be called while
+   * holding the lock of this method.
+   */
+  private Body pinSoftBody() {
+    Body body = SoftBodies.v().materialize(this, softBody);
+    setActiveBody(body);
+    return body;
+  }
+
+  /**
+   * Returns true if this method has an active body. A softened body counts as active body, as it is re-materialized on
+   * access.
    */
   public boolean hasActiveBody() {
-    return activeBody != null;
+    return activeBody != null || softBody != null;
   }
 
   /**
@@ -467,6 +510,41 @@ public class SootMethod extends AbstractHost implements ClassMember, Numberable,
    */
   public synchronized void releaseActiveBody() {
     this.activeBody = null;
+    this.softBody = null;
+  }
+
+  /**
+   * Only holds on to the active body softly, so that it can be released under memory pressure, if the
+   * <code>-soft-bodies</code> option is set. The next call to {@link #getActiveBody()} or {@link #retrieveActiveBody()}
+   * pins the body again, re-materializing it from a snapshot taken now if it has been released. Callers must not keep
+   * modifying the body they obtained before softening it.
+   *
+   * @return true if the body is held softly
+   */
+  public synchronized boolean softenActiveBody() {
+    return softenActiveBody(false);
+  }
+
+  /**
+   * Like {@link #softenActiveBody()}, but with <code>derivable</code> set, the body is known to be unmodified since it has
+   * been created by {@link #createBody()} and is re-derived from the method source instead of a snapshot.
+   */
+  synchronized boolean softenActiveBody(boolean derivable) {
+    final Body body = this.activeBody;
+    if (body == null) {
+      return softBody != null;
+    }
+    final SoftBodies softBodies = SoftBodies.v();
+    if (!softBodies.isEnabled() || !softBodies.canSoften(this)) {
+      return false;
+    }
+    SoftBodies.Handle h = softBodies.soften(this, body, derivable && ms != null);
+    if (h == null) {
+      return false;
+    }
+    this.softBody = h;
+    this.activeBody = null;
+    return true;
   }
 
   /**
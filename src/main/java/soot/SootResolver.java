@@ -28,7 +28,17 @@ import java.io.InputStream;
 import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +57,9 @@ import soot.util.MultiMap;
 public class SootResolver {
   private static final Logger logger = LoggerFactory.getLogger(SootResolver.class);
 
+  /** Number of classes per thread that are read ahead of the resolving thread. */
+  private static final int PREFETCH_PER_THREAD = 4;
+
   /** Maps each resolved class to a list of all references in it. */
   protected MultiMap<SootClass, Type> classToTypesSignature = new ConcurrentHashMultiMap<SootClass, Type>();
 
@@ -57,6 +70,15 @@ public class SootResolver {
   @SuppressWarnings("unchecked")
   private final Deque<SootClass>[] worklist = new Deque[4];
 
+  /**
+   * Class sources that are being read and parsed ahead of time on the {@link #prefetchPool}. Only accessed from the
+   * resolving thread.
+   */
+  private final Map<SootClass, Future<ClassSource>> prefetched = new HashMap<SootClass, Future<ClassSource>>();
+
+  /** Worker threads for {@link ClassSource#prepare()}, created on first use. */
+  private ThreadPoolExecutor prefetchPool = null;
+
   private Program program = null;
 
   public SootResolver(Singletons.Global g) {
@@ -169,10 +191,23 @@ public class SootResolver {
     final Scene scene = Scene.v();
     final boolean resolveEverything = resolveEverything();
     final boolean no_bodies_for_excluded = Options.v().no_bodies_for_excluded();
+    final int threadNum = getResolverThreadNum();
+    try {
+      processResolveWorklist(scene, resolveEverything, no_bodies_for_excluded, threadNum);
+    } finally {
+      discardPrefetched();
+    }
+  }
+
+  private void processResolveWorklist(Scene scene, boolean resolveEverything, boolean no_bodies_for_excluded,
+      int threadNum) {
     for (int i = SootClass.BODIES; i >= SootClass.HIERARCHY; i--) {
       Deque<SootClass> currWorklist = worklist[i];
       while (!currWorklist.isEmpty()) {
         SootClass sc = currWorklist.pop();
+        if (threadNum > 1 && sc.resolvingLevel() < SootClass.HIERARCHY) {
+          prefetch(sc, currWorklist, threadNum);
+        }
         if (resolveEverything) {
           // Whole program mode
           boolean onlySignatures
@@ -209,6 +244,126 @@ public class SootResolver {
     }
   }
 
+  /**
+   * Returns the number of threads used to read and parse class files ahead of resolving them, following the
+   * <code>num_threads</code> option. A value of 1 means that classes are read on the resolving thread only.
+   */
+  protected int getResolverThreadNum() {
+    int threadNum = Options.v().num_threads();
+    if (threadNum < 1) {
+      threadNum = Runtime.getRuntime().availableProcessors();
+    }
+    return threadNum;
+  }
+
+  /**
+   * Starts reading and parsing the given class, unless that has already started, and the next unresolved classes waiting in
+   * the given worklist, so that at most {@link #PREFETCH_PER_THREAD} classes per thread are read ahead at any time. The
+   * {@link Scene} itself is only modified on the resolving thread in {@link #bringToHierarchyUnchecked}, which consumes the
+   * prepared sources in worklist order, so that the result is the same as with serial resolution.
+   */
+  private void prefetch(SootClass first, Deque<SootClass> currWorklist, int threadNum) {
+    final int limit = PREFETCH_PER_THREAD * threadNum;
+    if (prefetched.size() >= limit) {
+      return;
+    }
+    Set<SootClass> batch = new LinkedHashSet<SootClass>();
+    if (!prefetched.containsKey(first)) {
+      batch.add(first);
+    }
+    // Only look at the head of the worklist, which may hold many classes that are resolved already
+    int scanned = 0;
+    for (Iterator<SootClass> it = currWorklist.iterator(); it.hasNext() && scanned < 2 * limit; scanned++) {
+      if (prefetched.size() + batch.size() >= limit) {
+        break;
+      }
+      SootClass sc = it.next();
+      if (sc.resolvingLevel() < SootClass.HIERARCHY && !prefetched.containsKey(sc)) {
+        batch.add(sc);
+      }
+    }
+    if (batch.isEmpty() || (prefetchPool == null && batch.size() < 2)) {
+      // Not worth a hand-off to another thread
+      return;
+    }
+
+    if (prefetchPool == null) {
+      prefetchPool = new ThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+          r -> {
+            Thread t = new Thread(r, "soot-resolver");
+            t.setDaemon(true);
+            return t;
+          });
+      prefetchPool.allowCoreThreadTimeOut(true);
+    }
+    for (SootClass sc : batch) {
+      final ClassSource is = getClassSource(sc);
+      prefetched.put(sc, prefetchPool.submit(() -> {
+        if (is != null) {
+          try {
+            is.prepare();
+          } catch (RuntimeException e) {
+            // The error is reported again when the class is resolved on the
+            // resolving thread
+            logger.debug("Could not prepare " + sc.getName() + ": " + e.getMessage());
+          }
+        }
+        return is;
+      }));
+    }
+  }
+
+  /**
+   * Releases all class sources that were prepared but not consumed, e.g. because resolution was aborted with an exception.
+   */
+  private void discardPrefetched() {
+    if (prefetched.isEmpty()) {
+      return;
+    }
+    for (Iterator<Future<ClassSource>> it = prefetched.values().iterator(); it.hasNext();) {
+      ClassSource is = awaitPrefetched(it.next());
+      it.remove();
+      if (is != null) {
+        is.close();
+      }
+    }
+  }
+
+  private static ClassSource awaitPrefetched(Future<ClassSource> future) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return future.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } catch (ExecutionException e) {
+      // prepare() failures are caught in the task itself
+      throw new RuntimeException(e.getCause());
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Returns the class source for the given class, which may have been prepared ahead of time. */
+  private ClassSource getClassSource(SootClass sc) {
+    Future<ClassSource> future = prefetched.remove(sc);
+    if (future != null) {
+      return awaitPrefetched(future);
+    }
+    String className = sc.getName();
+    if (ModuleUtil.module_mode()) {
+      return ModulePathSourceLocator.v().getClassSource(className,
+          com.google.common.base.Optional.fromNullable(sc.moduleName));
+    } else {
+      return SourceLocator.v().getClassSource(className);
+    }
+  }
+
   protected void addToResolveWorklist(Type type, int level) {
     // We go from Type -> SootClass directly, since RefType.getSootClass
     // calls makeClassRef anyway
@@ -245,13 +400,7 @@ public class SootResolver {
 
   protected void bringToHierarchyUnchecked(SootClass sc) {
     String className = sc.getName();
-    ClassSource is;
-    if (ModuleUtil.module_mode()) {
-      is = ModulePathSourceLocator.v().getClassSource(className,
-          com.google.common.base.Optional.fromNullable(sc.moduleName));
-    } else {
-      is = SourceLocator.v().getClassSource(className);
-    }
+    ClassSource is = getClassSource(sc);
     try {
       boolean modelAsPhantomRef = (is == null);
       if (modelAsPhantomRef) {
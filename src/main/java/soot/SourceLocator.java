@@ -34,7 +34,9 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
@@ -156,10 +158,17 @@ public class SourceLocator {
             }
           });
 
+  /**
+   * The index of the archives on the class path, used by {@link #lookupInClassPath(String)} when the
+   * <code>classpath-index</code> option is set.
+   */
+  private volatile ClasspathIndex classpathIndex;
+
   public SourceLocator(Singletons.Global g) {
   }
 
   public void invalidateCaches() {
+    classpathIndex = null;
     archivePathToZip.invalidateAll();
     archivePathToEntriesCache.invalidateAll();
     pathToSourceType.invalidateAll();
@@ -327,6 +336,7 @@ public class SourceLocator {
 
   public void invalidateClassPath() {
     this.classPath = null;
+    this.classpathIndex = null;
     this.dexClassIndex = null;
   }
 
@@ -675,6 +685,9 @@ public class SourceLocator {
    * Searches for a file with the given name in the exploded classPath.
    */
   public IFoundFile lookupInClassPath(String fileName) {
+    if (!Options.v().classpath_index().isEmpty()) {
+      return lookupInIndexedClassPath(fileName);
+    }
     for (String dir : classPath) {
       IFoundFile ret = null;
       ClassSourceType cst = getClassSourceType(dir);
@@ -690,6 +703,48 @@ public class SourceLocator {
     return null;
   }
 
+  /**
+   * Searches for a file with the given name using the {@link ClasspathIndex}. Only directories that come before the first
+   * archive containing the file have to be searched separately.
+   */
+  protected IFoundFile lookupInIndexedClassPath(String fileName) {
+    final List<String> classPath = this.classPath;
+    ClasspathIndex index = this.classpathIndex;
+    if (index == null || index.getClassPath() != classPath) {
+      index = buildClasspathIndex(classPath);
+    }
+    final int pos = index.lookup(fileName);
+    for (int dir : index.getDirectoryPositions()) {
+      if (pos >= 0 && dir > pos) {
+        break;
+      }
+      IFoundFile ret = lookupInDir(classPath.get(dir), fileName);
+      if (ret != null) {
+        return ret;
+      }
+    }
+    return pos < 0 ? null : new FoundFile(classPath.get(pos), fileName);
+  }
+
+  private synchronized ClasspathIndex buildClasspathIndex(List<String> classPath) {
+    ClasspathIndex index = this.classpathIndex;
+    if (index == null || index.getClassPath() != classPath) {
+      BitSet archives = new BitSet(classPath.size());
+      BitSet directories = new BitSet(classPath.size());
+      for (int i = 0; i < classPath.size(); i++) {
+        ClassSourceType cst = getClassSourceType(classPath.get(i));
+        if (cst == ClassSourceType.zip || cst == ClassSourceType.jar) {
+          archives.set(i);
+        } else if (cst == ClassSourceType.directory) {
+          directories.set(i);
+        }
+      }
+      index = ClasspathIndex.create(classPath, archives, directories, Paths.get(Options.v().classpath_index()));
+      this.classpathIndex = index;
+    }
+    return index;
+  }
+
   protected IFoundFile lookupInDir(String dir, String fileName) {
     File f = new File(dir, fileName);
     return (f.exists() && f.canRead()) ? new FoundFile(f) : null;
@@ -93,7 +93,8 @@ public class Transform implements HasPhaseOptions {
 
   public void apply() {
     Map<String, String> options = PhaseOptions.v().getPhaseOptions(phaseName);
-    if (PhaseOptions.getBoolean(options, "enabled")) {
+    final boolean enabled = PhaseOptions.getBoolean(options, "enabled");
+    if (enabled) {
       if (Options.v().verbose()) {
         logger.debug("" + "Applying phase " + phaseName + " to the scene.");
       }
@@ -102,7 +103,10 @@ public class Transform implements HasPhaseOptions {
       PhaseDumper.v().dumpBefore(getPhaseName());
     }
 
+    final PhaseTelemetry telemetry = PhaseTelemetry.v();
+    final PhaseTelemetry.Sample sample = enabled ? telemetry.start(phaseName) : null;
     ((SceneTransformer) t).transform(phaseName, options);
+    telemetry.end(sample, 0);
 
     if (DEBUG) {
       PhaseDumper.v().dumpAfter(getPhaseName());
@@ -114,7 +118,8 @@ public class Transform implements HasPhaseOptions {
       return;
     }
     Map<String, String> options = PhaseOptions.v().getPhaseOptions(phaseName);
-    if (PhaseOptions.getBoolean(options, "enabled")) {
+    final boolean enabled = PhaseOptions.getBoolean(options, "enabled");
+    if (enabled) {
       if (Options.v().verbose()) {
         logger.debug("" + "Applying phase " + phaseName + " to " + b.getMethod() + ".");
       }
@@ -123,7 +128,10 @@ public class Transform implements HasPhaseOptions {
       PhaseDumper.v().dumpBefore(b, getPhaseName());
     }
 
+    final PhaseTelemetry telemetry = PhaseTelemetry.v();
+    final PhaseTelemetry.Sample sample = enabled ? telemetry.start(phaseName) : null;
     ((BodyTransformer) t).transform(b, phaseName, options);
+    telemetry.end(sample, 1);
 
     if (DEBUG) {
       PhaseDumper.v().dumpAfter(b, getPhaseName());
@@ -25,12 +25,16 @@ package soot.asm;
 import java.io.IOException;
 import java.io.InputStream;
 
+import org.apache.commons.io.IOUtils;
 import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
 
 import soot.ClassSource;
 import soot.IFoundFile;
 import soot.SootClass;
 import soot.SootResolver;
+import soot.jimple.cache.JimpleBodyCache;
 import soot.javaToJimple.IInitialResolver.Dependencies;
 
 /**
@@ -42,6 +46,17 @@ public class AsmClassSource extends ClassSource {
 
   protected IFoundFile foundFile;
 
+  /**
+   * The class file parsed ahead of time by {@link #prepare()}, or <code>null</code> if the class file has not been parsed
+   * yet.
+   */
+  protected ClassNode prepared;
+
+  /** Whether the class file needs to be hashed for the {@link JimpleBodyCache}. */
+  private final boolean hashClassFile;
+
+  private String classFileHash;
+
   /**
    * Constructs a new ASM class source.
    * 
@@ -56,16 +71,43 @@ public class AsmClassSource extends ClassSource {
       throw new IllegalStateException("Error: The FoundFile must not be null.");
     }
     this.foundFile = foundFile;
+    this.hashClassFile = JimpleBodyCache.v().isEnabled();
+  }
+
+  @Override
+  public void prepare() {
+    if (prepared != null || foundFile == null) {
+      return;
+    }
+    byte[] data = readClassFile();
+    ClassNode node = new ClassNode(Opcodes.ASM9);
+    new ClassReader(data).accept(node, ClassReader.SKIP_FRAMES);
+    if (hashClassFile) {
+      classFileHash = JimpleBodyCache.hash(data);
+    }
+    prepared = node;
   }
 
   @Override
   public Dependencies resolve(SootClass sc) {
-    InputStream d = null;
     try {
-      d = foundFile.inputStream();
-      ClassReader clsr = new ClassReader(d);
       SootClassBuilder scb = new SootClassBuilder(sc);
-      clsr.accept(scb, ClassReader.SKIP_FRAMES);
+      if (prepared != null) {
+        // Replaying the pre-parsed class visits the builder in the same
+        // order as the class reader would
+        prepared.accept(scb);
+        prepared = null;
+      } else {
+        byte[] data = readClassFile();
+        if (hashClassFile) {
+          classFileHash = JimpleBodyCache.hash(data);
+        }
+        ClassReader clsr = new ClassReader(data);
+        clsr.accept(scb, ClassReader.SKIP_FRAMES);
+      }
+      if (classFileHash != null) {
+        JimpleBodyCache.v().setClassFileHash(sc, classFileHash);
+      }
       Dependencies deps = new Dependencies();
       deps.typesToSignature.addAll(scb.deps);
       // add the outer class information, could not be called in the builder, since sc needs to be
@@ -86,6 +128,16 @@ public class AsmClassSource extends ClassSource {
         sc.setOuterClass(SootResolver.v().makeClassRef(outerClassName));
       }
       return deps;
+    } finally {
+      close();
+    }
+  }
+
+  private byte[] readClassFile() {
+    InputStream d = null;
+    try {
+      d = foundFile.inputStream();
+      return IOUtils.toByteArray(d);
     } catch (IOException e) {
       throw new RuntimeException("Error: Failed to create class reader from class source.", e);
     } finally {
@@ -96,14 +148,13 @@ public class AsmClassSource extends ClassSource {
         }
       } catch (IOException e) {
         throw new RuntimeException("Error: Failed to close source input stream.", e);
-      } finally {
-        close();
       }
     }
   }
 
   @Override
   public void close() {
+    prepared = null;
     if (foundFile != null) {
       foundFile.close();
       foundFile = null;
@@ -31,11 +31,17 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.jf.dexlib2.DexFileFactory;
 import org.jf.dexlib2.Opcodes;
@@ -92,7 +98,7 @@ public class DexFileProvider {
   /**
    * Mapping of filesystem file (apk, dex, etc.) to mapping of dex name to dex file
    */
-  private final Map<String, Map<String, DexContainer<? extends DexFile>>> dexMap = new HashMap<>();
+  private final Map<String, Map<String, DexContainer<? extends DexFile>>> dexMap = new ConcurrentHashMap<>();
 
   public DexFileProvider(Singletons.Global g) {
   }
@@ -182,36 +188,144 @@ public class DexFileProvider {
     }
   }
 
-  private void updateIndex(List<File> dexSources) throws IOException {
+  private synchronized void updateIndex(List<File> dexSources) throws IOException {
+    Map<String, File> missing = new LinkedHashMap<>();
     for (File theSource : dexSources) {
       String key = theSource.getCanonicalPath();
-      Map<String, DexContainer<? extends DexFile>> dexFiles = dexMap.get(key);
-      if (dexFiles == null) {
-        try {
-          dexFiles = mappingForFile(theSource);
-          dexMap.put(key, dexFiles);
-        } catch (IOException e) {
-          throw new CompilationDeathException("Error parsing dex source", e);
+      if (!dexMap.containsKey(key)) {
+        missing.putIfAbsent(key, theSource);
+      }
+    }
+    if (missing.isEmpty()) {
+      return;
+    }
+    try {
+      dexMap.putAll(mappingForFiles(missing));
+    } catch (IOException e) {
+      throw new CompilationDeathException("Error parsing dex source", e);
+    }
+  }
+
+  /**
+   * Opens the given dex sources and loads all dex files they contain. Reading and parsing a dex file is independent of all
+   * others, so the dex files of all sources are loaded concurrently when more than one thread is available.
+   *
+   * @param dexSourceFiles
+   *          Mapping of canonical path to files containing either one or multiple dex files (apk, zip, etc.) but no
+   *          directory!
+   * @return Mapping of canonical path to mapping of dex name to dex file
+   * @throws IOException
+   */
+  private Map<String, Map<String, DexContainer<? extends DexFile>>> mappingForFiles(Map<String, File> dexSourceFiles)
+      throws IOException {
+    int api = Scene.v().getAndroidAPIVersion();
+    Opcodes opcodes = Opcodes.forApi(api);
+
+    List<MultiDexContainer<? extends DexBackedDexFile>> containers = new ArrayList<>(dexSourceFiles.size());
+    List<List<String>> entryNames = new ArrayList<>(dexSourceFiles.size());
+    int entryCount = 0;
+    for (File dexSourceFile : dexSourceFiles.values()) {
+      // load dex files from apk/folder/file
+      MultiDexContainer<? extends DexBackedDexFile> dexContainer = DexFileFactory.loadDexContainer(dexSourceFile, opcodes);
+      List<String> names = dexContainer.getDexEntryNames();
+      containers.add(dexContainer);
+      entryNames.add(names);
+      entryCount += names.size();
+    }
+
+    List<List<DexEntry<? extends DexFile>>> entries = loadEntries(containers, entryNames, entryCount);
+
+    Map<String, Map<String, DexContainer<? extends DexFile>>> result = new HashMap<>(dexSourceFiles.size());
+    int i = 0;
+    for (Map.Entry<String, File> e : dexSourceFiles.entrySet()) {
+      result.put(e.getKey(), mappingForFile(e.getValue(), entryNames.get(i), entries.get(i)));
+      i++;
+    }
+    return result;
+  }
+
+  private List<List<DexEntry<? extends DexFile>>> loadEntries(List<MultiDexContainer<? extends DexBackedDexFile>> containers,
+      List<List<String>> entryNames, int entryCount) throws IOException {
+    int threadNum = Options.v().num_threads();
+    if (threadNum < 1) {
+      threadNum = Runtime.getRuntime().availableProcessors();
+    }
+    threadNum = Math.min(threadNum, entryCount);
+
+    List<List<DexEntry<? extends DexFile>>> result = new ArrayList<>(containers.size());
+    if (threadNum <= 1) {
+      for (int i = 0; i < containers.size(); i++) {
+        List<DexEntry<? extends DexFile>> entries = new ArrayList<>();
+        for (String entryName : entryNames.get(i)) {
+          entries.add(containers.get(i).getEntry(entryName));
+        }
+        result.add(entries);
+      }
+      return result;
+    }
+
+    // Every entry is read through its own handle on the container, so the entries can be loaded independently
+    ExecutorService executor = Executors.newFixedThreadPool(threadNum, r -> {
+      Thread t = new Thread(r, "soot-dex");
+      t.setDaemon(true);
+      return t;
+    });
+    try {
+      List<List<Future<DexEntry<? extends DexFile>>>> futures = new ArrayList<>(containers.size());
+      for (int i = 0; i < containers.size(); i++) {
+        final MultiDexContainer<? extends DexBackedDexFile> dexContainer = containers.get(i);
+        List<Future<DexEntry<? extends DexFile>>> containerFutures = new ArrayList<>();
+        for (final String entryName : entryNames.get(i)) {
+          containerFutures.add(executor.submit(() -> {
+            DexEntry<? extends DexFile> entry = dexContainer.getEntry(entryName);
+            if (entry != null) {
+              // Parse the class list right away instead of on first use
+              entry.getDexFile().getClasses().size();
+            }
+            return entry;
+          }));
+        }
+        futures.add(containerFutures);
+      }
+      for (List<Future<DexEntry<? extends DexFile>>> containerFutures : futures) {
+        List<DexEntry<? extends DexFile>> entries = new ArrayList<>(containerFutures.size());
+        for (Future<DexEntry<? extends DexFile>> f : containerFutures) {
+          entries.add(f.get());
         }
+        result.add(entries);
       }
+      return result;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while loading dex files", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else {
+        throw new RuntimeException(cause);
+      }
+    } finally {
+      executor.shutdownNow();
     }
   }
 
   /**
    * @param dexSourceFile
    *          A file containing either one or multiple dex files (apk, zip, etc.) but no directory!
+   * @param dexEntryNameList
+   *          The names of the dex files in the source
+   * @param entries
+   *          The loaded dex files, in the order of their names
    * @return
    * @throws IOException
    */
-  private Map<String, DexContainer<? extends DexFile>> mappingForFile(File dexSourceFile) throws IOException {
-    int api = Scene.v().getAndroidAPIVersion();
+  private Map<String, DexContainer<? extends DexFile>> mappingForFile(File dexSourceFile, List<String> dexEntryNameList,
+      List<DexEntry<? extends DexFile>> entries) throws IOException {
     boolean multiple_dex = Options.v().process_multiple_dex();
 
-    // load dex files from apk/folder/file
-    MultiDexContainer<? extends DexBackedDexFile> dexContainer
-        = DexFileFactory.loadDexContainer(dexSourceFile, Opcodes.forApi(api));
-
-    List<String> dexEntryNameList = dexContainer.getDexEntryNames();
     int dexFileCount = dexEntryNameList.size();
 
     if (dexFileCount < 1) {
@@ -229,7 +343,7 @@ public class DexFileProvider {
     ListIterator<String> entryNameIterator = dexEntryNameList.listIterator(dexFileCount);
     while (entryNameIterator.hasPrevious()) {
       String entryName = entryNameIterator.previous();
-      DexEntry<? extends DexFile> entry = dexContainer.getEntry(entryName);
+      DexEntry<? extends DexFile> entry = entries.get(entryNameIterator.nextIndex());
       entryName = deriveDexName(entryName);
       logger.debug("" + String.format("Found dex file '%s' with %d classes in '%s'", entryName,
           entry.getDexFile().getClasses().size(), dexSourceFile.getCanonicalPath()));
@@ -29,7 +29,11 @@ package soot.dexpler;
 
 import java.io.File;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import soot.G;
 import soot.Singletons;
@@ -39,7 +43,15 @@ import soot.tagkit.SourceFileTag;
 
 public class DexResolver {
 
-  protected Map<File, DexlibWrapper> cache = new TreeMap<File, DexlibWrapper>();
+  /** The wrappers whose initialization has started. Only modified while holding the lock of this resolver. */
+  protected Map<File, DexlibWrapper> cache = new ConcurrentHashMap<File, DexlibWrapper>();
+
+  /** The wrappers that are being or have been created, which reads and parses the dex files. */
+  private final ConcurrentMap<File, FutureTask<DexlibWrapper>> loaded
+      = new ConcurrentHashMap<File, FutureTask<DexlibWrapper>>();
+
+  /** The files whose wrapper has finished its initialization. */
+  private final Set<File> initialized = ConcurrentHashMap.newKeySet();
 
   public DexResolver(Singletons.Global g) {
   }
@@ -68,22 +80,57 @@ public class DexResolver {
   }
 
   /**
-   * Initializes the dex wrapper for the given dex file
+   * Initializes the dex wrapper for the given dex file. Reading and parsing the dex files happens once per file and only
+   * waits for other threads loading the same file, so different files are loaded concurrently. The initialization resolves
+   * classes in the {@link soot.Scene} and is thus done while holding the lock of this resolver. The wrapper is cached before
+   * it is initialized because initialization resolves classes, which may come back to this method for the same file.
    * 
    * @param file
    *          The dex file to load
    * @return The wrapper object for the given dex file
    */
   protected DexlibWrapper initializeDexFile(File file) {
-    DexlibWrapper wrapper = cache.get(file);
-    if (wrapper == null) {
-      wrapper = new DexlibWrapper(file);
-      cache.put(file, wrapper);
-      wrapper.initialize();
+    DexlibWrapper wrapper = loadDexFile(file);
+    if (initialized.contains(file)) {
+      return wrapper;
+    }
+    synchronized (this) {
+      if (cache.get(file) == null) {
+        cache.put(file, wrapper);
+        wrapper.initialize();
+        initialized.add(file);
+      }
     }
     return wrapper;
   }
 
+  private DexlibWrapper loadDexFile(final File file) {
+    FutureTask<DexlibWrapper> task = loaded.get(file);
+    if (task == null) {
+      FutureTask<DexlibWrapper> newTask = new FutureTask<DexlibWrapper>(() -> new DexlibWrapper(file));
+      task = loaded.putIfAbsent(file, newTask);
+      if (task == null) {
+        task = newTask;
+        newTask.run();
+      }
+    }
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while loading " + file, e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+  }
+
   /**
    * adds source file tag to each sootclass
    */
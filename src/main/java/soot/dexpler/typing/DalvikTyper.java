@@ -114,7 +114,8 @@ import soot.toolkits.scalar.UnitValueBoxPair;
 
 public class DalvikTyper implements IDalvikTyper {
 
-  private static DalvikTyper dt = null;
+  // The typer keeps state for the body it is currently typing, and bodies are created concurrently
+  private static final ThreadLocal<DalvikTyper> dt = ThreadLocal.withInitial(DalvikTyper::new);
 
   private Set<Constraint> constraints = new HashSet<Constraint>();
   private Map<ValueBox, Type> typed = new HashMap<ValueBox, Type>();
@@ -127,10 +128,7 @@ public class DalvikTyper implements IDalvikTyper {
   }
 
   public static DalvikTyper v() {
-    if (dt == null) {
-      dt = new DalvikTyper();
-    }
-    return dt;
+    return dt.get();
   }
 
   public void clear() {
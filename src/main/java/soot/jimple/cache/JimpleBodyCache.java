@@ -0,0 +1,316 @@
+package soot.jimple.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.Body;
+import soot.G;
+import soot.HasPhaseOptions;
+import soot.Pack;
+import soot.PackManager;
+import soot.PhaseOptions;
+import soot.Singletons;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Transform;
+import soot.jimple.JimpleBody;
+import soot.jimple.cache.JimpleBodyFormat.UnsupportedBodyException;
+import soot.options.Options;
+
+/**
+ * Persistent cache for the Jimple bodies created by the <code>jb</code> pack. The cache is enabled by setting the
+ * <code>body-cache-dir</code> option. Every class has its own directory in the cache, see {@link #directoryName(String)},
+ * which is keyed by the hash of the class file and the options of the <code>jb</code> pack. If either changes, all bodies
+ * that have been cached for the class are discarded.
+ *
+ * Only classes whose source recorded a class file hash via {@link #setClassFileHash(SootClass, String)} are cached.
+ */
+public class JimpleBodyCache {
+  private static final Logger logger = LoggerFactory.getLogger(JimpleBodyCache.class);
+
+  private static final String KEY_FILE = "key";
+  private static final String BODY_SUFFIX = ".body";
+  private static final int MAX_READABLE_NAME = 100;
+
+  private final Map<SootClass, String> classFileHashes = new ConcurrentHashMap<SootClass, String>();
+  private final Map<SootClass, ClassEntry> classEntries = new ConcurrentHashMap<SootClass, ClassEntry>();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong stores = new AtomicLong();
+  private final AtomicLong unsupported = new AtomicLong();
+
+  private volatile String jbKey;
+
+  public JimpleBodyCache(Singletons.Global g) {
+  }
+
+  public static JimpleBodyCache v() {
+    return G.v().soot_jimple_cache_JimpleBodyCache();
+  }
+
+  /**
+   * Returns true if a cache directory has been configured.
+   */
+  public boolean isEnabled() {
+    return !Options.v().body_cache_dir().isEmpty();
+  }
+
+  /**
+   * Records the hash, as computed by {@link #hash(byte[])}, of the class file from which the given class has been resolved.
+   */
+  public void setClassFileHash(SootClass sc, String classFileHash) {
+    classFileHashes.put(sc, classFileHash);
+  }
+
+  /**
+   * Returns the cached body of the given method, or <code>null</code> if there is no valid entry for the method.
+   */
+  public JimpleBody load(SootMethod m) {
+    ClassEntry entry = getClassEntry(m.getDeclaringClass());
+    if (entry == null) {
+      return null;
+    }
+    Path file = entry.bodyFile(m);
+    try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+      JimpleBody body = new JimpleBodyReader(is).read(m);
+      hits.incrementAndGet();
+      return body;
+    } catch (NoSuchFileException e) {
+      misses.incrementAndGet();
+      return null;
+    } catch (IOException | RuntimeException e) {
+      logger.debug("Discarding cached body of " + m.getSignature() + ": " + e.getMessage());
+      deleteQuietly(file);
+      misses.incrementAndGet();
+      return null;
+    }
+  }
+
+  /**
+   * Stores the given body, which must be the body just created by the <code>jb</code> pack for the given method.
+   */
+  public void store(SootMethod m, Body body) {
+    if (!(body instanceof JimpleBody)) {
+      return;
+    }
+    ClassEntry entry = getClassEntry(m.getDeclaringClass());
+    if (entry == null) {
+      return;
+    }
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try {
+      new JimpleBodyWriter(bos).write((JimpleBody) body, m.getSubSignature());
+    } catch (UnsupportedBodyException e) {
+      logger.debug("Not caching body of " + m.getSignature() + ": " + e.getMessage());
+      unsupported.incrementAndGet();
+      return;
+    } catch (IOException e) {
+      // Cannot happen with a ByteArrayOutputStream
+      throw new RuntimeException(e);
+    }
+    try {
+      writeAtomically(entry.dir, entry.bodyFile(m), bos.toByteArray());
+      stores.incrementAndGet();
+    } catch (IOException e) {
+      logger.warn("Could not cache body of " + m.getSignature() + ": " + e.getMessage());
+    }
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public long getStoreCount() {
+    return stores.get();
+  }
+
+  /**
+   * Returns the number of bodies that could not be cached because they contain unsupported constructs.
+   */
+  public long getUnsupportedCount() {
+    return unsupported.get();
+  }
+
+  private ClassEntry getClassEntry(SootClass sc) {
+    String classHash = classFileHashes.get(sc);
+    if (classHash == null) {
+      return null;
+    }
+    return classEntries.computeIfAbsent(sc, k -> openClassEntry(k, classHash));
+  }
+
+  /**
+   * Opens the cache directory of the given class. If the directory has been created for a different class file or different
+   * <code>jb</code> options, the bodies in it are discarded.
+   */
+  private ClassEntry openClassEntry(SootClass sc, String classHash) {
+    String className = sc.getName();
+    Path dir = Paths.get(Options.v().body_cache_dir(), directoryName(className));
+    String key = JimpleBodyFormat.VERSION + "\n" + className + "\n" + classHash + "\n" + getJbKey();
+    try {
+      Files.createDirectories(dir);
+      Path keyFile = dir.resolve(KEY_FILE);
+      if (!Files.exists(keyFile) || !key.equals(new String(Files.readAllBytes(keyFile), StandardCharsets.UTF_8))) {
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(dir, "*" + BODY_SUFFIX)) {
+          for (Path p : stale) {
+            Files.deleteIfExists(p);
+          }
+        }
+        writeAtomically(dir, keyFile, key.getBytes(StandardCharsets.UTF_8));
+      }
+      return new ClassEntry(dir, key);
+    } catch (IOException e) {
+      logger.warn("Could not open body cache for class " + className + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Returns the name of the cache directory of the given class. The class name is only made safe for file systems in the
+   * first part of the name, which may thus be the same for different classes, e.g. for classes whose names only differ in
+   * case. The hash of the class name that follows tells them apart.
+   */
+  static String directoryName(String className) {
+    String readable = className.replaceAll("[^A-Za-z0-9_.$-]", "_");
+    if (readable.length() > MAX_READABLE_NAME) {
+      readable = readable.substring(0, MAX_READABLE_NAME);
+    }
+    return readable + '-' + hash(className.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+  }
+
+  /**
+   * Returns a string describing everything that influences the bodies created by the <code>jb</code> pack apart from the
+   * class file itself.
+   */
+  private String getJbKey() {
+    String key = jbKey;
+    if (key == null) {
+      final Options opts = Options.v();
+      StringBuilder sb = new StringBuilder();
+      sb.append("keep-line-number=").append(opts.keep_line_number());
+      sb.append(" keep-offset=").append(opts.keep_offset());
+      sb.append(" throw-analysis=").append(opts.throw_analysis());
+      sb.append(" omit-excepting-unit-edges=").append(opts.omit_excepting_unit_edges());
+      Pack jb = PackManager.v().getPack("jb");
+      appendPhaseOptions(sb, jb);
+      for (Transform t : jb) {
+        sb.append(' ').append(t.getTransformer().getClass().getName());
+        appendPhaseOptions(sb, t);
+      }
+      jbKey = key = sb.toString();
+    }
+    return key;
+  }
+
+  static void appendPhaseOptions(StringBuilder sb, HasPhaseOptions phase) {
+    sb.append(' ').append(phase.getPhaseName()).append('=');
+    sb.append(new TreeMap<String, String>(PhaseOptions.v().getPhaseOptions(phase)));
+  }
+
+  private static void writeAtomically(Path dir, Path target, byte[] data) throws IOException {
+    Path tmp = Files.createTempFile(dir, "tmp", null);
+    try {
+      Files.write(tmp, data);
+      try {
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      deleteQuietly(tmp);
+    }
+  }
+
+  private static void deleteQuietly(Path p) {
+    try {
+      Files.deleteIfExists(p);
+    } catch (IOException e) {
+      // Nothing we can do about it
+    }
+  }
+
+  /**
+   * Returns the hex encoded SHA-256 hash of the given data.
+   */
+  public static String hash(byte[] data) {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new RuntimeException(e);
+    }
+    byte[] hash = digest.digest(data);
+    StringBuilder sb = new StringBuilder(hash.length * 2);
+    for (byte b : hash) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+      sb.append(Character.forDigit(b & 0xF, 16));
+    }
+    return sb.toString();
+  }
+
+  private static class ClassEntry {
+    final Path dir;
+    final String key;
+
+    ClassEntry(Path dir, String key) {
+      this.dir = dir;
+      this.key = key;
+    }
+
+    /**
+     * Returns the file for the given method. The name depends on the key of the class so that bodies written for another
+     * class file or other options are never picked up.
+     */
+    Path bodyFile(SootMethod m) {
+      String name = hash((key + '\n' + m.getSubSignature()).getBytes(StandardCharsets.UTF_8));
+      return dir.resolve(name.substring(0, 32) + BODY_SUFFIX);
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package soot.jimple.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Constants and helpers shared by {@link JimpleBodyWriter} and {@link JimpleBodyReader}. A serialized body consists of a
+ * header, the locals, the units with their tags, and the traps. Integers are written as variable-length quantities and
+ * strings are written only once per body and referenced by index afterwards.
+ */
+final class JimpleBodyFormat {
+
+  /** Identifies a serialized body. */
+  static final int MAGIC = 0x4a42434b;
+
+  /** Must be incremented whenever the encoding changes. */
+  static final int VERSION = 1;
+
+  // Types
+  static final int T_BOOLEAN = 1;
+  static final int T_BYTE = 2;
+  static final int T_CHAR = 3;
+  static final int T_SHORT = 4;
+  static final int T_INT = 5;
+  static final int T_LONG = 6;
+  static final int T_FLOAT = 7;
+  static final int T_DOUBLE = 8;
+  static final int T_VOID = 9;
+  static final int T_NULL = 10;
+  static final int T_REF = 11;
+  static final int T_ARRAY = 12;
+
+  // Immediates and references
+  static final int V_LOCAL = 1;
+  static final int V_INT = 2;
+  static final int V_LONG = 3;
+  static final int V_FLOAT = 4;
+  static final int V_DOUBLE = 5;
+  static final int V_STRING = 6;
+  static final int V_CLASS = 7;
+  static final int V_NULL = 8;
+  static final int V_THIS = 9;
+  static final int V_PARAMETER = 10;
+  static final int V_CAUGHT_EXCEPTION = 11;
+  static final int V_STATIC_FIELD = 12;
+  static final int V_INSTANCE_FIELD = 13;
+  static final int V_ARRAY = 14;
+
+  // Expressions
+  static final int V_ADD = 20;
+  static final int V_AND = 21;
+  static final int V_CMP = 22;
+  static final int V_CMPG = 23;
+  static final int V_CMPL = 24;
+  static final int V_DIV = 25;
+  static final int V_EQ = 26;
+  static final int V_GE = 27;
+  static final int V_GT = 28;
+  static final int V_LE = 29;
+  static final int V_LT = 30;
+  static final int V_MUL = 31;
+  static final int V_NE = 32;
+  static final int V_OR = 33;
+  static final int V_REM = 34;
+  static final int V_SHL = 35;
+  static final int V_SHR = 36;
+  static final int V_SUB = 37;
+  static final int V_USHR = 38;
+  static final int V_XOR = 39;
+  static final int V_NEG = 40;
+  static final int V_LENGTH = 41;
+  static final int V_CAST = 42;
+  static final int V_INSTANCE_OF = 43;
+  static final int V_NEW = 44;
+  static final int V_NEW_ARRAY = 45;
+  static final int V_NEW_MULTI_ARRAY = 46;
+  static final int V_STATIC_INVOKE = 47;
+  static final int V_VIRTUAL_INVOKE = 48;
+  static final int V_SPECIAL_INVOKE = 49;
+  static final int V_INTERFACE_INVOKE = 50;
+
+  // Statements
+  static final int S_ASSIGN = 1;
+  static final int S_IDENTITY = 2;
+  static final int S_INVOKE = 3;
+  static final int S_GOTO = 4;
+  static final int S_IF = 5;
+  static final int S_LOOKUP_SWITCH = 6;
+  static final int S_TABLE_SWITCH = 7;
+  static final int S_RETURN = 8;
+  static final int S_RETURN_VOID = 9;
+  static final int S_THROW = 10;
+  static final int S_ENTER_MONITOR = 11;
+  static final int S_EXIT_MONITOR = 12;
+  static final int S_NOP = 13;
+  static final int S_BREAKPOINT = 14;
+
+  // Tags
+  static final int TAG_LINE_NUMBER = 1;
+  static final int TAG_BYTECODE_OFFSET = 2;
+  static final int TAG_SOURCE_LN_POS = 3;
+
+  private JimpleBodyFormat() {
+  }
+
+  static void writeVarInt(DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable-length integer");
+  }
+
+  /**
+   * Thrown by the {@link JimpleBodyWriter} if a body contains a construct that cannot be serialized. Such bodies are simply
+   * not cached.
+   */
+  static class UnsupportedBodyException extends RuntimeException {
+    private static final long serialVersionUID = 3190410376402543829L;
+
+    UnsupportedBodyException(String message) {
+      super(message);
+    }
+  }
+}
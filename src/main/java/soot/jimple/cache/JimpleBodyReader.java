@@ -0,0 +1,563 @@
+package soot.jimple.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static soot.jimple.cache.JimpleBodyFormat.MAGIC;
+import static soot.jimple.cache.JimpleBodyFormat.S_ASSIGN;
+import static soot.jimple.cache.JimpleBodyFormat.S_BREAKPOINT;
+import static soot.jimple.cache.JimpleBodyFormat.S_ENTER_MONITOR;
+import static soot.jimple.cache.JimpleBodyFormat.S_EXIT_MONITOR;
+import static soot.jimple.cache.JimpleBodyFormat.S_GOTO;
+import static soot.jimple.cache.JimpleBodyFormat.S_IDENTITY;
+import static soot.jimple.cache.JimpleBodyFormat.S_IF;
+import static soot.jimple.cache.JimpleBodyFormat.S_INVOKE;
+import static soot.jimple.cache.JimpleBodyFormat.S_LOOKUP_SWITCH;
+import static soot.jimple.cache.JimpleBodyFormat.S_NOP;
+import static soot.jimple.cache.JimpleBodyFormat.S_RETURN;
+import static soot.jimple.cache.JimpleBodyFormat.S_RETURN_VOID;
+import static soot.jimple.cache.JimpleBodyFormat.S_TABLE_SWITCH;
+import static soot.jimple.cache.JimpleBodyFormat.S_THROW;
+import static soot.jimple.cache.JimpleBodyFormat.TAG_BYTECODE_OFFSET;
+import static soot.jimple.cache.JimpleBodyFormat.TAG_LINE_NUMBER;
+import static soot.jimple.cache.JimpleBodyFormat.TAG_SOURCE_LN_POS;
+import static soot.jimple.cache.JimpleBodyFormat.T_ARRAY;
+import static soot.jimple.cache.JimpleBodyFormat.T_BOOLEAN;
+import static soot.jimple.cache.JimpleBodyFormat.T_BYTE;
+import static soot.jimple.cache.JimpleBodyFormat.T_CHAR;
+import static soot.jimple.cache.JimpleBodyFormat.T_DOUBLE;
+import static soot.jimple.cache.JimpleBodyFormat.T_FLOAT;
+import static soot.jimple.cache.JimpleBodyFormat.T_INT;
+import static soot.jimple.cache.JimpleBodyFormat.T_LONG;
+import static soot.jimple.cache.JimpleBodyFormat.T_NULL;
+import static soot.jimple.cache.JimpleBodyFormat.T_REF;
+import static soot.jimple.cache.JimpleBodyFormat.T_SHORT;
+import static soot.jimple.cache.JimpleBodyFormat.T_VOID;
+import static soot.jimple.cache.JimpleBodyFormat.VERSION;
+import static soot.jimple.cache.JimpleBodyFormat.V_ADD;
+import static soot.jimple.cache.JimpleBodyFormat.V_AND;
+import static soot.jimple.cache.JimpleBodyFormat.V_ARRAY;
+import static soot.jimple.cache.JimpleBodyFormat.V_CAST;
+import static soot.jimple.cache.JimpleBodyFormat.V_CAUGHT_EXCEPTION;
+import static soot.jimple.cache.JimpleBodyFormat.V_CLASS;
+import static soot.jimple.cache.JimpleBodyFormat.V_CMP;
+import static soot.jimple.cache.JimpleBodyFormat.V_CMPG;
+import static soot.jimple.cache.JimpleBodyFormat.V_CMPL;
+import static soot.jimple.cache.JimpleBodyFormat.V_DIV;
+import static soot.jimple.cache.JimpleBodyFormat.V_DOUBLE;
+import static soot.jimple.cache.JimpleBodyFormat.V_EQ;
+import static soot.jimple.cache.JimpleBodyFormat.V_FLOAT;
+import static soot.jimple.cache.JimpleBodyFormat.V_GE;
+import static soot.jimple.cache.JimpleBodyFormat.V_GT;
+import static soot.jimple.cache.JimpleBodyFormat.V_INSTANCE_FIELD;
+import static soot.jimple.cache.JimpleBodyFormat.V_INSTANCE_OF;
+import static soot.jimple.cache.JimpleBodyFormat.V_INT;
+import static soot.jimple.cache.JimpleBodyFormat.V_INTERFACE_INVOKE;
+import static soot.jimple.cache.JimpleBodyFormat.V_LE;
+import static soot.jimple.cache.JimpleBodyFormat.V_LENGTH;
+import static soot.jimple.cache.JimpleBodyFormat.V_LOCAL;
+import static soot.jimple.cache.JimpleBodyFormat.V_LONG;
+import static soot.jimple.cache.JimpleBodyFormat.V_LT;
+import static soot.jimple.cache.JimpleBodyFormat.V_MUL;
+import static soot.jimple.cache.JimpleBodyFormat.V_NE;
+import static soot.jimple.cache.JimpleBodyFormat.V_NEG;
+import static soot.jimple.cache.JimpleBodyFormat.V_NEW;
+import static soot.jimple.cache.JimpleBodyFormat.V_NEW_ARRAY;
+import static soot.jimple.cache.JimpleBodyFormat.V_NEW_MULTI_ARRAY;
+import static soot.jimple.cache.JimpleBodyFormat.V_NULL;
+import static soot.jimple.cache.JimpleBodyFormat.V_OR;
+import static soot.jimple.cache.JimpleBodyFormat.V_PARAMETER;
+import static soot.jimple.cache.JimpleBodyFormat.V_REM;
+import static soot.jimple.cache.JimpleBodyFormat.V_SHL;
+import static soot.jimple.cache.JimpleBodyFormat.V_SHR;
+import static soot.jimple.cache.JimpleBodyFormat.V_SPECIAL_INVOKE;
+import static soot.jimple.cache.JimpleBodyFormat.V_STATIC_FIELD;
+import static soot.jimple.cache.JimpleBodyFormat.V_STATIC_INVOKE;
+import static soot.jimple.cache.JimpleBodyFormat.V_STRING;
+import static soot.jimple.cache.JimpleBodyFormat.V_SUB;
+import static soot.jimple.cache.JimpleBodyFormat.V_THIS;
+import static soot.jimple.cache.JimpleBodyFormat.V_USHR;
+import static soot.jimple.cache.JimpleBodyFormat.V_VIRTUAL_INVOKE;
+import static soot.jimple.cache.JimpleBodyFormat.V_XOR;
+import static soot.jimple.cache.JimpleBodyFormat.readVarInt;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import soot.ArrayType;
+import soot.BooleanType;
+import soot.ByteType;
+import soot.CharType;
+import soot.DoubleType;
+import soot.FloatType;
+import soot.IntType;
+import soot.Local;
+import soot.LongType;
+import soot.NullType;
+import soot.RefType;
+import soot.Scene;
+import soot.ShortType;
+import soot.SootClass;
+import soot.SootFieldRef;
+import soot.SootMethod;
+import soot.SootMethodRef;
+import soot.Type;
+import soot.Unit;
+import soot.UnitBox;
+import soot.UnitPatchingChain;
+import soot.Value;
+import soot.ValueBox;
+import soot.VoidType;
+import soot.jimple.ClassConstant;
+import soot.jimple.DoubleConstant;
+import soot.jimple.FloatConstant;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.jimple.LongConstant;
+import soot.jimple.NullConstant;
+import soot.jimple.StringConstant;
+import soot.tagkit.BytecodeOffsetTag;
+import soot.tagkit.Host;
+import soot.tagkit.LineNumberTag;
+import soot.tagkit.SourceLnPosTag;
+
+/**
+ * Reads a {@link JimpleBody} that has been written by a {@link JimpleBodyWriter}. Classes referenced by the body are looked
+ * up in the {@link Scene}, in the same way as the method source would do when creating the body.
+ */
+public class JimpleBodyReader {
+
+  private final DataInputStream in;
+  private final List<String> strings = new ArrayList<String>();
+  private final List<UnitBox> pendingBoxes = new ArrayList<UnitBox>();
+  private final List<Integer> pendingTargets = new ArrayList<Integer>();
+  private Local[] locals;
+
+  public JimpleBodyReader(InputStream in) {
+    this.in = new DataInputStream(in);
+  }
+
+  /**
+   * Reads a body for the given method.
+   *
+   * @throws IOException
+   *           if the data is malformed, was written for another method, or references a class that is not available
+   */
+  public JimpleBody read(SootMethod m) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a serialized body");
+    }
+    int version = readVarInt(in);
+    if (version != VERSION) {
+      throw new IOException("Unsupported body format version " + version);
+    }
+    String subSignature = readString();
+    if (!subSignature.equals(m.getSubSignature())) {
+      throw new IOException("Body was written for " + subSignature + ", not for " + m.getSubSignature());
+    }
+
+    final Jimple jimp = Jimple.v();
+    final JimpleBody body = jimp.newBody(m);
+
+    locals = new Local[readVarInt(in)];
+    for (int i = 0; i < locals.length; i++) {
+      String name = readString();
+      Local l = jimp.newLocal(name, readType());
+      body.getLocals().add(l);
+      locals[i] = l;
+    }
+
+    final Unit[] units = new Unit[readVarInt(in)];
+    final UnitPatchingChain chain = body.getUnits();
+    for (int i = 0; i < units.length; i++) {
+      Unit u = readUnit();
+      readTags(u);
+      List<ValueBox> boxes = u.getUseAndDefBoxes();
+      for (int tagged = readVarInt(in); tagged > 0; tagged--) {
+        int idx = readVarInt(in);
+        if (idx >= boxes.size()) {
+          throw new IOException("Invalid value box index " + idx);
+        }
+        readTags(boxes.get(idx));
+      }
+      chain.add(u);
+      units[i] = u;
+    }
+    for (int i = 0; i < pendingBoxes.size(); i++) {
+      pendingBoxes.get(i).setUnit(unitAt(units, pendingTargets.get(i)));
+    }
+
+    for (int count = readVarInt(in); count > 0; count--) {
+      SootClass exception = readClass();
+      Unit begin = unitAt(units, readVarInt(in));
+      Unit end = unitAt(units, readVarInt(in));
+      Unit handler = unitAt(units, readVarInt(in));
+      body.getTraps().add(jimp.newTrap(exception, begin, end, handler));
+    }
+    return body;
+  }
+
+  private static Unit unitAt(Unit[] units, int idx) throws IOException {
+    if (idx < 0 || idx >= units.length) {
+      throw new IOException("Invalid unit index " + idx);
+    }
+    return units[idx];
+  }
+
+  private String readString() throws IOException {
+    int idx = readVarInt(in);
+    if (idx > 0) {
+      if (idx > strings.size()) {
+        throw new IOException("Invalid string index " + idx);
+      }
+      return strings.get(idx - 1);
+    }
+    byte[] bytes = new byte[readVarInt(in)];
+    in.readFully(bytes);
+    String s = new String(bytes, StandardCharsets.UTF_8);
+    strings.add(s);
+    return s;
+  }
+
+  private SootClass readClass() throws IOException {
+    String name = readString();
+    SootClass sc = Scene.v().getSootClassUnsafe(name);
+    if (sc == null) {
+      throw new IOException("Class " + name + " is not available");
+    }
+    return sc;
+  }
+
+  private Type readType() throws IOException {
+    int kind = readVarInt(in);
+    switch (kind) {
+      case T_BOOLEAN:
+        return BooleanType.v();
+      case T_BYTE:
+        return ByteType.v();
+      case T_CHAR:
+        return CharType.v();
+      case T_SHORT:
+        return ShortType.v();
+      case T_INT:
+        return IntType.v();
+      case T_LONG:
+        return LongType.v();
+      case T_FLOAT:
+        return FloatType.v();
+      case T_DOUBLE:
+        return DoubleType.v();
+      case T_VOID:
+        return VoidType.v();
+      case T_NULL:
+        return NullType.v();
+      case T_REF:
+        return RefType.v(readString());
+      case T_ARRAY: {
+        Type base = readType();
+        return ArrayType.v(base, readVarInt(in));
+      }
+      default:
+        throw new IOException("Invalid type kind " + kind);
+    }
+  }
+
+  private RefType readRefType() throws IOException {
+    Type t = readType();
+    if (!(t instanceof RefType)) {
+      throw new IOException("Expected a reference type, got " + t);
+    }
+    return (RefType) t;
+  }
+
+  private SootMethodRef readMethodRef() throws IOException {
+    SootClass declaringClass = readClass();
+    String name = readString();
+    List<Type> params = new ArrayList<Type>();
+    for (int count = readVarInt(in); count > 0; count--) {
+      params.add(readType());
+    }
+    Type returnType = readType();
+    return Scene.v().makeMethodRef(declaringClass, name, params, returnType, in.readBoolean());
+  }
+
+  private SootFieldRef readFieldRef(boolean isStatic) throws IOException {
+    SootClass declaringClass = readClass();
+    String name = readString();
+    return Scene.v().makeFieldRef(declaringClass, name, readType(), isStatic);
+  }
+
+  private void readTags(Host h) throws IOException {
+    for (int count = readVarInt(in); count > 0; count--) {
+      int kind = readVarInt(in);
+      switch (kind) {
+        case TAG_LINE_NUMBER:
+          h.addTag(new LineNumberTag(readVarInt(in)));
+          break;
+        case TAG_BYTECODE_OFFSET:
+          h.addTag(new BytecodeOffsetTag(readVarInt(in)));
+          break;
+        case TAG_SOURCE_LN_POS: {
+          int startLn = readVarInt(in);
+          int endLn = readVarInt(in);
+          int startPos = readVarInt(in);
+          h.addTag(new SourceLnPosTag(startLn, endLn, startPos, readVarInt(in)));
+          break;
+        }
+        default:
+          throw new IOException("Invalid tag kind " + kind);
+      }
+    }
+  }
+
+  private UnitBox readTarget() throws IOException {
+    UnitBox box = Jimple.v().newStmtBox(null);
+    pendingBoxes.add(box);
+    pendingTargets.add(readVarInt(in));
+    return box;
+  }
+
+  private Unit readUnit() throws IOException {
+    final Jimple jimp = Jimple.v();
+    int kind = readVarInt(in);
+    switch (kind) {
+      case S_ASSIGN: {
+        Value lhs = readValue();
+        return jimp.newAssignStmt(lhs, readValue());
+      }
+      case S_IDENTITY: {
+        Value lhs = readValue();
+        return jimp.newIdentityStmt(lhs, readValue());
+      }
+      case S_INVOKE:
+        return jimp.newInvokeStmt(readValue());
+      case S_GOTO:
+        return jimp.newGotoStmt(readTarget());
+      case S_IF: {
+        Value condition = readValue();
+        return jimp.newIfStmt(condition, readTarget());
+      }
+      case S_LOOKUP_SWITCH: {
+        Value key = readValue();
+        int count = readVarInt(in);
+        List<IntConstant> values = new ArrayList<IntConstant>(count);
+        List<UnitBox> targets = new ArrayList<UnitBox>(count);
+        for (int i = 0; i < count; i++) {
+          values.add(IntConstant.v(in.readInt()));
+          targets.add(readTarget());
+        }
+        return jimp.newLookupSwitchStmt(key, values, targets, readTarget());
+      }
+      case S_TABLE_SWITCH: {
+        Value key = readValue();
+        int low = in.readInt();
+        int high = in.readInt();
+        int count = readVarInt(in);
+        List<UnitBox> targets = new ArrayList<UnitBox>(count);
+        for (int i = 0; i < count; i++) {
+          targets.add(readTarget());
+        }
+        return jimp.newTableSwitchStmt(key, low, high, targets, readTarget());
+      }
+      case S_RETURN:
+        return jimp.newReturnStmt(readValue());
+      case S_RETURN_VOID:
+        return jimp.newReturnVoidStmt();
+      case S_THROW:
+        return jimp.newThrowStmt(readValue());
+      case S_ENTER_MONITOR:
+        return jimp.newEnterMonitorStmt(readValue());
+      case S_EXIT_MONITOR:
+        return jimp.newExitMonitorStmt(readValue());
+      case S_NOP:
+        return jimp.newNopStmt();
+      case S_BREAKPOINT:
+        return jimp.newBreakpointStmt();
+      default:
+        throw new IOException("Invalid statement kind " + kind);
+    }
+  }
+
+  private Local readLocal() throws IOException {
+    Value v = readValue();
+    if (!(v instanceof Local)) {
+      throw new IOException("Expected a local, got " + v);
+    }
+    return (Local) v;
+  }
+
+  private List<Value> readValues() throws IOException {
+    int count = readVarInt(in);
+    List<Value> values = new ArrayList<Value>(count);
+    for (int i = 0; i < count; i++) {
+      values.add(readValue());
+    }
+    return values;
+  }
+
+  private Value readValue() throws IOException {
+    final Jimple jimp = Jimple.v();
+    int kind = readVarInt(in);
+    switch (kind) {
+      case V_LOCAL: {
+        int idx = readVarInt(in);
+        if (idx >= locals.length) {
+          throw new IOException("Invalid local index " + idx);
+        }
+        return locals[idx];
+      }
+      case V_INT:
+        return IntConstant.v(in.readInt());
+      case V_LONG:
+        return LongConstant.v(in.readLong());
+      case V_FLOAT:
+        return FloatConstant.v(in.readFloat());
+      case V_DOUBLE:
+        return DoubleConstant.v(in.readDouble());
+      case V_STRING:
+        return StringConstant.v(readString());
+      case V_CLASS:
+        return ClassConstant.v(readString());
+      case V_NULL:
+        return NullConstant.v();
+      case V_THIS:
+        return jimp.newThisRef(readRefType());
+      case V_PARAMETER: {
+        Type t = readType();
+        return jimp.newParameterRef(t, readVarInt(in));
+      }
+      case V_CAUGHT_EXCEPTION:
+        return jimp.newCaughtExceptionRef();
+      case V_STATIC_FIELD:
+        return jimp.newStaticFieldRef(readFieldRef(true));
+      case V_INSTANCE_FIELD: {
+        SootFieldRef ref = readFieldRef(false);
+        return jimp.newInstanceFieldRef(readValue(), ref);
+      }
+      case V_ARRAY: {
+        Value base = readValue();
+        return jimp.newArrayRef(base, readValue());
+      }
+      case V_NEG:
+        return jimp.newNegExpr(readValue());
+      case V_LENGTH:
+        return jimp.newLengthExpr(readValue());
+      case V_CAST: {
+        Value op = readValue();
+        return jimp.newCastExpr(op, readType());
+      }
+      case V_INSTANCE_OF: {
+        Value op = readValue();
+        return jimp.newInstanceOfExpr(op, readType());
+      }
+      case V_NEW:
+        return jimp.newNewExpr(readRefType());
+      case V_NEW_ARRAY: {
+        Type base = readType();
+        return jimp.newNewArrayExpr(base, readValue());
+      }
+      case V_NEW_MULTI_ARRAY: {
+        Type t = readType();
+        if (!(t instanceof ArrayType)) {
+          throw new IOException("Expected an array type, got " + t);
+        }
+        return jimp.newNewMultiArrayExpr((ArrayType) t, readValues());
+      }
+      case V_STATIC_INVOKE: {
+        SootMethodRef ref = readMethodRef();
+        return jimp.newStaticInvokeExpr(ref, readValues());
+      }
+      case V_VIRTUAL_INVOKE: {
+        SootMethodRef ref = readMethodRef();
+        Local base = readLocal();
+        return jimp.newVirtualInvokeExpr(base, ref, readValues());
+      }
+      case V_SPECIAL_INVOKE: {
+        SootMethodRef ref = readMethodRef();
+        Local base = readLocal();
+        return jimp.newSpecialInvokeExpr(base, ref, readValues());
+      }
+      case V_INTERFACE_INVOKE: {
+        SootMethodRef ref = readMethodRef();
+        Local base = readLocal();
+        return jimp.newInterfaceInvokeExpr(base, ref, readValues());
+      }
+      default:
+        return readBinop(kind);
+    }
+  }
+
+  private Value readBinop(int kind) throws IOException {
+    final Jimple jimp = Jimple.v();
+    Value op1 = readValue();
+    Value op2 = readValue();
+    switch (kind) {
+      case V_ADD:
+        return jimp.newAddExpr(op1, op2);
+      case V_AND:
+        return jimp.newAndExpr(op1, op2);
+      case V_CMP:
+        return jimp.newCmpExpr(op1, op2);
+      case V_CMPG:
+        return jimp.newCmpgExpr(op1, op2);
+      case V_CMPL:
+        return jimp.newCmplExpr(op1, op2);
+      case V_DIV:
+        return jimp.newDivExpr(op1, op2);
+      case V_EQ:
+        return jimp.newEqExpr(op1, op2);
+      case V_GE:
+        return jimp.newGeExpr(op1, op2);
+      case V_GT:
+        return jimp.newGtExpr(op1, op2);
+      case V_LE:
+        return jimp.newLeExpr(op1, op2);
+      case V_LT:
+        return jimp.newLtExpr(op1, op2);
+      case V_MUL:
+        return jimp.newMulExpr(op1, op2);
+      case V_NE:
+        return jimp.newNeExpr(op1, op2);
+      case V_OR:
+        return jimp.newOrExpr(op1, op2);
+      case V_REM:
+        return jimp.newRemExpr(op1, op2);
+      case V_SHL:
+        return jimp.newShlExpr(op1, op2);
+      case V_SHR:
+        return jimp.newShrExpr(op1, op2);
+      case V_SUB:
+        return jimp.newSubExpr(op1, op2);
+      case V_USHR:
+        return jimp.newUshrExpr(op1, op2);
+      case V_XOR:
+        return jimp.newXorExpr(op1, op2);
+      default:
+        throw new IOException("Invalid value kind " + kind);
+    }
+  }
+}
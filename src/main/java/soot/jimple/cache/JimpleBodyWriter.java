@@ -0,0 +1,619 @@
+package soot.jimple.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static soot.jimple.cache.JimpleBodyFormat.MAGIC;
+import static soot.jimple.cache.JimpleBodyFormat.S_ASSIGN;
+import static soot.jimple.cache.JimpleBodyFormat.S_BREAKPOINT;
+import static soot.jimple.cache.JimpleBodyFormat.S_ENTER_MONITOR;
+import static soot.jimple.cache.JimpleBodyFormat.S_EXIT_MONITOR;
+import static soot.jimple.cache.JimpleBodyFormat.S_GOTO;
+import static soot.jimple.cache.JimpleBodyFormat.S_IDENTITY;
+import static soot.jimple.cache.JimpleBodyFormat.S_IF;
+import static soot.jimple.cache.JimpleBodyFormat.S_INVOKE;
+import static soot.jimple.cache.JimpleBodyFormat.S_LOOKUP_SWITCH;
+import static soot.jimple.cache.JimpleBodyFormat.S_NOP;
+import static soot.jimple.cache.JimpleBodyFormat.S_RETURN;
+import static soot.jimple.cache.JimpleBodyFormat.S_RETURN_VOID;
+import static soot.jimple.cache.JimpleBodyFormat.S_TABLE_SWITCH;
+import static soot.jimple.cache.JimpleBodyFormat.S_THROW;
+import static soot.jimple.cache.JimpleBodyFormat.TAG_BYTECODE_OFFSET;
+import static soot.jimple.cache.JimpleBodyFormat.TAG_LINE_NUMBER;
+import static soot.jimple.cache.JimpleBodyFormat.TAG_SOURCE_LN_POS;
+import static soot.jimple.cache.JimpleBodyFormat.T_ARRAY;
+import static soot.jimple.cache.JimpleBodyFormat.T_BOOLEAN;
+import static soot.jimple.cache.JimpleBodyFormat.T_BYTE;
+import static soot.jimple.cache.JimpleBodyFormat.T_CHAR;
+import static soot.jimple.cache.JimpleBodyFormat.T_DOUBLE;
+import static soot.jimple.cache.JimpleBodyFormat.T_FLOAT;
+import static soot.jimple.cache.JimpleBodyFormat.T_INT;
+import static soot.jimple.cache.JimpleBodyFormat.T_LONG;
+import static soot.jimple.cache.JimpleBodyFormat.T_NULL;
+import static soot.jimple.cache.JimpleBodyFormat.T_REF;
+import static soot.jimple.cache.JimpleBodyFormat.T_SHORT;
+import static soot.jimple.cache.JimpleBodyFormat.T_VOID;
+import static soot.jimple.cache.JimpleBodyFormat.VERSION;
+import static soot.jimple.cache.JimpleBodyFormat.V_ADD;
+import static soot.jimple.cache.JimpleBodyFormat.V_AND;
+import static soot.jimple.cache.JimpleBodyFormat.V_ARRAY;
+import static soot.jimple.cache.JimpleBodyFormat.V_CAST;
+import static soot.jimple.cache.JimpleBodyFormat.V_CAUGHT_EXCEPTION;
+import static soot.jimple.cache.JimpleBodyFormat.V_CLASS;
+import static soot.jimple.cache.JimpleBodyFormat.V_CMP;
+import static soot.jimple.cache.JimpleBodyFormat.V_CMPG;
+import static soot.jimple.cache.JimpleBodyFormat.V_CMPL;
+import static soot.jimple.cache.JimpleBodyFormat.V_DIV;
+import static soot.jimple.cache.JimpleBodyFormat.V_DOUBLE;
+import static soot.jimple.cache.JimpleBodyFormat.V_EQ;
+import static soot.jimple.cache.JimpleBodyFormat.V_FLOAT;
+import static soot.jimple.cache.JimpleBodyFormat.V_GE;
+import static soot.jimple.cache.JimpleBodyFormat.V_GT;
+import static soot.jimple.cache.JimpleBodyFormat.V_INSTANCE_FIELD;
+import static soot.jimple.cache.JimpleBodyFormat.V_INSTANCE_OF;
+import static soot.jimple.cache.JimpleBodyFormat.V_INT;
+import static soot.jimple.cache.JimpleBodyFormat.V_INTERFACE_INVOKE;
+import static soot.jimple.cache.JimpleBodyFormat.V_LE;
+import static soot.jimple.cache.JimpleBodyFormat.V_LENGTH;
+import static soot.jimple.cache.JimpleBodyFormat.V_LOCAL;
+import static soot.jimple.cache.JimpleBodyFormat.V_LONG;
+import static soot.jimple.cache.JimpleBodyFormat.V_LT;
+import static soot.jimple.cache.JimpleBodyFormat.V_MUL;
+import static soot.jimple.cache.JimpleBodyFormat.V_NE;
+import static soot.jimple.cache.JimpleBodyFormat.V_NEG;
+import static soot.jimple.cache.JimpleBodyFormat.V_NEW;
+import static soot.jimple.cache.JimpleBodyFormat.V_NEW_ARRAY;
+import static soot.jimple.cache.JimpleBodyFormat.V_NEW_MULTI_ARRAY;
+import static soot.jimple.cache.JimpleBodyFormat.V_NULL;
+import static soot.jimple.cache.JimpleBodyFormat.V_OR;
+import static soot.jimple.cache.JimpleBodyFormat.V_PARAMETER;
+import static soot.jimple.cache.JimpleBodyFormat.V_REM;
+import static soot.jimple.cache.JimpleBodyFormat.V_SHL;
+import static soot.jimple.cache.JimpleBodyFormat.V_SHR;
+import static soot.jimple.cache.JimpleBodyFormat.V_SPECIAL_INVOKE;
+import static soot.jimple.cache.JimpleBodyFormat.V_STATIC_FIELD;
+import static soot.jimple.cache.JimpleBodyFormat.V_STATIC_INVOKE;
+import static soot.jimple.cache.JimpleBodyFormat.V_STRING;
+import static soot.jimple.cache.JimpleBodyFormat.V_SUB;
+import static soot.jimple.cache.JimpleBodyFormat.V_THIS;
+import static soot.jimple.cache.JimpleBodyFormat.V_USHR;
+import static soot.jimple.cache.JimpleBodyFormat.V_VIRTUAL_INVOKE;
+import static soot.jimple.cache.JimpleBodyFormat.V_XOR;
+import static soot.jimple.cache.JimpleBodyFormat.writeVarInt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import soot.ArrayType;
+import soot.BooleanType;
+import soot.ByteType;
+import soot.CharType;
+import soot.DoubleType;
+import soot.FloatType;
+import soot.IntType;
+import soot.Local;
+import soot.LongType;
+import soot.NullType;
+import soot.RefType;
+import soot.ShortType;
+import soot.SootFieldRef;
+import soot.SootMethodRef;
+import soot.Trap;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.VoidType;
+import soot.jimple.AddExpr;
+import soot.jimple.AndExpr;
+import soot.jimple.ArrayRef;
+import soot.jimple.AssignStmt;
+import soot.jimple.BinopExpr;
+import soot.jimple.BreakpointStmt;
+import soot.jimple.CastExpr;
+import soot.jimple.CaughtExceptionRef;
+import soot.jimple.ClassConstant;
+import soot.jimple.CmpExpr;
+import soot.jimple.CmpgExpr;
+import soot.jimple.CmplExpr;
+import soot.jimple.DivExpr;
+import soot.jimple.DoubleConstant;
+import soot.jimple.EnterMonitorStmt;
+import soot.jimple.EqExpr;
+import soot.jimple.ExitMonitorStmt;
+import soot.jimple.FloatConstant;
+import soot.jimple.GeExpr;
+import soot.jimple.GotoStmt;
+import soot.jimple.GtExpr;
+import soot.jimple.IdentityStmt;
+import soot.jimple.IfStmt;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.InstanceInvokeExpr;
+import soot.jimple.InstanceOfExpr;
+import soot.jimple.IntConstant;
+import soot.jimple.InterfaceInvokeExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.InvokeStmt;
+import soot.jimple.JimpleBody;
+import soot.jimple.LeExpr;
+import soot.jimple.LengthExpr;
+import soot.jimple.LongConstant;
+import soot.jimple.LookupSwitchStmt;
+import soot.jimple.LtExpr;
+import soot.jimple.MulExpr;
+import soot.jimple.NeExpr;
+import soot.jimple.NegExpr;
+import soot.jimple.NewArrayExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.NewMultiArrayExpr;
+import soot.jimple.NopStmt;
+import soot.jimple.NullConstant;
+import soot.jimple.OrExpr;
+import soot.jimple.ParameterRef;
+import soot.jimple.RemExpr;
+import soot.jimple.ReturnStmt;
+import soot.jimple.ReturnVoidStmt;
+import soot.jimple.ShlExpr;
+import soot.jimple.ShrExpr;
+import soot.jimple.SpecialInvokeExpr;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.StaticInvokeExpr;
+import soot.jimple.StringConstant;
+import soot.jimple.SubExpr;
+import soot.jimple.TableSwitchStmt;
+import soot.jimple.ThisRef;
+import soot.jimple.ThrowStmt;
+import soot.jimple.UshrExpr;
+import soot.jimple.VirtualInvokeExpr;
+import soot.jimple.XorExpr;
+import soot.jimple.cache.JimpleBodyFormat.UnsupportedBodyException;
+import soot.tagkit.BytecodeOffsetTag;
+import soot.tagkit.Host;
+import soot.tagkit.LineNumberTag;
+import soot.tagkit.SourceLnPosTag;
+import soot.tagkit.Tag;
+
+/**
+ * Writes a {@link JimpleBody} in the binary format read by {@link JimpleBodyReader}. Only the constructs produced by the
+ * <code>jb</code> pack for class files are supported. Bodies with dynamic invokes, method handles, <code>ret</code>
+ * statements or tags other than line number, bytecode offset and source position tags are rejected with an
+ * {@link UnsupportedBodyException}.
+ */
+public class JimpleBodyWriter {
+
+  private final DataOutputStream out;
+  private final Map<String, Integer> strings = new HashMap<String, Integer>();
+  private final Map<Local, Integer> locals = new HashMap<Local, Integer>();
+  private final Map<Unit, Integer> units = new HashMap<Unit, Integer>();
+
+  public JimpleBodyWriter(OutputStream out) {
+    this.out = new DataOutputStream(out);
+  }
+
+  /**
+   * Serializes the given body into a byte array. Returns <code>null</code> if the body contains a construct that cannot be
+   * serialized.
+   */
+  public static byte[] toByteArray(JimpleBody body, String subSignature) {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try {
+      new JimpleBodyWriter(bos).write(body, subSignature);
+    } catch (UnsupportedBodyException e) {
+      return null;
+    } catch (IOException e) {
+      // Cannot happen with a ByteArrayOutputStream
+      throw new RuntimeException(e);
+    }
+    return bos.toByteArray();
+  }
+
+  /**
+   * Writes the given body. The sub-signature of the method is stored along with the body so that the reader can detect
+   * mismatches.
+   *
+   * @throws UnsupportedBodyException
+   *           if the body contains a construct that cannot be serialized
+   */
+  public void write(JimpleBody body, String subSignature) throws IOException {
+    if (!body.getTags().isEmpty()) {
+      throw new UnsupportedBodyException("Body tags are not supported");
+    }
+    out.writeInt(MAGIC);
+    writeVarInt(out, VERSION);
+    writeString(subSignature);
+
+    writeVarInt(out, body.getLocalCount());
+    for (Local l : body.getLocals()) {
+      locals.put(l, locals.size());
+      writeString(l.getName());
+      writeType(l.getType());
+    }
+
+    writeVarInt(out, body.getUnits().size());
+    for (Unit u : body.getUnits()) {
+      units.put(u, units.size());
+    }
+    for (Unit u : body.getUnits()) {
+      writeUnit(u);
+      writeTags(u);
+      // Copy propagation may attach position tags to the value boxes
+      List<ValueBox> boxes = u.getUseAndDefBoxes();
+      int tagged = 0;
+      for (ValueBox vb : boxes) {
+        if (!vb.getTags().isEmpty()) {
+          tagged++;
+        }
+      }
+      writeVarInt(out, tagged);
+      for (int i = 0; i < boxes.size(); i++) {
+        ValueBox vb = boxes.get(i);
+        if (!vb.getTags().isEmpty()) {
+          writeVarInt(out, i);
+          writeTags(vb);
+        }
+      }
+    }
+
+    writeVarInt(out, body.getTraps().size());
+    for (Trap t : body.getTraps()) {
+      writeString(t.getException().getName());
+      writeUnitRef(t.getBeginUnit());
+      writeUnitRef(t.getEndUnit());
+      writeUnitRef(t.getHandlerUnit());
+    }
+    out.flush();
+  }
+
+  private void writeString(String s) throws IOException {
+    Integer idx = strings.get(s);
+    if (idx != null) {
+      writeVarInt(out, idx + 1);
+    } else {
+      strings.put(s, strings.size());
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(out, 0);
+      writeVarInt(out, bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private void writeType(Type t) throws IOException {
+    if (t instanceof RefType) {
+      writeVarInt(out, T_REF);
+      writeString(((RefType) t).getClassName());
+    } else if (t instanceof ArrayType) {
+      ArrayType at = (ArrayType) t;
+      writeVarInt(out, T_ARRAY);
+      writeType(at.baseType);
+      writeVarInt(out, at.numDimensions);
+    } else if (t instanceof IntType) {
+      writeVarInt(out, T_INT);
+    } else if (t instanceof BooleanType) {
+      writeVarInt(out, T_BOOLEAN);
+    } else if (t instanceof ByteType) {
+      writeVarInt(out, T_BYTE);
+    } else if (t instanceof CharType) {
+      writeVarInt(out, T_CHAR);
+    } else if (t instanceof ShortType) {
+      writeVarInt(out, T_SHORT);
+    } else if (t instanceof LongType) {
+      writeVarInt(out, T_LONG);
+    } else if (t instanceof FloatType) {
+      writeVarInt(out, T_FLOAT);
+    } else if (t instanceof DoubleType) {
+      writeVarInt(out, T_DOUBLE);
+    } else if (t instanceof VoidType) {
+      writeVarInt(out, T_VOID);
+    } else if (t instanceof NullType) {
+      writeVarInt(out, T_NULL);
+    } else {
+      throw new UnsupportedBodyException("Unsupported type: " + t);
+    }
+  }
+
+  private void writeUnitRef(Unit u) throws IOException {
+    Integer idx = units.get(u);
+    if (idx == null) {
+      throw new UnsupportedBodyException("Reference to a unit outside of the body: " + u);
+    }
+    writeVarInt(out, idx);
+  }
+
+  private void writeMethodRef(SootMethodRef ref) throws IOException {
+    writeString(ref.getDeclaringClass().getName());
+    writeString(ref.getName());
+    List<Type> params = ref.getParameterTypes();
+    writeVarInt(out, params.size());
+    for (Type t : params) {
+      writeType(t);
+    }
+    writeType(ref.getReturnType());
+    out.writeBoolean(ref.isStatic());
+  }
+
+  private void writeFieldRef(SootFieldRef ref) throws IOException {
+    writeString(ref.declaringClass().getName());
+    writeString(ref.name());
+    writeType(ref.type());
+  }
+
+  private void writeTags(Host h) throws IOException {
+    List<Tag> tags = h.getTags();
+    writeVarInt(out, tags.size());
+    for (Tag t : tags) {
+      if (t instanceof LineNumberTag) {
+        writeVarInt(out, TAG_LINE_NUMBER);
+        writeVarInt(out, ((LineNumberTag) t).getLineNumber());
+      } else if (t instanceof BytecodeOffsetTag) {
+        writeVarInt(out, TAG_BYTECODE_OFFSET);
+        writeVarInt(out, ((BytecodeOffsetTag) t).getBytecodeOffset());
+      } else if (t instanceof SourceLnPosTag) {
+        SourceLnPosTag pos = (SourceLnPosTag) t;
+        writeVarInt(out, TAG_SOURCE_LN_POS);
+        writeVarInt(out, pos.startLn());
+        writeVarInt(out, pos.endLn());
+        writeVarInt(out, pos.startPos());
+        writeVarInt(out, pos.endPos());
+      } else {
+        throw new UnsupportedBodyException("Unsupported tag: " + t.getName());
+      }
+    }
+  }
+
+  private void writeUnit(Unit u) throws IOException {
+    if (u instanceof AssignStmt) {
+      AssignStmt s = (AssignStmt) u;
+      writeVarInt(out, S_ASSIGN);
+      writeValue(s.getLeftOp());
+      writeValue(s.getRightOp());
+    } else if (u instanceof IdentityStmt) {
+      IdentityStmt s = (IdentityStmt) u;
+      writeVarInt(out, S_IDENTITY);
+      writeValue(s.getLeftOp());
+      writeValue(s.getRightOp());
+    } else if (u instanceof InvokeStmt) {
+      writeVarInt(out, S_INVOKE);
+      writeValue(((InvokeStmt) u).getInvokeExpr());
+    } else if (u instanceof GotoStmt) {
+      writeVarInt(out, S_GOTO);
+      writeUnitRef(((GotoStmt) u).getTarget());
+    } else if (u instanceof IfStmt) {
+      IfStmt s = (IfStmt) u;
+      writeVarInt(out, S_IF);
+      writeValue(s.getCondition());
+      writeUnitRef(s.getTarget());
+    } else if (u instanceof LookupSwitchStmt) {
+      LookupSwitchStmt s = (LookupSwitchStmt) u;
+      writeVarInt(out, S_LOOKUP_SWITCH);
+      writeValue(s.getKey());
+      int count = s.getTargetCount();
+      writeVarInt(out, count);
+      for (int i = 0; i < count; i++) {
+        out.writeInt(s.getLookupValue(i));
+        writeUnitRef(s.getTarget(i));
+      }
+      writeUnitRef(s.getDefaultTarget());
+    } else if (u instanceof TableSwitchStmt) {
+      TableSwitchStmt s = (TableSwitchStmt) u;
+      writeVarInt(out, S_TABLE_SWITCH);
+      writeValue(s.getKey());
+      out.writeInt(s.getLowIndex());
+      out.writeInt(s.getHighIndex());
+      List<Unit> targets = s.getTargets();
+      writeVarInt(out, targets.size());
+      for (Unit target : targets) {
+        writeUnitRef(target);
+      }
+      writeUnitRef(s.getDefaultTarget());
+    } else if (u instanceof ReturnStmt) {
+      writeVarInt(out, S_RETURN);
+      writeValue(((ReturnStmt) u).getOp());
+    } else if (u instanceof ReturnVoidStmt) {
+      writeVarInt(out, S_RETURN_VOID);
+    } else if (u instanceof ThrowStmt) {
+      writeVarInt(out, S_THROW);
+      writeValue(((ThrowStmt) u).getOp());
+    } else if (u instanceof EnterMonitorStmt) {
+      writeVarInt(out, S_ENTER_MONITOR);
+      writeValue(((EnterMonitorStmt) u).getOp());
+    } else if (u instanceof ExitMonitorStmt) {
+      writeVarInt(out, S_EXIT_MONITOR);
+      writeValue(((ExitMonitorStmt) u).getOp());
+    } else if (u instanceof NopStmt) {
+      writeVarInt(out, S_NOP);
+    } else if (u instanceof BreakpointStmt) {
+      writeVarInt(out, S_BREAKPOINT);
+    } else {
+      throw new UnsupportedBodyException("Unsupported statement: " + u);
+    }
+  }
+
+  private void writeValue(Value v) throws IOException {
+    if (v instanceof Local) {
+      Integer idx = locals.get(v);
+      if (idx == null) {
+        throw new UnsupportedBodyException("Local not declared in body: " + v);
+      }
+      writeVarInt(out, V_LOCAL);
+      writeVarInt(out, idx);
+    } else if (v instanceof IntConstant) {
+      writeVarInt(out, V_INT);
+      out.writeInt(((IntConstant) v).value);
+    } else if (v instanceof LongConstant) {
+      writeVarInt(out, V_LONG);
+      out.writeLong(((LongConstant) v).value);
+    } else if (v instanceof FloatConstant) {
+      writeVarInt(out, V_FLOAT);
+      out.writeFloat(((FloatConstant) v).value);
+    } else if (v instanceof DoubleConstant) {
+      writeVarInt(out, V_DOUBLE);
+      out.writeDouble(((DoubleConstant) v).value);
+    } else if (v instanceof StringConstant) {
+      writeVarInt(out, V_STRING);
+      writeString(((StringConstant) v).value);
+    } else if (v instanceof ClassConstant) {
+      writeVarInt(out, V_CLASS);
+      writeString(((ClassConstant) v).value);
+    } else if (v instanceof NullConstant) {
+      writeVarInt(out, V_NULL);
+    } else if (v instanceof ThisRef) {
+      writeVarInt(out, V_THIS);
+      writeType(v.getType());
+    } else if (v instanceof ParameterRef) {
+      ParameterRef r = (ParameterRef) v;
+      writeVarInt(out, V_PARAMETER);
+      writeType(r.getType());
+      writeVarInt(out, r.getIndex());
+    } else if (v instanceof CaughtExceptionRef) {
+      writeVarInt(out, V_CAUGHT_EXCEPTION);
+    } else if (v instanceof StaticFieldRef) {
+      writeVarInt(out, V_STATIC_FIELD);
+      writeFieldRef(((StaticFieldRef) v).getFieldRef());
+    } else if (v instanceof InstanceFieldRef) {
+      InstanceFieldRef r = (InstanceFieldRef) v;
+      writeVarInt(out, V_INSTANCE_FIELD);
+      writeFieldRef(r.getFieldRef());
+      writeValue(r.getBase());
+    } else if (v instanceof ArrayRef) {
+      ArrayRef r = (ArrayRef) v;
+      writeVarInt(out, V_ARRAY);
+      writeValue(r.getBase());
+      writeValue(r.getIndex());
+    } else if (v instanceof BinopExpr) {
+      BinopExpr e = (BinopExpr) v;
+      writeVarInt(out, binopCode(e));
+      writeValue(e.getOp1());
+      writeValue(e.getOp2());
+    } else if (v instanceof NegExpr) {
+      writeVarInt(out, V_NEG);
+      writeValue(((NegExpr) v).getOp());
+    } else if (v instanceof LengthExpr) {
+      writeVarInt(out, V_LENGTH);
+      writeValue(((LengthExpr) v).getOp());
+    } else if (v instanceof CastExpr) {
+      CastExpr e = (CastExpr) v;
+      writeVarInt(out, V_CAST);
+      writeValue(e.getOp());
+      writeType(e.getCastType());
+    } else if (v instanceof InstanceOfExpr) {
+      InstanceOfExpr e = (InstanceOfExpr) v;
+      writeVarInt(out, V_INSTANCE_OF);
+      writeValue(e.getOp());
+      writeType(e.getCheckType());
+    } else if (v instanceof NewExpr) {
+      writeVarInt(out, V_NEW);
+      writeType(((NewExpr) v).getBaseType());
+    } else if (v instanceof NewArrayExpr) {
+      NewArrayExpr e = (NewArrayExpr) v;
+      writeVarInt(out, V_NEW_ARRAY);
+      writeType(e.getBaseType());
+      writeValue(e.getSize());
+    } else if (v instanceof NewMultiArrayExpr) {
+      NewMultiArrayExpr e = (NewMultiArrayExpr) v;
+      writeVarInt(out, V_NEW_MULTI_ARRAY);
+      writeType(e.getBaseType());
+      writeValues(e.getSizes());
+    } else if (v instanceof InvokeExpr) {
+      writeInvoke((InvokeExpr) v);
+    } else {
+      throw new UnsupportedBodyException("Unsupported value: " + v);
+    }
+  }
+
+  private void writeValues(List<Value> values) throws IOException {
+    writeVarInt(out, values.size());
+    for (Value v : values) {
+      writeValue(v);
+    }
+  }
+
+  private void writeInvoke(InvokeExpr e) throws IOException {
+    if (e instanceof StaticInvokeExpr) {
+      writeVarInt(out, V_STATIC_INVOKE);
+    } else if (e instanceof VirtualInvokeExpr) {
+      writeVarInt(out, V_VIRTUAL_INVOKE);
+    } else if (e instanceof SpecialInvokeExpr) {
+      writeVarInt(out, V_SPECIAL_INVOKE);
+    } else if (e instanceof InterfaceInvokeExpr) {
+      writeVarInt(out, V_INTERFACE_INVOKE);
+    } else {
+      // Dynamic invokes carry bootstrap arguments and method handles
+      throw new UnsupportedBodyException("Unsupported invoke expression: " + e);
+    }
+    writeMethodRef(e.getMethodRef());
+    if (e instanceof InstanceInvokeExpr) {
+      writeValue(((InstanceInvokeExpr) e).getBase());
+    }
+    writeValues(e.getArgs());
+  }
+
+  private static int binopCode(BinopExpr e) {
+    if (e instanceof AddExpr) {
+      return V_ADD;
+    } else if (e instanceof AndExpr) {
+      return V_AND;
+    } else if (e instanceof CmpExpr) {
+      return V_CMP;
+    } else if (e instanceof CmpgExpr) {
+      return V_CMPG;
+    } else if (e instanceof CmplExpr) {
+      return V_CMPL;
+    } else if (e instanceof DivExpr) {
+      return V_DIV;
+    } else if (e instanceof EqExpr) {
+      return V_EQ;
+    } else if (e instanceof GeExpr) {
+      return V_GE;
+    } else if (e instanceof GtExpr) {
+      return V_GT;
+    } else if (e instanceof LeExpr) {
+      return V_LE;
+    } else if (e instanceof LtExpr) {
+      return V_LT;
+    } else if (e instanceof MulExpr) {
+      return V_MUL;
+    } else if (e instanceof NeExpr) {
+      return V_NE;
+    } else if (e instanceof OrExpr) {
+      return V_OR;
+    } else if (e instanceof RemExpr) {
+      return V_REM;
+    } else if (e instanceof ShlExpr) {
+      return V_SHL;
+    } else if (e instanceof ShrExpr) {
+      return V_SHR;
+    } else if (e instanceof SubExpr) {
+      return V_SUB;
+    } else if (e instanceof UshrExpr) {
+      return V_USHR;
+    } else if (e instanceof XorExpr) {
+      return V_XOR;
+    }
+    throw new UnsupportedBodyException("Unsupported binary expression: " + e);
+  }
+}
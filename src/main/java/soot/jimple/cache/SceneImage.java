@@ -0,0 +1,902 @@
+package soot.jimple.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static soot.jimple.cache.JimpleBodyFormat.T_ARRAY;
+import static soot.jimple.cache.JimpleBodyFormat.T_BOOLEAN;
+import static soot.jimple.cache.JimpleBodyFormat.T_BYTE;
+import static soot.jimple.cache.JimpleBodyFormat.T_CHAR;
+import static soot.jimple.cache.JimpleBodyFormat.T_DOUBLE;
+import static soot.jimple.cache.JimpleBodyFormat.T_FLOAT;
+import static soot.jimple.cache.JimpleBodyFormat.T_INT;
+import static soot.jimple.cache.JimpleBodyFormat.T_LONG;
+import static soot.jimple.cache.JimpleBodyFormat.T_REF;
+import static soot.jimple.cache.JimpleBodyFormat.T_SHORT;
+import static soot.jimple.cache.JimpleBodyFormat.T_VOID;
+import static soot.jimple.cache.JimpleBodyFormat.readVarInt;
+import static soot.jimple.cache.JimpleBodyFormat.writeVarInt;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.ArrayType;
+import soot.Body;
+import soot.ClassSource;
+import soot.BooleanType;
+import soot.ByteType;
+import soot.CharType;
+import soot.DoubleType;
+import soot.FloatType;
+import soot.G;
+import soot.IntType;
+import soot.Kind;
+import soot.LongType;
+import soot.MethodSource;
+import soot.ModuleUtil;
+import soot.Pack;
+import soot.PackManager;
+import soot.PhaseOptions;
+import soot.RefType;
+import soot.Scene;
+import soot.ShortType;
+import soot.Singletons;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.SourceLocator;
+import soot.Transform;
+import soot.Type;
+import soot.Unit;
+import soot.VoidType;
+import soot.jimple.JimpleBody;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.options.Options;
+
+/**
+ * A binary image of a built {@link Scene}, so that runs over the same input can skip loading the classes and building the
+ * call graph. The image holds the classes with their fields and methods, the method bodies, the main class, the entry points
+ * and the call graph. It is enabled by the <code>scene-image</code> option: {@link Scene#loadNecessaryClasses()} restores
+ * the Scene from a valid image, and the call graph pack is skipped; if there is no valid image, one is saved once the call
+ * graph pack has finished.
+ *
+ * <p>
+ * An image starts with a fixed-size header that holds the hash of everything that determines its contents, such as the
+ * class path with the modification times and sizes of its entries and of the files in its directories and the options of
+ * the <code>jb</code> and <code>cg</code> packs, and the CRC-32 checksum of the rest of the file. Images whose key or
+ * checksum does not match are ignored. Restoring maps the file into memory, and each body is only decoded from the mapping
+ * when it is first retrieved, except for the bodies of the methods with outgoing call edges.
+ *
+ * <p>
+ * The {@link soot.FastHierarchy} is not part of the image, as it is rebuilt on demand from the restored classes, and neither
+ * are points-to sets or the tags of classes and members. When a points-to analysis is enabled in the call graph pack, a
+ * restored image provides its call graph and reachable methods but no points-to sets; the
+ * <code>scene-image-rebuild-pta</code> option ignores the image in that case. Bodies that the {@link JimpleBodyWriter}
+ * cannot serialize are not stored, and are created again from the class path when they are retrieved after restoring the
+ * image; an image is not saved if a call edge leaves a statement of such a body, as the statement could not be restored.
+ */
+public class SceneImage {
+  private static final Logger logger = LoggerFactory.getLogger(SceneImage.class);
+
+  private static final int MAGIC = 0x53494d47;
+  private static final int VERSION = 1;
+  private static final int KEY_LENGTH = 64;
+  /** Magic number, version, key, payload length and payload checksum. */
+  private static final int HEADER_SIZE = 4 + 4 + KEY_LENGTH + 8 + 8;
+
+  private static final int CLASS_LIBRARY = 0;
+  private static final int CLASS_APPLICATION = 1;
+  private static final int CLASS_PHANTOM = 2;
+
+  private static final int NO_UNIT = -1;
+
+  private volatile boolean restored;
+
+  public SceneImage(Singletons.Global g) {
+  }
+
+  public static SceneImage v() {
+    return G.v().soot_jimple_cache_SceneImage();
+  }
+
+  /**
+   * Returns true if an image file has been configured. Images are not used in whole-shimple mode, as the call graph is built
+   * over Shimple bodies there, nor when <code>scene-image-rebuild-pta</code> asks for the points-to sets of an enabled
+   * points-to analysis.
+   */
+  public boolean isEnabled() {
+    return !Options.v().scene_image().isEmpty() && !Options.v().whole_shimple()
+        && !(Options.v().scene_image_rebuild_pta() && isPointsToEnabled());
+  }
+
+  /**
+   * Returns true if the call graph pack computes points-to sets, which the image cannot hold.
+   */
+  private static boolean isPointsToEnabled() {
+    return PhaseOptions.getBoolean(PhaseOptions.v().getPhaseOptions("cg.spark"), "enabled")
+        || PhaseOptions.getBoolean(PhaseOptions.v().getPhaseOptions("cg.paddle"), "enabled");
+  }
+
+  /**
+   * Returns true if the Scene has been restored from an image.
+   */
+  public boolean isRestored() {
+    return restored;
+  }
+
+  /**
+   * Restores the Scene from the configured image file if it is valid for the current options. Returns false if the Scene
+   * must be built as usual.
+   */
+  public boolean restoreFromOptions() {
+    if (!isEnabled()) {
+      return false;
+    }
+    final Path file = Paths.get(Options.v().scene_image());
+    if (!Files.isRegularFile(file)) {
+      return false;
+    }
+    try {
+      if (!restore(file)) {
+        return false;
+      }
+      if (isPointsToEnabled()) {
+        logger.info("Restored the call graph from " + file + ", but no points-to sets");
+      }
+      return true;
+    } catch (IOException e) {
+      throw new RuntimeException("Could not restore the Scene from " + file, e);
+    }
+  }
+
+  /**
+   * Saves the Scene to the configured image file, unless it has been restored from there.
+   */
+  public void saveFromOptions() {
+    if (!isEnabled() || restored) {
+      return;
+    }
+    final Path file = Paths.get(Options.v().scene_image());
+    try {
+      save(file);
+    } catch (IOException e) {
+      logger.warn("Could not save the Scene to " + file + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Writes the current Scene to the given file. The bodies of all concrete methods of application classes are retrieved
+   * first, as the body packs will need them anyway.
+   *
+   * @throws IOException
+   *           if the file cannot be written, or if the Scene contains something that the image cannot represent
+   */
+  public void save(Path file) throws IOException {
+    if (ModuleUtil.module_mode()) {
+      throw new IOException("Scene images are not supported in module mode");
+    }
+    final Scene scene = Scene.v();
+    for (SootClass sc : scene.getApplicationClasses()) {
+      for (SootMethod m : sc.getMethods()) {
+        if (m.isConcrete() && !m.hasActiveBody()) {
+          try {
+            m.retrieveActiveBody();
+          } catch (RuntimeException e) {
+            logger.debug("Could not retrieve the body of " + m.getSignature() + ": " + e.getMessage());
+          }
+        }
+      }
+    }
+
+    final Path parent = file.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    final Path tmp = Files.createTempFile(parent, "image", null);
+    try {
+      try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+        channel.position(HEADER_SIZE);
+        final CRC32 crc = new CRC32();
+        final CheckedOutputStream payload
+            = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc);
+        final DataOutputStream out = new DataOutputStream(payload);
+        new ImageWriter(out).write(scene);
+        out.flush();
+        final long payloadLength = channel.position() - HEADER_SIZE;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.put(computeKey().getBytes(StandardCharsets.US_ASCII));
+        header.putLong(payloadLength);
+        header.putLong(crc.getValue());
+        header.flip();
+        while (header.hasRemaining()) {
+          channel.write(header, header.position());
+        }
+        channel.force(false);
+      }
+      try {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * Restores the Scene from the given file, which must contain an image written with the current class path and options.
+   * The Scene must not contain any classes yet.
+   *
+   * @return false if the file is not a valid image for the current options, in which case the Scene is left unchanged
+   * @throws IOException
+   *           if the file cannot be read, or the image refers to classes or methods it does not contain
+   */
+  public boolean restore(Path file) throws IOException {
+    final Scene scene = Scene.v();
+    if (ModuleUtil.module_mode() || !scene.getClasses().isEmpty()) {
+      logger.warn("Not restoring " + file + ": the Scene already contains classes or is in module mode");
+      return false;
+    }
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    final String problem = validate(buffer);
+    if (problem != null) {
+      logger.warn("Ignoring scene image " + file + ": " + problem);
+      return false;
+    }
+    buffer.position(HEADER_SIZE);
+    new ImageReader(buffer.slice()).read(scene);
+    scene.setDoneResolving();
+    restored = true;
+    return true;
+  }
+
+  /**
+   * Returns a description of why the given image cannot be used, or <code>null</code> if it is valid.
+   */
+  private static String validate(ByteBuffer buffer) {
+    if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      return "not a scene image";
+    }
+    if (buffer.getInt(4) != VERSION) {
+      return "unsupported version " + buffer.getInt(4);
+    }
+    byte[] key = new byte[KEY_LENGTH];
+    ByteBuffer header = buffer.duplicate();
+    header.position(8);
+    header.get(key);
+    if (!computeKey().equals(new String(key, StandardCharsets.US_ASCII))) {
+      return "written for another class path or other options";
+    }
+    final long payloadLength = header.getLong();
+    final long checksum = header.getLong();
+    if (payloadLength != buffer.limit() - HEADER_SIZE) {
+      return "truncated";
+    }
+    ByteBuffer payload = buffer.duplicate();
+    payload.position(HEADER_SIZE);
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    if (crc.getValue() != checksum) {
+      return "checksum mismatch";
+    }
+    return null;
+  }
+
+  /**
+   * Returns the hash of everything apart from the classes themselves that determines the Scene and the call graph.
+   */
+  private static String computeKey() {
+    final Options opts = Options.v();
+    StringBuilder sb = new StringBuilder();
+    sb.append(VERSION);
+    sb.append(" classpath=").append(Scene.v().getSootClassPath());
+    List<String> inputs = new ArrayList<String>(opts.process_dir());
+    for (String entry : Scene.v().getSootClassPath().split(File.pathSeparator)) {
+      inputs.add(entry);
+    }
+    for (String input : inputs) {
+      File f = new File(input);
+      sb.append(' ').append(f.getAbsolutePath()).append('@').append(f.lastModified()).append(':').append(f.length());
+      if (f.isDirectory()) {
+        appendDirectory(sb, f, "");
+      }
+    }
+    sb.append(" process-dir=").append(opts.process_dir());
+    sb.append(" classes=").append(opts.classes());
+    sb.append(" main-class=").append(opts.main_class());
+    sb.append(" app=").append(opts.app());
+    sb.append(" include=").append(opts.include());
+    sb.append(" exclude=").append(opts.exclude());
+    sb.append(" include-all=").append(opts.include_all());
+    sb.append(" dynamic=").append(opts.dynamic_class()).append(opts.dynamic_dir()).append(opts.dynamic_package());
+    sb.append(" allow-phantom-refs=").append(opts.allow_phantom_refs());
+    sb.append(" allow-phantom-elms=").append(opts.allow_phantom_elms());
+    sb.append(" src-prec=").append(opts.src_prec());
+    sb.append(" whole-program=").append(opts.whole_program());
+    sb.append(" whole-shimple=").append(opts.whole_shimple());
+    sb.append(" keep-line-number=").append(opts.keep_line_number());
+    sb.append(" keep-offset=").append(opts.keep_offset());
+    for (String packName : new String[] { "jb", "wjpp", "wspp", "cg" }) {
+      Pack pack = PackManager.v().getPack(packName);
+      JimpleBodyCache.appendPhaseOptions(sb, pack);
+      for (Transform t : pack) {
+        sb.append(' ').append(t.getTransformer().getClass().getName());
+        JimpleBodyCache.appendPhaseOptions(sb, t);
+      }
+    }
+    return JimpleBodyCache.hash(sb.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Appends the relative path, modification time and size of every file below the given directory, in a fixed order. The
+   * modification time of a directory does not change when a file inside it is edited.
+   */
+  private static void appendDirectory(StringBuilder sb, File dir, String prefix) {
+    final File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    Arrays.sort(children);
+    for (File child : children) {
+      final String path = prefix + child.getName();
+      if (child.isDirectory()) {
+        appendDirectory(sb, child, path + '/');
+      } else {
+        sb.append(' ').append(path).append('@').append(child.lastModified()).append(':').append(child.length());
+      }
+    }
+  }
+
+  private static Map<String, Kind> kindsByName() {
+    Map<String, Kind> kinds = new HashMap<String, Kind>();
+    for (Field f : Kind.class.getFields()) {
+      if (Modifier.isStatic(f.getModifiers()) && f.getType() == Kind.class) {
+        try {
+          Kind k = (Kind) f.get(null);
+          kinds.put(k.name(), k);
+        } catch (IllegalAccessException e) {
+          // Public fields are always accessible
+          throw new RuntimeException(e);
+        }
+      }
+    }
+    return kinds;
+  }
+
+  /**
+   * Writes the payload of an image. Strings are written only once and referenced by index afterwards, and methods are
+   * referenced by their position in the image.
+   */
+  private static class ImageWriter {
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+    private final Map<SootMethod, Integer> methods = new HashMap<SootMethod, Integer>();
+    private final Set<SootMethod> storedBodies = new HashSet<SootMethod>();
+
+    ImageWriter(DataOutputStream out) {
+      this.out = out;
+    }
+
+    void write(Scene scene) throws IOException {
+      final List<SootClass> classes = new ArrayList<SootClass>(scene.getClasses());
+      writeVarInt(out, classes.size());
+      for (SootClass sc : classes) {
+        writeString(sc.getName());
+        writeVarInt(out, sc.getModifiers());
+        writeVarInt(out, sc.resolvingLevel());
+        writeVarInt(out, sc.isPhantom() ? CLASS_PHANTOM : sc.isApplicationClass() ? CLASS_APPLICATION : CLASS_LIBRARY);
+      }
+      for (SootClass sc : classes) {
+        writeMembers(sc);
+      }
+
+      writeString(scene.hasMainClass() ? scene.getMainClass().getName() : "");
+      List<Integer> entryPoints = new ArrayList<Integer>();
+      for (SootMethod m : scene.getEntryPoints()) {
+        Integer idx = methods.get(m);
+        if (idx != null) {
+          entryPoints.add(idx);
+        }
+      }
+      writeVarInt(out, entryPoints.size());
+      for (int idx : entryPoints) {
+        writeVarInt(out, idx);
+      }
+
+      out.writeBoolean(scene.hasCallGraph());
+      if (scene.hasCallGraph()) {
+        writeCallGraph(scene.getCallGraph());
+      }
+    }
+
+    private void writeMembers(SootClass sc) throws IOException {
+      writeString(sc.hasSuperclass() ? sc.getSuperclass().getName() : "");
+      writeVarInt(out, sc.getInterfaceCount());
+      for (SootClass i : sc.getInterfaces()) {
+        writeString(i.getName());
+      }
+      writeString(sc.hasOuterClass() ? sc.getOuterClass().getName() : "");
+
+      writeVarInt(out, sc.getFieldCount());
+      for (SootField f : sc.getFields()) {
+        writeString(f.getName());
+        writeType(f.getType());
+        writeVarInt(out, f.getModifiers());
+        out.writeBoolean(f.isPhantom());
+      }
+
+      writeVarInt(out, sc.getMethodCount());
+      for (SootMethod m : sc.getMethods()) {
+        methods.put(m, methods.size());
+        writeString(m.getName());
+        writeVarInt(out, m.getParameterCount());
+        for (Type t : m.getParameterTypes()) {
+          writeType(t);
+        }
+        writeType(m.getReturnType());
+        writeVarInt(out, m.getModifiers());
+        writeVarInt(out, m.getExceptionsUnsafe() == null ? 0 : m.getExceptionsUnsafe().size());
+        if (m.getExceptionsUnsafe() != null) {
+          for (SootClass e : m.getExceptionsUnsafe()) {
+            writeString(e.getName());
+          }
+        }
+        out.writeBoolean(m.isPhantom());
+
+        byte[] body = null;
+        if (m.hasActiveBody()) {
+          Body b = m.getActiveBody();
+          if (b instanceof JimpleBody) {
+            body = JimpleBodyWriter.toByteArray((JimpleBody) b, m.getSubSignature());
+          }
+        }
+        if (body == null) {
+          writeVarInt(out, 0);
+        } else {
+          writeVarInt(out, body.length);
+          out.write(body);
+          storedBodies.add(m);
+        }
+      }
+    }
+
+    private void writeCallGraph(CallGraph cg) throws IOException {
+      final Map<SootMethod, Map<Unit, Integer>> unitIndices = new HashMap<SootMethod, Map<Unit, Integer>>();
+      final List<Edge> edges = new ArrayList<Edge>();
+      for (Iterator<Edge> it = cg.iterator(); it.hasNext();) {
+        Edge e = it.next();
+        if (e.srcCtxt() != null || e.tgtCtxt() != null) {
+          throw new IOException("Context-sensitive call graphs are not supported");
+        }
+        if (methods.containsKey(e.src()) && methods.containsKey(e.tgt())) {
+          edges.add(e);
+        }
+      }
+      writeVarInt(out, edges.size());
+      for (Edge e : edges) {
+        final SootMethod src = e.src();
+        Map<Unit, Integer> indices = unitIndices.get(src);
+        if (indices == null) {
+          indices = new HashMap<Unit, Integer>();
+          if (storedBodies.contains(src)) {
+            for (Unit u : src.getActiveBody().getUnits()) {
+              indices.put(u, indices.size());
+            }
+          }
+          unitIndices.put(src, indices);
+        }
+        Integer unit = null;
+        if (e.srcUnit() != null) {
+          unit = indices.get(e.srcUnit());
+          if (unit == null) {
+            // A body that is not stored is created again from the class path after restoring, with new statements
+            throw new IOException("Cannot store the call at " + e.srcUnit() + " in " + src.getSignature()
+                + ", as it is not a statement of a stored body");
+          }
+        }
+        writeVarInt(out, methods.get(src));
+        writeVarInt(out, unit == null ? NO_UNIT + 1 : unit + 1);
+        writeVarInt(out, methods.get(e.tgt()));
+        writeString(e.kind().name());
+      }
+    }
+
+    private void writeString(String s) throws IOException {
+      Integer idx = strings.get(s);
+      if (idx != null) {
+        writeVarInt(out, idx + 1);
+      } else {
+        strings.put(s, strings.size());
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, 0);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+      }
+    }
+
+    private void writeType(Type t) throws IOException {
+      if (t instanceof RefType) {
+        writeVarInt(out, T_REF);
+        writeString(((RefType) t).getClassName());
+      } else if (t instanceof ArrayType) {
+        ArrayType at = (ArrayType) t;
+        writeVarInt(out, T_ARRAY);
+        writeType(at.baseType);
+        writeVarInt(out, at.numDimensions);
+      } else if (t instanceof IntType) {
+        writeVarInt(out, T_INT);
+      } else if (t instanceof BooleanType) {
+        writeVarInt(out, T_BOOLEAN);
+      } else if (t instanceof ByteType) {
+        writeVarInt(out, T_BYTE);
+      } else if (t instanceof CharType) {
+        writeVarInt(out, T_CHAR);
+      } else if (t instanceof ShortType) {
+        writeVarInt(out, T_SHORT);
+      } else if (t instanceof LongType) {
+        writeVarInt(out, T_LONG);
+      } else if (t instanceof FloatType) {
+        writeVarInt(out, T_FLOAT);
+      } else if (t instanceof DoubleType) {
+        writeVarInt(out, T_DOUBLE);
+      } else if (t instanceof VoidType) {
+        writeVarInt(out, T_VOID);
+      } else {
+        throw new IOException("Unsupported type: " + t);
+      }
+    }
+  }
+
+  /**
+   * Reads the payload of an image into the Scene.
+   */
+  private static class ImageReader {
+    private final ByteBuffer buffer;
+    private final DataInputStream in;
+    private final List<String> strings = new ArrayList<String>();
+    private final List<SootMethod> methods = new ArrayList<SootMethod>();
+
+    ImageReader(ByteBuffer buffer) {
+      this.buffer = buffer;
+      this.in = new DataInputStream(new ByteBufferInputStream(buffer));
+    }
+
+    void read(Scene scene) throws IOException {
+      final SootClass[] classes = new SootClass[readVarInt(in)];
+      final int[] levels = new int[classes.length];
+      for (int i = 0; i < classes.length; i++) {
+        SootClass sc = new SootClass(readString(), readVarInt(in));
+        levels[i] = readVarInt(in);
+        int kind = readVarInt(in);
+        scene.addClass(sc);
+        if (kind == CLASS_PHANTOM) {
+          sc.setPhantomClass();
+        } else if (kind == CLASS_APPLICATION) {
+          sc.setApplicationClass();
+        }
+        classes[i] = sc;
+      }
+      for (int i = 0; i < classes.length; i++) {
+        readMembers(scene, classes[i]);
+        classes[i].setResolvingLevel(levels[i]);
+      }
+
+      String mainClass = readString();
+      if (!mainClass.isEmpty()) {
+        scene.setMainClass(readClass(scene, mainClass));
+      }
+      List<SootMethod> entryPoints = new ArrayList<SootMethod>();
+      for (int count = readVarInt(in); count > 0; count--) {
+        entryPoints.add(readMethod());
+      }
+      scene.setEntryPoints(entryPoints);
+
+      if (in.readBoolean()) {
+        scene.setCallGraph(readCallGraph(scene));
+      }
+    }
+
+    private void readMembers(Scene scene, SootClass sc) throws IOException {
+      String superclass = readString();
+      if (!superclass.isEmpty()) {
+        sc.setSuperclass(readClass(scene, superclass));
+      }
+      for (int count = readVarInt(in); count > 0; count--) {
+        sc.addInterface(readClass(scene, readString()));
+      }
+      String outerClass = readString();
+      if (!outerClass.isEmpty()) {
+        sc.setOuterClass(readClass(scene, outerClass));
+      }
+
+      for (int count = readVarInt(in); count > 0; count--) {
+        String name = readString();
+        SootField f = scene.makeSootField(name, readType(), readVarInt(in));
+        sc.addField(f);
+        if (in.readBoolean()) {
+          f.setPhantom(true);
+        }
+      }
+
+      for (int count = readVarInt(in); count > 0; count--) {
+        String name = readString();
+        List<Type> parameterTypes = new ArrayList<Type>();
+        for (int p = readVarInt(in); p > 0; p--) {
+          parameterTypes.add(readType());
+        }
+        Type returnType = readType();
+        int modifiers = readVarInt(in);
+        List<SootClass> exceptions = new ArrayList<SootClass>();
+        for (int e = readVarInt(in); e > 0; e--) {
+          exceptions.add(readClass(scene, readString()));
+        }
+        SootMethod m = scene.makeSootMethod(name, parameterTypes, returnType, modifiers, exceptions);
+        sc.addMethod(m);
+        if (in.readBoolean()) {
+          m.setPhantom(true);
+        }
+        methods.add(m);
+
+        final int bodyLength = readVarInt(in);
+        if (bodyLength > 0) {
+          if (bodyLength > buffer.remaining()) {
+            throw new IOException("Body of " + m.getSignature() + " exceeds the image");
+          }
+          ByteBuffer body = buffer.duplicate();
+          body.limit(body.position() + bodyLength);
+          m.setSource(new ImageMethodSource(body.slice()));
+          buffer.position(buffer.position() + bodyLength);
+        } else if (m.isConcrete()) {
+          m.setSource(MISSING_BODY);
+        }
+      }
+    }
+
+    private CallGraph readCallGraph(Scene scene) throws IOException {
+      final Map<String, Kind> kinds = kindsByName();
+      final Map<SootMethod, Unit[]> units = new HashMap<SootMethod, Unit[]>();
+      final CallGraph cg = scene.internalMakeCallGraph();
+      for (int count = readVarInt(in); count > 0; count--) {
+        final SootMethod src = readMethod();
+        final int unitIdx = readVarInt(in) - 1;
+        final SootMethod tgt = readMethod();
+        final String kindName = readString();
+        final Kind kind = kinds.get(kindName);
+        if (kind == null) {
+          throw new IOException("Unknown edge kind " + kindName);
+        }
+        Unit srcUnit = null;
+        if (unitIdx != NO_UNIT) {
+          Unit[] srcUnits = units.get(src);
+          if (srcUnits == null) {
+            srcUnits = src.retrieveActiveBody().getUnits().toArray(new Unit[0]);
+            units.put(src, srcUnits);
+          }
+          if (unitIdx >= srcUnits.length) {
+            throw new IOException("Invalid unit index " + unitIdx + " in " + src.getSignature());
+          }
+          srcUnit = srcUnits[unitIdx];
+        }
+        cg.addEdge(new Edge(src, srcUnit, tgt, kind));
+      }
+      return cg;
+    }
+
+    private SootMethod readMethod() throws IOException {
+      int idx = readVarInt(in);
+      if (idx >= methods.size()) {
+        throw new IOException("Invalid method index " + idx);
+      }
+      return methods.get(idx);
+    }
+
+    private static SootClass readClass(Scene scene, String name) throws IOException {
+      SootClass sc = scene.getSootClassUnsafe(name, false);
+      if (sc == null) {
+        throw new IOException("Class " + name + " is not part of the image");
+      }
+      return sc;
+    }
+
+    private String readString() throws IOException {
+      int idx = readVarInt(in);
+      if (idx > 0) {
+        if (idx > strings.size()) {
+          throw new IOException("Invalid string index " + idx);
+        }
+        return strings.get(idx - 1);
+      }
+      byte[] bytes = new byte[readVarInt(in)];
+      in.readFully(bytes);
+      String s = new String(bytes, StandardCharsets.UTF_8);
+      strings.add(s);
+      return s;
+    }
+
+    private Type readType() throws IOException {
+      int kind = readVarInt(in);
+      switch (kind) {
+        case T_BOOLEAN:
+          return BooleanType.v();
+        case T_BYTE:
+          return ByteType.v();
+        case T_CHAR:
+          return CharType.v();
+        case T_SHORT:
+          return ShortType.v();
+        case T_INT:
+          return IntType.v();
+        case T_LONG:
+          return LongType.v();
+        case T_FLOAT:
+          return FloatType.v();
+        case T_DOUBLE:
+          return DoubleType.v();
+        case T_VOID:
+          return VoidType.v();
+        case T_REF:
+          return RefType.v(readString());
+        case T_ARRAY: {
+          Type base = readType();
+          return ArrayType.v(base, readVarInt(in));
+        }
+        default:
+          throw new IOException("Invalid type kind " + kind);
+      }
+    }
+  }
+
+  /**
+   * Decodes a body from the mapped image when it is first retrieved.
+   */
+  private static class ImageMethodSource implements MethodSource {
+    private final ByteBuffer body;
+
+    ImageMethodSource(ByteBuffer body) {
+      this.body = body;
+    }
+
+    @Override
+    public Body getBody(SootMethod m, String phaseName) {
+      try {
+        return new JimpleBodyReader(new ByteBufferInputStream(body.duplicate())).read(m);
+      } catch (IOException e) {
+        throw new RuntimeException("Could not restore the body of " + m.getSignature() + " from the scene image", e);
+      }
+    }
+  }
+
+  /**
+   * Source of the concrete methods whose bodies are not part of the image. The declaring class is read again from the class
+   * path, which the key of the image ties to the one the image was written from, and the methods of the class that are
+   * still missing their bodies get the sources found there.
+   */
+  private static final MethodSource MISSING_BODY = new MethodSource() {
+    @Override
+    public Body getBody(SootMethod m, String phaseName) {
+      final SootClass declaring = m.getDeclaringClass();
+      synchronized (declaring) {
+        if (m.getSource() == this) {
+          readSourcesFromClassPath(declaring);
+        }
+      }
+      final MethodSource source = m.getSource();
+      if (source == this || source == null) {
+        throw new RuntimeException("The body of " + m.getSignature() + " is neither part of the scene image nor on the "
+            + "class path");
+      }
+      return source.getBody(m, phaseName);
+    }
+  };
+
+  private static void readSourcesFromClassPath(SootClass sc) {
+    final ClassSource source = SourceLocator.v().getClassSource(sc.getName());
+    if (source == null) {
+      return;
+    }
+    try {
+      // A detached copy of the class, so that the RefType keeps pointing to the restored one
+      final SootClass copy = new SootClass(sc.getName(), sc.getModifiers()) {
+        @Override
+        protected void initializeRefType(String name, String moduleName) {
+        }
+      };
+      source.resolve(copy);
+      for (SootMethod m : sc.getMethods()) {
+        if (m.getSource() == MISSING_BODY) {
+          SootMethod original = copy.getMethodUnsafe(m.getSubSignature());
+          if (original != null && original.getSource() != null) {
+            m.setSource(original.getSource());
+          }
+        }
+      }
+    } finally {
+      source.close();
+    }
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
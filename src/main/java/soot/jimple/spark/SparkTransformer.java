@@ -60,6 +60,7 @@ import soot.jimple.spark.solver.PropAlias;
 import soot.jimple.spark.solver.PropCycle;
 import soot.jimple.spark.solver.PropIter;
 import soot.jimple.spark.solver.PropMerge;
+import soot.jimple.spark.solver.PropParallel;
 import soot.jimple.spark.solver.PropWorklist;
 import soot.jimple.spark.solver.Propagator;
 import soot.jimple.spark.solver.SCCCollapser;
@@ -228,6 +229,9 @@ public class SparkTransformer extends SceneTransformer {
       case SparkOptions.propagator_alias:
         propagator = new PropAlias(pag);
         break;
+      case SparkOptions.propagator_parallel:
+        propagator = new PropParallel(pag);
+        break;
       case SparkOptions.propagator_none:
         break;
       default:
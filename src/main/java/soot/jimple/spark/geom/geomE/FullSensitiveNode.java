@@ -39,6 +39,7 @@ import soot.jimple.spark.geom.dataRep.PlainConstraint;
 import soot.jimple.spark.geom.dataRep.RectangleNode;
 import soot.jimple.spark.geom.dataRep.SegmentNode;
 import soot.jimple.spark.geom.geomPA.Constants;
+import soot.jimple.spark.geom.geomPA.FigureUpdates;
 import soot.jimple.spark.geom.geomPA.GeomPointsTo;
 import soot.jimple.spark.geom.geomPA.IVarAbstraction;
 import soot.jimple.spark.geom.geomPA.IWorklist;
@@ -198,7 +199,7 @@ public class FullSensitiveNode extends IVarAbstraction {
     pres.I2 = I2;
     pres.L = L;
 
-    return addPointsTo(GeometricManager.ONE_TO_ONE, obj);
+    return addPointsTo(GeometricManager.ONE_TO_ONE, pres, obj);
   }
 
   @Override
@@ -208,7 +209,7 @@ public class FullSensitiveNode extends IVarAbstraction {
     pres.L = L1;
     pres.L_prime = L2;
 
-    return addPointsTo(GeometricManager.MANY_TO_MANY, obj);
+    return addPointsTo(GeometricManager.MANY_TO_MANY, pres, obj);
   }
 
   @Override
@@ -217,7 +218,7 @@ public class FullSensitiveNode extends IVarAbstraction {
     pres.I2 = I2;
     pres.L = L;
 
-    return addFlowsTo(GeometricManager.ONE_TO_ONE, qv);
+    return addFlowsTo(GeometricManager.ONE_TO_ONE, pres, qv);
   }
 
   @Override
@@ -227,7 +228,17 @@ public class FullSensitiveNode extends IVarAbstraction {
     pres.L = L1;
     pres.L_prime = L2;
 
-    return addFlowsTo(GeometricManager.MANY_TO_MANY, qv);
+    return addFlowsTo(GeometricManager.MANY_TO_MANY, pres, qv);
+  }
+
+  @Override
+  public boolean add_points_to_figure(int code, RectangleNode figure, AllocNode obj) {
+    return addPointsTo(code, figure, obj);
+  }
+
+  @Override
+  public boolean add_flows_to_figure(int code, RectangleNode figure, IVarAbstraction qv) {
+    return addFlowsTo(code, figure, qv);
   }
 
   @Override
@@ -245,11 +256,22 @@ public class FullSensitiveNode extends IVarAbstraction {
     }
   }
 
-  /**
-   * The place where you implement the pointer assignment reasoning.
-   */
   @Override
   public void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist) {
+    propagate(ptAnalyzer, worklist, null);
+  }
+
+  @Override
+  public void propagate(GeomPointsTo ptAnalyzer, FigureUpdates updates) {
+    propagate(ptAnalyzer, null, updates);
+  }
+
+  /**
+   * The place where you implement the pointer assignment reasoning. If updates is given, the figures for other pointers are
+   * recorded there and nothing is pushed to the worklist.
+   */
+  private void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist, FigureUpdates updates) {
+    RectangleNode pres = (updates == null ? IVarAbstraction.pres : updates.getCandidate());
     int i, j;
     AllocNode obj;
     SegmentNode pts, pe, entry_pts[], entry_pe[];
@@ -298,14 +320,14 @@ public class FullSensitiveNode extends IVarAbstraction {
               switch (pcons.type) {
                 case Constants.STORE_CONS:
                   // Store, qv -> pv.field
-                  if (instantiateStoreConstraint(qn, objn, pts, (pcons.code << 8) | i)) {
+                  if (instantiateStoreConstraint(qn, objn, pts, (pcons.code << 8) | i, pres, updates)) {
                     worklist.push(qn);
                   }
                   break;
 
                 case Constants.LOAD_CONS:
                   // Load, pv.field -> qv
-                  if (instantiateLoadConstraint(objn, qn, pts, (pcons.code << 8) | i)) {
+                  if (instantiateLoadConstraint(objn, qn, pts, (pcons.code << 8) | i, pres, updates)) {
                     worklist.push(objn);
                   }
                   break;
@@ -363,7 +385,7 @@ public class FullSensitiveNode extends IVarAbstraction {
 
                 while (pts != null && (pts.is_new || pe.is_new)) {
                   // Propagate this object
-                  if (reasonAndPropagate(qn, obj, pts, pe, (i << 8) | j)) {
+                  if (reasonAndPropagate(qn, obj, pts, pe, (i << 8) | j, pres, updates)) {
                     added = true;
                   }
                   pts = pts.next;
@@ -401,7 +423,7 @@ public class FullSensitiveNode extends IVarAbstraction {
 
                 while (pe != null) {
                   // Propagate this object
-                  if (reasonAndPropagate(qn, obj, pts, pe, (i << 8) | j)) {
+                  if (reasonAndPropagate(qn, obj, pts, pe, (i << 8) | j, pres, updates)) {
                     added = true;
                   }
                   pe = pe.next;
@@ -677,7 +699,7 @@ public class FullSensitiveNode extends IVarAbstraction {
   /**
    * A non-interface public function. It adds the points-to tuple to the geometric manager.
    */
-  private boolean addPointsTo(int code, AllocNode obj) {
+  private boolean addPointsTo(int code, RectangleNode pres, AllocNode obj) {
     GeometricManager gm = pt_objs.get(obj);
 
     if (gm == null) {
@@ -700,7 +722,7 @@ public class FullSensitiveNode extends IVarAbstraction {
   /**
    * A non-interface public function. It adds the flows-to tuple to the geometric manager.
    */
-  private boolean addFlowsTo(int code, IVarAbstraction qv) {
+  private boolean addFlowsTo(int code, RectangleNode pres, IVarAbstraction qv) {
     GeometricManager gm = flowto.get(qv);
 
     if (gm == null) {
@@ -715,6 +737,30 @@ public class FullSensitiveNode extends IVarAbstraction {
     return false;
   }
 
+  /**
+   * Adds the points-to figure pres to qn, or records it in updates. Recorded figures are reported as not new.
+   */
+  private static boolean emitPointsTo(FullSensitiveNode qn, int code, RectangleNode pres, AllocNode obj,
+      FigureUpdates updates) {
+    if (updates != null) {
+      updates.addPointsTo(qn, code, pres, obj);
+      return false;
+    }
+    return qn.addPointsTo(code, pres, obj);
+  }
+
+  /**
+   * Adds the flows-to figure pres to pn, or records it in updates. Recorded figures are reported as not new.
+   */
+  private static boolean emitFlowsTo(FullSensitiveNode pn, int code, RectangleNode pres, FullSensitiveNode qn,
+      FigureUpdates updates) {
+    if (updates != null) {
+      updates.addFlowsTo(pn, code, pres, qn);
+      return false;
+    }
+    return pn.addFlowsTo(code, pres, qn);
+  }
+
   private void do_pts_interval_merge() {
     for (GeometricManager gm : new_pts.values()) {
       gm.mergeFigures(Parameters.max_pts_budget);
@@ -740,7 +786,7 @@ public class FullSensitiveNode extends IVarAbstraction {
   /**
    * Implement the inference rules when the input points-to figure is a one-to-one mapping.
    */
-  private static int infer_pts_is_one_to_one(SegmentNode pts, SegmentNode pe, int code) {
+  private static int infer_pts_is_one_to_one(SegmentNode pts, SegmentNode pe, int code, RectangleNode pres) {
     long interI, interJ;
 
     // The left-end is the larger one
@@ -773,7 +819,7 @@ public class FullSensitiveNode extends IVarAbstraction {
   /**
    * Implement the inference rules when the input points-to figure is a many-to-many mapping.
    */
-  private static int infer_pts_is_many_to_many(RectangleNode pts, SegmentNode pe, int code) {
+  private static int infer_pts_is_many_to_many(RectangleNode pts, SegmentNode pe, int code, RectangleNode pres) {
     long interI, interJ;
 
     // The left-end is the larger one
@@ -812,23 +858,24 @@ public class FullSensitiveNode extends IVarAbstraction {
    *
    * Return value is used to indicate the type of the result
    */
-  private static boolean reasonAndPropagate(FullSensitiveNode qn, AllocNode obj, SegmentNode pts, SegmentNode pe, int code) {
+  private static boolean reasonAndPropagate(FullSensitiveNode qn, AllocNode obj, SegmentNode pts, SegmentNode pe, int code,
+      RectangleNode pres, FigureUpdates updates) {
     int ret_type = GeometricManager.Undefined_Mapping;
 
     switch (code >> 8) {
       case GeometricManager.ONE_TO_ONE:
         // points-to is a 1-1 mapping
-        ret_type = infer_pts_is_one_to_one(pts, pe, code & 255);
+        ret_type = infer_pts_is_one_to_one(pts, pe, code & 255, pres);
         break;
 
       case GeometricManager.MANY_TO_MANY:
         // points-to is a mangy-many mapping
-        ret_type = infer_pts_is_many_to_many((RectangleNode) pts, pe, code & 255);
+        ret_type = infer_pts_is_many_to_many((RectangleNode) pts, pe, code & 255, pres);
         break;
     }
 
     if (ret_type != GeometricManager.Undefined_Mapping) {
-      return qn.addPointsTo(ret_type, obj);
+      return emitPointsTo(qn, ret_type, pres, obj, updates);
     }
 
     return false;
@@ -837,7 +884,8 @@ public class FullSensitiveNode extends IVarAbstraction {
   /**
    * The last parameter code can only be 1-1 and many-1
    */
-  private static boolean instantiateLoadConstraint(FullSensitiveNode objn, FullSensitiveNode qn, SegmentNode pts, int code) {
+  private static boolean instantiateLoadConstraint(FullSensitiveNode objn, FullSensitiveNode qn, SegmentNode pts, int code,
+      RectangleNode pres, FigureUpdates updates) {
     int ret_type = GeometricManager.Undefined_Mapping;
 
     if ((code >> 8) == GeometricManager.ONE_TO_ONE) {
@@ -881,12 +929,12 @@ public class FullSensitiveNode extends IVarAbstraction {
       }
     }
 
-    return objn.addFlowsTo(ret_type, qn);
+    return emitFlowsTo(objn, ret_type, pres, qn, updates);
   }
 
   // code can only be 1-1 and 1-many
   private static boolean instantiateStoreConstraint(FullSensitiveNode qn, FullSensitiveNode objn, SegmentNode pts,
-      int code) {
+      int code, RectangleNode pres, FigureUpdates updates) {
     int ret_type = GeometricManager.Undefined_Mapping;
 
     if ((code >> 8) == GeometricManager.ONE_TO_ONE) {
@@ -929,6 +977,6 @@ public class FullSensitiveNode extends IVarAbstraction {
       }
     }
 
-    return qn.addFlowsTo(ret_type, objn);
+    return emitFlowsTo(qn, ret_type, pres, objn, updates);
   }
 }
@@ -27,6 +27,7 @@ import java.util.Set;
 
 import soot.jimple.spark.geom.dataMgr.PtSensVisitor;
 import soot.jimple.spark.geom.dataRep.PlainConstraint;
+import soot.jimple.spark.geom.dataRep.RectangleNode;
 import soot.jimple.spark.pag.AllocNode;
 import soot.jimple.spark.pag.Node;
 
@@ -99,6 +100,20 @@ public class DummyNode extends IVarAbstraction {
 
   }
 
+  @Override
+  public void propagate(GeomPointsTo ptAnalyzer, FigureUpdates updates) {
+  }
+
+  @Override
+  public boolean add_points_to_figure(int code, RectangleNode figure, AllocNode obj) {
+    return false;
+  }
+
+  @Override
+  public boolean add_flows_to_figure(int code, RectangleNode figure, IVarAbstraction qv) {
+    return false;
+  }
+
   @Override
   public void drop_duplicates() {
     // TODO Auto-generated method stub
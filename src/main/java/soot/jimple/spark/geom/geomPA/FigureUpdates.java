@@ -0,0 +1,99 @@
+package soot.jimple.spark.geom.geomPA;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import soot.jimple.spark.geom.dataRep.RectangleNode;
+import soot.jimple.spark.pag.AllocNode;
+
+/**
+ * The figures that the propagation of one pointer adds to other pointers, recorded instead of being added right away. The
+ * parallel solver propagates several pointers at once this way and adds the recorded figures afterwards.
+ *
+ * It also provides the rectangle the inference rules fill, which is shared by all pointers in the sequential solver.
+ */
+public class FigureUpdates {
+  /**
+   * A figure added to the points-to set or to a flows-to edge of owner.
+   */
+  public static class Update {
+    public final IVarAbstraction owner;
+    public final int code;
+    public final RectangleNode figure;
+    // Exactly one of obj and qv is set
+    public final AllocNode obj;
+    public final IVarAbstraction qv;
+
+    Update(IVarAbstraction owner, int code, RectangleNode figure, AllocNode obj, IVarAbstraction qv) {
+      this.owner = owner;
+      this.code = code;
+      this.figure = figure;
+      this.obj = obj;
+      this.qv = qv;
+    }
+
+    /**
+     * Adds the figure to its owner. Returns true if the owner has to be propagated again.
+     */
+    public boolean apply() {
+      if (obj != null) {
+        return owner.add_points_to_figure(code, figure, obj);
+      }
+      return owner.add_flows_to_figure(code, figure, qv);
+    }
+  }
+
+  private final RectangleNode pres = new RectangleNode();
+  private final List<Update> updates = new ArrayList<Update>();
+
+  /**
+   * The rectangle the inference rules fill with the candidate figure.
+   */
+  public RectangleNode getCandidate() {
+    return pres;
+  }
+
+  /**
+   * Records that the points-to tuple (obj, figure) goes to owner.
+   */
+  public void addPointsTo(IVarAbstraction owner, int code, RectangleNode figure, AllocNode obj) {
+    updates.add(new Update(owner, code, new RectangleNode(figure), obj, null));
+  }
+
+  /**
+   * Records that the flow edge (owner -> qv, figure) is added.
+   */
+  public void addFlowsTo(IVarAbstraction owner, int code, RectangleNode figure, IVarAbstraction qv) {
+    updates.add(new Update(owner, code, new RectangleNode(figure), null, qv));
+  }
+
+  /**
+   * The recorded updates, in the order they were made.
+   */
+  public List<Update> getUpdates() {
+    return updates;
+  }
+}
@@ -98,6 +98,8 @@ public class GeomPointsTo extends PAG {
   // Worklist, the core data structure for fixed point computation
   // Other choice, FIFO_Worklist
   protected IWorklist worklist = null;
+  // Solves the constraints with several threads if not null
+  protected ParallelPropagator parallelPropagator = null;
 
   // The generator that is used to generate the internal representations for the
   // pointers and objects
@@ -263,6 +265,11 @@ public class GeomPointsTo extends PAG {
       case SparkOptions.geom_worklist_PQ:
         worklist = new PQ_Worklist();
         break;
+
+      case SparkOptions.geom_worklist_Parallel:
+        worklist = new FIFO_Worklist();
+        parallelPropagator = new ParallelPropagator(this);
+        break;
     }
 
     // We dump the processing statistics to an external file if needed by the user
@@ -883,6 +890,11 @@ public class GeomPointsTo extends PAG {
   private void solveConstraints() {
     IWorklist ptaList = worklist;
 
+    if (parallelPropagator != null) {
+      parallelPropagator.solve(ptaList);
+      return;
+    }
+
     while (ptaList.has_job()) {
       IVarAbstraction pn = ptaList.next();
       pn.do_before_propagation();
@@ -35,6 +35,8 @@ public abstract class IFigureManager {
   // We implement an internal memory manager here
   private static SegmentNode segHeader = null;
   private static SegmentNode rectHeader = null;
+  // Figures are only reused while a single thread creates and reclaims them
+  private static boolean reuseFigures = true;
 
   /**
    * Generate a segment node from our own cache.
@@ -44,7 +46,7 @@ public abstract class IFigureManager {
   protected static SegmentNode getSegmentNode() {
     SegmentNode ret = null;
 
-    if (segHeader != null) {
+    if (reuseFigures && segHeader != null) {
       ret = segHeader;
       segHeader = ret.next;
       ret.next = null;
@@ -64,7 +66,7 @@ public abstract class IFigureManager {
   protected static RectangleNode getRectangleNode() {
     RectangleNode ret = null;
 
-    if (rectHeader != null) {
+    if (reuseFigures && rectHeader != null) {
       ret = (RectangleNode) rectHeader;
       rectHeader = ret.next;
       ret.next = null;
@@ -84,8 +86,10 @@ public abstract class IFigureManager {
    */
   protected static SegmentNode reclaimSegmentNode(SegmentNode p) {
     SegmentNode q = p.next;
-    p.next = segHeader;
-    segHeader = p;
+    if (reuseFigures) {
+      p.next = segHeader;
+      segHeader = p;
+    }
     return q;
   }
 
@@ -97,8 +101,10 @@ public abstract class IFigureManager {
    */
   protected static SegmentNode reclaimRectangleNode(SegmentNode p) {
     SegmentNode q = p.next;
-    p.next = rectHeader;
-    rectHeader = p;
+    if (reuseFigures) {
+      p.next = rectHeader;
+      rectHeader = p;
+    }
     return q;
   }
 
@@ -110,6 +116,15 @@ public abstract class IFigureManager {
     rectHeader = null;
   }
 
+  /**
+   * Switches the reuse of reclaimed figures on or off. It must be off while figure managers are used by several threads;
+   * the figures are then left to the garbage collector.
+   */
+  public static void setFigureReuse(boolean enabled) {
+    reuseFigures = enabled;
+    cleanCache();
+  }
+
   // Get the information of the figures
   public abstract SegmentNode[] getFigures();
 
@@ -173,6 +173,29 @@ public abstract class IVarAbstraction implements Numberable {
 
   public abstract void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist);
 
+  /**
+   * Used by the parallel solver. Propagates like {@link #propagate(GeomPointsTo, IWorklist)}, but only modifies this
+   * pointer: the figures for other pointers are recorded in updates.
+   */
+  public abstract void propagate(GeomPointsTo ptAnalyzer, FigureUpdates updates);
+
+  /**
+   * Creates the instance field pointers that the next propagation of this pointer looks up, so that the propagation does
+   * not modify the analyzer. Used by the parallel solver.
+   */
+  public void prepare_instance_fields(GeomPointsTo ptAnalyzer) {
+  }
+
+  /**
+   * Adds a points-to figure of the given shape recorded by {@link FigureUpdates}. Returns true if it is new.
+   */
+  public abstract boolean add_points_to_figure(int code, RectangleNode figure, AllocNode obj);
+
+  /**
+   * Adds a flows-to figure of the given shape recorded by {@link FigureUpdates}. Returns true if it is new.
+   */
+  public abstract boolean add_flows_to_figure(int code, RectangleNode figure, IVarAbstraction qv);
+
   // Manipulate points-to results
   public abstract void drop_duplicates();
 
@@ -0,0 +1,228 @@
+package soot.jimple.spark.geom.geomPA;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+import soot.Scene;
+import soot.options.Options;
+
+/**
+ * Solves the geometric constraints with several threads. The worklist is processed in rounds, each of which takes the
+ * first {@link #maxRoundSize} pointers on the worklist:
+ *
+ * <ol>
+ * <li>The figures of every pointer are merged ({@link IVarAbstraction#do_before_propagation()}).</li>
+ * <li>The instance field pointers needed by the round are created on the calling thread.</li>
+ * <li>Every pointer is propagated. Since a propagation only modifies its own pointer and records the figures for other
+ * pointers in {@link FigureUpdates}, the pointers are propagated in parallel.</li>
+ * <li>The recorded figures are added, grouped by the pointer they go to. Each group is added by one thread, in the order
+ * the figures were recorded. The pointers that receive new figures are put on the worklist again.</li>
+ * </ol>
+ *
+ * The size of a round bounds the number of recorded figures that are kept at a time. The pointers of a round are ordered by
+ * their topological value and the size of a round does not depend on the number of threads, so neither does the result.
+ * It is the same fixed point as that of the sequential solver, except where the figure budgets of
+ * {@link Parameters#max_pts_budget} and {@link Parameters#max_cons_budget} merge figures: the merged figures depend on the
+ * processing order, as they already do between the PQ and FIFO worklists.
+ */
+public class ParallelPropagator {
+  /** Below this number of pointers or updated pointers, a step of a round is done on the calling thread. */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 64;
+
+  /** The largest number of pointers propagated in one round. */
+  public static final int DEFAULT_MAX_ROUND_SIZE = 4096;
+
+  private static final Comparator<IVarAbstraction> TOPOLOGICAL_ORDER = new Comparator<IVarAbstraction>() {
+    @Override
+    public int compare(IVarAbstraction o1, IVarAbstraction o2) {
+      if (o1.top_value != o2.top_value) {
+        return o1.top_value < o2.top_value ? -1 : 1;
+      }
+      return Integer.compare(o1.id, o2.id);
+    }
+  };
+
+  protected final GeomPointsTo ptAnalyzer;
+  protected final int threadNum;
+  protected final int parallelThreshold;
+  protected final int maxRoundSize;
+  protected ExecutorService executor;
+
+  public ParallelPropagator(GeomPointsTo ptAnalyzer) {
+    this(ptAnalyzer, getDefaultThreadNum());
+  }
+
+  public ParallelPropagator(GeomPointsTo ptAnalyzer, int threadNum) {
+    this(ptAnalyzer, threadNum, DEFAULT_PARALLEL_THRESHOLD, DEFAULT_MAX_ROUND_SIZE);
+  }
+
+  public ParallelPropagator(GeomPointsTo ptAnalyzer, int threadNum, int parallelThreshold, int maxRoundSize) {
+    if (maxRoundSize < 1) {
+      throw new IllegalArgumentException("The size of a round must be positive: " + maxRoundSize);
+    }
+    this.ptAnalyzer = ptAnalyzer;
+    this.threadNum = threadNum;
+    this.parallelThreshold = parallelThreshold;
+    this.maxRoundSize = maxRoundSize;
+  }
+
+  private static int getDefaultThreadNum() {
+    int threadNum = Options.v().num_threads();
+    if (threadNum < 1) {
+      threadNum = Runtime.getRuntime().availableProcessors();
+    }
+    return threadNum;
+  }
+
+  /**
+   * Propagates until the worklist is empty.
+   */
+  public void solve(IWorklist worklist) {
+    if (threadNum > 1) {
+      executor = Executors.newFixedThreadPool(threadNum, r -> {
+        Thread t = new Thread(r, "soot-geom");
+        t.setDaemon(true);
+        return t;
+      });
+      // The figure cache and the lazily built hierarchies are not thread-safe
+      IFigureManager.setFigureReuse(false);
+      Scene.v().getOrMakeFastHierarchy();
+      Scene.v().getActiveHierarchy();
+    }
+
+    try {
+      while (worklist.has_job()) {
+        List<IVarAbstraction> round = new ArrayList<IVarAbstraction>(Math.min(worklist.size(), maxRoundSize));
+        while (worklist.has_job() && round.size() < maxRoundSize) {
+          round.add(worklist.next());
+        }
+        Collections.sort(round, TOPOLOGICAL_ORDER);
+        processRound(round, worklist);
+      }
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+        executor = null;
+        IFigureManager.setFigureReuse(true);
+      }
+    }
+  }
+
+  /* End of public methods. */
+  /* End of package methods. */
+
+  protected void processRound(final List<IVarAbstraction> round, IWorklist worklist) {
+    forEach(round.size(), i -> round.get(i).do_before_propagation());
+
+    for (IVarAbstraction pn : round) {
+      pn.prepare_instance_fields(ptAnalyzer);
+    }
+
+    final FigureUpdates[] updates = new FigureUpdates[round.size()];
+    forEach(round.size(), i -> {
+      IVarAbstraction pn = round.get(i);
+      updates[i] = new FigureUpdates();
+      pn.propagate(ptAnalyzer, updates[i]);
+      pn.do_after_propagation();
+    });
+
+    // Group the updates by the pointer they modify, keeping the order they were made in
+    Map<IVarAbstraction, List<FigureUpdates.Update>> byOwner
+        = new LinkedHashMap<IVarAbstraction, List<FigureUpdates.Update>>();
+    for (FigureUpdates u : updates) {
+      for (FigureUpdates.Update update : u.getUpdates()) {
+        List<FigureUpdates.Update> list = byOwner.get(update.owner);
+        if (list == null) {
+          list = new ArrayList<FigureUpdates.Update>();
+          byOwner.put(update.owner, list);
+        }
+        list.add(update);
+      }
+    }
+
+    final List<IVarAbstraction> owners = new ArrayList<IVarAbstraction>(byOwner.keySet());
+    final List<List<FigureUpdates.Update>> lists = new ArrayList<List<FigureUpdates.Update>>(byOwner.values());
+    final boolean[] changed = new boolean[owners.size()];
+    forEach(owners.size(), i -> {
+      for (FigureUpdates.Update update : lists.get(i)) {
+        if (update.apply()) {
+          changed[i] = true;
+        }
+      }
+    });
+
+    for (int i = 0; i < changed.length; i++) {
+      if (changed[i]) {
+        worklist.push(owners.get(i));
+      }
+    }
+  }
+
+  /**
+   * Runs action for 0, ..., size - 1, on the worker threads if there are enough indices.
+   */
+  protected void forEach(final int size, final IntConsumer action) {
+    if (executor == null || size < parallelThreshold) {
+      for (int i = 0; i < size; i++) {
+        action.accept(i);
+      }
+      return;
+    }
+
+    List<Future<?>> futures = new ArrayList<Future<?>>(threadNum);
+    for (int t = 0; t < threadNum; t++) {
+      final int first = t;
+      futures.add(executor.submit(() -> {
+        for (int i = first; i < size; i += threadNum) {
+          action.accept(i);
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while propagating geometric points-to information", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+    }
+  }
+}
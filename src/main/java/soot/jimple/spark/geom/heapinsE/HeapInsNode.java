@@ -46,6 +46,7 @@ import soot.jimple.spark.geom.dataRep.RectangleNode;
 import soot.jimple.spark.geom.dataRep.SegmentNode;
 import soot.jimple.spark.geom.geomE.GeometricManager;
 import soot.jimple.spark.geom.geomPA.Constants;
+import soot.jimple.spark.geom.geomPA.FigureUpdates;
 import soot.jimple.spark.geom.geomPA.GeomPointsTo;
 import soot.jimple.spark.geom.geomPA.IVarAbstraction;
 import soot.jimple.spark.geom.geomPA.IWorklist;
@@ -199,7 +200,7 @@ public class HeapInsNode extends IVarAbstraction {
       code = (I2 == 0 ? HeapInsIntervalManager.MANY_TO_ALL : HeapInsIntervalManager.ONE_TO_ONE);
     }
 
-    return addPointsTo(code, obj);
+    return addPointsTo(code, pres, obj);
   }
 
   @Override
@@ -209,19 +210,7 @@ public class HeapInsNode extends IVarAbstraction {
 
   @Override
   public boolean add_simple_constraint_3(IVarAbstraction qv, long I1, long I2, long L) {
-    int code = 0;
-
-    pres.I1 = I1;
-    pres.I2 = I2;
-    pres.L = L;
-
-    if (I1 == 0) {
-      code = (I2 == 0 ? HeapInsIntervalManager.ALL_TO_ALL : HeapInsIntervalManager.ALL_TO_MANY);
-    } else {
-      code = (I2 == 0 ? HeapInsIntervalManager.MANY_TO_ALL : HeapInsIntervalManager.ONE_TO_ONE);
-    }
-
-    return addFlowsTo(code, (HeapInsNode) qv);
+    return add_new_flows_to_tuple(this, (HeapInsNode) qv, I1, I2, L, pres, null);
   }
 
   @Override
@@ -229,6 +218,16 @@ public class HeapInsNode extends IVarAbstraction {
     return false;
   }
 
+  @Override
+  public boolean add_points_to_figure(int code, RectangleNode figure, AllocNode obj) {
+    return addPointsTo(code, figure, obj);
+  }
+
+  @Override
+  public boolean add_flows_to_figure(int code, RectangleNode figure, IVarAbstraction qv) {
+    return addFlowsTo(code, figure, (HeapInsNode) qv);
+  }
+
   @Override
   public void put_complex_constraint(PlainConstraint cons) {
     if (complex_cons == null) {
@@ -247,11 +246,37 @@ public class HeapInsNode extends IVarAbstraction {
     }
   }
 
-  /**
-   * An efficient implementation of differential propagation.
-   */
   @Override
   public void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist) {
+    propagate(ptAnalyzer, worklist, null);
+  }
+
+  @Override
+  public void propagate(GeomPointsTo ptAnalyzer, FigureUpdates updates) {
+    propagate(ptAnalyzer, null, updates);
+  }
+
+  @Override
+  public void prepare_instance_fields(GeomPointsTo ptAnalyzer) {
+    if (complex_cons == null) {
+      return;
+    }
+
+    for (AllocNode obj : new_pts.keySet()) {
+      for (PlainConstraint pcons : complex_cons) {
+        if (ptAnalyzer.findAndInsertInstanceField(obj, pcons.f) == null) {
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * An efficient implementation of differential propagation. If updates is given, the figures for other pointers are
+   * recorded there and nothing is pushed to the worklist.
+   */
+  private void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist, FigureUpdates updates) {
+    RectangleNode pres = (updates == null ? IVarAbstraction.pres : updates.getCandidate());
     int i, j;
     AllocNode obj;
     SegmentNode pts, pe, int_entry1[], int_entry2[];
@@ -293,16 +318,16 @@ public class HeapInsNode extends IVarAbstraction {
                 case Constants.STORE_CONS:
                   // Store, qv -> pv.field
                   // pts.I2 may be zero, pts.L may be less than zero
-                  if (qn.add_simple_constraint_3(objn, pcons.code == GeometricManager.ONE_TO_ONE ? pts.I1 : 0, pts.I2,
-                      pts.L < 0 ? -pts.L : pts.L)) {
+                  if (add_new_flows_to_tuple(qn, objn, pcons.code == GeometricManager.ONE_TO_ONE ? pts.I1 : 0, pts.I2,
+                      pts.L < 0 ? -pts.L : pts.L, pres, updates)) {
                     worklist.push(qn);
                   }
                   break;
 
                 case Constants.LOAD_CONS:
                   // Load, pv.field -> qv
-                  if (objn.add_simple_constraint_3(qn, pts.I2, pcons.code == GeometricManager.ONE_TO_ONE ? pts.I1 : 0,
-                      pts.L < 0 ? -pts.L : pts.L)) {
+                  if (add_new_flows_to_tuple(objn, qn, pts.I2, pcons.code == GeometricManager.ONE_TO_ONE ? pts.I1 : 0,
+                      pts.L < 0 ? -pts.L : pts.L, pres, updates)) {
                     worklist.push(objn);
                   }
                   break;
@@ -351,7 +376,7 @@ public class HeapInsNode extends IVarAbstraction {
               while (pe != null) {
                 if (pts.is_new || pe.is_new) {
                   // Propagate this object
-                  if (add_new_points_to_tuple(pts, pe, obj, qn)) {
+                  if (add_new_points_to_tuple(pts, pe, obj, qn, pres, updates)) {
                     added = true;
                   }
                 } else {
@@ -662,7 +687,7 @@ public class HeapInsNode extends IVarAbstraction {
     }
   }
 
-  private boolean addPointsTo(int code, AllocNode obj) {
+  private boolean addPointsTo(int code, RectangleNode pres, AllocNode obj) {
     HeapInsIntervalManager im = pt_objs.get(obj);
 
     if (im == null) {
@@ -682,7 +707,7 @@ public class HeapInsNode extends IVarAbstraction {
     return false;
   }
 
-  private boolean addFlowsTo(int code, HeapInsNode qv) {
+  private boolean addFlowsTo(int code, RectangleNode pres, HeapInsNode qv) {
     HeapInsIntervalManager im = flowto.get(qv);
 
     if (im == null) {
@@ -695,7 +720,8 @@ public class HeapInsNode extends IVarAbstraction {
   }
 
   // Apply the inference rules
-  private static boolean add_new_points_to_tuple(SegmentNode pts, SegmentNode pe, AllocNode obj, HeapInsNode qn) {
+  private static boolean add_new_points_to_tuple(SegmentNode pts, SegmentNode pe, AllocNode obj, HeapInsNode qn,
+      RectangleNode pres, FigureUpdates updates) {
     long interI, interJ;
     int code = 0;
 
@@ -737,7 +763,35 @@ public class HeapInsNode extends IVarAbstraction {
       }
     }
 
-    return qn.addPointsTo(code, obj);
+    if (updates != null) {
+      updates.addPointsTo(qn, code, pres, obj);
+      return false;
+    }
+    return qn.addPointsTo(code, pres, obj);
+  }
+
+  /**
+   * Adds the flow edge pn -> qn, or records it in updates. Recorded figures are reported as not new.
+   */
+  private static boolean add_new_flows_to_tuple(HeapInsNode pn, HeapInsNode qn, long I1, long I2, long L,
+      RectangleNode pres, FigureUpdates updates) {
+    int code = 0;
+
+    pres.I1 = I1;
+    pres.I2 = I2;
+    pres.L = L;
+
+    if (I1 == 0) {
+      code = (I2 == 0 ? HeapInsIntervalManager.ALL_TO_ALL : HeapInsIntervalManager.ALL_TO_MANY);
+    } else {
+      code = (I2 == 0 ? HeapInsIntervalManager.MANY_TO_ALL : HeapInsIntervalManager.ONE_TO_ONE);
+    }
+
+    if (updates != null) {
+      updates.addFlowsTo(pn, code, pres, qn);
+      return false;
+    }
+    return pn.addFlowsTo(code, pres, qn);
   }
 
   // We only test if their points-to objects intersected under context
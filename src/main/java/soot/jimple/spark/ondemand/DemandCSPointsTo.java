@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -272,6 +273,25 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 
   protected Map<Local, PointsToSet> reachingObjectsCache, reachingObjectsCacheNoCGRefinement;
 
+  /**
+   * results shared between queries; as with the reaching objects, there is one cache for each call graph setting
+   */
+  protected final PointsToSummaryCache summaryCache, summaryCacheNoCGRefinement;
+
+  /**
+   * number of times a traversal gave up precision in a way that depends on the query, e.g. because the field heuristic
+   * skipped a match edge or a result that was still being computed was used; results are only shared between queries if
+   * this count did not change while computing them
+   */
+  protected int numApproximations = 0;
+
+  /**
+   * results in the caches of the current pass that can be shared between queries
+   */
+  protected final Set<Object> cleanResults = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+  protected final Set<CallSiteAndContext> cleanCallSites = new HashSet<CallSiteAndContext>();
+
   protected boolean useCache;
 
   private final boolean lazy;
@@ -289,6 +309,8 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
     this.heuristicType = HeuristicType.INCR;
     this.reachingObjectsCache = new HashMap<Local, PointsToSet>();
     this.reachingObjectsCacheNoCGRefinement = new HashMap<Local, PointsToSet>();
+    this.summaryCache = new PointsToSummaryCache(pag);
+    this.summaryCacheNoCGRefinement = new PointsToSummaryCache(pag);
     this.useCache = true;
   }
 
@@ -317,6 +339,7 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
     if (fieldToStores == null) {
       init();
     }
+    final long start = System.nanoTime();
     PointsToSet result;
     Map<Local, PointsToSet> cache;
     if (refineCallGraph) { // we use different caches for different settings
@@ -331,6 +354,7 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
         cache.put(l, result);
       }
     }
+    getSummaryCache().recordQuery(System.nanoTime() - start);
     assert consistentResult(l, result);
     return result;
   }
@@ -388,9 +412,14 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
       }
       clearState();
       pointsTo = new AllocAndContextSet();
+      final int approximations = numApproximations;
       try {
         refineP2Set(new VarAndContext(v, EMPTY_CALLSTACK), null);
         contextSensitiveResult = pointsTo;
+        if (numApproximations == approximations) {
+          // nothing was approximated, so further passes cannot be more precise
+          break;
+        }
       } catch (TerminateEarlyException e) {
         logger.debug(e.getMessage(), e);
       }
@@ -433,6 +462,9 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
       PointsToSetInternal locs) {
     PointsToSetInternal retSet = null;
     if (contextsForAllocsCache.containsKey(varAndContext)) {
+      if (!cleanResults.contains(contextsForAllocsCache.get(varAndContext).getO2())) {
+        numApproximations++;
+      }
       for (AllocAndContext allocAndContext : contextsForAllocsCache.get(varAndContext).getO2()) {
         if (locs.contains(allocAndContext.alloc)) {
           ret.add(allocAndContext);
@@ -560,6 +592,8 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
     contextForAllocsStack.clear();
     upContextCache.clear();
     callTargetsArgCache.clear();
+    cleanResults.clear();
+    cleanCallSites.clear();
     sccManager = new OTFMethodSCCManager();
     numNodesTraversed = 0;
     nesting = 0;
@@ -717,6 +751,10 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
   }
 
   protected AllocAndContextSet findContextsForAllocs(final VarAndContext varAndContext, PointsToSetInternal locs) {
+    AllocAndContextSet summary = getSummaryCache().getAllocContexts(varAndContext, locs);
+    if (summary != null) {
+      return summary;
+    }
     if (contextForAllocsStack.contains(varAndContext)) {
       // recursion; check depth
       // we're fine for x = x.next
@@ -734,6 +772,7 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
       }
     }
     contextForAllocsStack.push(varAndContext);
+    final int approximations = numApproximations;
     final AllocAndContextSet ret = new AllocAndContextSet();
     final PointsToSetInternal realLocs = checkContextsForAllocsCache(varAndContext, ret, locs);
     if (realLocs.isEmpty()) {
@@ -772,6 +811,7 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
             debugPrint("intersection " + intersection);
           }
           if (!refine) {
+            numApproximations++;
             p.prop(new VarAndContext(matchSrc, EMPTY_CALLSTACK));
             return;
           }
@@ -854,6 +894,15 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 
         }
       }
+      Pair<PointsToSetInternal, AllocAndContextSet> cached = contextsForAllocsCache.get(varAndContext);
+      if (cached != null) {
+        if (numApproximations == approximations) {
+          cleanResults.add(cached.getO2());
+          getSummaryCache().putAllocContexts(varAndContext, cached.getO1(), cached.getO2());
+        } else {
+          cleanResults.remove(cached.getO2());
+        }
+      }
       nesting--;
       return ret;
     } catch (CallSiteException e) {
@@ -868,9 +917,21 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
     final AllocNode alloc = allocAndContext.alloc;
     final ImmutableStack<Integer> allocContext = allocAndContext.context;
     CallingContextSet tmpSet = checkUpContextCache(varContextAndUp, allocAndContext);
+    if (tmpSet != null && cleanResults.contains(tmpSet)) {
+      return tmpSet;
+    }
+    CallingContextSet summary = getSummaryCache().getUpContexts(varContextAndUp, allocAndContext);
+    if (summary != null) {
+      cleanResults.add(summary);
+      upContextCache.get(varContextAndUp).put(allocAndContext, summary);
+      return summary;
+    }
     if (tmpSet != null) {
+      // still being computed, or approximated
+      numApproximations++;
       return tmpSet;
     }
+    final int approximations = numApproximations;
     final CallingContextSet ret = new CallingContextSet();
     upContextCache.get(varContextAndUp).put(allocAndContext, ret);
     nesting++;
@@ -917,6 +978,7 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
           AllocAndContextSet allocContexts = findContextsForAllocs(new VarAndContext(matchSrc, EMPTY_CALLSTACK), tmp);
           // Set allocContexts = Collections.singleton(new Object());
           if (!refine) {
+            numApproximations++;
             if (!allocContexts.isEmpty()) {
               ret.add(contextAndUp.upContext.reverse());
             }
@@ -997,6 +1059,10 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
       // assert upContextsSane(ret, allocAndContext, varContextAndUp);
       // return ret;
       // }
+      if (numApproximations == approximations) {
+        cleanResults.add(ret);
+        getSummaryCache().putUpContexts(varContextAndUp, allocAndContext, ret);
+      }
       return ret;
     } catch (CallSiteException e) {
       upContextCache.remove(varContextAndUp);
@@ -1007,9 +1073,21 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
   protected CallingContextSet findVarContextsFromAlloc(AllocAndContext allocAndContext, VarNode targetVar) {
 
     CallingContextSet tmpSet = checkAllocAndContextCache(allocAndContext, targetVar);
+    if (tmpSet != null && cleanResults.contains(tmpSet)) {
+      return tmpSet;
+    }
+    CallingContextSet summary = getSummaryCache().getVarContexts(allocAndContext, targetVar);
+    if (summary != null) {
+      cleanResults.add(summary);
+      allocAndContextCache.get(allocAndContext).put(targetVar, summary);
+      return summary;
+    }
     if (tmpSet != null) {
+      // still being computed, or approximated
+      numApproximations++;
       return tmpSet;
     }
+    final int approximations = numApproximations;
     CallingContextSet ret = new CallingContextSet();
     allocAndContextCache.get(allocAndContext).put(targetVar, ret);
     try {
@@ -1106,6 +1184,7 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
                   }
                 }
               } else {
+                numApproximations++;
                 p.prop(new VarAndContext(matchTgt, EMPTY_CALLSTACK));
               }
               // h.handleMatchSrc(matchSrc, intersection,
@@ -1118,6 +1197,10 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 
         }
       }
+      if (numApproximations == approximations) {
+        cleanResults.add(ret);
+        getSummaryCache().putVarContexts(allocAndContext, targetVar, ret);
+      }
       return ret;
     } catch (CallSiteException e) {
       allocAndContextCache.remove(allocAndContext);
@@ -1265,6 +1348,7 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
                   }
                 }
               } else {
+                numApproximations++;
                 p.prop(new VarAndContext(matchTgt, EMPTY_CALLSTACK));
               }
               // h.handleMatchSrc(matchSrc, intersection,
@@ -1569,13 +1653,24 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
       // + origContext + " goes to "
       // + callSiteToResolvedTargets.get(callSiteAndContext));
       // }
+      if (!cleanCallSites.contains(callSiteAndContext)) {
+        numApproximations++;
+      }
       return callSiteToResolvedTargets.get(callSiteAndContext);
     }
     if (callGraphStack.contains(callSiteAndContext)) {
+      numApproximations++;
       return Collections.<SootMethod>emptySet();
-    } else {
-      callGraphStack.push(callSiteAndContext);
     }
+    Set<SootMethod> summary = getSummaryCache().getCallTargets(callSiteAndContext);
+    if (summary != null) {
+      callSiteToResolvedTargets.putAll(callSiteAndContext, summary);
+      queriedCallSites.add(callSiteAndContext);
+      cleanCallSites.add(callSiteAndContext);
+      return summary;
+    }
+    final int approximations = numApproximations;
+    callGraphStack.push(callSiteAndContext);
     final VarNode receiver = csInfo.getReceiverForVirtCallSite(callSite);
     final Type receiverType = receiver.getType();
     final SootMethod invokedMethod = csInfo.getInvokedMethod(callSite);
@@ -1689,6 +1784,7 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
                 refiningCallSite = true;
                 allocContexts = findContextsForAllocs(new VarAndContext(loadBase, curContext), intersection);
               } catch (CallSiteException e) {
+                numApproximations++;
                 callSiteToResolvedTargets.putAll(callSiteAndContext, allTargets);
                 continue;
               } finally {
@@ -1722,6 +1818,10 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
     }
     callGraphStack.pop();
     queriedCallSites.add(callSiteAndContext);
+    if (numApproximations == approximations) {
+      cleanCallSites.add(callSiteAndContext);
+      getSummaryCache().putCallTargets(callSiteAndContext, callSiteToResolvedTargets.get(callSiteAndContext));
+    }
     return callSiteToResolvedTargets.get(callSiteAndContext);
 
   }
@@ -1937,11 +2037,28 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
   }
 
   /**
-   * clears the cache
+   * clears the cache, including the results shared between queries
    */
   public void clearCache() {
     reachingObjectsCache.clear();
     reachingObjectsCacheNoCGRefinement.clear();
+    summaryCache.clear();
+    summaryCacheNoCGRefinement.clear();
+  }
+
+  /**
+   * Returns the cache of results shared between queries for the current call graph setting.
+   */
+  public PointsToSummaryCache getSummaryCache() {
+    return refineCallGraph ? summaryCache : summaryCacheNoCGRefinement;
+  }
+
+  /**
+   * Turns the sharing of traversal results between queries on or off, for both call graph settings.
+   */
+  public void setUseSummaryCache(boolean use) {
+    summaryCache.setEnabled(use);
+    summaryCacheNoCGRefinement.setEnabled(use);
   }
 
   public boolean isRefineCallGraph() {
@@ -0,0 +1,298 @@
+package soot.jimple.spark.ondemand;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import soot.SootMethod;
+import soot.jimple.spark.geom.utils.Histogram;
+import soot.jimple.spark.ondemand.DemandCSPointsTo.CallSiteAndContext;
+import soot.jimple.spark.ondemand.DemandCSPointsTo.CallingContextSet;
+import soot.jimple.spark.ondemand.DemandCSPointsTo.VarAndContext;
+import soot.jimple.spark.ondemand.DemandCSPointsTo.VarContextAndUp;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.pag.VarNode;
+import soot.jimple.spark.sets.HybridPointsToSet;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.toolkits.scalar.Pair;
+
+/**
+ * Results of the traversals of a {@link DemandCSPointsTo} that are shared between its queries. Only results whose
+ * traversal neither skipped a match edge because of the field heuristic nor depended on another traversal that was still in
+ * progress are stored, as those are the same for every query that needs them. Each kind of result is kept in its own
+ * bounded cache.
+ *
+ * <p>
+ * The cache records how often each kind of result was found, and the latency of the queries of the analysis. Stored and
+ * returned sets are copies, so that the traversals can keep modifying their own sets. The cache itself is thread-safe, but
+ * {@link DemandCSPointsTo} is not, so an analysis and its caches must only be queried by one thread at a time.
+ */
+public final class PointsToSummaryCache {
+  /** Default number of results of each kind that are kept. */
+  public static final int DEFAULT_CAPACITY = 100000;
+
+  /** Upper bounds of the query latency buckets, in microseconds. */
+  private static final int[] LATENCY_LIMITS = { 10, 100, 1000, 10000, 100000, 1000000 };
+
+  /**
+   * The kinds of results held by the cache.
+   */
+  public enum SummaryKind {
+    /** Allocation sites and their contexts that flow to a variable in a context. */
+    ALLOC_CONTEXTS,
+    /** Contexts of a variable that an allocation site in a context flows to. */
+    VAR_CONTEXTS,
+    /** Contexts of a variable that an allocation site in a context flows to, found from both ends. */
+    UP_CONTEXTS,
+    /** Targets of a virtual call site in a context. */
+    CALL_TARGETS
+  }
+
+  /**
+   * The allocation sites and contexts found for a variable and context, together with the allocation sites that were
+   * searched for.
+   */
+  private static final class AllocSummary {
+    final PointsToSetInternal covered;
+    final AllocAndContextSet contexts;
+
+    AllocSummary(PointsToSetInternal covered, AllocAndContextSet contexts) {
+      this.covered = covered;
+      this.contexts = contexts;
+    }
+
+    boolean covers(PointsToSetInternal locs) {
+      return locs.forall(new PointsToSetInternal.P2SetVisitorDefaultTrue() {
+        @Override
+        public void visit(Node n) {
+          returnValue = returnValue && covered.contains(n);
+        }
+      });
+    }
+  }
+
+  private final PAG pag;
+  private final Cache<VarAndContext, AllocSummary> allocContexts;
+  private final Cache<Pair<AllocAndContext, VarNode>, CallingContextSet> varContexts;
+  private final Cache<Pair<VarContextAndUp, AllocAndContext>, CallingContextSet> upContexts;
+  private final Cache<CallSiteAndContext, Set<SootMethod>> callTargets;
+
+  private final AtomicLongArray hits = new AtomicLongArray(SummaryKind.values().length);
+  private final AtomicLongArray misses = new AtomicLongArray(SummaryKind.values().length);
+  private final Histogram queryLatency = new Histogram(LATENCY_LIMITS);
+  private volatile boolean enabled = true;
+
+  public PointsToSummaryCache(PAG pag) {
+    this(pag, DEFAULT_CAPACITY);
+  }
+
+  public PointsToSummaryCache(PAG pag, int capacity) {
+    this.pag = pag;
+    this.allocContexts = CacheBuilder.newBuilder().maximumSize(capacity).build();
+    this.varContexts = CacheBuilder.newBuilder().maximumSize(capacity).build();
+    this.upContexts = CacheBuilder.newBuilder().maximumSize(capacity).build();
+    this.callTargets = CacheBuilder.newBuilder().maximumSize(capacity).build();
+  }
+
+  /**
+   * Returns the allocation sites in <code>locs</code> that flow to the given variable and context, or <code>null</code> if
+   * no result covers all of <code>locs</code>. The returned set is a copy that the caller may modify.
+   */
+  AllocAndContextSet getAllocContexts(VarAndContext varAndContext, PointsToSetInternal locs) {
+    if (!enabled) {
+      return null;
+    }
+    AllocSummary summary = allocContexts.getIfPresent(varAndContext);
+    if (summary == null || !summary.covers(locs)) {
+      misses.incrementAndGet(SummaryKind.ALLOC_CONTEXTS.ordinal());
+      return null;
+    }
+    hits.incrementAndGet(SummaryKind.ALLOC_CONTEXTS.ordinal());
+    AllocAndContextSet ret = new AllocAndContextSet();
+    for (AllocAndContext allocAndContext : summary.contexts) {
+      if (locs.contains(allocAndContext.alloc)) {
+        ret.add(allocAndContext);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Stores the allocation sites in <code>locs</code> that flow to the given variable and context. Both sets are copied.
+   */
+  void putAllocContexts(VarAndContext varAndContext, PointsToSetInternal locs, AllocAndContextSet contexts) {
+    if (!enabled) {
+      return;
+    }
+    PointsToSetInternal covered = HybridPointsToSet.getFactory().newSet(null, pag);
+    covered.addAll(locs, null);
+    AllocAndContextSet allContexts = new AllocAndContextSet();
+    allContexts.addAll(contexts);
+    AllocSummary old = allocContexts.getIfPresent(varAndContext);
+    if (old != null) {
+      covered.addAll(old.covered, null);
+      allContexts.addAll(old.contexts);
+    }
+    allocContexts.put(varAndContext, new AllocSummary(covered, allContexts));
+  }
+
+  /**
+   * Returns a copy of the contexts of <code>targetVar</code> that the given allocation site flows to, or <code>null</code>.
+   */
+  CallingContextSet getVarContexts(AllocAndContext allocAndContext, VarNode targetVar) {
+    if (!enabled) {
+      return null;
+    }
+    return copy(count(SummaryKind.VAR_CONTEXTS,
+        varContexts.getIfPresent(new Pair<AllocAndContext, VarNode>(allocAndContext, targetVar))));
+  }
+
+  /**
+   * Stores a copy of the contexts of <code>targetVar</code> that the given allocation site flows to.
+   */
+  void putVarContexts(AllocAndContext allocAndContext, VarNode targetVar, CallingContextSet contexts) {
+    if (enabled) {
+      varContexts.put(new Pair<AllocAndContext, VarNode>(allocAndContext, targetVar), copy(contexts));
+    }
+  }
+
+  /**
+   * Returns a copy of the up contexts of the given variable that the allocation site flows to, or <code>null</code>.
+   */
+  CallingContextSet getUpContexts(VarContextAndUp varContextAndUp, AllocAndContext allocAndContext) {
+    if (!enabled) {
+      return null;
+    }
+    return copy(count(SummaryKind.UP_CONTEXTS,
+        upContexts.getIfPresent(new Pair<VarContextAndUp, AllocAndContext>(varContextAndUp, allocAndContext))));
+  }
+
+  /**
+   * Stores a copy of the up contexts of the given variable that the allocation site flows to.
+   */
+  void putUpContexts(VarContextAndUp varContextAndUp, AllocAndContext allocAndContext, CallingContextSet contexts) {
+    if (enabled) {
+      upContexts.put(new Pair<VarContextAndUp, AllocAndContext>(varContextAndUp, allocAndContext), copy(contexts));
+    }
+  }
+
+  /**
+   * Returns the targets of the given call site, or <code>null</code>. The returned set cannot be modified.
+   */
+  Set<SootMethod> getCallTargets(CallSiteAndContext callSiteAndContext) {
+    if (!enabled) {
+      return null;
+    }
+    return count(SummaryKind.CALL_TARGETS, callTargets.getIfPresent(callSiteAndContext));
+  }
+
+  void putCallTargets(CallSiteAndContext callSiteAndContext, Set<SootMethod> targets) {
+    if (enabled) {
+      callTargets.put(callSiteAndContext, Collections.unmodifiableSet(new HashSet<SootMethod>(targets)));
+    }
+  }
+
+  private static CallingContextSet copy(CallingContextSet contexts) {
+    if (contexts == null) {
+      return null;
+    }
+    CallingContextSet ret = new CallingContextSet();
+    ret.addAll(contexts);
+    return ret;
+  }
+
+  private <T> T count(SummaryKind kind, T result) {
+    if (result == null) {
+      misses.incrementAndGet(kind.ordinal());
+    } else {
+      hits.incrementAndGet(kind.ordinal());
+    }
+    return result;
+  }
+
+  void recordQuery(long nanos) {
+    synchronized (queryLatency) {
+      queryLatency.addNumber((int) Math.min(Integer.MAX_VALUE, nanos / 1000));
+    }
+  }
+
+  /**
+   * Turns the cache on or off. A disabled cache finds and stores nothing, and does not count lookups.
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public long getHits(SummaryKind kind) {
+    return hits.get(kind.ordinal());
+  }
+
+  public long getMisses(SummaryKind kind) {
+    return misses.get(kind.ordinal());
+  }
+
+  /**
+   * Returns the fraction of lookups of the given kind that found a result, or 0 if there were none.
+   */
+  public double getHitRate(SummaryKind kind) {
+    long lookups = getHits(kind) + getMisses(kind);
+    return lookups == 0 ? 0 : (double) getHits(kind) / lookups;
+  }
+
+  /**
+   * Returns the histogram of query latencies, in microseconds.
+   */
+  public Histogram getQueryLatency() {
+    return queryLatency;
+  }
+
+  /**
+   * Drops all results, but keeps the statistics.
+   */
+  public void clear() {
+    allocContexts.invalidateAll();
+    varContexts.invalidateAll();
+    upContexts.invalidateAll();
+    callTargets.invalidateAll();
+  }
+
+  public void printStatistics(PrintStream out) {
+    for (SummaryKind kind : SummaryKind.values()) {
+      out.printf("%s: %d hits, %d misses, hit rate %.2f%%\n", kind, getHits(kind), getMisses(kind),
+          getHitRate(kind) * 100);
+    }
+    queryLatency.printResult(out, "Query latency (microseconds)");
+  }
+}
@@ -22,6 +22,7 @@ package soot.jimple.spark.pag;
  * #L%
  */
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -111,6 +112,47 @@ public final class MethodPAG {
     }
   }
 
+  /**
+   * Removes the nodes of this method from the main PAG together with every edge touching them, including the edges that
+   * connect them to call sites in other methods, and forgets this MethodPAG so that the next call to
+   * {@link #v(PAG, SootMethod)} builds it again from the current body of the method. Returns the nodes of this method and
+   * the nodes at the other ends of the removed edges.
+   */
+  public Set<Node> retract() {
+    if (addedContexts != null) {
+      throw new RuntimeException("Cannot retract " + method + " from a context-sensitive PAG");
+    }
+    Set<Node> ownNodes = new HashSet<Node>();
+    for (QueueReader<Node> reader : Arrays.asList(internalReader.clone(), inReader.clone(), outReader.clone())) {
+      while (reader.hasNext()) {
+        Node n = reader.next();
+        if (n instanceof FieldRefNode) {
+          n = ((FieldRefNode) n).getBase();
+        }
+        if (n instanceof LocalVarNode && ((LocalVarNode) n).getMethod() == method) {
+          if (n.getReplacement() != n) {
+            throw new RuntimeException("Cannot retract " + method + " after " + n + " has been merged");
+          }
+          ownNodes.add(n);
+        }
+      }
+    }
+    Set<Node> ret = new HashSet<Node>(ownNodes);
+    for (Node n : ownNodes) {
+      ret.addAll(pag.removeEdgesOf(n));
+      for (FieldRefNode fr : ((VarNode) n).getAllFieldRefs()) {
+        ret.add(fr);
+        ret.addAll(pag.removeEdgesOf(fr));
+      }
+    }
+    pag.forgetCallsOf(method, ownNodes);
+    hasBeenAdded = false;
+    if (G.v().MethodPAG_methodToPag.get(method) == this) {
+      G.v().MethodPAG_methodToPag.remove(method);
+    }
+    return ret;
+  }
+
   public void addInternalEdge(Node src, Node dst) {
     if (src == null) {
       return;
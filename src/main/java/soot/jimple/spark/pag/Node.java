@@ -78,14 +78,19 @@ public class Node implements ReferenceVariable, Numberable {
       return;
     }
     other.replacement = myRep;
+    PointsToSetInternal discarded = other.p2set;
     if (other.p2set != p2set && other.p2set != null && !other.p2set.isEmpty()) {
       if (myRep.p2set == null || myRep.p2set.isEmpty()) {
+        discarded = myRep.p2set;
         myRep.p2set = other.p2set;
       } else {
         myRep.p2set.mergeWith(other.p2set);
       }
     }
     other.p2set = null;
+    if (discarded != null && discarded != myRep.p2set && discarded != p2set) {
+      discarded.release();
+    }
     pag.mergedWith(myRep, other);
     if ((other instanceof VarNode) && (myRep instanceof VarNode) && ((VarNode) other).isInterProcTarget()) {
       ((VarNode) myRep).setInterProcTarget();
@@ -26,6 +26,7 @@ import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Table;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -70,6 +71,7 @@ import soot.jimple.spark.sets.DoublePointsToSet;
 import soot.jimple.spark.sets.EmptyPointsToSet;
 import soot.jimple.spark.sets.HashPointsToSet;
 import soot.jimple.spark.sets.HybridPointsToSet;
+import soot.jimple.spark.sets.OffHeapBitPointsToSet;
 import soot.jimple.spark.sets.P2SetFactory;
 import soot.jimple.spark.sets.P2SetVisitor;
 import soot.jimple.spark.sets.PointsToSetInternal;
@@ -77,6 +79,7 @@ import soot.jimple.spark.sets.SharedHybridSet;
 import soot.jimple.spark.sets.SharedListSet;
 import soot.jimple.spark.sets.SortedArraySet;
 import soot.jimple.spark.solver.OnFlyCallGraph;
+import soot.jimple.spark.solver.PropIncremental;
 import soot.jimple.toolkits.callgraph.Edge;
 import soot.jimple.toolkits.callgraph.VirtualEdgesSummaries;
 import soot.jimple.toolkits.callgraph.VirtualEdgesSummaries.InstanceinvokeSource;
@@ -143,6 +146,9 @@ public class PAG implements PointsToAnalysis {
       case SparkOptions.set_impl_bit:
         setFactory = BitPointsToSet.getFactory();
         break;
+      case SparkOptions.set_impl_offheap:
+        setFactory = OffHeapBitPointsToSet.getFactory();
+        break;
       case SparkOptions.set_impl_double:
         P2SetFactory oldF;
         P2SetFactory newF;
@@ -275,6 +281,14 @@ public class PAG implements PointsToAnalysis {
     return setFactory;
   }
 
+  /**
+   * Releases the storage that the points-to sets of this PAG hold outside the Java heap, such as the mapped file of the
+   * <code>offheap</code> set implementation. The points-to sets must not be used afterwards.
+   */
+  public void release() {
+    setFactory.release();
+  }
+
   private <K extends Node> void lookupInMap(Map<K, Object> map) {
     for (K object : map.keySet()) {
       lookup(map, object);
@@ -324,6 +338,82 @@ public class PAG implements PointsToAnalysis {
     return addToMap(assignInstance, from, to) | addToMap(assignInstanceInv, to, from);
   }
 
+  /**
+   * Removes every edge into and out of node n from the graph, and returns the nodes that were targets of the removed edges.
+   * The points-to sets of the nodes are left untouched.
+   */
+  public Set<Node> removeEdgesOf(Node n) {
+    Set<Node> ret = new HashSet<Node>();
+    removeEdgesOf(simple, simpleInv, n, ret);
+    removeEdgesOf(simpleInv, simple, n, null);
+    removeEdgesOf(load, loadInv, n, ret);
+    removeEdgesOf(loadInv, load, n, null);
+    removeEdgesOf(store, storeInv, n, ret);
+    removeEdgesOf(storeInv, store, n, null);
+    removeEdgesOf(alloc, allocInv, n, ret);
+    removeEdgesOf(allocInv, alloc, n, null);
+    removeEdgesOf(newInstance, newInstanceInv, n, ret);
+    removeEdgesOf(newInstanceInv, newInstance, n, null);
+    removeEdgesOf(assignInstance, assignInstanceInv, n, ret);
+    removeEdgesOf(assignInstanceInv, assignInstance, n, null);
+    return ret;
+  }
+
+  private void removeEdgesOf(Map<? extends Node, Object> m, Map<? extends Node, Object> inv, Node n, Set<Node> targets) {
+    Object valueList = m.remove(n);
+    if (valueList == null) {
+      return;
+    }
+    Node[] values = valueList instanceof Set ? ((Set<Node>) valueList).toArray(EMPTY_NODE_ARRAY) : (Node[]) valueList;
+    for (Node other : values) {
+      removeFromMap(inv, other, n);
+      if (targets != null) {
+        targets.add(other);
+      }
+    }
+  }
+
+  /**
+   * Forgets the call bookkeeping of a method that is being retracted: the calls made in m, and the interprocedural
+   * assignments from or to the given nodes of m.
+   */
+  public void forgetCallsOf(SootMethod m, Set<Node> nodes) {
+    if (callAssigns != null) {
+      for (Iterator<Map.Entry<InvokeExpr, SootMethod>> it = callToMethod.entrySet().iterator(); it.hasNext();) {
+        Map.Entry<InvokeExpr, SootMethod> e = it.next();
+        if (e.getValue() == m) {
+          callAssigns.remove(e.getKey());
+          virtualCallsToReceivers.remove(e.getKey());
+          it.remove();
+        }
+      }
+      for (InvokeExpr ie : new ArrayList<InvokeExpr>(callAssigns.keySet())) {
+        for (Pair<Node, Node> pval : new ArrayList<Pair<Node, Node>>(callAssigns.get(ie))) {
+          if (touches(pval, nodes)) {
+            callAssigns.remove(ie, pval);
+          }
+        }
+      }
+    }
+    for (Pair<Node, Node> pval : new ArrayList<Pair<Node, Node>>(assign2edges.keySet())) {
+      if (touches(pval, nodes)) {
+        assign2edges.remove(pval);
+      }
+    }
+  }
+
+  private static boolean touches(Pair<Node, Node> pval, Set<Node> nodes) {
+    for (Node n : new Node[] { pval.getO1(), pval.getO2() }) {
+      if (n instanceof FieldRefNode) {
+        n = ((FieldRefNode) n).getBase();
+      }
+      if (nodes.contains(n)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /** Node uses this to notify PAG that n2 has been merged into n1. */
   void mergedWith(Node n1, Node n2) {
     if (n1.equals(n2)) {
@@ -1491,6 +1581,15 @@ public class PAG implements PointsToAnalysis {
     }
   }
 
+  /**
+   * Brings this PAG and the points-to sets of its nodes up to date after the bodies of the given methods have changed. Only
+   * the points-to sets that may depend on the changed methods are recomputed; see {@link PropIncremental} for the
+   * restrictions that apply.
+   */
+  public void updateMethods(Collection<SootMethod> changed) {
+    new PropIncremental(this).update(changed);
+  }
+
   /**
    * Delete all the assignment edges.
    */
@@ -1542,6 +1641,38 @@ public class PAG implements PointsToAnalysis {
     return ((Set<Node>) valueList).add(value);
   }
 
+  protected boolean removeFromMap(Map<? extends Node, Object> m, Node key, Node value) {
+    Object valueList = m.get(key);
+    if (valueList == null) {
+      return false;
+    }
+    if (valueList instanceof Set) {
+      Set<Node> vl = (Set<Node>) valueList;
+      if (!vl.remove(value)) {
+        return false;
+      }
+      if (vl.isEmpty()) {
+        m.remove(key);
+      }
+      return true;
+    }
+    Node[] ar = (Node[]) valueList;
+    for (int i = 0; i < ar.length; i++) {
+      if (ar[i] == value) {
+        if (ar.length == 1) {
+          m.remove(key);
+        } else {
+          Node[] newArray = new Node[ar.length - 1];
+          System.arraycopy(ar, 0, newArray, 0, i);
+          System.arraycopy(ar, i + 1, newArray, i, ar.length - i - 1);
+          ((Map<Node, Object>) m).put(key, newArray);
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
   private boolean runGeomPTA = false;
   protected MultiMap<Pair<Node, Node>, Edge> assign2edges = new HashMultiMap<>();
   private final Map<Object, LocalVarNode> valToLocalVarNode = new HashMap<>(1000);
@@ -0,0 +1,243 @@
+package soot.jimple.spark.sets;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Memory-mapped storage for the bit vectors of {@link OffHeapBitPointsToSet}. The arena is backed by a temporary file that
+ * is mapped in fixed-size chunks, so the bits do not live on the Java heap and are never scanned or copied by the garbage
+ * collector. Blocks are handed out in power-of-two sizes (in 64-bit words) and recycled through one free list per size.
+ *
+ * Allocation is synchronized; reading and writing words of a block is not, so a block must only be written by one thread
+ * at a time.
+ *
+ * The arena is closed together with its PAG, see {@link soot.jimple.spark.pag.PAG#release()}. Closing unmaps the chunks and
+ * closes the file; the chunks of arenas that are not closed are only unmapped once they become unreachable.
+ */
+public final class OffHeapBitArena implements Closeable {
+  private static final int CHUNK_SHIFT = 26;
+  private static final long CHUNK_BYTES = 1L << CHUNK_SHIFT;
+  private static final long OFFSET_MASK = CHUNK_BYTES - 1;
+  private static final int MIN_WORDS = 2;
+
+  private final RandomAccessFile file;
+  private volatile MappedByteBuffer[] chunks = new MappedByteBuffer[4];
+  private int numChunks = 0;
+  /** Next free byte in the last chunk. */
+  private long top = CHUNK_BYTES;
+  /** Free blocks, indexed by the binary logarithm of their size in words. */
+  private long[][] freeLists = new long[32][];
+  private int[] freeCounts = new int[32];
+  private long allocatedWords = 0;
+
+  public OffHeapBitArena() {
+    try {
+      File f = File.createTempFile("soot-p2set", ".bits");
+      this.file = new RandomAccessFile(f, "rw");
+      // The mapping stays valid after the file is unlinked, which also cleans up if the VM dies
+      if (!f.delete()) {
+        f.deleteOnExit();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not create the off-heap points-to set arena", e);
+    }
+  }
+
+  /** Returns the size, in words, of the block that {@link #allocate(int)} hands out for the given number of words. */
+  public static int capacityFor(int words) {
+    if (words <= MIN_WORDS) {
+      return MIN_WORDS;
+    }
+    int ret = Integer.highestOneBit(words);
+    return ret == words ? ret : ret << 1;
+  }
+
+  /**
+   * Allocates a zeroed block of {@link #capacityFor(int) capacityFor(words)} words and returns its address.
+   */
+  public synchronized long allocate(int words) {
+    checkOpen();
+    final int capacity = capacityFor(words);
+    final int sizeClass = Integer.numberOfTrailingZeros(capacity);
+    allocatedWords += capacity;
+    if (freeCounts[sizeClass] > 0) {
+      return freeLists[sizeClass][--freeCounts[sizeClass]];
+    }
+    final long bytes = (long) capacity << 3;
+    if (bytes > CHUNK_BYTES) {
+      throw new IllegalArgumentException("Block of " + capacity + " words does not fit into an arena chunk");
+    }
+    // Blocks never straddle two chunks, the rest of a chunk that is too small is wasted
+    if (top + bytes > CHUNK_BYTES) {
+      mapChunk();
+    }
+    long address = ((long) (numChunks - 1) << CHUNK_SHIFT) | top;
+    top += bytes;
+    return address;
+  }
+
+  /** Returns a block to the arena. Its contents are cleared so that it can be handed out again. */
+  public synchronized void free(long address, int capacity) {
+    checkOpen();
+    MappedByteBuffer chunk = chunk(address);
+    int offset = offset(address);
+    for (int i = 0; i < capacity; i++) {
+      chunk.putLong(offset + (i << 3), 0L);
+    }
+    final int sizeClass = Integer.numberOfTrailingZeros(capacity);
+    long[] list = freeLists[sizeClass];
+    if (list == null) {
+      list = freeLists[sizeClass] = new long[16];
+    } else if (freeCounts[sizeClass] == list.length) {
+      list = freeLists[sizeClass] = Arrays.copyOf(list, list.length * 2);
+    }
+    list[freeCounts[sizeClass]++] = address;
+    allocatedWords -= capacity;
+  }
+
+  public long getWord(long address, int index) {
+    return chunk(address).getLong(offset(address) + (index << 3));
+  }
+
+  public void setWord(long address, int index, long value) {
+    chunk(address).putLong(offset(address) + (index << 3), value);
+  }
+
+  /** Copies the first {@code words} words of one block into another. */
+  public void copy(long from, long to, int words) {
+    for (int i = 0; i < words; i++) {
+      setWord(to, i, getWord(from, i));
+    }
+  }
+
+  /** Returns the number of bytes currently mapped by this arena. */
+  public synchronized long getMappedBytes() {
+    return numChunks * CHUNK_BYTES;
+  }
+
+  /** Returns the number of bytes in blocks that are currently in use. */
+  public synchronized long getAllocatedBytes() {
+    return allocatedWords << 3;
+  }
+
+  /** Returns true once the arena has been closed. */
+  public boolean isClosed() {
+    return chunks == null;
+  }
+
+  /**
+   * Unmaps all chunks and closes the file. Blocks of the arena must not be accessed afterwards, and must not be accessed
+   * concurrently with this method.
+   */
+  @Override
+  public synchronized void close() {
+    final MappedByteBuffer[] cs = chunks;
+    if (cs == null) {
+      return;
+    }
+    chunks = null;
+    for (int i = 0; i < numChunks; i++) {
+      unmap(cs[i]);
+    }
+    numChunks = 0;
+    allocatedWords = 0;
+    freeLists = null;
+    freeCounts = null;
+    try {
+      file.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Could not close the off-heap points-to set arena", e);
+    }
+  }
+
+  private void checkOpen() {
+    if (chunks == null) {
+      throw new IllegalStateException("The off-heap points-to set arena has been closed");
+    }
+  }
+
+  /**
+   * Releases the memory of a mapping right away rather than when the buffer is collected, if the running VM allows it.
+   */
+  private static void unmap(MappedByteBuffer buffer) {
+    try {
+      try {
+        // Java 9 and later
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        invokeCleaner.invoke(theUnsafe.get(null), buffer);
+      } catch (NoSuchMethodException e) {
+        // Java 8
+        Method cleaner = buffer.getClass().getMethod("cleaner");
+        cleaner.setAccessible(true);
+        Object c = cleaner.invoke(buffer);
+        if (c != null) {
+          c.getClass().getMethod("clean").invoke(c);
+        }
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // The mapping is released when the buffer is collected
+    }
+  }
+
+  private MappedByteBuffer chunk(long address) {
+    final MappedByteBuffer[] cs = chunks;
+    if (cs == null) {
+      throw new IllegalStateException("The off-heap points-to set arena has been closed");
+    }
+    return cs[(int) (address >>> CHUNK_SHIFT)];
+  }
+
+  private static int offset(long address) {
+    return (int) (address & OFFSET_MASK);
+  }
+
+  private void mapChunk() {
+    MappedByteBuffer[] cs = chunks;
+    if (numChunks == cs.length) {
+      cs = Arrays.copyOf(cs, cs.length * 2);
+    }
+    try {
+      // Mapping past the end of the file extends it; the new region reads as zeros
+      cs[numChunks] = file.getChannel().map(FileChannel.MapMode.READ_WRITE, numChunks * CHUNK_BYTES, CHUNK_BYTES);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not map a new chunk of the off-heap points-to set arena", e);
+    }
+    chunks = cs;
+    numChunks++;
+    top = 0;
+  }
+}
@@ -0,0 +1,281 @@
+package soot.jimple.spark.sets;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import soot.Type;
+import soot.jimple.spark.internal.TypeManager;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.util.BitVector;
+
+/**
+ * Hybrid implementation of points-to set whose bit vectors live off the Java heap. Like {@link HybridPointsToSet}, small
+ * sets are kept in an explicit array of up to 16 nodes. Larger sets switch to a bit vector stored in an
+ * {@link OffHeapBitArena} shared by all sets of a factory, so that millions of large sets do not put any pressure on the
+ * garbage collector.
+ *
+ * Blocks of the arena are recycled when a set outgrows its block and when a set is released, for instance after it has been
+ * merged into another one. The arena is closed by {@link P2SetFactory#release()}, which the PAG calls when it is released.
+ */
+public final class OffHeapBitPointsToSet extends PointsToSetInternal {
+  private static final int SMALL_SET_SIZE = 16;
+
+  public OffHeapBitPointsToSet(Type type, PAG pag, OffHeapBitArena arena) {
+    super(type);
+    this.pag = pag;
+    this.arena = arena;
+  }
+
+  /** Returns true if this set contains no run-time objects. */
+  @Override
+  public boolean isEmpty() {
+    return empty;
+  }
+
+  private boolean superAddAll(PointsToSetInternal other, PointsToSetInternal exclude) {
+    boolean ret = super.addAll(other, exclude);
+    if (ret) {
+      empty = false;
+    }
+    return ret;
+  }
+
+  private boolean nativeAddAll(OffHeapBitPointsToSet other, OffHeapBitPointsToSet exclude) {
+    if (other == null) {
+      return false;
+    }
+    if (other.nodes != null) {
+      boolean ret = false;
+      for (Node n : other.nodes) {
+        if (n == null) {
+          break;
+        }
+        if (exclude == null || !exclude.contains(n)) {
+          ret = add(n) | ret;
+        }
+      }
+      return ret;
+    }
+
+    BitVector mask = null;
+    TypeManager typeManager = pag.getTypeManager();
+    if (!typeManager.castNeverFails(other.getType(), this.getType())) {
+      mask = typeManager.get(this.getType());
+    }
+    if (exclude != null) {
+      exclude.convertToBits();
+    }
+    convertToBits();
+
+    boolean ret = false;
+    for (int i = 0; i < other.capacity; i++) {
+      long w = arena.getWord(other.address, i);
+      if (w == 0) {
+        continue;
+      }
+      if (exclude != null) {
+        w &= ~exclude.word(i);
+      }
+      w &= ~word(i);
+      if (w != 0 && mask != null) {
+        for (long rest = w; rest != 0; rest &= rest - 1) {
+          int bit = (i << 6) + Long.numberOfTrailingZeros(rest);
+          if (!mask.get(bit)) {
+            w &= ~(1L << bit);
+          }
+        }
+      }
+      if (w != 0) {
+        ensureCapacity(i + 1);
+        arena.setWord(address, i, arena.getWord(address, i) | w);
+        ret = true;
+      }
+    }
+    if (ret) {
+      empty = false;
+    }
+    return ret;
+  }
+
+  /**
+   * Adds contents of other into this set, returns true if this set changed.
+   */
+  @Override
+  public boolean addAll(PointsToSetInternal other, PointsToSetInternal exclude) {
+    if ((other != null && !isCompatible(other)) || (exclude != null && !isCompatible(exclude))) {
+      return superAddAll(other, exclude);
+    }
+    return nativeAddAll((OffHeapBitPointsToSet) other, (OffHeapBitPointsToSet) exclude);
+  }
+
+  private boolean isCompatible(PointsToSetInternal other) {
+    return other instanceof OffHeapBitPointsToSet && ((OffHeapBitPointsToSet) other).arena == arena;
+  }
+
+  /** Calls v's visit method on all nodes in this set. */
+  @Override
+  public boolean forall(P2SetVisitor v) {
+    if (nodes != null) {
+      for (Node node : nodes) {
+        if (node == null) {
+          break;
+        }
+        v.visit(node);
+      }
+    } else {
+      for (int i = 0; i < capacity; i++) {
+        for (long w = arena.getWord(address, i); w != 0; w &= w - 1) {
+          v.visit(pag.getAllocNodeNumberer().get((i << 6) + Long.numberOfTrailingZeros(w)));
+        }
+      }
+    }
+    return v.getReturnValue();
+  }
+
+  /** Adds n to this set, returns true if n was not already in this set. */
+  @Override
+  public boolean add(Node n) {
+    if (pag.getTypeManager().castNeverFails(n.getType(), type)) {
+      return fastAdd(n);
+    }
+    return false;
+  }
+
+  /** Returns true iff the set contains n. */
+  @Override
+  public boolean contains(Node n) {
+    if (nodes != null) {
+      for (Node node : nodes) {
+        if (node == n) {
+          return true;
+        }
+        if (node == null) {
+          break;
+        }
+      }
+      return false;
+    }
+    final int bit = n.getNumber();
+    return (word(bit >>> 6) & (1L << bit)) != 0;
+  }
+
+  /** Returns the block of this set to the arena. The set is empty afterwards. */
+  @Override
+  public void release() {
+    if (capacity > 0 && !arena.isClosed()) {
+      arena.free(address, capacity);
+    }
+    address = 0;
+    capacity = 0;
+    nodes = new Node[SMALL_SET_SIZE];
+    empty = true;
+  }
+
+  /**
+   * Returns a factory whose sets share a new arena. Every PAG should get its own factory.
+   */
+  public static P2SetFactory<OffHeapBitPointsToSet> getFactory() {
+    final OffHeapBitArena arena = new OffHeapBitArena();
+    return new P2SetFactory<OffHeapBitPointsToSet>() {
+      @Override
+      public OffHeapBitPointsToSet newSet(Type type, PAG pag) {
+        return new OffHeapBitPointsToSet(type, pag, arena);
+      }
+
+      @Override
+      public void release() {
+        arena.close();
+      }
+    };
+  }
+
+  /* End of public methods. */
+  /* End of package methods. */
+
+  private boolean fastAdd(Node n) {
+    if (nodes != null) {
+      for (int i = 0; i < nodes.length; i++) {
+        if (nodes[i] == null) {
+          empty = false;
+          nodes[i] = n;
+          return true;
+        } else if (nodes[i] == n) {
+          return false;
+        }
+      }
+      convertToBits();
+    }
+    final int bit = n.getNumber();
+    final int index = bit >>> 6;
+    final long w = word(index);
+    if ((w & (1L << bit)) != 0) {
+      return false;
+    }
+    ensureCapacity(index + 1);
+    arena.setWord(address, index, w | (1L << bit));
+    empty = false;
+    return true;
+  }
+
+  private long word(int index) {
+    return index < capacity ? arena.getWord(address, index) : 0L;
+  }
+
+  private void convertToBits() {
+    if (nodes == null) {
+      return;
+    }
+    Node[] small = nodes;
+    nodes = null;
+    ensureCapacity((pag.getAllocNodeNumberer().size() >>> 6) + 1);
+    for (Node node : small) {
+      if (node == null) {
+        break;
+      }
+      fastAdd(node);
+    }
+  }
+
+  private void ensureCapacity(int words) {
+    if (words <= capacity) {
+      return;
+    }
+    // Size new blocks for all allocation nodes known so far, since sets rarely stay far below that
+    int newCapacity = OffHeapBitArena.capacityFor(Math.max(words, (pag.getAllocNodeNumberer().size() >>> 6) + 1));
+    long newAddress = arena.allocate(newCapacity);
+    if (capacity > 0) {
+      arena.copy(address, newAddress, capacity);
+      arena.free(address, capacity);
+    }
+    address = newAddress;
+    capacity = newCapacity;
+  }
+
+  private Node[] nodes = new Node[SMALL_SET_SIZE];
+  private long address;
+  private int capacity = 0;
+  private boolean empty = true;
+  private final PAG pag;
+  private final OffHeapBitArena arena;
+}
@@ -33,4 +33,11 @@ import soot.jimple.spark.pag.PAG;
 public abstract class P2SetFactory<T extends PointsToSetInternal> {
   /** Returns a newly-created set. */
   public abstract T newSet(Type type, PAG pag);
+
+  /**
+   * Releases the storage that the sets of this factory hold outside the Java heap. The sets must not be used afterwards.
+   * Does nothing by default.
+   */
+  public void release() {
+  }
 }
@@ -104,6 +104,13 @@ public abstract class PointsToSetInternal implements PointsToSet, EqualsSupporti
   public void unFlushNew() {
   }
 
+  /**
+   * Returns the storage of this set that is not managed by the garbage collector, once the set is no longer needed. The set
+   * must not be used afterwards. Does nothing by default.
+   */
+  public void release() {
+  }
+
   /** Merges other into this set. */
   public void mergeWith(PointsToSetInternal other) {
     addAll(other, null);
@@ -1,5 +1,8 @@
 package soot.jimple.spark.solver;
 
+import java.util.Collection;
+import java.util.Iterator;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,6 +32,7 @@ import soot.Context;
 import soot.Local;
 import soot.MethodOrMethodContext;
 import soot.Scene;
+import soot.SootMethod;
 import soot.Type;
 import soot.jimple.IntConstant;
 import soot.jimple.NewArrayExpr;
@@ -136,6 +140,30 @@ public class OnFlyCallGraph {
     }
   }
 
+  /**
+   * Rescans the given methods after their bodies have changed. Their MethodPAGs must already have been retracted; they are
+   * rebuilt and added again if the methods are reachable, and the parameter and return edges of the calls into them are
+   * restored. Edges out of them are re-created by the call graph builder.
+   */
+  public void updateMethods(Collection<SootMethod> changed) {
+    ofcgb.updateMethods(changed);
+    for (SootMethod m : changed) {
+      if (!reachableMethods.contains(m)) {
+        continue;
+      }
+      MethodPAG mpag = MethodPAG.v(pag, m);
+      mpag.build();
+      mpag.addToPAG(null);
+      for (Iterator<Edge> it = callGraph.edgesInto(m); it.hasNext();) {
+        Edge e = it.next();
+        if (!changed.contains(e.src())) {
+          pag.addCallTarget(e);
+        }
+      }
+    }
+    build();
+  }
+
   public OnFlyCallGraphBuilder ofcgb() {
     return ofcgb;
   }
@@ -0,0 +1,307 @@
+package soot.jimple.spark.solver;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.Scene;
+import soot.SootMethod;
+import soot.jimple.spark.pag.AllocDotField;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.FieldRefNode;
+import soot.jimple.spark.pag.MethodPAG;
+import soot.jimple.spark.pag.NewInstanceNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.pag.SparkField;
+import soot.jimple.spark.pag.VarNode;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.jimple.toolkits.callgraph.ReachableMethods;
+import soot.util.queue.QueueReader;
+
+/**
+ * Brings an already solved pointer assignment graph up to date after the bodies of some methods have changed, without
+ * solving the whole graph again. The nodes of the changed methods are retracted from the PAG together with their edges and
+ * their MethodPAGs are rebuilt. The points-to sets of all nodes that may have depended on the removed edges are then
+ * cleared and recomputed from their unaffected predecessors, while every other points-to set is kept as it is.
+ *
+ * The PAG must be context-insensitive and must not contain merged nodes, which is the case for the default on-the-fly call
+ * graph configuration. The call edges out of the changed methods are retracted and rebuilt from the new bodies, but methods
+ * that have become reachable are never retracted, so the call graph may keep methods and the edges out of them that the new
+ * bodies no longer induce. Points-to sets flowing out of reflective newInstance() nodes are not recomputed.
+ */
+public class PropIncremental extends PropWorklist {
+  private static final Logger logger = LoggerFactory.getLogger(PropIncremental.class);
+
+  /** VarNodes and AllocDotFields whose points-to sets are recomputed. */
+  protected final Set<Node> affected = new HashSet<Node>();
+  /** Fields for which some AllocDotField may have new points-to information that has not been loaded yet. */
+  protected final Set<SparkField> dirtyFields = new HashSet<SparkField>();
+
+  public PropIncremental(PAG pag) {
+    super(pag);
+  }
+
+  /**
+   * Updates the PAG, the on-the-fly call graph and the points-to sets for the current bodies of the changed methods.
+   */
+  public void update(Collection<SootMethod> changed) {
+    ofcg = pag.getOnFlyCallGraph();
+    affected.clear();
+    dirtyFields.clear();
+    varNodeWorkList.clear();
+
+    QueueReader<Node> addedEdges = pag.edgeReader();
+    Set<Node> seeds = new HashSet<Node>();
+    for (SootMethod m : changed) {
+      seeds.addAll(MethodPAG.v(pag, m).retract());
+    }
+    if (ofcg != null) {
+      ofcg.updateMethods(changed);
+    } else {
+      addMethods(changed);
+    }
+    while (addedEdges.hasNext()) {
+      addedEdges.next();
+      seeds.add(addedEdges.next());
+    }
+
+    findAffected(seeds);
+    if (pag.getOpts().verbose()) {
+      logger.debug("Recomputing " + affected.size() + " points-to sets for " + changed.size() + " changed methods");
+    }
+    resetAffected();
+    do {
+      processVarNodeWorkList();
+      propagateDirtyLoads();
+    } while (!varNodeWorkList.isEmpty());
+  }
+
+  /* End of public methods. */
+  /* End of package methods. */
+
+  /**
+   * Adds the rebuilt MethodPAGs of the reachable changed methods and the edges of their calls to a PAG that was built from a
+   * precomputed call graph.
+   */
+  protected void addMethods(Collection<SootMethod> changed) {
+    final ReachableMethods rm = Scene.v().getReachableMethods();
+    final CallGraph cg = Scene.v().getCallGraph();
+    for (SootMethod m : changed) {
+      if (rm.contains(m)) {
+        MethodPAG mpag = MethodPAG.v(pag, m);
+        mpag.build();
+        mpag.addToPAG(null);
+      }
+    }
+    for (SootMethod m : changed) {
+      for (Edge e : toList(cg.edgesInto(m))) {
+        pag.addCallTarget(e);
+      }
+      for (Edge e : toList(cg.edgesOutOf(m))) {
+        pag.addCallTarget(e);
+      }
+    }
+  }
+
+  private static List<Edge> toList(Iterator<Edge> it) {
+    List<Edge> ret = new ArrayList<Edge>();
+    while (it.hasNext()) {
+      ret.add(it.next());
+    }
+    return ret;
+  }
+
+  /**
+   * Collects into affected every node whose points-to set may shrink when the seeds lose some of their points-to
+   * information, following simple, store, load and newInstance edges.
+   */
+  protected void findAffected(Collection<Node> seeds) {
+    final Map<SparkField, List<FieldRefNode>> loadsByField = new HashMap<SparkField, List<FieldRefNode>>();
+    for (FieldRefNode fr : pag.loadSources()) {
+      List<FieldRefNode> loads = loadsByField.get(fr.getField());
+      if (loads == null) {
+        loadsByField.put(fr.getField(), loads = new ArrayList<FieldRefNode>());
+      }
+      loads.add(fr);
+    }
+
+    final Set<FieldRefNode> visitedFieldRefs = new HashSet<FieldRefNode>();
+    final Deque<Node> worklist = new ArrayDeque<Node>(seeds);
+    while (!worklist.isEmpty()) {
+      final Node n = worklist.removeFirst().getReplacement();
+      if (n instanceof VarNode) {
+        final VarNode v = (VarNode) n;
+        if (!affected.add(v)) {
+          continue;
+        }
+        Collections.addAll(worklist, pag.simpleLookup(v));
+        Collections.addAll(worklist, pag.storeLookup(v));
+        Collections.addAll(worklist, pag.newInstanceLookup(v));
+        worklist.addAll(v.getAllFieldRefs());
+      } else if (n instanceof FieldRefNode) {
+        final FieldRefNode fr = (FieldRefNode) n;
+        if (!visitedFieldRefs.add(fr)) {
+          continue;
+        }
+        Collections.addAll(worklist, pag.loadLookup(fr));
+        // The stores into fr may already have been retracted, so the fields it could write are always affected
+        final SparkField f = fr.getField();
+        fr.getBase().getP2Set().forall(new P2SetVisitor() {
+          @Override
+          public void visit(Node o) {
+            AllocDotField nDotF = ((AllocNode) o).dot(f);
+            if (nDotF != null) {
+              worklist.add(nDotF);
+            }
+          }
+        });
+      } else if (n instanceof AllocDotField) {
+        final AllocDotField nDotF = (AllocDotField) n;
+        if (!affected.add(nDotF)) {
+          continue;
+        }
+        List<FieldRefNode> loads = loadsByField.get(nDotF.getField());
+        if (loads != null) {
+          for (FieldRefNode fr : loads) {
+            if (fr.getBase().getP2Set().contains(nDotF.getBase())) {
+              Collections.addAll(worklist, pag.loadLookup(fr));
+            }
+          }
+        }
+      } else if (n instanceof NewInstanceNode) {
+        Collections.addAll(worklist, pag.assignInstanceLookup((NewInstanceNode) n));
+      }
+    }
+  }
+
+  /**
+   * Clears the points-to sets of the affected nodes and puts back the points-to information that flows into them from
+   * allocation sites and from unaffected nodes.
+   */
+  protected void resetAffected() {
+    for (Node n : affected) {
+      // Merged nodes share the set of their representative, which stays in use
+      PointsToSetInternal old = n.getReplacement() == n ? n.getP2Set() : null;
+      n.discardP2Set();
+      if (old != null) {
+        old.release();
+      }
+    }
+    final Set<VarNode> predecessors = new HashSet<VarNode>();
+    for (Node n : affected) {
+      if (n instanceof AllocDotField) {
+        dirtyFields.add(((AllocDotField) n).getField());
+        continue;
+      }
+      VarNode v = (VarNode) n;
+      for (Node element : pag.allocInvLookup(v)) {
+        if (v.makeP2Set().add(element)) {
+          varNodeWorkList.add(v);
+        }
+      }
+      for (Node element : pag.simpleInvLookup(v)) {
+        predecessors.add((VarNode) element);
+      }
+      for (Node element : pag.loadInvLookup(v)) {
+        predecessors.add(((FieldRefNode) element).getBase());
+      }
+    }
+    // Unaffected predecessors propagate their whole points-to sets again
+    for (VarNode v : predecessors) {
+      if (!affected.contains(v)) {
+        v.getP2Set().unFlushNew();
+        varNodeWorkList.add(v);
+      }
+    }
+
+    // Stores whose source and base are both unaffected are not seen by the worklist
+    for (VarNode src : pag.storeSources()) {
+      if (affected.contains(src)) {
+        continue;
+      }
+      final PointsToSetInternal srcP2Set = src.getP2Set();
+      for (Node element : pag.storeLookup(src)) {
+        final FieldRefNode fr = (FieldRefNode) element;
+        if (affected.contains(fr.getBase())) {
+          continue;
+        }
+        final SparkField f = fr.getField();
+        fr.getBase().getP2Set().forall(new P2SetVisitor() {
+          @Override
+          public void visit(Node n) {
+            AllocDotField nDotF = ((AllocNode) n).dot(f);
+            if (nDotF != null && affected.contains(nDotF)) {
+              nDotF.makeP2Set().addAll(srcP2Set, null);
+            }
+          }
+        });
+      }
+    }
+  }
+
+  @Override
+  protected boolean handleFieldRefs(VarNode src, PointsToSetInternal newP2Set, boolean flush) {
+    for (Node element : pag.storeLookup(src)) {
+      dirtyFields.add(((FieldRefNode) element).getField());
+    }
+    for (FieldRefNode fr : src.getAllFieldRefs()) {
+      dirtyFields.add(fr.getField());
+    }
+    return super.handleFieldRefs(src, newP2Set, flush);
+  }
+
+  /**
+   * Propagates the new points-to information of the fields that have been written since the last call through the loads
+   * reading them.
+   */
+  protected void propagateDirtyLoads() {
+    if (dirtyFields.isEmpty()) {
+      return;
+    }
+    List<FieldRefNode> loads = new ArrayList<FieldRefNode>();
+    for (FieldRefNode fr : pag.loadSources()) {
+      if (dirtyFields.contains(fr.getField())) {
+        loads.add(fr);
+      }
+    }
+    dirtyFields.clear();
+    propagateLoads(loads);
+  }
+}
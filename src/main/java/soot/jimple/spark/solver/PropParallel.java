@@ -0,0 +1,272 @@
+package soot.jimple.spark.solver;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import soot.Scene;
+import soot.jimple.spark.internal.TypeManager;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.pag.VarNode;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.options.Options;
+import soot.options.SparkOptions;
+import soot.util.queue.QueueReader;
+
+/**
+ * Propagates points-to sets along the pointer assignment graph using a worklist that is processed in rounds, with the
+ * simple assignment edges of each round handled by several threads.
+ *
+ * Each round takes all nodes currently on the worklist. The on-the-fly call graph is updated for them first, then the new
+ * part of each of their points-to sets is detached. These detached sets are no longer modified and are propagated along
+ * the simple edges in parallel, with the targets partitioned by node number so that every points-to set is only ever
+ * written by one thread. Loads and stores are then handled on the calling thread, like in {@link PropWorklist}. Since
+ * propagation computes the least fixed point of the same constraints, the result is the same as that of
+ * {@link PropWorklist}.
+ *
+ * The shared set implementations, <code>sharedlist</code> and <code>heintze</code>, update global tables whenever a set
+ * changes, so they are always propagated on the calling thread.
+ */
+public class PropParallel extends PropWorklist {
+  /** Below this number of simple edges in a round, the round is handled on the calling thread. */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+
+  protected final int threadNum;
+  protected final int parallelThreshold;
+  protected ExecutorService executor;
+
+  public PropParallel(PAG pag) {
+    this(pag, getDefaultThreadNum());
+  }
+
+  public PropParallel(PAG pag, int threadNum) {
+    this(pag, threadNum, DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * @param parallelThreshold
+   *          the number of simple edges a round needs to have to be handled by several threads
+   */
+  public PropParallel(PAG pag, int threadNum, int parallelThreshold) {
+    super(pag);
+    this.threadNum = threadNum;
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /**
+   * Returns true if points-to sets created with the given options can be written by several threads at once, as long as
+   * each set is only written by one of them.
+   */
+  public static boolean supportsConcurrentUpdates(SparkOptions opts) {
+    switch (opts.set_impl()) {
+      case SparkOptions.set_impl_sharedlist:
+      case SparkOptions.set_impl_heintze:
+        return false;
+      case SparkOptions.set_impl_double:
+        return opts.double_set_old() != SparkOptions.double_set_old_sharedlist
+            && opts.double_set_old() != SparkOptions.double_set_old_heintze
+            && opts.double_set_new() != SparkOptions.double_set_new_sharedlist
+            && opts.double_set_new() != SparkOptions.double_set_new_heintze;
+      default:
+        return true;
+    }
+  }
+
+  private static int getDefaultThreadNum() {
+    int threadNum = Options.v().num_threads();
+    if (threadNum < 1) {
+      threadNum = Runtime.getRuntime().availableProcessors();
+    }
+    return threadNum;
+  }
+
+  /** Actually does the propagation. */
+  @Override
+  public void propagate() {
+    if (threadNum > 1 && supportsConcurrentUpdates(pag.getOpts())) {
+      executor = Executors.newFixedThreadPool(threadNum, r -> {
+        Thread t = new Thread(r, "soot-spark");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+    try {
+      super.propagate();
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+        executor = null;
+      }
+    }
+  }
+
+  /* End of public methods. */
+  /* End of package methods. */
+
+  @Override
+  protected void processVarNodeWorkList() {
+    while (!varNodeWorkList.isEmpty()) {
+      List<VarNode> round = new ArrayList<VarNode>(varNodeWorkList);
+      varNodeWorkList.clear();
+      handleVarNodes(round);
+    }
+  }
+
+  /**
+   * Propagates new points-to information of all nodes in round to their successors. Nodes whose points-to sets change are
+   * put back on the worklist.
+   */
+  protected void handleVarNodes(List<VarNode> round) {
+    List<VarNode> sources = new ArrayList<VarNode>(round.size());
+    for (VarNode src : round) {
+      if (src.getReplacement() != src) {
+        throw new RuntimeException("Got bad node " + src + " with rep " + src.getReplacement());
+      }
+      if (src.getP2Set().getNewSet().isEmpty()) {
+        continue;
+      }
+      if (ofcg != null) {
+        QueueReader<Node> addedEdges = pag.edgeReader();
+        ofcg.updatedNode(src);
+        ofcg.build();
+        // Anything added to src itself is either detached below or puts src back on the worklist
+        handleAddedEdges(addedEdges, src);
+      }
+      sources.add(src);
+    }
+
+    PointsToSetInternal[] newSets = new PointsToSetInternal[sources.size()];
+    boolean[] copied = new boolean[newSets.length];
+    for (int i = 0; i < newSets.length; i++) {
+      copied[i] = sources.get(i).getP2Set().getNewSet() == sources.get(i).getP2Set();
+      newSets[i] = detachNewSet(sources.get(i));
+    }
+
+    propagateSimpleEdges(sources, newSets);
+
+    for (int i = 0; i < newSets.length; i++) {
+      handleFieldRefs(sources.get(i), newSets[i], false);
+      if (copied[i]) {
+        newSets[i].release();
+      }
+    }
+  }
+
+  /**
+   * Returns the new part of the points-to set of src and flushes it, so that the returned set is not modified anymore.
+   */
+  protected PointsToSetInternal detachNewSet(VarNode src) {
+    final PointsToSetInternal p2set = src.getP2Set();
+    final PointsToSetInternal newSet = p2set.getNewSet();
+    if (newSet == p2set) {
+      // Sets without a separate new part are always propagated as a whole; take a copy since the original keeps growing
+      PointsToSetInternal copy = pag.getSetFactory().newSet(p2set.getType(), pag);
+      copy.addAll(p2set, null);
+      return copy;
+    }
+    p2set.flushNew();
+    return newSet;
+  }
+
+  /**
+   * Adds newSets[i] to the points-to sets of all simple successors of sources[i].
+   */
+  protected void propagateSimpleEdges(List<VarNode> sources, PointsToSetInternal[] newSets) {
+    int numEdges = 0;
+    for (VarNode src : sources) {
+      numEdges += pag.simpleLookup(src).length;
+    }
+
+    if (executor == null || numEdges < parallelThreshold) {
+      for (int i = 0; i < newSets.length; i++) {
+        for (Node element : pag.simpleLookup(sources.get(i))) {
+          if (element.makeP2Set().addAll(newSets[i], null)) {
+            varNodeWorkList.add((VarNode) element);
+          }
+        }
+      }
+      return;
+    }
+
+    // Partition the edges by target, so that each points-to set is only written by one worker
+    final List<List<Node>> targets = new ArrayList<List<Node>>(threadNum);
+    final List<List<PointsToSetInternal>> sets = new ArrayList<List<PointsToSetInternal>>(threadNum);
+    for (int t = 0; t < threadNum; t++) {
+      targets.add(new ArrayList<Node>());
+      sets.add(new ArrayList<PointsToSetInternal>());
+    }
+    for (int i = 0; i < newSets.length; i++) {
+      for (Node element : pag.simpleLookup(sources.get(i))) {
+        // Create the set here, since set creation may not be thread-safe for all set implementations
+        Node target = element.getReplacement();
+        target.makeP2Set();
+        int t = target.getNumber() % threadNum;
+        targets.get(t).add(target);
+        sets.get(t).add(newSets[i]);
+      }
+    }
+
+    // Bring the type masks up to date, so that the workers only read them
+    TypeManager typeManager = pag.getTypeManager();
+    if (typeManager.getFastHierarchy() != null) {
+      typeManager.get(Scene.v().getObjectType());
+    }
+
+    List<Future<List<VarNode>>> futures = new ArrayList<Future<List<VarNode>>>(threadNum);
+    for (int t = 0; t < threadNum; t++) {
+      final List<Node> myTargets = targets.get(t);
+      final List<PointsToSetInternal> mySets = sets.get(t);
+      futures.add(executor.submit(() -> {
+        List<VarNode> changed = new ArrayList<VarNode>();
+        for (int j = 0; j < myTargets.size(); j++) {
+          Node element = myTargets.get(j);
+          if (element.getP2Set().addAll(mySets.get(j), null)) {
+            changed.add((VarNode) element);
+          }
+        }
+        return changed;
+      }));
+    }
+    for (Future<List<VarNode>> future : futures) {
+      try {
+        varNodeWorkList.addAll(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while propagating points-to sets", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+    }
+  }
+}
@@ -75,11 +75,7 @@ public class PropWorklist extends Propagator {
       if (verbose) {
         logger.debug("Worklist has " + varNodeWorkList.size() + " nodes.");
       }
-      while (!varNodeWorkList.isEmpty()) {
-        VarNode src = varNodeWorkList.iterator().next();
-        varNodeWorkList.remove(src);
-        handleVarNode(src);
-      }
+      processVarNodeWorkList();
       if (verbose) {
         logger.debug("Now handling field references");
       }
@@ -98,29 +94,48 @@ public class PropWorklist extends Propagator {
           });
         }
       }
-      HashSet<Object[]> edgesToPropagate = new HashSet<Object[]>();
-      for (FieldRefNode object : pag.loadSources()) {
-        handleFieldRefNode(object, edgesToPropagate);
-      }
-      Set<PointsToSetInternal> nodesToFlush = Collections.newSetFromMap(new IdentityHashMap<PointsToSetInternal, Boolean>());
-      for (Object[] pair : edgesToPropagate) {
-        PointsToSetInternal nDotF = (PointsToSetInternal) pair[0];
-        PointsToSetInternal newP2Set = nDotF.getNewSet();
-        VarNode loadTarget = (VarNode) pair[1];
-        if (loadTarget.makeP2Set().addAll(newP2Set, null)) {
-          varNodeWorkList.add(loadTarget);
-        }
-        nodesToFlush.add(nDotF);
-      }
-      for (PointsToSetInternal nDotF : nodesToFlush) {
-        nDotF.flushNew();
-      }
+      propagateLoads(pag.loadSources());
     } while (!varNodeWorkList.isEmpty());
   }
 
   /* End of public methods. */
   /* End of package methods. */
 
+  /**
+   * Propagates the new points-to information of the fields read by the given loads to the load targets, and then flushes
+   * it.
+   */
+  protected void propagateLoads(Iterable<FieldRefNode> loadSources) {
+    HashSet<Object[]> edgesToPropagate = new HashSet<Object[]>();
+    for (FieldRefNode object : loadSources) {
+      handleFieldRefNode(object, edgesToPropagate);
+    }
+    Set<PointsToSetInternal> nodesToFlush = Collections.newSetFromMap(new IdentityHashMap<PointsToSetInternal, Boolean>());
+    for (Object[] pair : edgesToPropagate) {
+      PointsToSetInternal nDotF = (PointsToSetInternal) pair[0];
+      PointsToSetInternal newP2Set = nDotF.getNewSet();
+      VarNode loadTarget = (VarNode) pair[1];
+      if (loadTarget.makeP2Set().addAll(newP2Set, null)) {
+        varNodeWorkList.add(loadTarget);
+      }
+      nodesToFlush.add(nDotF);
+    }
+    for (PointsToSetInternal nDotF : nodesToFlush) {
+      nDotF.flushNew();
+    }
+  }
+
+  /**
+   * Handles the nodes on the worklist until it is empty.
+   */
+  protected void processVarNodeWorkList() {
+    while (!varNodeWorkList.isEmpty()) {
+      VarNode src = varNodeWorkList.iterator().next();
+      varNodeWorkList.remove(src);
+      handleVarNode(src);
+    }
+  }
+
   /**
    * Propagates new points-to information of node src to all its successors.
    */
@@ -156,87 +171,108 @@ public class PropWorklist extends Propagator {
       QueueReader<Node> addedEdges = pag.edgeReader();
       ofcg.updatedNode(src);
       ofcg.build();
+      if (addedEdges.hasNext()) {
+        ret = true;
+        flush = handleAddedEdges(addedEdges, src);
+      }
+    }
 
-      while (addedEdges.hasNext()) {
-        Node addedSrc = (Node) addedEdges.next();
-        Node addedTgt = (Node) addedEdges.next();
+    Node[] simpleTargets = pag.simpleLookup(src);
+    for (Node element : simpleTargets) {
+      if (element.makeP2Set().addAll(newP2Set, null)) {
+        varNodeWorkList.add((VarNode) element);
+        if (element == src) {
+          flush = false;
+        }
         ret = true;
-        if (addedSrc instanceof VarNode) {
-          VarNode edgeSrc = (VarNode) addedSrc.getReplacement();
-          if (addedTgt instanceof VarNode) {
-            VarNode edgeTgt = (VarNode) addedTgt.getReplacement();
+      }
+    }
 
-            if (edgeTgt.makeP2Set().addAll(edgeSrc.getP2Set(), null)) {
-              varNodeWorkList.add(edgeTgt);
-              if (edgeTgt == src) {
-                flush = false;
-              }
-            }
-          } else if (addedTgt instanceof NewInstanceNode) {
-            NewInstanceNode edgeTgt = (NewInstanceNode) addedTgt.getReplacement();
-            if (edgeTgt.makeP2Set().addAll(edgeSrc.getP2Set(), null)) {
-              for (Node element : pag.assignInstanceLookup(edgeTgt)) {
-                varNodeWorkList.add((VarNode) element);
-                if (element == src) {
-                  flush = false;
-                }
-              }
-            }
-          }
-        } else if (addedSrc instanceof AllocNode) {
+    return handleFieldRefs(src, newP2Set, flush) | ret;
+  }
+
+  /**
+   * Propagates points-to information along the edges that the on-the-fly call graph has just added to the PAG. Returns false
+   * if the points-to set of src itself has grown, in which case its new part must not be flushed yet.
+   */
+  protected boolean handleAddedEdges(QueueReader<Node> addedEdges, final VarNode src) {
+    boolean flush = true;
+    while (addedEdges.hasNext()) {
+      Node addedSrc = (Node) addedEdges.next();
+      Node addedTgt = (Node) addedEdges.next();
+      if (addedSrc instanceof VarNode) {
+        VarNode edgeSrc = (VarNode) addedSrc.getReplacement();
+        if (addedTgt instanceof VarNode) {
           VarNode edgeTgt = (VarNode) addedTgt.getReplacement();
-          if (edgeTgt.makeP2Set().add(addedSrc)) {
+
+          if (edgeTgt.makeP2Set().addAll(edgeSrc.getP2Set(), null)) {
             varNodeWorkList.add(edgeTgt);
             if (edgeTgt == src) {
               flush = false;
             }
           }
-        } else if (addedSrc instanceof NewInstanceNode && addedTgt instanceof VarNode) {
-          final NewInstanceNode edgeSrc = (NewInstanceNode) addedSrc.getReplacement();
-          final VarNode edgeTgt = (VarNode) addedTgt.getReplacement();
-          addedSrc.getP2Set().forall(new P2SetVisitor() {
-
-            @Override
-            public void visit(Node n) {
-              if (n instanceof ClassConstantNode) {
-                ClassConstantNode ccn = (ClassConstantNode) n;
-                Type ccnType = ccn.getClassConstant().toSootType();
-
-                // If the referenced class has not been loaded,
-                // we do this now
-                SootClass targetClass = ((RefType) ccnType).getSootClass();
-                if (targetClass.resolvingLevel() == SootClass.DANGLING) {
-                  Scene.v().forceResolve(targetClass.getName(), SootClass.SIGNATURES);
-                }
-
-                // We can only create alloc nodes for types that
-                // we know
-                edgeTgt.makeP2Set().add(pag.makeAllocNode(edgeSrc.getValue(), ccnType, ccn.getMethod()));
-                varNodeWorkList.add(edgeTgt);
+        } else if (addedTgt instanceof NewInstanceNode) {
+          NewInstanceNode edgeTgt = (NewInstanceNode) addedTgt.getReplacement();
+          if (edgeTgt.makeP2Set().addAll(edgeSrc.getP2Set(), null)) {
+            for (Node element : pag.assignInstanceLookup(edgeTgt)) {
+              varNodeWorkList.add((VarNode) element);
+              if (element == src) {
+                flush = false;
               }
             }
+          }
+        }
+      } else if (addedSrc instanceof AllocNode) {
+        VarNode edgeTgt = (VarNode) addedTgt.getReplacement();
+        if (edgeTgt.makeP2Set().add(addedSrc)) {
+          varNodeWorkList.add(edgeTgt);
+          if (edgeTgt == src) {
+            flush = false;
+          }
+        }
+      } else if (addedSrc instanceof NewInstanceNode && addedTgt instanceof VarNode) {
+        final NewInstanceNode edgeSrc = (NewInstanceNode) addedSrc.getReplacement();
+        final VarNode edgeTgt = (VarNode) addedTgt.getReplacement();
+        addedSrc.getP2Set().forall(new P2SetVisitor() {
 
-          });
-          if (edgeTgt.makeP2Set().add(addedSrc)) {
-            if (edgeTgt == src) {
-              flush = false;
+          @Override
+          public void visit(Node n) {
+            if (n instanceof ClassConstantNode) {
+              ClassConstantNode ccn = (ClassConstantNode) n;
+              Type ccnType = ccn.getClassConstant().toSootType();
+
+              // If the referenced class has not been loaded,
+              // we do this now
+              SootClass targetClass = ((RefType) ccnType).getSootClass();
+              if (targetClass.resolvingLevel() == SootClass.DANGLING) {
+                Scene.v().forceResolve(targetClass.getName(), SootClass.SIGNATURES);
+              }
+
+              // We can only create alloc nodes for types that
+              // we know
+              edgeTgt.makeP2Set().add(pag.makeAllocNode(edgeSrc.getValue(), ccnType, ccn.getMethod()));
+              varNodeWorkList.add(edgeTgt);
             }
           }
-        }
-      }
-    }
 
-    Node[] simpleTargets = pag.simpleLookup(src);
-    for (Node element : simpleTargets) {
-      if (element.makeP2Set().addAll(newP2Set, null)) {
-        varNodeWorkList.add((VarNode) element);
-        if (element == src) {
-          flush = false;
+        });
+        if (edgeTgt.makeP2Set().add(addedSrc)) {
+          if (edgeTgt == src) {
+            flush = false;
+          }
         }
-        ret = true;
       }
     }
+    return flush;
+  }
 
+  /**
+   * Propagates the new points-to information newP2Set of src through the stores into and the loads from fields of the
+   * objects it points to. If flush is true, the new part of the points-to set of src is flushed once the affected loads and
+   * stores have been collected.
+   */
+  protected boolean handleFieldRefs(final VarNode src, final PointsToSetInternal newP2Set, boolean flush) {
+    boolean ret = false;
     Node[] storeTargets = pag.storeLookup(src);
     for (Node element : storeTargets) {
       final FieldRefNode fr = (FieldRefNode) element;
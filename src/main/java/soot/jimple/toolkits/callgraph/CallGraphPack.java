@@ -25,6 +25,9 @@ package soot.jimple.toolkits.callgraph;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import soot.EntryPoints;
 import soot.PhaseOptions;
 import soot.RadioScenePack;
@@ -38,6 +41,7 @@ import soot.options.CGOptions;
  * has been built.
  */
 public class CallGraphPack extends RadioScenePack {
+  private static final Logger logger = LoggerFactory.getLogger(CallGraphPack.class);
 
   public CallGraphPack(String name) {
     super(name);
@@ -70,5 +74,14 @@ public class CallGraphPack extends RadioScenePack {
         }
       }
     }
+
+    if (options.verbose() && Scene.v().hasCallGraph()) {
+      CallGraph cg = Scene.v().getCallGraph();
+      if (cg instanceof CompactCallGraph) {
+        CompactCallGraph compact = (CompactCallGraph) cg;
+        logger.debug(String.format("[CG] Compact call graph with %d edges, %d bytes of index, about %.1f bytes per edge",
+            compact.size(), compact.getIndexSizeInBytes(), compact.getBytesPerEdge()));
+      }
+    }
   }
 }
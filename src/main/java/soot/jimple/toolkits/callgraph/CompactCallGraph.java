@@ -0,0 +1,507 @@
+package soot.jimple.toolkits.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import soot.MethodOrMethodContext;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.Stmt;
+
+/**
+ * A call graph that indexes its edges with primitive int arrays instead of hash maps. Every edge gets an int id and is
+ * threaded onto three singly-linked lists (by source unit, by source method and by target method), whose heads and tails
+ * are stored in arrays indexed by the numbers handed out by {@link Scene#getMethodNumberer()} and by a unit index private
+ * to the call graph. The unit index is an open-addressing identity table and is counted in
+ * {@link #getIndexSizeInBytes()}. Duplicate edges are detected by scanning the edges out of the same call site, so no set
+ * of all edges is kept.
+ *
+ * Iteration orders follow insertion order within each list; {@link #iterator()} visits the edges in the order of their ids.
+ * Edges of context-sensitive call graphs are stored under the number of their underlying method and filtered by context
+ * when iterated.
+ *
+ * The ids of removed edges are recycled. Iterators over the lists skip edges that are removed while they are in use; they
+ * may however end early if both the edge they would return next and the one after it are removed and their ids reused
+ * before they move on.
+ */
+public class CompactCallGraph extends CallGraph {
+
+  /**
+   * Rough shallow size of an {@link Edge} object with compressed references.
+   */
+  protected static final int EDGE_OBJECT_BYTES = 56;
+
+  private static final int INITIAL_EDGES = 1024;
+  private static final int INITIAL_NODES = 256;
+
+  /** Units with a number, at the slot they hash to; unit numbers start at 1, since 0 stands for no unit. */
+  private Unit[] unitKeys = new Unit[2 * INITIAL_NODES];
+  private int[] unitNumbers = new int[2 * INITIAL_NODES];
+  private int numUnits = 0;
+
+  /** Edges by id; id 0 is never used so that it can terminate the lists. */
+  private Edge[] edgeById = new Edge[INITIAL_EDGES];
+  private int[] nextByUnit = new int[INITIAL_EDGES];
+  private int[] nextBySrc = new int[INITIAL_EDGES];
+  private int[] nextByTgt = new int[INITIAL_EDGES];
+  private int lastId = 0;
+  private int liveEdges = 0;
+  /** Ids of removed edges, reused by later edges. */
+  private int[] freeIds = new int[16];
+  private int numFreeIds = 0;
+
+  private int[] unitHead = new int[INITIAL_NODES];
+  private int[] unitTail = new int[INITIAL_NODES];
+  private int[] srcHead = new int[INITIAL_NODES];
+  private int[] srcTail = new int[INITIAL_NODES];
+  private int[] tgtHead = new int[INITIAL_NODES];
+  private int[] tgtTail = new int[INITIAL_NODES];
+  /** Source methods that have edges out of a context, whose list must be walked to find the contexts. */
+  private final BitSet contextSources = new BitSet();
+
+  @Override
+  public boolean addEdge(Edge e) {
+    final int unit = unitNumber(e.srcUnit(), true);
+    final int src = methodNumber(e.getSrc(), true);
+    final int tgt = methodNumber(e.getTgt(), true);
+
+    // Edges without a call site are all chained under unit 0, so check the shorter source method list for those
+    if (e.srcUnit() == null ? contains(srcHead, src, nextBySrc, e) : contains(unitHead, unit, nextByUnit, e)) {
+      return false;
+    }
+
+    final int id;
+    if (numFreeIds > 0) {
+      id = freeIds[--numFreeIds];
+      nextByUnit[id] = 0;
+      nextBySrc[id] = 0;
+      nextByTgt[id] = 0;
+    } else {
+      id = ++lastId;
+      if (id >= edgeById.length) {
+        int newLength = edgeById.length * 2;
+        edgeById = Arrays.copyOf(edgeById, newLength);
+        nextByUnit = Arrays.copyOf(nextByUnit, newLength);
+        nextBySrc = Arrays.copyOf(nextBySrc, newLength);
+        nextByTgt = Arrays.copyOf(nextByTgt, newLength);
+      }
+    }
+    edgeById[id] = e;
+    liveEdges++;
+    if (!(e.getSrc() instanceof SootMethod)) {
+      contextSources.set(src);
+    }
+
+    unitHead = ensureCapacity(unitHead, unit);
+    unitTail = ensureCapacity(unitTail, unit);
+    append(unitHead, unitTail, nextByUnit, unit, id);
+
+    srcHead = ensureCapacity(srcHead, src);
+    srcTail = ensureCapacity(srcTail, src);
+    append(srcHead, srcTail, nextBySrc, src, id);
+
+    tgtHead = ensureCapacity(tgtHead, tgt);
+    tgtTail = ensureCapacity(tgtTail, tgt);
+    append(tgtHead, tgtTail, nextByTgt, tgt, id);
+
+    stream.add(e);
+    return true;
+  }
+
+  @Override
+  public boolean removeAllEdgesOutOf(Unit u) {
+    Set<Edge> edgesToRemove = new LinkedHashSet<>();
+    for (Iterator<Edge> it = edgesOutOf(u); it.hasNext();) {
+      edgesToRemove.add(it.next());
+    }
+    if (edgesToRemove.isEmpty()) {
+      return false;
+    }
+    for (Edge e : edgesToRemove) {
+      removeEdge(e, false);
+    }
+    reader.remove(edgesToRemove);
+    return true;
+  }
+
+  @Override
+  public boolean swapEdgesOutOf(Stmt out, Stmt in) {
+    boolean hasSwapped = false;
+    for (Iterator<Edge> edgeRdr = edgesOutOf(out); edgeRdr.hasNext();) {
+      Edge e = edgeRdr.next();
+      removeEdge(e);
+      addEdge(new Edge(e.getSrc(), in, e.getTgt()));
+      hasSwapped = true;
+    }
+    return hasSwapped;
+  }
+
+  @Override
+  public boolean removeEdge(Edge e, boolean removeInEdgeList) {
+    final int id = find(e);
+    if (id == 0) {
+      return false;
+    }
+    // Iterate over the stored edge, since e may only be equal to it
+    final Edge stored = edgeById[id];
+    stored.remove();
+    edgeById[id] = null;
+    liveEdges--;
+
+    unlink(unitHead, unitTail, nextByUnit, unitNumber(stored.srcUnit(), false), id);
+    unlink(srcHead, srcTail, nextBySrc, methodNumber(stored.getSrc(), false), id);
+    unlink(tgtHead, tgtTail, nextByTgt, methodNumber(stored.getTgt(), false), id);
+    // The links of the removed edge stay until its id is reused, so that iterators standing on it can continue
+    if (numFreeIds == freeIds.length) {
+      freeIds = Arrays.copyOf(freeIds, numFreeIds * 2);
+    }
+    freeIds[numFreeIds++] = id;
+
+    // This is an linear operation, so we want to avoid it if possible.
+    if (removeInEdgeList) {
+      reader.remove(stored);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean removeEdges(Collection<Edge> edges) {
+    boolean removed = false;
+    for (Edge e : edges) {
+      removed |= removeEdge(e, false);
+    }
+    if (removed) {
+      reader.remove(edges);
+    }
+    return removed;
+  }
+
+  @Override
+  public boolean isEntryMethod(SootMethod method) {
+    return !new EdgeIterator(tgtHead, methodNumber(method, false), null, null, method).hasNext();
+  }
+
+  @Override
+  public Edge findEdge(Unit u, SootMethod callee) {
+    for (Iterator<Edge> it = edgesOutOf(u); it.hasNext();) {
+      Edge e = it.next();
+      if (e.tgt() == callee) {
+        return e;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns an iterator over all methods that are the sources of at least one edge. Unlike in {@link CallGraph}, the set of
+   * source methods is computed on each call from the heads of the source method lists; only the lists of methods with
+   * edges out of a context are walked.
+   */
+  @Override
+  public Iterator<MethodOrMethodContext> sourceMethods() {
+    Set<MethodOrMethodContext> ret = new LinkedHashSet<>();
+    for (int node = 0; node < srcHead.length; node++) {
+      final int head = srcHead[node];
+      if (head == 0) {
+        continue;
+      }
+      if (contextSources.get(node)) {
+        for (int id = head; id != 0; id = nextBySrc[id]) {
+          ret.add(edgeById[id].getSrc());
+        }
+      } else {
+        ret.add(edgeById[head].getSrc());
+      }
+    }
+    return ret.iterator();
+  }
+
+  @Override
+  public Iterator<Edge> edgesOutOf(Unit u) {
+    if (u == null) {
+      throw new RuntimeException();
+    }
+    return new EdgeIterator(unitHead, unitNumber(u, false), u, null, null);
+  }
+
+  @Override
+  public Iterator<Edge> edgesOutOf(MethodOrMethodContext m) {
+    if (m == null) {
+      throw new RuntimeException();
+    }
+    return new EdgeIterator(srcHead, methodNumber(m, false), null, m, null);
+  }
+
+  @Override
+  public Iterator<Edge> edgesInto(MethodOrMethodContext m) {
+    if (m == null) {
+      throw new RuntimeException();
+    }
+    return new EdgeIterator(tgtHead, methodNumber(m, false), null, null, m);
+  }
+
+  @Override
+  public int size() {
+    return liveEdges;
+  }
+
+  @Override
+  public Iterator<Edge> iterator() {
+    return new Iterator<Edge>() {
+      private int id = advance(1);
+
+      private int advance(int from) {
+        int i = from;
+        while (i <= lastId && edgeById[i] == null) {
+          i++;
+        }
+        return i;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return id <= lastId;
+      }
+
+      @Override
+      public Edge next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        Edge ret = edgeById[id];
+        id = advance(id + 1);
+        return ret;
+      }
+    };
+  }
+
+  /**
+   * Returns the number of bytes taken by the int indexes of this call graph, i.e., everything except the {@link Edge}
+   * objects themselves and the queue feeding the listeners.
+   */
+  public long getIndexSizeInBytes() {
+    long refs = edgeById.length + unitKeys.length;
+    long ints = nextByUnit.length + nextBySrc.length + nextByTgt.length + unitHead.length + unitTail.length + srcHead.length
+        + srcTail.length + tgtHead.length + tgtTail.length + unitNumbers.length + freeIds.length;
+    return 4 * (refs + ints) + contextSources.size() / 8;
+  }
+
+  /**
+   * Returns an estimate of the memory used per edge, including the {@link Edge} objects and the reference held by the edge
+   * queue.
+   */
+  public double getBytesPerEdge() {
+    if (liveEdges == 0) {
+      return 0;
+    }
+    return (double) (getIndexSizeInBytes() + (long) liveEdges * (EDGE_OBJECT_BYTES + 4)) / liveEdges;
+  }
+
+  private int methodNumber(MethodOrMethodContext m, boolean create) {
+    SootMethod method = m.method();
+    if (method.getNumber() == 0 && create) {
+      Scene.v().getMethodNumberer().add(method);
+    }
+    return method.getNumber();
+  }
+
+  /**
+   * Returns the number of u in the private unit index, or -1 if u has none and create is false.
+   */
+  private int unitNumber(Unit u, boolean create) {
+    if (u == null) {
+      return 0;
+    }
+    int slot = unitSlot(u);
+    if (unitKeys[slot] != null) {
+      return unitNumbers[slot];
+    }
+    if (!create) {
+      return -1;
+    }
+    unitKeys[slot] = u;
+    unitNumbers[slot] = ++numUnits;
+    if (2 * numUnits > unitKeys.length) {
+      final Unit[] oldKeys = unitKeys;
+      final int[] oldNumbers = unitNumbers;
+      unitKeys = new Unit[oldKeys.length * 2];
+      unitNumbers = new int[oldKeys.length * 2];
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != null) {
+          int newSlot = unitSlot(oldKeys[i]);
+          unitKeys[newSlot] = oldKeys[i];
+          unitNumbers[newSlot] = oldNumbers[i];
+        }
+      }
+    }
+    return numUnits;
+  }
+
+  private int unitSlot(Unit u) {
+    final int mask = unitKeys.length - 1;
+    int i = (System.identityHashCode(u) * 0x9E3779B9) & mask;
+    while (unitKeys[i] != null && unitKeys[i] != u) {
+      i = (i + 1) & mask;
+    }
+    return i;
+  }
+
+  private int find(Edge e) {
+    if (e.srcUnit() == null) {
+      return find(srcHead, methodNumber(e.getSrc(), false), nextBySrc, e);
+    } else {
+      return find(unitHead, unitNumber(e.srcUnit(), false), nextByUnit, e);
+    }
+  }
+
+  private int find(int[] heads, int node, int[] next, Edge e) {
+    if (node < 0 || node >= heads.length) {
+      return 0;
+    }
+    for (int id = heads[node]; id != 0; id = next[id]) {
+      if (e.equals(edgeById[id])) {
+        return id;
+      }
+    }
+    return 0;
+  }
+
+  private boolean contains(int[] heads, int node, int[] next, Edge e) {
+    return find(heads, node, next, e) != 0;
+  }
+
+  private static int[] ensureCapacity(int[] array, int index) {
+    if (index < array.length) {
+      return array;
+    }
+    return Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
+  }
+
+  private static void append(int[] heads, int[] tails, int[] next, int node, int id) {
+    if (heads[node] == 0) {
+      heads[node] = id;
+    } else {
+      next[tails[node]] = id;
+    }
+    tails[node] = id;
+  }
+
+  /**
+   * Unlinks the given edge from a list. The successor of the removed edge is kept so that iterators that currently point at
+   * it can continue.
+   */
+  private static void unlink(int[] heads, int[] tails, int[] next, int node, int id) {
+    int prev = 0;
+    for (int cur = heads[node]; cur != 0; prev = cur, cur = next[cur]) {
+      if (cur == id) {
+        if (prev == 0) {
+          heads[node] = next[cur];
+        } else {
+          next[prev] = next[cur];
+        }
+        if (tails[node] == id) {
+          tails[node] = prev;
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Walks one of the edge lists, skipping removed edges and edges whose source unit, source or target does not match
+   * exactly (several contexts of a method share one list).
+   */
+  private class EdgeIterator implements Iterator<Edge> {
+    private final Unit unit;
+    private final MethodOrMethodContext src;
+    private final MethodOrMethodContext tgt;
+    private int position;
+    /** The edge at position, and the id that followed it when the iterator moved there. */
+    private Edge current;
+    private int following;
+
+    EdgeIterator(int[] heads, int node, Unit unit, MethodOrMethodContext src, MethodOrMethodContext tgt) {
+      this.unit = unit;
+      this.src = src;
+      this.tgt = tgt;
+      this.position = (node < 0 || node >= heads.length) ? 0 : heads[node];
+      skip();
+    }
+
+    private void skip() {
+      while (position != 0) {
+        Edge e = edgeById[position];
+        if (e != null && (unit == null || e.srcUnit() == unit) && (src == null || e.getSrc() == src)
+            && (tgt == null || e.getTgt() == tgt)) {
+          current = e;
+          following = links()[position];
+          return;
+        }
+        position = links()[position];
+      }
+    }
+
+    private int[] links() {
+      // Look the array up every time, it may have been grown since this iterator was created
+      if (unit != null) {
+        return nextByUnit;
+      }
+      return src != null ? nextBySrc : nextByTgt;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (position != 0 && edgeById[position] != current) {
+        // The edge has been removed since, and its id may have been reused by an edge of another list
+        position = following;
+        skip();
+      }
+      return position != 0;
+    }
+
+    @Override
+    public Edge next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Edge ret = current;
+      position = links()[position];
+      skip();
+      return ret;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
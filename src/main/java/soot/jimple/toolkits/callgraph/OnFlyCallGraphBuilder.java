@@ -296,6 +296,78 @@ public class OnFlyCallGraphBuilder {
     }
   }
 
+  /**
+   * Discards everything this builder has derived from the bodies of the given methods, including their outgoing edges in
+   * the call graph, and scans the current bodies of those methods that had already been analyzed. Edges that depend on
+   * points-to information are re-created once the client reports the types of the new receivers through
+   * {@link #addType(Local, Context, Type, Context)}. Only context-insensitive call graphs are supported, and methods that
+   * have become reachable are never retracted.
+   *
+   * @param changed
+   *          The methods whose bodies have changed since they were last processed
+   */
+  public void updateMethods(Collection<SootMethod> changed) {
+    final CallGraph cg = cm.callGraph();
+    for (SootMethod m : changed) {
+      removeEdgesOutOf(cicg, m);
+      removeEdgesOutOf(cg, m);
+
+      List<Local> receivers = methodToReceivers.get(m);
+      if (receivers != null) {
+        for (Local receiver : receivers) {
+          receiverToSites.remove(receiver);
+        }
+        methodToReceivers.remove(m);
+      }
+      List<Local> stringConstants = methodToStringConstants.get(m);
+      if (stringConstants != null) {
+        for (Local constant : stringConstants) {
+          stringConstToSites.remove(constant);
+        }
+        methodToStringConstants.remove(m);
+      }
+      methodToInvokeBases.remove(m);
+      methodToInvokeArgs.remove(m);
+      removeInvokeCallSites(baseToInvokeSite, m);
+      removeInvokeCallSites(invokeArgsToInvokeSite, m);
+      if (analysisKey == m) {
+        analysisKey = null;
+        nullnessCache = null;
+        arrayCache = null;
+      }
+
+      if (analyzedMethods.contains(m)) {
+        processNewMethod(m);
+        processNewMethodContext(m);
+      }
+    }
+  }
+
+  private static void removeEdgesOutOf(CallGraph cg, SootMethod m) {
+    List<Edge> edges = new ArrayList<Edge>();
+    for (Iterator<Edge> it = cg.edgesOutOf(m); it.hasNext();) {
+      edges.add(it.next());
+    }
+    for (Edge e : edges) {
+      cg.removeEdge(e);
+    }
+  }
+
+  private void removeInvokeCallSites(MultiMap<Local, InvokeCallSite> sites, SootMethod m) {
+    for (Local l : new ArrayList<Local>(sites.keySet())) {
+      for (InvokeCallSite ics : new ArrayList<InvokeCallSite>(sites.get(l))) {
+        if (ics.container() == m) {
+          sites.remove(l, ics);
+        }
+      }
+      if (sites.get(l).isEmpty()) {
+        reachingBaseTypes.remove(l);
+        reachingArgTypes.remove(l);
+        invokeArgsToSize.remove(l);
+      }
+    }
+  }
+
   public boolean wantTypes(Local receiver) {
     return receiverToSites.get(receiver) != null || baseToInvokeSite.get(receiver) != null;
   }
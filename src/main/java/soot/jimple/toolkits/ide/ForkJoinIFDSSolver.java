@@ -0,0 +1,403 @@
+package soot.jimple.toolkits.ide;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import heros.FlowFunction;
+import heros.FlowFunctions;
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import soot.SootMethod;
+import soot.Unit;
+
+/**
+ * An IFDS solver for Jimple that schedules its work on a {@link ForkJoinPool} instead of the single shared queue of heros'
+ * <code>CountingThreadPoolExecutor</code>. It implements the same tabulation algorithm as heros' <code>IFDSSolver</code>,
+ * including unbalanced returns and the automatic addition of the zero fact, and computes the same results.
+ *
+ * New path edges are collected by the task that found them and forked in batches, so that idle workers steal whole
+ * batches from the deques of busy ones. The jump functions, end summaries and incoming call edges are kept in concurrent
+ * maps keyed by node and fact.
+ *
+ * @param <D>
+ *          the type of data-flow facts
+ * @param <I>
+ *          the type of the interprocedural control-flow graph
+ */
+public class ForkJoinIFDSSolver<D, I extends InterproceduralCFG<Unit, SootMethod>> {
+
+  /** The number of path edges a task collects before forking them as a new task. */
+  private static final int BATCH_SIZE = 64;
+
+  protected final IFDSTabulationProblem<Unit, D, SootMethod, I> problem;
+  protected final I icfg;
+  protected final FlowFunctions<Unit, D, SootMethod> flowFunctions;
+  protected final D zeroValue;
+  private final boolean followReturnsPastSeeds;
+  private final boolean autoAddZero;
+  private final int numThreads;
+
+  /** target node -> fact at the node -> facts at the start point of the node's method */
+  private final ConcurrentMap<Unit, ConcurrentMap<D, Set<D>>> jumpFn
+      = new ConcurrentHashMap<Unit, ConcurrentMap<D, Set<D>>>();
+  /** (start point, fact at start point) -> (exit node, fact at exit node) */
+  private final ConcurrentMap<FactAt<D>, Set<FactAt<D>>> endSummary = new ConcurrentHashMap<FactAt<D>, Set<FactAt<D>>>();
+  /** (start point, fact at start point) -> (call site, fact at the start point of the caller) */
+  private final ConcurrentMap<FactAt<D>, Set<FactAt<D>>> incoming = new ConcurrentHashMap<FactAt<D>, Set<FactAt<D>>>();
+
+  private final AtomicLong propagationCount = new AtomicLong();
+  private final AtomicLong pendingTasks = new AtomicLong();
+  private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+  private CountDownLatch finished;
+
+  public ForkJoinIFDSSolver(IFDSTabulationProblem<Unit, D, SootMethod, I> problem) {
+    this.problem = problem;
+    this.icfg = problem.interproceduralCFG();
+    this.flowFunctions = problem.flowFunctions();
+    this.zeroValue = problem.zeroValue();
+    this.followReturnsPastSeeds = problem.followReturnsPastSeeds();
+    this.autoAddZero = problem.autoAddZero();
+    int threads = problem.numThreads();
+    this.numThreads = threads < 1 ? Runtime.getRuntime().availableProcessors() : threads;
+  }
+
+  /**
+   * Runs the solver on the initial seeds of the problem and blocks until all path edges have been processed.
+   */
+  public void solve() {
+    final List<PathEdge<D>> seeds = new ArrayList<PathEdge<D>>();
+    for (Map.Entry<Unit, Set<D>> seed : problem.initialSeeds().entrySet()) {
+      Unit startPoint = seed.getKey();
+      for (D d : seed.getValue()) {
+        propagate(zeroValue, startPoint, d, seeds);
+      }
+      addJumpFunction(zeroValue, startPoint, zeroValue);
+    }
+    if (seeds.isEmpty()) {
+      return;
+    }
+
+    finished = new CountDownLatch(1);
+    ForkJoinPool pool = new ForkJoinPool(numThreads);
+    try {
+      // Hold a count of our own while submitting, so that the first batches cannot finish the run before the last one has
+      // been submitted
+      pendingTasks.incrementAndGet();
+      try {
+        for (int i = 0; i < seeds.size(); i += BATCH_SIZE) {
+          pool.execute(
+              new PathEdgeTask(new ArrayList<PathEdge<D>>(seeds.subList(i, Math.min(seeds.size(), i + BATCH_SIZE)))));
+        }
+      } finally {
+        taskDone();
+      }
+      finished.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for the IFDS solver to finish", e);
+    } finally {
+      pool.shutdownNow();
+    }
+
+    Throwable t = failure.get();
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    } else if (t instanceof Error) {
+      throw (Error) t;
+    } else if (t != null) {
+      throw new RuntimeException(t);
+    }
+  }
+
+  /**
+   * Returns the facts that hold before the given statement, not including the zero fact.
+   */
+  public Set<D> ifdsResultsAt(Unit stmt) {
+    Map<D, Set<D>> facts = jumpFn.get(stmt);
+    if (facts == null) {
+      return Collections.emptySet();
+    }
+    Set<D> result = new HashSet<D>(facts.keySet());
+    result.remove(zeroValue);
+    return result;
+  }
+
+  /**
+   * Returns the number of distinct path edges the solver has propagated.
+   */
+  public long getPropagationCount() {
+    return propagationCount.get();
+  }
+
+  private void process(PathEdge<D> edge, List<PathEdge<D>> out) {
+    final Unit n = edge.target;
+    if (icfg.isCallStmt(n)) {
+      processCall(edge, out);
+    } else {
+      if (icfg.isExitStmt(n)) {
+        processExit(edge, out);
+      }
+      if (!icfg.getSuccsOf(n).isEmpty()) {
+        processNormalFlow(edge, out);
+      }
+    }
+  }
+
+  private void processCall(PathEdge<D> edge, List<PathEdge<D>> out) {
+    final D d1 = edge.source;
+    final Unit n = edge.target;
+    final D d2 = edge.fact;
+    final Collection<Unit> returnSites = icfg.getReturnSitesOfCallAt(n);
+
+    for (SootMethod callee : icfg.getCalleesOfCallAt(n)) {
+      Set<D> calleeFacts = computeTargets(flowFunctions.getCallFlowFunction(n, callee), d2);
+      for (Unit startPoint : icfg.getStartPointsOf(callee)) {
+        for (D d3 : calleeFacts) {
+          propagate(d3, startPoint, d3, out);
+
+          // register the caller first and read the summaries afterwards; processExit does the opposite, so every pair of
+          // caller and summary is seen by at least one of them
+          FactAt<D> calleeStart = new FactAt<D>(startPoint, d3);
+          addTo(incoming, calleeStart, new FactAt<D>(n, d1));
+          Set<FactAt<D>> summaries = endSummary.get(calleeStart);
+          if (summaries == null) {
+            continue;
+          }
+          for (FactAt<D> exit : summaries) {
+            for (Unit retSite : returnSites) {
+              FlowFunction<D> retFunction = flowFunctions.getReturnFlowFunction(n, callee, exit.unit, retSite);
+              for (D d5 : computeTargets(retFunction, exit.fact)) {
+                propagate(d1, retSite, d5, out);
+              }
+            }
+          }
+        }
+      }
+    }
+
+    for (Unit retSite : returnSites) {
+      FlowFunction<D> callToReturnFunction = flowFunctions.getCallToReturnFlowFunction(n, retSite);
+      for (D d3 : computeTargets(callToReturnFunction, d2)) {
+        propagate(d1, retSite, d3, out);
+      }
+    }
+  }
+
+  private void processExit(PathEdge<D> edge, List<PathEdge<D>> out) {
+    final D d1 = edge.source;
+    final Unit n = edge.target;
+    final D d2 = edge.fact;
+    final SootMethod method = icfg.getMethodOf(n);
+
+    for (Unit startPoint : icfg.getStartPointsOf(method)) {
+      FactAt<D> start = new FactAt<D>(startPoint, d1);
+      addTo(endSummary, start, new FactAt<D>(n, d2));
+      Set<FactAt<D>> callers = incoming.get(start);
+      if (callers != null) {
+        for (FactAt<D> caller : callers) {
+          for (Unit retSite : icfg.getReturnSitesOfCallAt(caller.unit)) {
+            FlowFunction<D> retFunction = flowFunctions.getReturnFlowFunction(caller.unit, method, n, retSite);
+            for (D d5 : computeTargets(retFunction, d2)) {
+              propagate(caller.fact, retSite, d5, out);
+            }
+          }
+        }
+      } else if (followReturnsPastSeeds && d1 == zeroValue) {
+        // unbalanced return: the method was reached from a seed, so flow back into all of its callers
+        for (Unit callSite : icfg.getCallersOf(method)) {
+          for (Unit retSite : icfg.getReturnSitesOfCallAt(callSite)) {
+            FlowFunction<D> retFunction = flowFunctions.getReturnFlowFunction(callSite, method, n, retSite);
+            for (D d5 : computeTargets(retFunction, d2)) {
+              propagate(zeroValue, retSite, d5, out);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private void processNormalFlow(PathEdge<D> edge, List<PathEdge<D>> out) {
+    final Unit n = edge.target;
+    for (Unit succ : icfg.getSuccsOf(n)) {
+      FlowFunction<D> flowFunction = flowFunctions.getNormalFlowFunction(n, succ);
+      for (D d3 : computeTargets(flowFunction, edge.fact)) {
+        propagate(edge.source, succ, d3, out);
+      }
+    }
+  }
+
+  private Set<D> computeTargets(FlowFunction<D> flowFunction, D source) {
+    Set<D> targets = flowFunction.computeTargets(source);
+    if (autoAddZero && source == zeroValue && !targets.contains(zeroValue)) {
+      targets = new HashSet<D>(targets);
+      targets.add(zeroValue);
+    }
+    return targets;
+  }
+
+  /**
+   * Adds the path edge from <code>d1</code> at the start point to <code>d2</code> at <code>target</code> and, if it is new,
+   * schedules it by appending it to <code>out</code>.
+   */
+  private void propagate(D d1, Unit target, D d2, List<PathEdge<D>> out) {
+    if (addJumpFunction(d1, target, d2)) {
+      propagationCount.incrementAndGet();
+      out.add(new PathEdge<D>(d1, target, d2));
+    }
+  }
+
+  private boolean addJumpFunction(D d1, Unit target, D d2) {
+    ConcurrentMap<D, Set<D>> facts = jumpFn.get(target);
+    if (facts == null) {
+      facts = new ConcurrentHashMap<D, Set<D>>();
+      ConcurrentMap<D, Set<D>> old = jumpFn.putIfAbsent(target, facts);
+      if (old != null) {
+        facts = old;
+      }
+    }
+    Set<D> sources = facts.get(d2);
+    if (sources == null) {
+      sources = ConcurrentHashMap.newKeySet();
+      Set<D> old = facts.putIfAbsent(d2, sources);
+      if (old != null) {
+        sources = old;
+      }
+    }
+    return sources.add(d1);
+  }
+
+  private static <K, V> void addTo(ConcurrentMap<K, Set<V>> map, K key, V value) {
+    Set<V> values = map.get(key);
+    if (values == null) {
+      values = ConcurrentHashMap.newKeySet();
+      Set<V> old = map.putIfAbsent(key, values);
+      if (old != null) {
+        values = old;
+      }
+    }
+    values.add(value);
+  }
+
+  /**
+   * Processes a batch of path edges. Edges found on the way are processed by the same task, except that full batches are
+   * forked, and so is the remainder when other workers are idle.
+   */
+  private final class PathEdgeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private List<PathEdge<D>> edges;
+
+    PathEdgeTask(List<PathEdge<D>> edges) {
+      this.edges = edges;
+      pendingTasks.incrementAndGet();
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        List<PathEdge<D>> work = edges;
+        edges = null;
+        while (!work.isEmpty() && failure.get() == null) {
+          List<PathEdge<D>> next = new ArrayList<PathEdge<D>>();
+          for (PathEdge<D> edge : work) {
+            process(edge, next);
+            if (next.size() >= BATCH_SIZE) {
+              new PathEdgeTask(next).fork();
+              next = new ArrayList<PathEdge<D>>();
+            }
+          }
+          if (next.size() > 1 && getSurplusQueuedTaskCount() < 1) {
+            new PathEdgeTask(next).fork();
+            break;
+          }
+          work = next;
+        }
+      } catch (Throwable t) {
+        failure.compareAndSet(null, t);
+      } finally {
+        taskDone();
+      }
+    }
+  }
+
+  private void taskDone() {
+    if (pendingTasks.decrementAndGet() == 0) {
+      finished.countDown();
+    }
+  }
+
+  private static final class PathEdge<D> {
+    final D source;
+    final Unit target;
+    final D fact;
+
+    PathEdge(D source, Unit target, D fact) {
+      this.source = source;
+      this.target = target;
+      this.fact = fact;
+    }
+  }
+
+  private static final class FactAt<D> {
+    final Unit unit;
+    final D fact;
+
+    FactAt(Unit unit, D fact) {
+      this.unit = unit;
+      this.fact = fact;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * unit.hashCode() + (fact == null ? 0 : fact.hashCode());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof FactAt)) {
+        return false;
+      }
+      FactAt<?> other = (FactAt<?>) obj;
+      return unit == other.unit && (fact == null ? other.fact == null : fact.equals(other.fact));
+    }
+  }
+}
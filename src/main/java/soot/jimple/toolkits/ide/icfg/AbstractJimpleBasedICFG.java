@@ -22,8 +22,11 @@ package soot.jimple.toolkits.ide.icfg;
  * #L%
  */
 
+import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
 
 import heros.DontSynchronize;
 import heros.SynchronizedBy;
@@ -53,17 +56,14 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   protected final boolean enableExceptions;
 
+  /** The maximum total number of units of the bodies whose unit graphs are cached, or 0 if the cache is unbounded. */
+  protected final long maxCachedUnits;
+
   @DontSynchronize("written by single thread; read afterwards")
-  private final Map<Unit, Body> unitToOwner = createUnitToOwnerMap();
+  private final Map<Unit, Body> unitToOwner;
 
   @SynchronizedBy("by use of synchronized LoadingCache class")
-  protected LoadingCache<Body, DirectedGraph<Unit>> bodyToUnitGraph
-      = IDESolver.DEFAULT_CACHE_BUILDER.build(new CacheLoader<Body, DirectedGraph<Unit>>() {
-        @Override
-        public DirectedGraph<Unit> load(Body body) throws Exception {
-          return makeGraph(body);
-        }
-      });
+  protected LoadingCache<Body, DirectedGraph<Unit>> bodyToUnitGraph;
 
   @SynchronizedBy("by use of synchronized LoadingCache class")
   protected LoadingCache<SootMethod, List<Value>> methodToParameterRefs
@@ -92,7 +92,49 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   }
 
   public AbstractJimpleBasedICFG(boolean enableExceptions) {
+    this(enableExceptions, 0);
+  }
+
+  /**
+   * Creates an ICFG in memory-bounded mode if <code>maxCachedUnits</code> is positive. In that mode, unit graphs are evicted
+   * once the bodies of all cached graphs together have more than <code>maxCachedUnits</code> units, and are rebuilt when
+   * they are needed again. The owners of units are then kept in arrays indexed by numbers private to this ICFG rather than
+   * in a hash map with an entry per unit.
+   *
+   * @param enableExceptions
+   *          whether to build exceptional unit graphs
+   * @param maxCachedUnits
+   *          the maximum total size of the bodies whose unit graphs are cached, or 0 to cache all unit graphs
+   */
+  public AbstractJimpleBasedICFG(boolean enableExceptions, long maxCachedUnits) {
     this.enableExceptions = enableExceptions;
+    this.maxCachedUnits = maxCachedUnits;
+    this.unitToOwner = maxCachedUnits > 0 ? new NumberedUnitOwnerMap() : createUnitToOwnerMap();
+    CacheLoader<Body, DirectedGraph<Unit>> loader = new CacheLoader<Body, DirectedGraph<Unit>>() {
+      @Override
+      public DirectedGraph<Unit> load(Body body) throws Exception {
+        return makeGraph(body);
+      }
+    };
+    if (maxCachedUnits > 0) {
+      this.bodyToUnitGraph = CacheBuilder.newBuilder().concurrencyLevel(Runtime.getRuntime().availableProcessors())
+          .maximumWeight(maxCachedUnits).weigher(new Weigher<Body, DirectedGraph<Unit>>() {
+            @Override
+            public int weigh(Body body, DirectedGraph<Unit> graph) {
+              return Math.max(1, graph.size());
+            }
+          }).recordStats().build(loader);
+    } else {
+      this.bodyToUnitGraph = IDESolver.DEFAULT_CACHE_BUILDER.build(loader);
+    }
+  }
+
+  /**
+   * Returns the hit, miss and eviction counts of the unit graph cache. They are only recorded in memory-bounded mode and
+   * are all zero otherwise.
+   */
+  public CacheStats getUnitGraphCacheStats() {
+    return bodyToUnitGraph.stats();
   }
 
   public Body getBodyOf(Unit u) {
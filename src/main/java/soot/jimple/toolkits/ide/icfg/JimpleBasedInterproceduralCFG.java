@@ -156,7 +156,17 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
   }
 
   public JimpleBasedInterproceduralCFG(boolean enableExceptions, boolean includeReflectiveCalls) {
-    super(enableExceptions);
+    this(enableExceptions, includeReflectiveCalls, 0);
+  }
+
+  /**
+   * Creates an ICFG over the reachable methods that caches only the unit graphs of bodies with at most
+   * <code>maxCachedUnits</code> units in total, or all of them if <code>maxCachedUnits</code> is 0.
+   *
+   * @see AbstractJimpleBasedICFG#AbstractJimpleBasedICFG(boolean, long)
+   */
+  public JimpleBasedInterproceduralCFG(boolean enableExceptions, boolean includeReflectiveCalls, long maxCachedUnits) {
+    super(enableExceptions, maxCachedUnits);
     this.includeReflectiveCalls = includeReflectiveCalls;
 
     cg = Scene.v().getCallGraph();
@@ -0,0 +1,142 @@
+package soot.jimple.toolkits.ide.icfg;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import soot.Body;
+import soot.Unit;
+
+/**
+ * Maps units to the bodies that own them. Units are numbered in the order they are inserted, and their owners are kept in
+ * an array indexed by these numbers, with an open-addressing table from units to numbers, instead of a hash map entry per
+ * unit. Iteration follows the insertion order. Units are compared by identity. Null keys and values and removal are not
+ * supported.
+ *
+ * The map is not synchronized; like the map it replaces, it is filled by one thread and only read afterwards.
+ */
+class NumberedUnitOwnerMap extends AbstractMap<Unit, Body> {
+  /** The number of each unit plus one, at the slot the unit hashes to, or 0 for free slots. */
+  private int[] table = new int[2048];
+  private Unit[] units = new Unit[1024];
+  private Body[] owners = new Body[1024];
+  private int size;
+
+  private int slot(Object key) {
+    final int mask = table.length - 1;
+    int i = (System.identityHashCode(key) * 0x9E3779B9) & mask;
+    for (int n = table[i]; n != 0 && units[n - 1] != key; n = table[i]) {
+      i = (i + 1) & mask;
+    }
+    return i;
+  }
+
+  @Override
+  public Body get(Object key) {
+    if (!(key instanceof Unit)) {
+      return null;
+    }
+    int n = table[slot(key)];
+    return n == 0 ? null : owners[n - 1];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public Body put(Unit key, Body value) {
+    if (key == null || value == null) {
+      throw new NullPointerException();
+    }
+    final int s = slot(key);
+    final int n = table[s];
+    if (n != 0) {
+      Body old = owners[n - 1];
+      owners[n - 1] = value;
+      return old;
+    }
+    if (size == units.length) {
+      units = Arrays.copyOf(units, size * 2);
+      owners = Arrays.copyOf(owners, size * 2);
+    }
+    units[size] = key;
+    owners[size] = value;
+    table[s] = ++size;
+    if (size * 2 > table.length) {
+      rehash();
+    }
+    return null;
+  }
+
+  private void rehash() {
+    table = new int[table.length * 2];
+    for (int i = 0; i < size; i++) {
+      table[slot(units[i])] = i + 1;
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Entry<Unit, Body>> entrySet() {
+    return new AbstractSet<Entry<Unit, Body>>() {
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public Iterator<Entry<Unit, Body>> iterator() {
+        return new Iterator<Entry<Unit, Body>>() {
+          private int next = 0;
+
+          @Override
+          public boolean hasNext() {
+            return next < size;
+          }
+
+          @Override
+          public Entry<Unit, Body> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            Entry<Unit, Body> e = new SimpleImmutableEntry<Unit, Body>(units[next], owners[next]);
+            next++;
+            return e;
+          }
+        };
+      }
+    };
+  }
+}
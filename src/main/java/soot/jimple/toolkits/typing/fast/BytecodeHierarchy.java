@@ -7,6 +7,8 @@ import java.util.Deque;
 import java.util.LinkedList;
 import java.util.ListIterator;
 
+import com.google.common.cache.Cache;
+
 import soot.ArrayType;
 import soot.FloatType;
 import soot.IntegerType;
@@ -16,6 +18,7 @@ import soot.RefType;
 import soot.Scene;
 import soot.SootClass;
 import soot.Type;
+import soot.toolkits.scalar.Pair;
 
 /*-
  * #%L
@@ -173,42 +176,63 @@ public class BytecodeHierarchy implements IHierarchy {
       return r;
     } else {
       // a and b are both RefType
-      Collection<AncestryTreeNode> treea = buildAncestryTree((RefType) a), treeb = buildAncestryTree((RefType) b);
+      return lcasOfRefTypes((RefType) a, (RefType) b);
+    }
+  }
 
-      LinkedList<Type> r = new LinkedList<Type>();
-      for (AncestryTreeNode nodea : treea) {
-        for (AncestryTreeNode nodeb : treeb) {
-          RefType t = leastCommonNode(nodea, nodeb);
-
-          boolean least = true;
-          for (ListIterator<Type> i = r.listIterator(); i.hasNext();) {
-            Type t_ = i.next();
-
-            if (ancestor_(t, t_)) {
-              least = false;
-              break;
-            }
-
-            if (ancestor_(t_, t)) {
-              i.remove();
-            }
+  /*
+   * Computing the least common ancestors of two reference types walks the complete ancestry of both, and the same pairs come
+   * up again and again in all bodies. The results are memoized in the hierarchy they were computed on, which drops them
+   * when the Scene invalidates it.
+   */
+  private static Collection<Type> lcasOfRefTypes(RefType a, RefType b) {
+    final Cache<Pair<RefType, RefType>, Collection<Type>> memo
+        = Scene.v().getOrMakeFastHierarchy().getLeastCommonAncestorMemo();
+    final Pair<RefType, RefType> key = new Pair<RefType, RefType>(a, b);
+    Collection<Type> r = memo.getIfPresent(key);
+    if (r == null) {
+      r = computeLcasOfRefTypes(a, b);
+      memo.put(key, r);
+    }
+    return r;
+  }
+
+  private static Collection<Type> computeLcasOfRefTypes(RefType a, RefType b) {
+    Collection<AncestryTreeNode> treea = buildAncestryTree(a), treeb = buildAncestryTree(b);
+
+    LinkedList<Type> r = new LinkedList<Type>();
+    for (AncestryTreeNode nodea : treea) {
+      for (AncestryTreeNode nodeb : treeb) {
+        RefType t = leastCommonNode(nodea, nodeb);
+
+        boolean least = true;
+        for (ListIterator<Type> i = r.listIterator(); i.hasNext();) {
+          Type t_ = i.next();
+
+          if (ancestor_(t, t_)) {
+            least = false;
+            break;
           }
 
-          if (least) {
-            r.add(t);
+          if (ancestor_(t_, t)) {
+            i.remove();
           }
         }
-      }
 
-      // in case of phantom classes that screw up type resolution here,
-      // default to only possible common reftype, java.lang.Object
-      // kludge on a kludge on a kludge...
-      // syed - 05/06/2009
-      if (r.isEmpty()) {
-        r.add(Scene.v().getObjectType());
+        if (least) {
+          r.add(t);
+        }
       }
-      return r;
     }
+
+    // in case of phantom classes that screw up type resolution here,
+    // default to only possible common reftype, java.lang.Object
+    // kludge on a kludge on a kludge...
+    // syed - 05/06/2009
+    if (r.isEmpty()) {
+      r.add(Scene.v().getObjectType());
+    }
+    return Collections.unmodifiableList(r);
   }
 
   public static boolean ancestor_(Type ancestor, Type child) {
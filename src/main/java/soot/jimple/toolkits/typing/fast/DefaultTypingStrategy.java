@@ -58,7 +58,9 @@ public class DefaultTypingStrategy implements ITypingStrategy {
   public static MultiMap<Local, Type> getFlatTyping(List<Typing> tgs) {
     MultiMap<Local, Type> map = new HashMultiMap<>();
     for (Typing tg : tgs) {
-      map.putMap(tg.map);
+      for (Local l : tg.getAllLocals()) {
+        map.put(l, tg.get(l));
+      }
     }
     return map;
   }
@@ -100,7 +102,7 @@ public class DefaultTypingStrategy implements ITypingStrategy {
 
   public int compare(Typing a, Typing b, IHierarchy h, Collection<Local> localsToIgnore) {
     int r = 0;
-    for (Local v : a.map.keySet()) {
+    for (Local v : a.getAllLocals()) {
       if (!localsToIgnore.contains(v)) {
         Type ta = a.get(v), tb = b.get(v);
 
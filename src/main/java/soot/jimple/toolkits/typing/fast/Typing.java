@@ -24,56 +24,185 @@ package soot.jimple.toolkits.typing.fast;
  * #L%
  */
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import soot.Local;
 import soot.Type;
 
 /**
+ * Maps locals to types. Every local gets a slot in a {@link LocalIndex} that is shared by all typings copied from one
+ * another, so that a typing is a plain array of types and copying it only copies that array.
+ *
  * @author Ben Bellamy
  */
 public class Typing {
 
-  protected HashMap<Local, Type> map;
+  private final LocalIndex index;
+  private Type[] types;
 
   public Typing(Collection<Local> vs) {
-    this.map = new HashMap<Local, Type>(vs.size());
+    this.index = new LocalIndex(vs.size());
+    for (Local v : vs) {
+      this.index.add(v);
+    }
+    this.types = new Type[this.index.size()];
   }
 
   public Typing(Typing tg) {
-    this.map = new HashMap<Local, Type>(tg.map);
+    this.index = tg.index;
+    this.types = tg.types.clone();
   }
 
+  /**
+   * Returns a copy of this typing as a map. Changes to the map are not reflected in this typing.
+   */
   public Map<Local, Type> getMap() {
+    Map<Local, Type> map = new HashMap<Local, Type>();
+    for (int i = 0; i < types.length; i++) {
+      if (types[i] != null) {
+        map.put(index.local(i), types[i]);
+      }
+    }
     return map;
   }
 
   public Type get(Local v) {
-    Type t = this.map.get(v);
+    int slot = index.slotOf(v);
+    Type t = (slot < 0 || slot >= types.length) ? null : types[slot];
     return (t == null) ? BottomType.v() : t;
   }
 
   public Type set(Local v, Type t) {
-    return (t instanceof BottomType) ? null : this.map.put(v, t);
+    if (t instanceof BottomType) {
+      return null;
+    }
+    int slot = index.add(v);
+    if (slot >= types.length) {
+      types = Arrays.copyOf(types, Math.max(slot + 1, index.size()));
+    }
+    Type old = types[slot];
+    types[slot] = t;
+    return old;
   }
 
+  /**
+   * Returns the locals that have a type other than bottom in this typing.
+   */
   public Collection<Local> getAllLocals() {
-    return map.keySet();
+    List<Local> locals = new ArrayList<Local>();
+    for (int i = 0; i < types.length; i++) {
+      if (types[i] != null) {
+        locals.add(index.local(i));
+      }
+    }
+    return locals;
   }
 
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
     sb.append('{');
-    for (Map.Entry<Local, Type> e : this.map.entrySet()) {
-      sb.append(e.getKey());
-      sb.append(':');
-      sb.append(e.getValue());
-      sb.append(',');
+    for (int i = 0; i < types.length; i++) {
+      if (types[i] != null) {
+        sb.append(index.local(i));
+        sb.append(':');
+        sb.append(types[i]);
+        sb.append(',');
+      }
     }
     sb.append('}');
     return sb.toString();
   }
-}
\ No newline at end of file
+
+  /**
+   * Assigns consecutive slots to locals. Locals are compared by identity, and slots are never reused.
+   */
+  private static final class LocalIndex {
+    private Local[] table;
+    private int[] tableSlots;
+    private Local[] locals;
+    private int size;
+
+    LocalIndex(int expected) {
+      int capacity = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1;
+      this.table = new Local[capacity];
+      this.tableSlots = new int[capacity];
+      this.locals = new Local[Math.max(expected, 4)];
+    }
+
+    private static int hash(Local l) {
+      int h = System.identityHashCode(l);
+      return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the slot of the given local, or <code>-1</code> if it has none.
+     */
+    int slotOf(Local l) {
+      final Local[] table = this.table;
+      final int mask = table.length - 1;
+      for (int i = hash(l) & mask;; i = (i + 1) & mask) {
+        Local k = table[i];
+        if (k == l) {
+          return tableSlots[i];
+        } else if (k == null) {
+          return -1;
+        }
+      }
+    }
+
+    /**
+     * Returns the slot of the given local, assigning the next free one if it has none.
+     */
+    int add(Local l) {
+      int mask = table.length - 1;
+      int i = hash(l) & mask;
+      for (Local k; (k = table[i]) != null; i = (i + 1) & mask) {
+        if (k == l) {
+          return tableSlots[i];
+        }
+      }
+      final int slot = size++;
+      if (slot == locals.length) {
+        locals = Arrays.copyOf(locals, slot * 2);
+      }
+      locals[slot] = l;
+      if (size * 2 > table.length) {
+        rehash(table.length * 2);
+      } else {
+        table[i] = l;
+        tableSlots[i] = slot;
+      }
+      return slot;
+    }
+
+    private void rehash(int capacity) {
+      final Local[] newTable = new Local[capacity];
+      final int[] newSlots = new int[capacity];
+      final int mask = capacity - 1;
+      for (int slot = 0; slot < size; slot++) {
+        int i = hash(locals[slot]) & mask;
+        while (newTable[i] != null) {
+          i = (i + 1) & mask;
+        }
+        newTable[i] = locals[slot];
+        newSlots[i] = slot;
+      }
+      this.table = newTable;
+      this.tableSlots = newSlots;
+    }
+
+    Local local(int slot) {
+      return locals[slot];
+    }
+
+    int size() {
+      return size;
+    }
+  }
+}
@@ -23,6 +23,7 @@ package soot.toolkits.exceptions;
 
 import com.google.common.cache.CacheBuilder;
 
+import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -31,6 +32,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import soot.AnySubType;
 import soot.FastHierarchy;
@@ -43,6 +46,7 @@ import soot.SootClass;
 import soot.Unit;
 import soot.dotnet.types.DotnetBasicTypes;
 import soot.options.Options;
+import soot.util.BitVector;
 
 /**
  * <p>
@@ -111,6 +115,32 @@ public class ThrowableSet {
    */
   protected Map<Object, ThrowableSet> memoizedAdds;
 
+  /**
+   * The types in {@link #exceptionsIncluded} and {@link #exceptionsExcluded} as bits, indexed by the numbering of exception
+   * types kept by the {@link Manager}. Equal sets have equal bits, so hashing and comparing sets for the registry, and
+   * testing for subsets and members, take a few machine words rather than a walk over the elements.
+   */
+  private final BitVector includedBits;
+  private final BitVector excludedBits;
+  private final int hash;
+
+  /**
+   * The results of {@link #whichCatchableAs(RefType)} for this set, which only hold for the class hierarchy they were
+   * computed on. Since sets are shared by all units that may throw the same exceptions, the partitions for a handler type
+   * are computed once per set rather than once per trapped unit. The hierarchy is only weakly referenced, as the sets live
+   * as long as the {@link Manager} and must not keep hierarchies alive that the {@link Scene} has discarded.
+   */
+  private volatile CatchableAsMemo memoizedCatchableAs;
+
+  private static final class CatchableAsMemo {
+    final WeakReference<FastHierarchy> hierarchy;
+    final Map<RefType, Pair> pairs = new ConcurrentHashMap<>();
+
+    CatchableAsMemo(FastHierarchy hierarchy) {
+      this.hierarchy = new WeakReference<FastHierarchy>(hierarchy);
+    }
+  }
+
   /**
    * Constructs a <code>ThrowableSet</code> which contains the exception types represented in <code>include</code>, except
    * for those which are also in <code>exclude</code>. The constructor is private to ensure that the only way to get a new
@@ -122,6 +152,10 @@ public class ThrowableSet {
    *          The set of {@link AnySubType} objects representing the types to be excluded from the set.
    */
   protected ThrowableSet(Set<RefLikeType> include, Set<AnySubType> exclude) {
+    this(include, exclude, Manager.v());
+  }
+
+  private ThrowableSet(Set<RefLikeType> include, Set<AnySubType> exclude, Manager mgr) {
     exceptionsIncluded = getImmutable(include);
     exceptionsExcluded = getImmutable(exclude);
     // We don't need to clone include and exclude to guarantee
@@ -129,6 +163,17 @@ public class ThrowableSet {
     // class, where it is only called (via
     // Manager.v().registerSetIfNew()) with arguments which the
     // callers do not subsequently modify.
+    includedBits = mgr.bitsOf(exceptionsIncluded);
+    excludedBits = mgr.bitsOf(exceptionsExcluded);
+    hash = 31 * includedBits.hashCode() + excludedBits.hashCode();
+  }
+
+  /**
+   * Indicates whether <code>t</code> itself is one of the included types, without considering the hierarchy.
+   */
+  private boolean includes(RefLikeType t) {
+    final int index = Manager.v().indexIfNumbered(t);
+    return index >= 0 && includedBits.get(index);
   }
 
   private static <T> Set<T> getImmutable(Set<T> in) {
@@ -209,7 +254,7 @@ public class ThrowableSet {
     if (INSTRUMENTING) {
       Manager.v().addsOfRefType++;
     }
-    if (this.exceptionsIncluded.contains(e)) {
+    if (includes(e)) {
       if (INSTRUMENTING) {
         Manager.v().addsInclusionFromMap++;
         Manager.v().addsExclusionWithoutSearch++;
@@ -358,7 +403,7 @@ public class ThrowableSet {
       }
     }
 
-    if (this.exceptionsIncluded.contains(e)) {
+    if (includes(e)) {
       if (INSTRUMENTING) {
         Manager.v().addsInclusionFromMap++;
       }
@@ -442,6 +487,12 @@ public class ThrowableSet {
       throw new AlreadyHasExclusionsException(
           "ThrowableSet.Add(ThrowableSet): attempt to add to [" + this.toString() + "] after removals recorded.");
     }
+    if (s == this || s.includedBits.isSubsetOf(includedBits)) {
+      if (INSTRUMENTING) {
+        Manager.v().addsOfSetFromBits++;
+      }
+      return this;
+    }
     ThrowableSet result = getMemoizedAdds(s);
     if (result == null) {
       if (INSTRUMENTING) {
@@ -653,7 +704,7 @@ public class ThrowableSet {
       }
     }
 
-    if (exceptionsIncluded.contains(catcher)) {
+    if (includes(catcher)) {
       if (INSTRUMENTING) {
         if (exceptionsExcluded.size() == 0) {
           Manager.v().catchableAsFromMap++;
@@ -708,11 +759,24 @@ public class ThrowableSet {
    *         would not be caught as <code>catcher</code>.
    */
   public Pair whichCatchableAs(RefType catcher) {
+    FastHierarchy h = Scene.v().getOrMakeFastHierarchy();
+    CatchableAsMemo memo = memoizedCatchableAs;
+    if (memo == null || memo.hierarchy.get() != h) {
+      memoizedCatchableAs = memo = new CatchableAsMemo(h);
+    }
+    Pair result = memo.pairs.get(catcher);
+    if (result == null) {
+      result = whichCatchableAs(catcher, h);
+      memo.pairs.put(catcher, result);
+    }
+    return result;
+  }
+
+  private Pair whichCatchableAs(RefType catcher, FastHierarchy h) {
     if (INSTRUMENTING) {
       Manager.v().removesOfAnySubType++;
     }
 
-    FastHierarchy h = Scene.v().getOrMakeFastHierarchy();
     Set<RefLikeType> caughtIncluded = null;
     Set<AnySubType> caughtExcluded = null;
     Set<RefLikeType> uncaughtIncluded = null;
@@ -966,11 +1030,7 @@ public class ThrowableSet {
 
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = (prime * result) + exceptionsIncluded.hashCode();
-    result = (prime * result) + exceptionsExcluded.hashCode();
-    return result;
+    return hash;
   }
 
   @Override
@@ -983,7 +1043,7 @@ public class ThrowableSet {
     }
     ThrowableSet other = (ThrowableSet) obj;
 
-    return exceptionsIncluded.equals(other.exceptionsIncluded) && exceptionsExcluded.equals(other.exceptionsExcluded);
+    return hash == other.hash && includedBits.equals(other.includedBits) && excludedBits.equals(other.excludedBits);
   }
 
   /**
@@ -1039,8 +1099,15 @@ public class ThrowableSet {
     /**
      * This map stores all referenced <code>ThrowableSet</code>s.
      */
-    private final Map<ThrowableSet, ThrowableSet> registry
+    private final ConcurrentMap<ThrowableSet, ThrowableSet> registry
         = CacheBuilder.newBuilder().weakValues().<ThrowableSet, ThrowableSet>build().asMap();
+    /**
+     * A dense numbering of the types that occur in sets, which indexes their bits. Only the few hundred exception types are
+     * numbered here, so the bits of a set take a handful of words, where the numbers of the type numberer would spread them
+     * over all types of the Scene.
+     */
+    private final ConcurrentMap<RefLikeType, Integer> typeToIndex = new ConcurrentHashMap<>();
+    private final AtomicInteger nextIndex = new AtomicInteger();
     private final int removesFromMap = 0;
     private final int removesFromMemo = 0;
     // counts for instrumenting:
@@ -1059,6 +1126,8 @@ public class ThrowableSet {
     private int catchableAsQueries = 0;
     private int catchableAsFromMap = 0;
     private int catchableAsFromSearch = 0;
+    private int addsOfSetFromBits = 0;
+    private int registrationsFromRegistry = 0;
 
     /**
      * Constructs a <code>ThrowableSet.Manager</code> for inclusion in Soot's global variable manager, {@link G}.
@@ -1212,13 +1281,36 @@ public class ThrowableSet {
       if (INSTRUMENTING) {
         registrationCalls++;
       }
-      ThrowableSet result = new ThrowableSet(include, exclude);
-      ThrowableSet ref = registry.get(result);
-      if (null != ref) {
-        return ref;
+      ThrowableSet result = new ThrowableSet(include, exclude, this);
+      // Sets are compared by identity in many places, so concurrent registrations of equal sets must agree on one instance
+      ThrowableSet ref = registry.putIfAbsent(result, result);
+      if (ref == null) {
+        return result;
       }
-      registry.put(result, result);
-      return result;
+      if (INSTRUMENTING) {
+        registrationsFromRegistry++;
+      }
+      return ref;
+    }
+
+    BitVector bitsOf(Collection<? extends RefLikeType> types) {
+      BitVector bits = new BitVector(nextIndex.get() + 1);
+      for (RefLikeType t : types) {
+        Integer index = typeToIndex.get(t);
+        if (index == null) {
+          index = typeToIndex.computeIfAbsent(t, k -> nextIndex.getAndIncrement());
+        }
+        bits.set(index);
+      }
+      return bits;
+    }
+
+    /**
+     * Returns the index of the bit of <code>t</code>, or -1 if <code>t</code> does not occur in any set.
+     */
+    int indexIfNumbered(RefLikeType t) {
+      Integer index = typeToIndex.get(t);
+      return index == null ? -1 : index;
     }
 
     /**
@@ -1241,7 +1333,9 @@ public class ThrowableSet {
           .append("\nremovesFromSearch: ").append(removesFromSearch).append("\nregistrationCalls: ")
           .append(registrationCalls).append("\ncatchableAsQueries: ").append(catchableAsQueries)
           .append("\ncatchableAsFromMap: ").append(catchableAsFromMap).append("\ncatchableAsFromSearch: ")
-          .append(catchableAsFromSearch).append('\n');
+          .append(catchableAsFromSearch).append("\naddsOfSetFromBits: ").append(addsOfSetFromBits)
+          .append("\nregistrationsFromRegistry: ").append(registrationsFromRegistry).append("\nnumberedTypes: ")
+          .append(typeToIndex.size()).append('\n');
       return buf.toString();
     }
 
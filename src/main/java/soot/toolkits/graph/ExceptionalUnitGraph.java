@@ -25,7 +25,7 @@ package soot.toolkits.graph;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -262,40 +262,56 @@ public class ExceptionalUnitGraph extends UnitGraph implements ExceptionalGraph<
    *         </p>
    */
   protected Map<Unit, Collection<ExceptionDest>> buildExceptionDests(ThrowAnalysis throwAnalysis) {
+    // Number the units once, so that the units covered by each trap are an interval of positions
     Chain<Unit> units = body.getUnits();
-    Map<Unit, ThrowableSet> unitToUncaughtThrowables = new LinkedHashMap<Unit, ThrowableSet>(units.size());
+    final Unit[] unitsInOrder = units.toArray(new Unit[units.size()]);
+    final Map<Unit, Integer> positions = new HashMap<Unit, Integer>(unitsInOrder.length * 2 + 1);
+    for (int i = 0; i < unitsInOrder.length; i++) {
+      positions.put(unitsInOrder[i], i);
+    }
+    // The exceptions each trapped unit may throw that are not caught by the traps seen so far. The throw analysis is
+    // consulted only once per unit, no matter how many traps cover it.
+    final ThrowableSet[] uncaughtThrowables = new ThrowableSet[unitsInOrder.length];
+    final ThrowableSet empty = ThrowableSet.Manager.v().EMPTY;
     Map<Unit, Collection<ExceptionDest>> result = null;
 
     // Record the caught exceptions.
     for (Trap trap : body.getTraps()) {
       RefType catcher = trap.getException().getType();
-      for (Iterator<Unit> unitIt = units.iterator(trap.getBeginUnit(), units.getPredOf(trap.getEndUnit())); unitIt
-          .hasNext();) {
-        Unit unit = unitIt.next();
-        ThrowableSet thrownSet = unitToUncaughtThrowables.get(unit);
+      final int end = positions.get(trap.getEndUnit());
+      for (int i = positions.get(trap.getBeginUnit()); i < end; i++) {
+        Unit unit = unitsInOrder[i];
+        ThrowableSet thrownSet = uncaughtThrowables[i];
         if (thrownSet == null) {
           thrownSet = throwAnalysis.mightThrow(unit);
         }
+        if (thrownSet == empty) {
+          uncaughtThrowables[i] = thrownSet;
+          continue;
+        }
 
         ThrowableSet.Pair catchableAs = thrownSet.whichCatchableAs(catcher);
-        if (!catchableAs.getCaught().equals(ThrowableSet.Manager.v().EMPTY)) {
+        if (!catchableAs.getCaught().equals(empty)) {
           result = addDestToMap(result, unit, trap, catchableAs.getCaught());
-          unitToUncaughtThrowables.put(unit, catchableAs.getUncaught());
+          uncaughtThrowables[i] = catchableAs.getUncaught();
         } else {
           assert thrownSet.equals(catchableAs.getUncaught()) : "ExceptionalUnitGraph.buildExceptionDests(): "
               + "catchableAs.caught == EMPTY, but catchableAs.uncaught != thrownSet" + System.getProperty("line.separator")
               + body.getMethod().getSubSignature() + " Unit: " + unit.toString() + System.getProperty("line.separator")
               + " catchableAs.getUncaught() == " + catchableAs.getUncaught().toString()
               + System.getProperty("line.separator") + " thrownSet == " + thrownSet.toString();
+          uncaughtThrowables[i] = thrownSet;
         }
       }
     }
 
-    for (Map.Entry<Unit, ThrowableSet> entry : unitToUncaughtThrowables.entrySet()) {
-      Unit unit = entry.getKey();
-      ThrowableSet escaping = entry.getValue();
-      if (escaping != ThrowableSet.Manager.v().EMPTY) {
-        result = addDestToMap(result, unit, null, escaping);
+    if (result != null) {
+      for (int i = 0; i < unitsInOrder.length; i++) {
+        ThrowableSet escaping = uncaughtThrowables[i];
+        if (escaping != null && escaping != empty) {
+          // Units none of whose exceptions are caught have no destinations, and are skipped by addDestToMap()
+          result = addDestToMap(result, unitsInOrder[i], null, escaping);
+        }
       }
     }
     return result == null ? Collections.emptyMap() : result;
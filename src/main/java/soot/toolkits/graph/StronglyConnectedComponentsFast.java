@@ -22,10 +22,14 @@ package soot.toolkits.graph;
  * #L%
  */
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import soot.util.FastStack;
 
@@ -47,6 +51,7 @@ public class StronglyConnectedComponentsFast<N> {
   protected int index = 0;
   protected Map<N, Integer> indexForNode, lowlinkForNode;
   protected FastStack<N> s;
+  protected Set<N> onStack;
   protected DirectedGraph<N> g;
 
   /**
@@ -57,6 +62,7 @@ public class StronglyConnectedComponentsFast<N> {
   public StronglyConnectedComponentsFast(DirectedGraph<N> g) {
     this.g = g;
     this.s = new FastStack<N>();
+    this.onStack = new HashSet<N>();
     this.indexForNode = new HashMap<N, Integer>();
     this.lowlinkForNode = new HashMap<N, Integer>();
 
@@ -77,6 +83,7 @@ public class StronglyConnectedComponentsFast<N> {
     this.indexForNode = null;
     this.lowlinkForNode = null;
     this.s = null;
+    this.onStack = null;
     this.g = null;
   }
 
@@ -86,13 +93,14 @@ public class StronglyConnectedComponentsFast<N> {
     lowlinkForNode.put(v, lowLinkForNodeV = index);
     index++;
     s.push(v);
+    onStack.add(v);
 
     for (N succ : g.getSuccsOf(v)) {
       Integer indexForNodeSucc = indexForNode.get(succ);
       if (indexForNodeSucc == null) {
         recurse(succ);
         lowlinkForNode.put(v, lowLinkForNodeV = Math.min(lowLinkForNodeV, lowlinkForNode.get(succ)));
-      } else if (s.contains(succ)) {
+      } else if (onStack.contains(succ)) {
         lowlinkForNode.put(v, lowLinkForNodeV = Math.min(lowLinkForNodeV, indexForNodeSucc));
       }
     }
@@ -101,6 +109,7 @@ public class StronglyConnectedComponentsFast<N> {
       N v2;
       do {
         v2 = s.pop();
+        onStack.remove(v2);
         scc.add(v2);
       } while (v != v2);
       componentList.add(scc);
@@ -116,11 +125,11 @@ public class StronglyConnectedComponentsFast<N> {
   }
 
   protected void iterate(N x) {
-    List<N> workList = new ArrayList<N>();
-    List<N> backtrackList = new ArrayList<N>();
-    workList.add(x);
+    Deque<N> workList = new ArrayDeque<N>();
+    Deque<N> backtrackList = new ArrayDeque<N>();
+    workList.push(x);
     while (!workList.isEmpty()) {
-      N v = workList.remove(0);
+      N v = workList.pop();
 
       boolean hasChildren = false;
       boolean isForward = false;
@@ -129,6 +138,7 @@ public class StronglyConnectedComponentsFast<N> {
         lowlinkForNode.put(v, index);
         index++;
         s.push(v);
+        onStack.add(v);
         isForward = true;
       }
 
@@ -136,24 +146,28 @@ public class StronglyConnectedComponentsFast<N> {
         Integer indexForNodeSucc = indexForNode.get(succ);
         if (indexForNodeSucc == null) {
           // Recursive call
-          workList.add(0, succ);
+          workList.push(succ);
           hasChildren = true;
           break;
         } else if (!isForward) {
+          if (!onStack.contains(succ)) {
+            // Belongs to a component that has already been completed
+            continue;
+          }
           // Returned from recursive call
           int lowLinkForNodeV = lowlinkForNode.get(v);
           lowlinkForNode.put(v, Math.min(lowLinkForNodeV, lowlinkForNode.get(succ)));
-        } else if (isForward && s.contains(succ)) {
+        } else if (onStack.contains(succ)) {
           int lowLinkForNodeV = lowlinkForNode.get(v);
           lowlinkForNode.put(v, Math.min(lowLinkForNodeV, indexForNodeSucc));
         }
       }
 
       if (hasChildren) {
-        backtrackList.add(0, v);
+        backtrackList.push(v);
       } else {
         if (!backtrackList.isEmpty()) {
-          workList.add(0, backtrackList.remove(0));
+          workList.push(backtrackList.pop());
         }
 
         int lowLinkForNodeV = lowlinkForNode.get(v);
@@ -162,6 +176,7 @@ public class StronglyConnectedComponentsFast<N> {
           N v2;
           do {
             v2 = s.pop();
+            onStack.remove(v2);
             scc.add(v2);
           } while (v != v2);
           componentList.add(scc);
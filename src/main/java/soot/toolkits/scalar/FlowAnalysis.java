@@ -25,6 +25,7 @@ package soot.toolkits.scalar;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
@@ -35,11 +36,16 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import soot.baf.GotoInst;
 import soot.jimple.GotoStmt;
 import soot.options.Options;
 import soot.toolkits.graph.DirectedGraph;
+import soot.toolkits.graph.StronglyConnectedComponentsFast;
 import soot.toolkits.graph.interaction.FlowInfo;
 import soot.toolkits.graph.interaction.InteractionHandler;
 import soot.util.Numberable;
@@ -531,6 +537,13 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
     final List<Entry<N, A>> universe = Orderer.INSTANCE.newUniverse(graph, gv, entryInitialFlow(), isForward());
     initFlow(universe, inFlow, outFlow);
 
+    if (ifh == InteractionFlowHandler.NONE && supportsParallelSolving()) {
+      int threshold = Options.v().parallel_flow_threshold();
+      if (threshold > 0 && universe.size() >= threshold) {
+        return doAnalysisInRegions(universe);
+      }
+    }
+
     Queue<Entry<N, A>> q = PriorityQueue.of(universe, true);
 
     // Perform fixed point flow analysis
@@ -554,6 +567,148 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
     }
   }
 
+  /**
+   * Returns whether {@link #flowThrough(Object, Object, Object)}, {@link #merge(Object, Object, Object)},
+   * {@link #mergeInto(Object, Object, Object)}, {@link #copy(Object, Object)} and {@link #newInitialFlow()} may be called
+   * concurrently for different nodes. If so, graphs with at least as many nodes as given by the
+   * {@code parallel-flow-threshold} option are solved region by region in parallel.
+   *
+   * @return <code>false</code>
+   */
+  protected boolean supportsParallelSolving() {
+    return false;
+  }
+
+  /**
+   * Solves the strongly connected components of the graph separately. A component is solved as soon as all components it
+   * depends on are done, so that independent components, e.g. the two branches of a conditional, are solved concurrently.
+   * Within a component the nodes are processed in the same pseudo-topological order as in the sequential case, so the
+   * result is the same fixed point.
+   */
+  private int doAnalysisInRegions(final List<Entry<N, A>> universe) {
+    final int n = universe.size();
+
+    final Map<N, Integer> sccOf = new HashMap<N, Integer>(((n + 1) * 4) / 3);
+    int numSccs = 0;
+    for (List<N> scc : new StronglyConnectedComponentsFast<N>(graph).getComponents()) {
+      for (N d : scc) {
+        sccOf.put(d, numSccs);
+      }
+      numSccs++;
+    }
+
+    // Number the regions in the order of their first node in the universe. Graph nodes that are not part of the
+    // universe, e.g. unreachable ones, do not get a region.
+    final int[] sccToRegion = new int[numSccs];
+    Arrays.fill(sccToRegion, -1);
+    final int[] regionOf = new int[n];
+    final int[] localIndex = new int[n];
+    final List<List<Entry<N, A>>> regions = new ArrayList<List<Entry<N, A>>>();
+    for (int i = 0; i < n; i++) {
+      Entry<N, A> e = universe.get(i);
+      e.number = i;
+      int scc = sccOf.get(e.data);
+      int r = sccToRegion[scc];
+      if (r < 0) {
+        r = sccToRegion[scc] = regions.size();
+        regions.add(new ArrayList<Entry<N, A>>());
+      }
+      regionOf[i] = r;
+      localIndex[i] = regions.get(r).size();
+      regions.get(r).add(e);
+    }
+
+    final int numRegions = regions.size();
+    final int[][] succs = new int[numRegions][];
+    final AtomicIntegerArray pendingPreds = new AtomicIntegerArray(numRegions);
+    for (int r = 0; r < numRegions; r++) {
+      Set<Integer> rs = new HashSet<Integer>();
+      for (Entry<N, A> e : regions.get(r)) {
+        for (Entry<N, A> o : e.out) {
+          int ro = regionOf[o.number];
+          if (ro != r) {
+            rs.add(ro);
+          }
+        }
+      }
+      succs[r] = new int[rs.size()];
+      int i = 0;
+      for (int ro : rs) {
+        succs[r][i++] = ro;
+        pendingPreds.incrementAndGet(ro);
+      }
+    }
+
+    final AtomicInteger numComputations = new AtomicInteger();
+
+    final class RegionTask extends CountedCompleter<Void> {
+      private static final long serialVersionUID = 1L;
+      private final int region;
+
+      RegionTask(CountedCompleter<?> completer, int region) {
+        super(completer);
+        this.region = region;
+      }
+
+      @Override
+      public void compute() {
+        // Continue with one of the regions that became ready on this thread, fork the others
+        for (int r = region; r >= 0;) {
+          solveRegion(r);
+          int next = -1;
+          for (int s : succs[r]) {
+            if (pendingPreds.decrementAndGet(s) == 0) {
+              if (next >= 0) {
+                addToPendingCount(1);
+                new RegionTask(this, next).fork();
+              }
+              next = s;
+            }
+          }
+          r = next;
+        }
+        tryComplete();
+      }
+
+      private void solveRegion(int r) {
+        final List<Entry<N, A>> members = regions.get(r);
+        final BitSet dirty = new BitSet(members.size());
+        dirty.set(0, members.size());
+        int computations = 0;
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(0)) {
+          dirty.clear(i);
+          Entry<N, A> e = members.get(i);
+          meetFlows(e);
+          if (flowThrough(e)) {
+            for (Entry<N, A> o : e.out) {
+              if (regionOf[o.number] == r) {
+                dirty.set(localIndex[o.number]);
+              }
+            }
+          }
+          computations++;
+        }
+        numComputations.addAndGet(computations);
+      }
+    }
+
+    ForkJoinPool.commonPool().invoke(new CountedCompleter<Void>() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public void compute() {
+        for (int r = 0; r < numRegions; r++) {
+          if (pendingPreds.get(r) == 0) {
+            addToPendingCount(1);
+            new RegionTask(this, r).fork();
+          }
+        }
+        tryComplete();
+      }
+    });
+    return numComputations.get();
+  }
+
   private boolean flowThrough(Entry<N, A> d) {
     // omitted, just fall through
     if (d.inFlow == d.outFlow) {
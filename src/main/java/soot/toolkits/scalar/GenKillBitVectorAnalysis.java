@@ -0,0 +1,449 @@
+package soot.toolkits.scalar;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import soot.toolkits.graph.DirectedGraph;
+import soot.util.BitSetIterator;
+import soot.util.BitVector;
+
+/**
+ * Specialised solver for gen/kill bit-vector problems. Instead of going through the generic {@code flowThrough},
+ * {@code merge} and {@code copy} of {@link FlowAnalysis} for every node on every iteration, subclasses declare the gen and
+ * kill set of each node once (see {@link #computeGenKill(Object, BitVector, BitVector)}). The engine then collapses
+ * straight-line chains of nodes into basic blocks with composed gen/kill sets and iterates over the blocks in reverse
+ * post-order on plain {@code long[]} arrays, so the fixed point iteration does not allocate.
+ *
+ * <p>
+ * As for {@link FlowAnalysis}, "before" and "after" always refer to program order, regardless of the direction of the
+ * analysis. Nodes that do not take part in the analysis (e.g., nodes unreachable from the entry points of a must-analysis)
+ * have an empty flow.
+ *
+ * @param <N>
+ *          node type of the directed graph
+ */
+public abstract class GenKillBitVectorAnalysis<N> {
+
+  /** The graph being analysed. */
+  protected final DirectedGraph<N> graph;
+
+  private final boolean isForward;
+  private final boolean isUnion;
+
+  private final Map<N, Integer> nodeToIndex;
+  private final List<N> nodes;
+
+  private int words;
+  private long[] before;
+  private long[] after;
+
+  /**
+   * @param graph
+   *          the graph to analyse
+   * @param isForward
+   *          {@code true} for a forward analysis, {@code false} for a backward analysis
+   * @param isUnion
+   *          {@code true} if flows are merged by union (may-analysis), {@code false} for intersection (must-analysis)
+   */
+  protected GenKillBitVectorAnalysis(DirectedGraph<N> graph, boolean isForward, boolean isUnion) {
+    this.graph = graph;
+    this.isForward = isForward;
+    this.isUnion = isUnion;
+
+    final int n = graph.size();
+    this.nodeToIndex = new HashMap<N, Integer>((n + 1) * 4 / 3);
+    this.nodes = new ArrayList<N>(n);
+    for (N node : graph) {
+      nodeToIndex.put(node, nodes.size());
+      nodes.add(node);
+    }
+  }
+
+  /**
+   * Returns the number of bits in the flow sets of this analysis.
+   */
+  protected abstract int universeSize();
+
+  /**
+   * Fills in the gen and kill set of the given node. Both vectors are empty when passed in. The flow after the node (in the
+   * direction of the analysis) is {@code gen | (in & ~kill)}.
+   */
+  protected abstract void computeGenKill(N node, BitVector gen, BitVector kill);
+
+  /**
+   * Fills in the flow at the entry points of the analysis, i.e., the heads of the graph for a forward and its tails for a
+   * backward analysis. Defaults to the empty set.
+   */
+  protected void entryFlow(BitVector entry) {
+  }
+
+  /**
+   * Runs the analysis. Must be called once by the subclass after it is ready to answer {@link #universeSize()} and
+   * {@link #computeGenKill(Object, BitVector, BitVector)}.
+   */
+  protected void doAnalysis() {
+    final int n = nodes.size();
+    final int bits = universeSize();
+    final int w = (bits + 63) >>> 6;
+    this.words = w;
+
+    // Per-node gen and kill sets, declared once
+    final long[] gen = new long[n * w];
+    final long[] kill = new long[n * w];
+    for (int i = 0; i < n; i++) {
+      BitVector g = new BitVector(bits);
+      BitVector k = new BitVector(bits);
+      computeGenKill(nodes.get(i), g, k);
+      toWords(g, gen, i * w, w);
+      toWords(k, kill, i * w, w);
+    }
+
+    // Mask for the unused high bits of the last word
+    final long lastMask = (bits & 63) == 0 ? -1L : (1L << (bits & 63)) - 1;
+
+    final long[] entry = new long[w];
+    BitVector entryVector = new BitVector(bits);
+    entryFlow(entryVector);
+    toWords(entryVector, entry, 0, w);
+
+    // Collapse single-entry/single-exit chains into basic blocks
+    final boolean[] isEntry = new boolean[n];
+    for (N e : isForward ? graph.getHeads() : graph.getTails()) {
+      Integer idx = nodeToIndex.get(e);
+      if (idx != null) {
+        isEntry[idx] = true;
+      }
+    }
+    final int[] blockOf = new int[n];
+    Arrays.fill(blockOf, -1);
+    final int[] chain = new int[n];
+    final int[] blockStart = new int[n + 1];
+    int numBlocks = 0;
+    int chainLen = 0;
+    for (int i = 0; i < n; i++) {
+      if (blockOf[i] >= 0 || !isLeader(i, isEntry)) {
+        continue;
+      }
+      blockStart[numBlocks] = chainLen;
+      for (int cur = i;;) {
+        blockOf[cur] = numBlocks;
+        chain[chainLen++] = cur;
+        List<N> succs = flowSuccs(nodes.get(cur));
+        if (succs.size() != 1) {
+          break;
+        }
+        int next = nodeToIndex.get(succs.get(0));
+        if (blockOf[next] >= 0 || isLeader(next, isEntry)) {
+          break;
+        }
+        cur = next;
+      }
+      numBlocks++;
+    }
+    // Remaining nodes only lie on cycles of single-entry/single-exit nodes, start a block anywhere
+    for (int i = 0; i < n; i++) {
+      if (blockOf[i] >= 0) {
+        continue;
+      }
+      blockStart[numBlocks] = chainLen;
+      for (int cur = i; blockOf[cur] < 0;) {
+        blockOf[cur] = numBlocks;
+        chain[chainLen++] = cur;
+        List<N> succs = flowSuccs(nodes.get(cur));
+        if (succs.size() != 1) {
+          break;
+        }
+        cur = nodeToIndex.get(succs.get(0));
+      }
+      numBlocks++;
+    }
+    blockStart[numBlocks] = chainLen;
+
+    // Block edges in the direction of the analysis
+    final int[][] blockPreds = new int[numBlocks][];
+    final int[][] blockSuccs = new int[numBlocks][];
+    for (int b = 0; b < numBlocks; b++) {
+      blockPreds[b] = blockIndices(flowPreds(nodes.get(chain[blockStart[b]])), blockOf);
+      blockSuccs[b] = blockIndices(flowSuccs(nodes.get(chain[blockStart[b + 1] - 1])), blockOf);
+    }
+
+    // Compose gen/kill along each block: G = gen_i | (G & ~kill_i), K = K | kill_i
+    final long[] blockGen = new long[numBlocks * w];
+    final long[] blockKill = new long[numBlocks * w];
+    for (int b = 0; b < numBlocks; b++) {
+      final int bo = b * w;
+      for (int c = blockStart[b]; c < blockStart[b + 1]; c++) {
+        final int no = chain[c] * w;
+        for (int j = 0; j < w; j++) {
+          blockGen[bo + j] = gen[no + j] | (blockGen[bo + j] & ~kill[no + j]);
+          blockKill[bo + j] |= kill[no + j];
+        }
+      }
+    }
+
+    // Reverse post-order over the blocks reachable from the entries. For a may-analysis, every other block is solved as
+    // well starting from the empty set, which e.g. keeps liveness inside of infinite loops correct.
+    final boolean[] isEntryBlock = new boolean[numBlocks];
+    for (int i = 0; i < n; i++) {
+      if (isEntry[i]) {
+        isEntryBlock[blockOf[i]] = true;
+      }
+    }
+    final int[] order = new int[numBlocks];
+    final boolean[] visited = new boolean[numBlocks];
+    int orderLen = 0;
+    for (int b = 0; b < numBlocks; b++) {
+      if (isEntryBlock[b] && !visited[b]) {
+        orderLen = postOrder(b, blockSuccs, visited, order, orderLen);
+      }
+    }
+    reverse(order, 0, orderLen);
+    if (isUnion) {
+      for (int b = 0; b < numBlocks; b++) {
+        if (!visited[b]) {
+          int start = orderLen;
+          orderLen = postOrder(b, blockSuccs, visited, order, orderLen);
+          reverse(order, start, orderLen);
+        }
+      }
+    }
+
+    // Initial values: entries get the entry flow, everything else bottom (union) or top (intersection)
+    final long[] in = new long[numBlocks * w];
+    final long[] out = new long[numBlocks * w];
+    if (!isUnion && w > 0) {
+      Arrays.fill(out, -1L);
+      for (int b = 0; b < numBlocks; b++) {
+        out[b * w + w - 1] &= lastMask;
+      }
+    }
+
+    final boolean[] dirty = new boolean[numBlocks];
+    for (int k = 0; k < orderLen; k++) {
+      dirty[order[k]] = true;
+    }
+
+    for (boolean changed = true; changed;) {
+      changed = false;
+      for (int k = 0; k < orderLen; k++) {
+        final int b = order[k];
+        if (!dirty[b]) {
+          continue;
+        }
+        dirty[b] = false;
+        final int bo = b * w;
+
+        // Meet over the predecessors, the entry flow taking part for entry blocks
+        final int[] preds = blockPreds[b];
+        if (isEntryBlock[b]) {
+          System.arraycopy(entry, 0, in, bo, w);
+        } else if (preds.length == 0) {
+          Arrays.fill(in, bo, bo + w, 0L);
+        } else {
+          System.arraycopy(out, preds[0] * w, in, bo, w);
+        }
+        for (int p = isEntryBlock[b] ? 0 : 1; p < preds.length; p++) {
+          final int po = preds[p] * w;
+          if (isUnion) {
+            for (int j = 0; j < w; j++) {
+              in[bo + j] |= out[po + j];
+            }
+          } else {
+            for (int j = 0; j < w; j++) {
+              in[bo + j] &= out[po + j];
+            }
+          }
+        }
+
+        // Transfer
+        boolean blockChanged = false;
+        for (int j = 0; j < w; j++) {
+          long v = blockGen[bo + j] | (in[bo + j] & ~blockKill[bo + j]);
+          if (v != out[bo + j]) {
+            out[bo + j] = v;
+            blockChanged = true;
+          }
+        }
+        if (blockChanged) {
+          for (int s : blockSuccs[b]) {
+            dirty[s] = true;
+          }
+          changed = true;
+        }
+      }
+    }
+
+    // Materialise the per-node flows, blocks not taking part keep the empty set
+    final long[] flowIn = new long[n * w];
+    final long[] flowOut = new long[n * w];
+    for (int k = 0; k < orderLen; k++) {
+      final int b = order[k];
+      int src = -1;
+      for (int c = blockStart[b]; c < blockStart[b + 1]; c++) {
+        final int no = chain[c] * w;
+        if (src < 0) {
+          System.arraycopy(in, b * w, flowIn, no, w);
+        } else {
+          System.arraycopy(flowOut, src, flowIn, no, w);
+        }
+        for (int j = 0; j < w; j++) {
+          flowOut[no + j] = gen[no + j] | (flowIn[no + j] & ~kill[no + j]);
+        }
+        src = no;
+      }
+    }
+
+    if (isForward) {
+      this.before = flowIn;
+      this.after = flowOut;
+    } else {
+      this.before = flowOut;
+      this.after = flowIn;
+    }
+  }
+
+  /**
+   * Returns a fresh copy of the flow just before {@code node} in program order.
+   */
+  public BitVector getFlowBefore(N node) {
+    return toBitVector(before, node);
+  }
+
+  /**
+   * Returns a fresh copy of the flow just after {@code node} in program order.
+   */
+  public BitVector getFlowAfter(N node) {
+    return toBitVector(after, node);
+  }
+
+  /**
+   * Checks whether {@code bit} is set in the flow just before {@code node}, without copying the flow.
+   */
+  public boolean isSetBefore(N node, int bit) {
+    return isSet(before, node, bit);
+  }
+
+  /**
+   * Checks whether {@code bit} is set in the flow just after {@code node}, without copying the flow.
+   */
+  public boolean isSetAfter(N node, int bit) {
+    return isSet(after, node, bit);
+  }
+
+  private boolean isLeader(int i, boolean[] isEntry) {
+    if (isEntry[i]) {
+      return true;
+    }
+    List<N> preds = flowPreds(nodes.get(i));
+    if (preds.size() != 1) {
+      return true;
+    }
+    return flowSuccs(preds.get(0)).size() != 1;
+  }
+
+  private List<N> flowSuccs(N node) {
+    return isForward ? graph.getSuccsOf(node) : graph.getPredsOf(node);
+  }
+
+  private List<N> flowPreds(N node) {
+    return isForward ? graph.getPredsOf(node) : graph.getSuccsOf(node);
+  }
+
+  private int[] blockIndices(List<N> ns, int[] blockOf) {
+    int[] ret = new int[ns.size()];
+    for (int i = 0; i < ret.length; i++) {
+      ret[i] = blockOf[nodeToIndex.get(ns.get(i))];
+    }
+    return ret;
+  }
+
+  /**
+   * Iterative depth-first search appending the blocks reachable from {@code root} to {@code order} in post-order.
+   */
+  private static int postOrder(int root, int[][] succs, boolean[] visited, int[] order, int orderLen) {
+    final int[] stack = new int[succs.length];
+    final int[] next = new int[succs.length];
+    int sp = 0;
+    stack[sp++] = root;
+    visited[root] = true;
+    while (sp > 0) {
+      final int b = stack[sp - 1];
+      if (next[b] < succs[b].length) {
+        final int s = succs[b][next[b]++];
+        if (!visited[s]) {
+          visited[s] = true;
+          stack[sp++] = s;
+        }
+      } else {
+        order[orderLen++] = b;
+        sp--;
+      }
+    }
+    return orderLen;
+  }
+
+  private static void reverse(int[] a, int from, int to) {
+    for (int i = from, j = to - 1; i < j; i++, j--) {
+      int t = a[i];
+      a[i] = a[j];
+      a[j] = t;
+    }
+  }
+
+  private static void toWords(BitVector v, long[] dest, int offset, int w) {
+    for (BitSetIterator it = v.iterator(); it.hasNext();) {
+      int bit = it.next();
+      if ((bit >>> 6) < w) {
+        dest[offset + (bit >>> 6)] |= 1L << bit;
+      }
+    }
+  }
+
+  private BitVector toBitVector(long[] flow, N node) {
+    BitVector ret = new BitVector(words << 6);
+    Integer idx = nodeToIndex.get(node);
+    if (idx != null) {
+      final int o = idx * words;
+      for (int j = 0; j < words; j++) {
+        for (long v = flow[o + j]; v != 0; v &= v - 1) {
+          ret.set((j << 6) + Long.numberOfTrailingZeros(v));
+        }
+      }
+    }
+    return ret;
+  }
+
+  private boolean isSet(long[] flow, N node, int bit) {
+    Integer idx = nodeToIndex.get(node);
+    if (idx == null || bit < 0 || (bit >>> 6) >= words) {
+      return false;
+    }
+    return (flow[idx * words + (bit >>> 6)] & (1L << bit)) != 0;
+  }
+}
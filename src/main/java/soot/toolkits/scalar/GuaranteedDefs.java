@@ -22,6 +22,7 @@ package soot.toolkits.scalar;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -38,6 +39,8 @@ import soot.options.Options;
 import soot.toolkits.graph.DominatorsFinder;
 import soot.toolkits.graph.MHGDominatorsFinder;
 import soot.toolkits.graph.UnitGraph;
+import soot.util.BitSetIterator;
+import soot.util.BitVector;
 
 /**
  * Find all locals guaranteed to be defined at (just before) a given program point.
@@ -57,8 +60,7 @@ public class GuaranteedDefs {
 
     GuaranteedDefsAnalysis analysis = new GuaranteedDefsAnalysis(graph);
     for (Unit s : graph) {
-      FlowSet<Value> set = analysis.getFlowBefore(s);
-      this.unitToGuaranteedDefs.put(s, Collections.unmodifiableList(set.toList()));
+      this.unitToGuaranteedDefs.put(s, Collections.unmodifiableList(analysis.guaranteedDefsBefore(s)));
     }
   }
 
@@ -71,26 +73,36 @@ public class GuaranteedDefs {
 }
 
 /**
- * Flow analysis to determine all locals guaranteed to be defined at a given program point.
+ * Flow analysis to determine all locals guaranteed to be defined at a given program point. The flow sets are bit vectors
+ * indexed by local.
  **/
-class GuaranteedDefsAnalysis extends ForwardFlowAnalysis<Unit, FlowSet<Value>> {
-  private static final FlowSet<Value> EMPTY_SET = new ArraySparseSet<Value>();
-  private final Map<Unit, FlowSet<Value>> unitToGenerateSet;
+class GuaranteedDefsAnalysis extends GenKillBitVectorAnalysis<Unit> {
+  private final Map<Unit, List<Local>> unitToGenerateSet;
+  private final Map<Local, Integer> localToIndex = new HashMap<Local, Integer>();
+  private final List<Local> locals = new ArrayList<Local>();
 
+  /**
+   * All paths == Intersection, IN(Start) is the empty set.
+   **/
   GuaranteedDefsAnalysis(UnitGraph graph) {
-    super(graph);
-    this.unitToGenerateSet = new HashMap<Unit, FlowSet<Value>>(graph.size() * 2 + 1, 0.7f);
+    super(graph, true, false);
+    this.unitToGenerateSet = new HashMap<Unit, List<Local>>(graph.size() * 2 + 1, 0.7f);
 
     DominatorsFinder<Unit> df = new MHGDominatorsFinder<Unit>(graph);
 
     // pre-compute generate sets
     for (Unit s : graph) {
-      FlowSet<Value> genSet = EMPTY_SET.clone();
+      List<Local> genSet = new ArrayList<Local>();
       for (Unit dom : df.getDominators(s)) {
         for (ValueBox box : dom.getDefBoxes()) {
           Value val = box.getValue();
           if (val instanceof Local) {
-            genSet.add(val, genSet);
+            Local l = (Local) val;
+            if (!localToIndex.containsKey(l)) {
+              localToIndex.put(l, locals.size());
+              locals.add(l);
+            }
+            genSet.add(l);
           }
         }
       }
@@ -100,41 +112,28 @@ class GuaranteedDefsAnalysis extends ForwardFlowAnalysis<Unit, FlowSet<Value>> {
     doAnalysis();
   }
 
-  /**
-   * All INs are initialized to the empty set.
-   **/
-  @Override
-  protected FlowSet<Value> newInitialFlow() {
-    return EMPTY_SET.clone();
-  }
-
-  /**
-   * IN(Start) is the empty set
-   **/
   @Override
-  protected FlowSet<Value> entryInitialFlow() {
-    return EMPTY_SET.clone();
+  protected int universeSize() {
+    return locals.size();
   }
 
   /**
    * OUT is the same as IN plus the genSet.
    **/
   @Override
-  protected void flowThrough(FlowSet<Value> in, Unit unit, FlowSet<Value> out) {
+  protected void computeGenKill(Unit unit, BitVector gen, BitVector kill) {
     // perform generation (kill set is empty)
-    in.union(unitToGenerateSet.get(unit), out);
-  }
-
-  /**
-   * All paths == Intersection.
-   **/
-  @Override
-  protected void merge(FlowSet<Value> in1, FlowSet<Value> in2, FlowSet<Value> out) {
-    in1.intersection(in2, out);
+    for (Local l : unitToGenerateSet.get(unit)) {
+      gen.set(localToIndex.get(l));
+    }
   }
 
-  @Override
-  protected void copy(FlowSet<Value> source, FlowSet<Value> dest) {
-    source.copy(dest);
+  List<Value> guaranteedDefsBefore(Unit s) {
+    BitVector flow = getFlowBefore(s);
+    List<Value> ret = new ArrayList<Value>(flow.cardinality());
+    for (BitSetIterator it = flow.iterator(); it.hasNext();) {
+      ret.add(locals.get(it.next()));
+    }
+    return ret;
   }
 }
@@ -22,7 +22,10 @@ package soot.toolkits.scalar;
  * #L%
  */
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +38,8 @@ import soot.ValueBox;
 import soot.options.Options;
 import soot.toolkits.graph.DirectedBodyGraph;
 import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.util.BitSetIterator;
+import soot.util.BitVector;
 
 /**
  * Analysis that provides an implementation of the LiveLocals interface.
@@ -42,7 +47,7 @@ import soot.toolkits.graph.ExceptionalUnitGraph;
 public class SimpleLiveLocals implements LiveLocals {
   private static final Logger logger = LoggerFactory.getLogger(SimpleLiveLocals.class);
 
-  private final FlowAnalysis<Unit, FlowSet<Local>> analysis;
+  private final Analysis analysis;
 
   /**
    * Computes the analysis given a DirectedBodyGraph<Unit> computed from a method body. It is recommended that a
@@ -77,60 +82,74 @@ public class SimpleLiveLocals implements LiveLocals {
 
   @Override
   public List<Local> getLiveLocalsAfter(Unit s) {
-    // ArraySparseSet returns a unbacked list of elements!
-    return analysis.getFlowAfter(s).toList();
+    return analysis.toLocals(analysis.getFlowAfter(s));
   }
 
   @Override
   public List<Local> getLiveLocalsBefore(Unit s) {
-    // ArraySparseSet returns a unbacked list of elements!
-    return analysis.getFlowBefore(s).toList();
+    return analysis.toLocals(analysis.getFlowBefore(s));
   }
 
-  private static class Analysis extends BackwardFlowAnalysis<Unit, FlowSet<Local>> {
+  /**
+   * Liveness as a backward may-analysis on bit vectors indexed by local: uses are generated, definitions killed.
+   */
+  private static class Analysis extends GenKillBitVectorAnalysis<Unit> {
+    private final Map<Local, Integer> localToIndex = new HashMap<Local, Integer>();
+    private final List<Local> locals = new ArrayList<Local>();
+
     Analysis(DirectedBodyGraph<Unit> g) {
-      super(g);
+      super(g, false, true);
+      for (Local l : g.getBody().getLocals()) {
+        indexOf(l);
+      }
+      // Be lenient about locals that are missing from the locals chain
+      for (Unit u : g) {
+        for (ValueBox box : u.getUseAndDefBoxes()) {
+          Value v = box.getValue();
+          if (v instanceof Local) {
+            indexOf((Local) v);
+          }
+        }
+      }
     }
 
-    @Override
-    protected FlowSet<Local> newInitialFlow() {
-      return new ArraySparseSet<Local>();
+    private int indexOf(Local l) {
+      Integer idx = localToIndex.get(l);
+      if (idx == null) {
+        idx = locals.size();
+        localToIndex.put(l, idx);
+        locals.add(l);
+      }
+      return idx;
     }
 
     @Override
-    protected void flowThrough(FlowSet<Local> in, Unit unit, FlowSet<Local> out) {
-      in.copy(out);
+    protected int universeSize() {
+      return locals.size();
+    }
 
-      // Perform kill
+    @Override
+    protected void computeGenKill(Unit unit, BitVector gen, BitVector kill) {
       for (ValueBox box : unit.getDefBoxes()) {
         Value v = box.getValue();
         if (v instanceof Local) {
-          out.remove((Local) v);
+          kill.set(localToIndex.get(v));
         }
       }
-
-      // Perform generation
       for (ValueBox box : unit.getUseBoxes()) {
         Value v = box.getValue();
         if (v instanceof Local) {
-          out.add((Local) v);
+          gen.set(localToIndex.get(v));
         }
       }
     }
 
-    @Override
-    protected void mergeInto(Unit succNode, FlowSet<Local> inout, FlowSet<Local> in) {
-      inout.union(in);
-    }
-
-    @Override
-    protected void merge(FlowSet<Local> in1, FlowSet<Local> in2, FlowSet<Local> out) {
-      in1.union(in2, out);
-    }
-
-    @Override
-    protected void copy(FlowSet<Local> source, FlowSet<Local> dest) {
-      source.copy(dest);
+    List<Local> toLocals(BitVector flow) {
+      List<Local> ret = new ArrayList<Local>(flow.cardinality());
+      for (BitSetIterator it = flow.iterator(); it.hasNext();) {
+        ret.add(locals.get(it.next()));
+      }
+      return ret;
     }
   }
 }
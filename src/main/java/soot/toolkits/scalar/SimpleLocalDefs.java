@@ -171,6 +171,14 @@ public class SimpleLocalDefs implements LocalDefs {
       this.indexOfUnit = null;// release memory
     }
 
+    /**
+     * The flow functions only read the precomputed local numbers and unit indices.
+     */
+    @Override
+    protected boolean supportsParallelSolving() {
+      return true;
+    }
+
     @Override
     protected boolean omissible(Unit u) {
       final List<ValueBox> defs = u.getDefBoxes();
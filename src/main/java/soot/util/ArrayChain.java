@@ -0,0 +1,591 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Compact implementation of the Chain interface. Instead of a link object and a hash map entry per element, elements are
+ * kept in a slot array, doubly linked through primitive {@code int} arrays and found through an open-addressing table of
+ * slot numbers. Removed elements leave a tombstone slot behind; the slots are compacted into chain order when the arrays
+ * are full and enough of them are dead. This takes roughly a quarter of the memory of a {@link HashChain} per element, and
+ * insertion, removal, {@link #getSuccOf(Object)} and {@link #getPredOf(Object)} remain O(1).
+ */
+public class ArrayChain<E> extends AbstractCollection<E> implements Chain<E> {
+  private static final long serialVersionUID = 1L;
+
+  private static final int NONE = -1;
+
+  private Object[] items;
+  private int[] next;
+  private int[] prev;
+  /** Open-addressing table holding slot + 1, or 0 for a free entry. */
+  private int[] table;
+
+  private int first = NONE;
+  private int last = NONE;
+  /** Number of live elements. */
+  private int size;
+  /** Number of slots in use, including tombstones. */
+  private int used;
+
+  protected int stateCount = 0;
+
+  /** Constructs an empty ArrayChain. */
+  public ArrayChain() {
+    this(16);
+  }
+
+  /** Constructs an empty ArrayChain with the given initial capacity. */
+  public ArrayChain(int initialCapacity) {
+    allocate(Math.max(4, initialCapacity));
+  }
+
+  /** Constructs an ArrayChain filled with the contents of the src Chain. */
+  public ArrayChain(Chain<E> src) {
+    this(src.size());
+    addAll(src);
+  }
+
+  private void allocate(int capacity) {
+    this.items = new Object[capacity];
+    this.next = new int[capacity];
+    this.prev = new int[capacity];
+    this.table = new int[Integer.highestOneBit(capacity - 1) << 2];
+  }
+
+  private static int hash(Object o, int mask) {
+    int h = o.hashCode();
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  private int slotOf(Object o) {
+    if (o == null) {
+      return NONE;
+    }
+    final int mask = table.length - 1;
+    for (int i = hash(o, mask);; i = (i + 1) & mask) {
+      int s = table[i] - 1;
+      if (s < 0) {
+        return NONE;
+      }
+      Object item = items[s];
+      if (item == o || o.equals(item)) {
+        return s;
+      }
+    }
+  }
+
+  private void tableInsert(Object o, int slot) {
+    final int mask = table.length - 1;
+    int i = hash(o, mask);
+    while (table[i] != 0) {
+      i = (i + 1) & mask;
+    }
+    table[i] = slot + 1;
+  }
+
+  private void tableDelete(Object o) {
+    final int mask = table.length - 1;
+    int i = hash(o, mask);
+    while (items[table[i] - 1] != o) {
+      i = (i + 1) & mask;
+    }
+    // Shift back the following entries of the probe sequence instead of leaving a deleted marker
+    table[i] = 0;
+    for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+      int k = hash(items[table[j] - 1], mask);
+      if ((i <= j) ? (i < k && k <= j) : (i < k || k <= j)) {
+        continue;
+      }
+      table[i] = table[j];
+      table[j] = 0;
+      i = j;
+    }
+  }
+
+  /**
+   * Makes room for one more slot, either by compacting the live elements into chain order or by growing the arrays.
+   */
+  private void ensureFreeSlot() {
+    if (used < items.length) {
+      return;
+    }
+    final Object[] oldItems = items;
+    final int[] oldNext = next;
+    final int oldFirst = first;
+    if (size > (items.length * 3) / 4) {
+      allocate(items.length * 2);
+    } else {
+      allocate(items.length);
+    }
+    int s = 0;
+    for (int o = oldFirst; o != NONE; o = oldNext[o], s++) {
+      items[s] = oldItems[o];
+      prev[s] = s - 1;
+      next[s] = s + 1;
+      tableInsert(items[s], s);
+    }
+    assert s == size;
+    used = size;
+    if (size == 0) {
+      first = last = NONE;
+    } else {
+      first = 0;
+      last = size - 1;
+      next[last] = NONE;
+    }
+  }
+
+  /** Stores {@code item} in a fresh slot linked between {@code before} and {@code after}. */
+  private void link(E item, int before, int after) {
+    if (item == null) {
+      throw new RuntimeException("Cannot insert a null object into a Chain!");
+    }
+    if (slotOf(item) != NONE) {
+      throw new RuntimeException("Chain already contains object: " + item);
+    }
+    stateCount++;
+    // Compaction renumbers the slots, so the neighbours are remembered by element
+    final Object beforeItem = before == NONE ? null : items[before];
+    final Object afterItem = after == NONE ? null : items[after];
+    if (used == items.length) {
+      ensureFreeSlot();
+      before = slotOf(beforeItem);
+      after = slotOf(afterItem);
+    }
+    final int s = used++;
+    items[s] = item;
+    tableInsert(item, s);
+    prev[s] = before;
+    next[s] = after;
+    if (before == NONE) {
+      first = s;
+    } else {
+      next[before] = s;
+    }
+    if (after == NONE) {
+      last = s;
+    } else {
+      prev[after] = s;
+    }
+    size++;
+  }
+
+  private void unlink(int s) {
+    final int p = prev[s];
+    final int n = next[s];
+    if (p == NONE) {
+      first = n;
+    } else {
+      next[p] = n;
+    }
+    if (n == NONE) {
+      last = p;
+    } else {
+      prev[n] = p;
+    }
+    tableDelete(items[s]);
+    // Leave a tombstone, its links stay intact so that iterators can continue from it
+    items[s] = null;
+    size--;
+  }
+
+  private int slotOfPoint(E point) {
+    if (point == null) {
+      throw new RuntimeException("Insertion point cannot be null!");
+    }
+    int s = slotOf(point);
+    if (s == NONE) {
+      throw new RuntimeException("Insertion point not found in chain!");
+    }
+    return s;
+  }
+
+  @SuppressWarnings("unchecked")
+  private E itemAt(int s) {
+    return s == NONE ? null : (E) items[s];
+  }
+
+  /** Erases the contents of the current ArrayChain. */
+  @Override
+  public synchronized void clear() {
+    stateCount++;
+    Arrays.fill(items, 0, used, null);
+    Arrays.fill(table, 0);
+    first = last = NONE;
+    size = used = 0;
+  }
+
+  @Override
+  public synchronized void swapWith(E out, E in) {
+    insertBefore(in, out);
+    remove(out);
+  }
+
+  /** Adds the given object to this ArrayChain. */
+  @Override
+  public synchronized boolean add(E item) {
+    addLast(item);
+    return true;
+  }
+
+  /**
+   * Gets all elements in the chain. There is no guarantee on sorting. The returned collection is a copy, so it can be
+   * iterated over while the chain is modified.
+   *
+   * @return All elements in the chain in an unsorted collection
+   */
+  @Override
+  public synchronized Collection<E> getElementsUnsorted() {
+    return new ArrayList<E>(this);
+  }
+
+  @Override
+  public synchronized boolean follows(E someObject, E someReferenceObject) {
+    int s = slotOf(someReferenceObject);
+    if (s == NONE) {
+      return false;
+    }
+    for (; s != NONE; s = next[s]) {
+      if (items[s] == someObject) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public synchronized boolean contains(Object o) {
+    return slotOf(o) != NONE;
+  }
+
+  @Override
+  public synchronized boolean containsAll(Collection<?> c) {
+    for (Object o : c) {
+      if (slotOf(o) == NONE) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized void insertAfter(E toInsert, E point) {
+    if (toInsert == null) {
+      throw new RuntimeException("Cannot insert a null object into a Chain!");
+    }
+    int s = slotOfPoint(point);
+    link(toInsert, s, next[s]);
+  }
+
+  @Override
+  public synchronized void insertAfter(Collection<? extends E> toInsert, E point) {
+    if (toInsert == null) {
+      throw new RuntimeException("Cannot insert a null Collection into a Chain!");
+    }
+    if (point == null) {
+      throw new RuntimeException("Insertion point cannot be null!");
+    }
+
+    E previousPoint = point;
+    for (E o : toInsert) {
+      insertAfter(o, previousPoint);
+      previousPoint = o;
+    }
+  }
+
+  @Override
+  public synchronized void insertAfter(List<E> toInsert, E point) {
+    insertAfter((Collection<E>) toInsert, point);
+  }
+
+  @Override
+  public synchronized void insertAfter(Chain<E> toInsert, E point) {
+    insertAfter((Collection<E>) toInsert, point);
+  }
+
+  @Override
+  public synchronized void insertBefore(E toInsert, E point) {
+    if (toInsert == null) {
+      throw new RuntimeException("Cannot insert a null object into a Chain!");
+    }
+    int s = slotOfPoint(point);
+    link(toInsert, prev[s], s);
+  }
+
+  @Override
+  public synchronized void insertBefore(Collection<? extends E> toInsert, E point) {
+    if (toInsert == null) {
+      throw new RuntimeException("Cannot insert a null Collection into a Chain!");
+    }
+    if (point == null) {
+      throw new RuntimeException("Insertion point cannot be null!");
+    }
+
+    for (E o : toInsert) {
+      insertBefore(o, point);
+    }
+  }
+
+  @Override
+  public synchronized void insertBefore(List<E> toInsert, E point) {
+    insertBefore((Collection<E>) toInsert, point);
+  }
+
+  @Override
+  public synchronized void insertBefore(Chain<E> toInsert, E point) {
+    insertBefore((Collection<E>) toInsert, point);
+  }
+
+  @Override
+  public synchronized boolean remove(Object item) {
+    if (item == null) {
+      throw new RuntimeException("Cannot remove a null object from a Chain!");
+    }
+
+    stateCount++;
+    int s = slotOf(item);
+    if (s != NONE) {
+      unlink(s);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public synchronized void addFirst(E item) {
+    link(item, NONE, first);
+  }
+
+  @Override
+  public synchronized void addLast(E item) {
+    link(item, last, NONE);
+  }
+
+  @Override
+  public synchronized void removeFirst() {
+    if (first == NONE) {
+      throw new NoSuchElementException();
+    }
+    stateCount++;
+    unlink(first);
+  }
+
+  @Override
+  public synchronized void removeLast() {
+    if (last == NONE) {
+      throw new NoSuchElementException();
+    }
+    stateCount++;
+    unlink(last);
+  }
+
+  @Override
+  public synchronized E getFirst() {
+    if (first == NONE) {
+      throw new NoSuchElementException();
+    }
+    return itemAt(first);
+  }
+
+  @Override
+  public synchronized E getLast() {
+    if (last == NONE) {
+      throw new NoSuchElementException();
+    }
+    return itemAt(last);
+  }
+
+  @Override
+  public synchronized E getSuccOf(E point) throws NoSuchElementException {
+    int s = slotOf(point);
+    if (s == NONE) {
+      throw new NoSuchElementException();
+    }
+    return itemAt(next[s]);
+  }
+
+  @Override
+  public synchronized E getPredOf(E point) throws NoSuchElementException {
+    if (point == null) {
+      throw new RuntimeException("Chain cannot contain null objects!");
+    }
+    int s = slotOf(point);
+    if (s == NONE) {
+      throw new NoSuchElementException();
+    }
+    return itemAt(prev[s]);
+  }
+
+  @Override
+  public synchronized Iterator<E> snapshotIterator() {
+    return new ArrayList<E>(this).iterator();
+  }
+
+  @Override
+  public synchronized Iterator<E> iterator() {
+    return new SlotIterator(first, null);
+  }
+
+  @Override
+  public synchronized Iterator<E> iterator(E from) {
+    if (from == null || first == NONE) {
+      return new SlotIterator(NONE, null);
+    }
+    return new SlotIterator(startSlot(from), null);
+  }
+
+  /**
+   * Returns an iterator ranging from <code>head</code> to <code>tail</code>, inclusive, with the same semantics as
+   * {@link HashChain#iterator(Object, Object)}.
+   *
+   * @throws NoSuchElementException
+   *           if <code>head</code> is not an element of the chain.
+   */
+  @Override
+  public synchronized Iterator<E> iterator(E head, E tail) {
+    if (head == null || first == NONE) {
+      return new SlotIterator(NONE, null);
+    }
+    int s = startSlot(head);
+    if (itemAt(prev[s]) == tail) {
+      return new SlotIterator(NONE, null);
+    }
+    return new SlotIterator(s, tail);
+  }
+
+  private int startSlot(E from) {
+    int s = slotOf(from);
+    if (s == NONE) {
+      throw new NoSuchElementException("ArrayChain.iterator(obj) with obj that is not in the chain: " + from);
+    }
+    return s;
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  /** Returns a textual representation of the contents of this Chain. */
+  @Override
+  public synchronized String toString() {
+    StringBuilder strBuf = new StringBuilder();
+    strBuf.append('[');
+    for (int s = first; s != NONE; s = next[s]) {
+      if (s != first) {
+        strBuf.append(", ");
+      }
+      strBuf.append(items[s]);
+    }
+    strBuf.append(']');
+    return strBuf.toString();
+  }
+
+  /** Returns the number of times this chain has been modified. */
+  @Override
+  public long getModificationCount() {
+    return stateCount;
+  }
+
+  private class SlotIterator implements Iterator<E> {
+    private final E destination;
+    private final int start;
+    /** Slot of the element last returned, or NONE before the first call to next(). */
+    private int current = NONE;
+    private E currentItem;
+    private int iteratorStateCount;
+    // only when this is true can remove() be called (in accordance w/ iterator semantics)
+    private boolean state = false;
+
+    SlotIterator(int start, E destination) {
+      this.start = start;
+      this.destination = destination;
+      this.iteratorStateCount = stateCount;
+    }
+
+    private int nextSlot() {
+      return current == NONE ? (currentItem == null ? start : NONE) : next[current];
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (stateCount != iteratorStateCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (destination == null) {
+        return nextSlot() != NONE;
+      } else {
+        // Ignore whether there is a next slot, so next() will produce a NoSuchElementException if destination is not in
+        // the chain.
+        return destination != currentItem;
+      }
+    }
+
+    @Override
+    public E next() throws NoSuchElementException {
+      if (stateCount != iteratorStateCount) {
+        throw new ConcurrentModificationException();
+      }
+      int s = nextSlot();
+      if (s == NONE) {
+        String exceptionMsg;
+        if (destination != null && destination != currentItem) {
+          exceptionMsg = "ArrayChain.SlotIterator.next() reached end of chain without reaching specified tail unit";
+        } else {
+          exceptionMsg = "ArrayChain.SlotIterator.next() called past the end of the Chain";
+        }
+        throw new NoSuchElementException(exceptionMsg);
+      }
+      current = s;
+      currentItem = itemAt(s);
+      state = true;
+      return currentItem;
+    }
+
+    @Override
+    public void remove() throws IllegalStateException {
+      if (stateCount != iteratorStateCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (!state) {
+        throw new IllegalStateException();
+      }
+      synchronized (ArrayChain.this) {
+        stateCount++;
+        iteratorStateCount++;
+        unlink(current);
+      }
+      state = false;
+    }
+  }
+}
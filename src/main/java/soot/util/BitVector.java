@@ -241,6 +241,25 @@ public class BitVector {
     return false;
   }
 
+  /**
+   * Returns true if every bit set in this bitvector is also set in the specified one.
+   */
+  public boolean isSubsetOf(BitVector other) {
+    final long[] otherBits = other.bits;
+    int i;
+    for (i = 0; i < bits.length && i < otherBits.length; i++) {
+      if ((bits[i] & ~otherBits[i]) != 0L) {
+        return false;
+      }
+    }
+    for (; i < bits.length; i++) {
+      if (bits[i] != 0L) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private void expand(int bit) {
     int n = indexOf(bit) + 1;
     if (n <= bits.length) {
@@ -0,0 +1,133 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes entries into a single {@link JarOutputStream} from a dedicated thread, so that several threads can produce entries
+ * concurrently. Producers block while the given number of entries is waiting to be written, which bounds the memory held by
+ * pending entries.
+ */
+public class JarEntryWriter implements AutoCloseable {
+
+  private static final Entry END = new Entry(null, null);
+
+  private final JarOutputStream jar;
+  private final BlockingQueue<Entry> queue;
+  private final Thread thread;
+  private volatile IOException failure;
+
+  public JarEntryWriter(OutputStream out, int capacity) throws IOException {
+    this.jar = new JarOutputStream(out);
+    this.queue = new ArrayBlockingQueue<Entry>(capacity);
+    this.thread = new Thread(this::run, "jar-entry-writer");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Queues an entry with the given name and contents, blocking while the queue is full.
+   *
+   * @throws IOException
+   *           if writing an earlier entry has failed
+   */
+  public void write(String name, byte[] data) throws IOException {
+    checkFailure();
+    try {
+      queue.put(new Entry(name, data));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while queuing jar entry " + name, e);
+    }
+  }
+
+  private void run() {
+    try {
+      for (Entry e; (e = queue.take()) != END;) {
+        if (failure != null) {
+          continue; // keep draining so that producers do not block forever
+        }
+        try {
+          JarEntry entry = new JarEntry(e.name);
+          entry.setMethod(ZipEntry.DEFLATED);
+          jar.putNextEntry(entry);
+          jar.write(e.data);
+          jar.closeEntry();
+        } catch (IOException ex) {
+          failure = ex;
+        }
+      }
+    } catch (InterruptedException e) {
+      failure = new IOException("Jar entry writer interrupted", e);
+    } finally {
+      try {
+        jar.close();
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+  }
+
+  private void checkFailure() throws IOException {
+    IOException e = failure;
+    if (e != null) {
+      throw new IOException("Could not write jar entry", e);
+    }
+  }
+
+  /**
+   * Waits until all queued entries have been written and closes the jar.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      queue.put(END);
+      thread.join();
+    } catch (InterruptedException e) {
+      thread.interrupt();
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the jar entry writer", e);
+    }
+    checkFailure();
+  }
+
+  private static final class Entry {
+    final String name;
+    final byte[] data;
+
+    Entry(String name, byte[] data) {
+      this.name = name;
+      this.data = data;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link ClasspathIndex} reads the entries of archives, keeps the first archive that contains an entry and
+ * reuses the persisted entries of unchanged archives only.
+ */
+public class ClasspathIndexTest {
+
+  private static void writeArchive(File f, String... entries) throws IOException {
+    try (OutputStream os = Files.newOutputStream(f.toPath()); ZipOutputStream zip = new ZipOutputStream(os)) {
+      for (String e : entries) {
+        zip.putNextEntry(new ZipEntry(e));
+        if (!e.endsWith("/")) {
+          zip.write(e.getBytes("UTF-8"));
+        }
+        zip.closeEntry();
+      }
+    }
+  }
+
+  @Test
+  public void indexesArchives() throws IOException {
+    Path dir = Files.createTempDirectory("cpindex");
+    File a = dir.resolve("a.jar").toFile();
+    File b = dir.resolve("b.jar").toFile();
+    writeArchive(a, "p/", "p/A.class", "p/Shared.class");
+    writeArchive(b, "p/B.class", "p/Shared.class");
+
+    assertEquals(Arrays.asList("p/A.class", "p/Shared.class"), ClasspathIndex.readEntryNames(a));
+
+    List<String> cp = Arrays.asList(dir.toString(), a.getPath(), b.getPath());
+    BitSet archives = new BitSet();
+    archives.set(1, 3);
+    BitSet directories = new BitSet();
+    directories.set(0);
+    Path indexFile = dir.resolve("index");
+
+    ClasspathIndex index = ClasspathIndex.create(cp, archives, directories, indexFile);
+    assertEquals(2, index.getScannedArchiveCount());
+    assertEquals(1, index.lookup("p/A.class"));
+    assertEquals(2, index.lookup("p/B.class"));
+    assertEquals(1, index.lookup("p/Shared.class"));
+    assertEquals(-1, index.lookup("p/"));
+    assertEquals(-1, index.lookup("p/C.class"));
+    assertEquals(0, index.getDirectoryPositions()[0]);
+
+    index = ClasspathIndex.create(cp, archives, directories, indexFile);
+    assertEquals(2, index.getReusedArchiveCount());
+    assertEquals(0, index.getScannedArchiveCount());
+    assertEquals(2, index.lookup("p/B.class"));
+
+    writeArchive(b, "p/B.class", "p/C.class", "p/Shared.class");
+    index = ClasspathIndex.create(cp, archives, directories, indexFile);
+    assertEquals(1, index.getReusedArchiveCount());
+    assertEquals(1, index.getScannedArchiveCount());
+    assertEquals(2, index.lookup("p/C.class"));
+  }
+}
@@ -0,0 +1,137 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.options.Options;
+
+/**
+ * Looks up classes and queries the {@link FastHierarchy} from several threads at once, the way the body packs do, checks
+ * that the answers are those of a single thread and reports the time both take.
+ */
+public class ConcurrentHierarchyLookupTest {
+  private static final Logger logger = LoggerFactory.getLogger(ConcurrentHierarchyLookupTest.class);
+
+  private static final int THREADS = 4;
+  private static final int PARENTS = 64;
+
+  @Test
+  public void sameAnswersOnSeveralThreads() throws Exception {
+    Path cp = Paths.get("src", "test", "resources", "Clinit", "bin");
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Scene.v().loadNecessaryClasses();
+
+    final List<SootClass> classes = new ArrayList<SootClass>();
+    for (SootClass sc : Scene.v().getClasses()) {
+      if (!sc.isPhantom() && sc.resolvingLevel() >= SootClass.SIGNATURES) {
+        classes.add(sc);
+      }
+    }
+    Collections.sort(classes, Comparator.comparing(SootClass::getName));
+    assertFalse(classes.isEmpty());
+    final SootMethodRef toString = Scene.v().makeMethodRef(Scene.v().getSootClass("java.lang.Object"), "toString",
+        Collections.<Type>emptyList(), RefType.v("java.lang.String"), false);
+
+    Scene.v().releaseFastHierarchy();
+    long start = System.nanoTime();
+    String[] serial = new String[classes.size()];
+    for (int i = 0; i < serial.length; i++) {
+      serial[i] = query(classes, i, toString);
+    }
+    long serialTime = System.nanoTime() - start;
+
+    // Start over with empty memos
+    Scene.v().releaseFastHierarchy();
+    final String[] parallel = new String[classes.size()];
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      start = System.nanoTime();
+      List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int t = 0; t < THREADS; t++) {
+        final int first = t;
+        futures.add(executor.submit(() -> {
+          for (int i = first; i < parallel.length; i += THREADS) {
+            parallel[i] = query(classes, i, toString);
+          }
+        }));
+      }
+      for (Future<?> f : futures) {
+        f.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    long parallelTime = System.nanoTime() - start;
+    logger.info(String.format("Hierarchy queries for %d classes took %d ms on one thread and %d ms on %d threads",
+        classes.size(), serialTime / 1000000, parallelTime / 1000000, THREADS));
+
+    assertEquals(Arrays.asList(serial), Arrays.asList(parallel));
+  }
+
+  /**
+   * Looks up the i-th class by name, checks which of the first classes it can be stored in and resolves its
+   * <code>toString()</code> method. Returns the answers as a string.
+   */
+  private static String query(List<SootClass> classes, int i, SootMethodRef toString) {
+    final Scene scene = Scene.v();
+    final SootClass sc = classes.get(i);
+    StringBuilder sb = new StringBuilder();
+    sb.append(scene.getSootClassUnsafe(sc.getName()) == sc);
+    final FastHierarchy fh = scene.getOrMakeFastHierarchy();
+    for (int j = 0; j < PARENTS && j < classes.size(); j++) {
+      sb.append(fh.canStoreType(sc.getType(), classes.get(j).getType()) ? '1' : '0');
+    }
+    if (!sc.isInterface()) {
+      try {
+        sb.append(' ').append(fh.resolveConcreteDispatch(sc, toString));
+      } catch (RuntimeException e) {
+        // e.g. a superclass that is not resolved far enough, which is the same on every thread
+        sb.append(" unresolved");
+      }
+    }
+    return sb.toString();
+  }
+}
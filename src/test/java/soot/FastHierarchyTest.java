@@ -24,7 +24,9 @@ package soot;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -176,6 +178,39 @@ public class FastHierarchyTest {
     assertThat(fh.getAllImplementersOfInterface(interfaceD), containsInAnyOrder(scA, scB, scC1, scD));
   }
 
+  @Test
+  public void testMemosAreDroppedWhenHierarchyChanges() {
+    G.reset();
+
+    Scene s = Scene.v();
+    s.loadNecessaryClasses();
+
+    SootClass interfaceA = generacteSceneClass("InterfaceA", Modifier.INTERFACE);
+    SootClass interfaceB = generacteSceneClass("InterfaceB", Modifier.INTERFACE);
+    SootClass scA = generacteSceneClass("ClassA", 0);
+    SootClass scB = generacteSceneClass("ClassB", 0);
+    scA.addInterface(interfaceA);
+
+    FastHierarchy fh = s.getOrMakeFastHierarchy();
+    assertTrue(fh.canStoreClass(scA, interfaceA));
+    assertFalse(fh.canStoreClass(scB, interfaceA));
+    assertTrue(fh.canStoreClass(scA, interfaceA));
+    assertEquals(2, fh.interfaceStoreMemo.size());
+
+    // Without implementers the empty result is remembered as well
+    assertEquals(Collections.emptySet(), fh.getAllImplementersOfInterface(interfaceB));
+    assertTrue(fh.interfacesWithoutImplementers.contains(interfaceB));
+
+    scB.addInterface(interfaceB);
+    generacteSceneClass("ClassC", 0);
+    assertEquals(0, fh.interfaceStoreMemo.size());
+    assertTrue(fh.interfacesWithoutImplementers.isEmpty());
+
+    FastHierarchy rebuilt = s.getOrMakeFastHierarchy();
+    assertThat(rebuilt.getAllImplementersOfInterface(interfaceB), containsInAnyOrder(scB));
+    assertTrue(rebuilt.canStoreClass(scB, interfaceB));
+  }
+
   private static class FastHierarchyForUnittest extends FastHierarchy {
 
     @Override
@@ -0,0 +1,90 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import soot.options.Options;
+
+/**
+ * Resolves the same class path with one and with several threads and checks that the {@link Scene} ends up with the same
+ * classes, members and resolving levels.
+ */
+public class ParallelResolverTest {
+
+  @Test
+  public void sameSceneAsSerialResolution() {
+    Path cp = Paths.get("src", "test", "resources", "Clinit", "bin");
+    Map<String, Set<String>> serial = resolve(cp, 1);
+    Map<String, Set<String>> parallel = resolve(cp, 4);
+
+    assertFalse(serial.isEmpty());
+    assertEquals(serial.keySet(), parallel.keySet());
+    assertEquals(serial, parallel);
+  }
+
+  private static Map<String, Set<String>> resolve(Path cp, int threadNum) {
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Options.v().set_num_threads(threadNum);
+    Scene.v().loadNecessaryClasses();
+
+    Map<String, Set<String>> ret = new TreeMap<String, Set<String>>();
+    for (SootClass sc : Scene.v().getClasses()) {
+      Set<String> members = new TreeSet<String>();
+      members.add("level " + sc.resolvingLevel() + (sc.isPhantom() ? " phantom" : ""));
+      if (sc.hasSuperclass()) {
+        members.add("extends " + sc.getSuperclass().getName());
+      }
+      for (SootClass i : sc.getInterfaces()) {
+        members.add("implements " + i.getName());
+      }
+      if (sc.resolvingLevel() >= SootClass.SIGNATURES) {
+        for (SootField f : sc.getFields()) {
+          members.add(f.getSignature() + (f.isPhantom() ? " phantom" : ""));
+        }
+        for (SootMethod m : sc.getMethods()) {
+          members.add(m.getSignature() + (m.isPhantom() ? " phantom" : ""));
+        }
+      }
+      ret.put(sc.getName(), members);
+    }
+    return ret;
+  }
+}
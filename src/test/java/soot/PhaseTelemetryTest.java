@@ -0,0 +1,78 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import soot.options.Options;
+
+/**
+ * Checks that {@link PhaseTelemetry} records the packs and transforms applied by the {@link PackManager}.
+ */
+public class PhaseTelemetryTest {
+
+  @Test
+  public void recordsBodyPacks() throws IOException {
+    Path cp = Paths.get("src", "test", "resources", "SimpleClass");
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_output_format(Options.output_format_none);
+    PhaseTelemetry.v().setEnabled(true);
+    Scene.v().loadNecessaryClasses();
+    PackManager.v().runBodyPacks();
+
+    int bodies = Scene.v().getSootClass("Example").getMethodCount();
+    long jb = 0;
+    long jbCp = 0;
+    long jtp = 0;
+    for (PhaseTelemetry.PhaseStats s : PhaseTelemetry.v().getStatistics()) {
+      assertTrue(s.getWallNanos() >= s.getMaxWallNanos());
+      if (s.getPhaseName().equals("jb")) {
+        jb += s.getBodies();
+      } else if (s.getPhaseName().equals("jb.cp")) {
+        jbCp += s.getBodies();
+      } else if (s.getPhaseName().equals("jtp")) {
+        jtp += s.getInvocations();
+      }
+    }
+    assertEquals(bodies, jb);
+    assertEquals(bodies, jbCp);
+    assertEquals(bodies, jtp);
+
+    StringWriter json = new StringWriter();
+    PhaseTelemetry.v().writeJson(json);
+    assertTrue(json.toString().contains("\"phase\": \"jb.cp\""));
+  }
+}
@@ -0,0 +1,148 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.options.Options;
+
+public class SoftBodiesTest {
+
+  private SootMethod method;
+  private JimpleBody body;
+
+  @Before
+  public void initialize() {
+    G.reset();
+    Options.v().set_soft_bodies(true);
+    Scene.v().loadNecessaryClasses();
+
+    SootClass cl = new SootClass("TestClass", Modifier.PUBLIC);
+    cl.setSuperclass(Scene.v().getSootClass("java.lang.Object"));
+    method = new SootMethod("testMethod", Collections.singletonList(IntType.v()), IntType.v(), Modifier.PUBLIC);
+    cl.addMethod(method);
+    body = Jimple.v().newBody(method);
+    method.setActiveBody(body);
+
+    Jimple jimp = Jimple.v();
+    Local i = jimp.newLocal("i", IntType.v());
+    body.getLocals().add(i);
+    body.getUnits().add(jimp.newIdentityStmt(i, jimp.newParameterRef(IntType.v(), 0)));
+    body.getUnits().add(jimp.newAssignStmt(i, jimp.newAddExpr(i, IntConstant.v(1))));
+    body.getUnits().add(jimp.newReturnStmt(i));
+  }
+
+  @Test
+  public void softenedBodyIsPinnedOnAccess() {
+    assertTrue(method.softenActiveBody());
+    assertTrue(method.hasActiveBody());
+    assertSame(body, method.getActiveBody());
+    assertEquals(1, SoftBodies.v().getHitCount());
+  }
+
+  @Test
+  public void releasedBodyIsRestoredFromSnapshot() throws Exception {
+    final String expected = body.toString();
+    assertTrue(method.softenActiveBody());
+
+    // Simulate the garbage collector releasing the body
+    Field f = SootMethod.class.getDeclaredField("softBody");
+    f.setAccessible(true);
+    ((SoftBodies.Handle) f.get(method)).body.clear();
+
+    Body restored = method.retrieveActiveBody();
+    assertNotSame(body, restored);
+    assertEquals(expected, restored.toString());
+    assertEquals(1, SoftBodies.v().getRematerializedFromSnapshotCount());
+  }
+
+  @Test
+  public void callGraphPinsBodiesInWholeProgramMode() throws Exception {
+    G.reset();
+    Options.v().set_soft_bodies(true);
+    Options.v().set_prepend_classpath(true);
+    String cp = Paths.get("src", "test", "resources", "Clinit", "bin").toString();
+    Options.v().set_process_dir(Collections.singletonList(cp));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Scene.v().loadNecessaryClasses();
+    SootMethod main = Scene.v().getSootClass("soot.Main").getMethodByName("main");
+    Scene.v().setEntryPoints(Collections.singletonList(main));
+    PackManager.v().getPack("cg").apply();
+
+    // A method outside the call graph is softened right away, the entry point only once the call graph is released
+    SootClass cl = new SootClass("TestClass", Modifier.PUBLIC);
+    cl.setSuperclass(Scene.v().getSootClass("java.lang.Object"));
+    SootMethod unreachable = new SootMethod("testMethod", Collections.<Type>emptyList(), VoidType.v(), Modifier.PUBLIC);
+    cl.addMethod(unreachable);
+    JimpleBody unreachableBody = Jimple.v().newBody(unreachable);
+    unreachableBody.getUnits().add(Jimple.v().newReturnVoidStmt());
+    unreachable.setActiveBody(unreachableBody);
+    assertTrue(unreachable.softenActiveBody());
+
+    final Body mainBody = main.retrieveActiveBody();
+    final String expected = mainBody.toString();
+    assertFalse(main.softenActiveBody());
+    assertSame(mainBody, main.getActiveBody());
+
+    Scene.v().releaseCallGraph();
+    assertTrue(main.softenActiveBody());
+    assertEquals(2, SoftBodies.v().getSoftenedCount());
+
+    // Simulate the garbage collector releasing the bodies
+    Field f = SootMethod.class.getDeclaredField("softBody");
+    f.setAccessible(true);
+    ((SoftBodies.Handle) f.get(unreachable)).body.clear();
+    ((SoftBodies.Handle) f.get(main)).body.clear();
+
+    assertEquals(unreachableBody.toString(), unreachable.retrieveActiveBody().toString());
+    Body restored = main.retrieveActiveBody();
+    assertNotSame(mainBody, restored);
+    assertEquals(expected, restored.toString());
+    assertEquals(2, SoftBodies.v().getRematerializedFromSnapshotCount());
+    assertEquals(0, SoftBodies.v().getHitCount());
+  }
+
+  @Test
+  public void releaseDropsSoftBody() {
+    assertTrue(method.softenActiveBody());
+    method.releaseActiveBody();
+    assertFalse(method.hasActiveBody());
+  }
+}
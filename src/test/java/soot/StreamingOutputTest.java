@@ -0,0 +1,103 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import soot.options.Options;
+
+/**
+ * Checks that <code>-streaming-output</code> writes the transformed classes and releases their bodies.
+ */
+public class StreamingOutputTest {
+
+  private void setup(String outputDir, int format, boolean jar) {
+    Path cp = Paths.get("src", "test", "resources", "SimpleClass");
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_output_format(format);
+    Options.v().set_output_dir(outputDir);
+    Options.v().set_output_jar(jar);
+    Options.v().set_streaming_output(true);
+    Scene.v().loadNecessaryClasses();
+  }
+
+  @Test
+  public void writesJar() throws IOException {
+    File out = File.createTempFile("streaming", ".jar");
+    try {
+      setup(out.getPath(), Options.output_format_jimple, true);
+      PackManager.v().runPacks();
+      PackManager.v().writeOutput();
+
+      for (SootMethod m : Scene.v().getSootClass("Example").getMethods()) {
+        assertFalse(m.hasActiveBody());
+      }
+      List<String> entries = new ArrayList<String>();
+      try (JarFile jar = new JarFile(out)) {
+        jar.stream().forEach(e -> entries.add(e.getName()));
+      }
+      assertEquals(Collections.singletonList("Example.jimple"), entries);
+    } finally {
+      out.delete();
+    }
+  }
+
+  @Test
+  public void writesClassFiles() throws IOException {
+    Path out = Files.createTempDirectory("streaming");
+    try {
+      setup(out.toString(), Options.output_format_class, false);
+      PackManager.v().runPacks();
+      PackManager.v().writeOutput();
+
+      assertTrue(out.resolve("Example.class").toFile().length() > 0);
+    } finally {
+      try (Stream<Path> files = Files.walk(out)) {
+        for (Path p : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+          Files.delete(p);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package soot.dexpler;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jf.dexlib2.AccessFlags;
+import org.jf.dexlib2.Opcodes;
+import org.jf.dexlib2.iface.ClassDef;
+import org.jf.dexlib2.immutable.ImmutableClassDef;
+import org.jf.dexlib2.immutable.ImmutableDexFile;
+import org.jf.dexlib2.writer.io.FileDataStore;
+import org.jf.dexlib2.writer.pool.DexPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.Modifier;
+import soot.SootClass;
+import soot.options.Options;
+
+/**
+ * Loads a multi-dex APK from several threads at once.
+ */
+public class DexResolverTest {
+
+  private final List<File> files = new ArrayList<File>();
+  private File apk;
+
+  @Before
+  public void initialize() throws IOException {
+    // Two dex files, the second of which refers to a class of the first
+    File dex1 = writeDex(new ImmutableClassDef("La/A;", AccessFlags.PUBLIC.getValue(), "Ljava/lang/Object;", null, null,
+        null, null, null));
+    File dex2 = writeDex(
+        new ImmutableClassDef("Lb/B;", AccessFlags.PUBLIC.getValue(), "La/A;", null, null, null, null, null));
+    apk = newFile(".apk");
+    try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(apk.toPath()))) {
+      addEntry(zip, "classes.dex", dex1);
+      addEntry(zip, "classes2.dex", dex2);
+    }
+
+    G.reset();
+    Options.v().set_src_prec(Options.src_prec_apk);
+    Options.v().set_soot_classpath(apk.getAbsolutePath());
+    Options.v().set_process_multiple_dex(true);
+    Options.v().set_allow_phantom_refs(true);
+  }
+
+  @After
+  public void cleanUp() {
+    for (File f : files) {
+      f.delete();
+    }
+  }
+
+  private File newFile(String suffix) throws IOException {
+    File f = File.createTempFile("multidex", suffix);
+    files.add(f);
+    return f;
+  }
+
+  private File writeDex(ClassDef classDef) throws IOException {
+    File f = newFile(".dex");
+    DexPool.writeTo(new FileDataStore(f),
+        new ImmutableDexFile(Opcodes.getDefault(), Collections.singletonList(classDef)));
+    return f;
+  }
+
+  private static void addEntry(ZipOutputStream zip, String name, File f) throws IOException {
+    zip.putNextEntry(new ZipEntry(name));
+    Files.copy(f.toPath(), zip);
+    zip.closeEntry();
+  }
+
+  @Test
+  public void loadsMultiDexConcurrently() throws Exception {
+    final int threadNum = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+    try {
+      List<Future<DexlibWrapper>> futures = new ArrayList<Future<DexlibWrapper>>();
+      for (int i = 0; i < threadNum; i++) {
+        futures.add(executor.submit(new Callable<DexlibWrapper>() {
+          @Override
+          public DexlibWrapper call() throws Exception {
+            start.await();
+            return DexResolver.v().initializeDexFile(apk);
+          }
+        }));
+      }
+      start.countDown();
+
+      DexlibWrapper wrapper = futures.get(0).get();
+      for (Future<DexlibWrapper> f : futures) {
+        assertSame(wrapper, f.get());
+      }
+
+      // Both dex files of the APK have been loaded
+      SootClass b = new SootClass("b.B", Modifier.PUBLIC);
+      wrapper.makeSootClass(b, "b.B");
+      assertEquals("a.A", b.getSuperclass().getName());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
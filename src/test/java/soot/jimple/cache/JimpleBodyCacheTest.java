@@ -0,0 +1,197 @@
+package soot.jimple.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.options.Options;
+
+/**
+ * Tests that the {@link JimpleBodyCache} returns the bodies it stored and discards them when the class file or the options
+ * of the <code>jb</code> pack change or when they are damaged.
+ */
+public class JimpleBodyCacheTest {
+
+  private Path dir;
+
+  @Before
+  public void initialize() throws IOException {
+    dir = Files.createTempDirectory("bodycache");
+  }
+
+  @After
+  public void cleanUp() throws IOException {
+    try (Stream<Path> files = Files.walk(dir)) {
+      for (Path p : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.deleteIfExists(p);
+      }
+    }
+  }
+
+  private void reset() {
+    G.reset();
+    Path cp = Paths.get("src", "test", "resources", "Clinit", "bin");
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_body_cache_dir(dir.toString());
+    Scene.v().loadNecessaryClasses();
+  }
+
+  /**
+   * Returns the bodies of all concrete methods of the application classes by signature.
+   */
+  private static Map<String, String> retrieveBodies() {
+    Map<String, String> ret = new TreeMap<String, String>();
+    for (SootClass sc : Scene.v().getApplicationClasses()) {
+      for (SootMethod m : sc.getMethods()) {
+        if (m.isConcrete()) {
+          ret.put(m.getSignature(), m.retrieveActiveBody().toString());
+        }
+      }
+    }
+    return ret;
+  }
+
+  private List<Path> bodyFiles() throws IOException {
+    try (Stream<Path> files = Files.walk(dir)) {
+      return files.filter(p -> p.getFileName().toString().endsWith(".body")).collect(Collectors.toList());
+    }
+  }
+
+  @Test
+  public void reusesStoredBodies() throws IOException {
+    reset();
+    Map<String, String> created = retrieveBodies();
+    long stored = JimpleBodyCache.v().getStoreCount();
+    assertFalse(created.isEmpty());
+    assertTrue(stored > 0);
+    assertEquals(0, JimpleBodyCache.v().getHitCount());
+    assertEquals(stored, bodyFiles().size());
+
+    reset();
+    assertEquals(created, retrieveBodies());
+    assertEquals(stored, JimpleBodyCache.v().getHitCount());
+    assertEquals(0, JimpleBodyCache.v().getStoreCount());
+  }
+
+  @Test
+  public void discardsBodiesOfOtherClassFile() {
+    reset();
+    retrieveBodies();
+    long stored = JimpleBodyCache.v().getStoreCount();
+
+    reset();
+    for (SootClass sc : Scene.v().getApplicationClasses()) {
+      JimpleBodyCache.v().setClassFileHash(sc, JimpleBodyCache.hash(sc.getName().getBytes(StandardCharsets.UTF_8)));
+    }
+    retrieveBodies();
+    assertEquals(0, JimpleBodyCache.v().getHitCount());
+    assertEquals(stored, JimpleBodyCache.v().getStoreCount());
+
+    // The bodies of the original class files have been replaced
+    reset();
+    retrieveBodies();
+    assertEquals(0, JimpleBodyCache.v().getHitCount());
+  }
+
+  @Test
+  public void discardsBodiesOfOtherJbOptions() {
+    reset();
+    retrieveBodies();
+    long stored = JimpleBodyCache.v().getStoreCount();
+
+    reset();
+    Options.v().setPhaseOption("jb", "use-original-names:true");
+    retrieveBodies();
+    assertEquals(0, JimpleBodyCache.v().getHitCount());
+    assertEquals(stored, JimpleBodyCache.v().getStoreCount());
+  }
+
+  @Test
+  public void ignoresDamagedBodies() throws IOException {
+    reset();
+    Map<String, String> created = retrieveBodies();
+    long stored = JimpleBodyCache.v().getStoreCount();
+    List<Path> files = bodyFiles();
+    assertFalse(files.isEmpty());
+    for (Path p : files) {
+      byte[] data = Files.readAllBytes(p);
+      Files.write(p, Arrays.copyOf(data, data.length / 2));
+    }
+
+    reset();
+    assertEquals(created, retrieveBodies());
+    assertEquals(0, JimpleBodyCache.v().getHitCount());
+    assertEquals(stored, JimpleBodyCache.v().getStoreCount());
+  }
+
+  @Test
+  public void directoryNamesAreDistinct() {
+    List<String> names = new ArrayList<String>();
+    names.add(JimpleBodyCache.directoryName("p.Caf\u00e9"));
+    names.add(JimpleBodyCache.directoryName("p.Caf_"));
+    names.add(JimpleBodyCache.directoryName("p.Foo"));
+    names.add(JimpleBodyCache.directoryName("p.foo"));
+    for (int i = 0; i < names.size(); i++) {
+      for (int j = i + 1; j < names.size(); j++) {
+        // Also on file systems that ignore case
+        assertNotEquals(names.get(i).toLowerCase(), names.get(j).toLowerCase());
+      }
+    }
+
+    StringBuilder longName = new StringBuilder("p");
+    for (int i = 0; i < 100; i++) {
+      longName.append(".segment");
+    }
+    assertTrue(JimpleBodyCache.directoryName(longName.toString()).length() < 128);
+  }
+}
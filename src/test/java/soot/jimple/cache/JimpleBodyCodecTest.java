@@ -0,0 +1,138 @@
+package soot.jimple.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.IntType;
+import soot.Local;
+import soot.Modifier;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Unit;
+import soot.UnitPatchingChain;
+import soot.VoidType;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.jimple.StringConstant;
+import soot.options.Options;
+import soot.tagkit.LineNumberTag;
+
+/**
+ * Tests that bodies survive a round trip through {@link JimpleBodyWriter} and {@link JimpleBodyReader}.
+ */
+public class JimpleBodyCodecTest {
+
+  @Before
+  public void initialize() {
+    G.reset();
+    Options o = Options.v();
+    o.set_whole_program(true);
+    Scene.v().loadNecessaryClasses();
+    Scene.v().loadClassAndSupport("java.lang.Object");
+    Scene.v().loadClassAndSupport("java.lang.String");
+    Scene.v().loadClassAndSupport("java.lang.Throwable");
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    SootClass cl = new SootClass("TestClass", Modifier.PUBLIC);
+    cl.setSuperclass(Scene.v().getSootClass("java.lang.Object"));
+    SootMethod method = new SootMethod("testMethod", Collections.singletonList(IntType.v()), VoidType.v(), Modifier.PUBLIC);
+    cl.addMethod(method);
+    JimpleBody body = Jimple.v().newBody(method);
+    method.setActiveBody(body);
+
+    Jimple jimp = Jimple.v();
+    RefType clType = cl.getType();
+    Local thisLocal = jimp.newLocal("this", clType);
+    Local i = jimp.newLocal("i", IntType.v());
+    Local s = jimp.newLocal("s", RefType.v("java.lang.String"));
+    Local e = jimp.newLocal("e", RefType.v("java.lang.Throwable"));
+    body.getLocals().add(thisLocal);
+    body.getLocals().add(i);
+    body.getLocals().add(s);
+    body.getLocals().add(e);
+
+    UnitPatchingChain units = body.getUnits();
+    units.add(jimp.newIdentityStmt(thisLocal, jimp.newThisRef(clType)));
+    units.add(jimp.newIdentityStmt(i, jimp.newParameterRef(IntType.v(), 0)));
+    Unit ret = jimp.newReturnVoidStmt();
+    Unit begin = jimp.newAssignStmt(s, StringConstant.v("hello"));
+    begin.addTag(new LineNumberTag(42));
+    units.add(begin);
+    units.add(jimp.newIfStmt(jimp.newLtExpr(i, IntConstant.v(0)), ret));
+    units.add(jimp.newAssignStmt(i, jimp.newAddExpr(i, IntConstant.v(1))));
+    units.add(jimp.newInvokeStmt(jimp.newVirtualInvokeExpr(s,
+        Scene.v().makeMethodRef(Scene.v().getSootClass("java.lang.String"), "length",
+            Collections.emptyList(), IntType.v(), false))));
+    Unit end = jimp.newGotoStmt(ret);
+    units.add(end);
+    Unit handler = jimp.newIdentityStmt(e, jimp.newCaughtExceptionRef());
+    units.add(handler);
+    units.add(jimp.newThrowStmt(e));
+    units.add(ret);
+    body.getTraps().add(jimp.newTrap(Scene.v().getSootClass("java.lang.Throwable"), begin, end, handler));
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    new JimpleBodyWriter(bos).write(body, method.getSubSignature());
+
+    JimpleBody read = new JimpleBodyReader(new ByteArrayInputStream(bos.toByteArray())).read(method);
+    assertNotNull(read);
+    assertEquals(body.toString(), read.toString());
+    assertEquals(body.getTraps().size(), read.getTraps().size());
+
+    Unit readBegin = read.getUnits().getSuccOf(read.getUnits().getSuccOf(read.getUnits().getFirst()));
+    LineNumberTag tag = (LineNumberTag) readBegin.getTag(LineNumberTag.NAME);
+    assertNotNull(tag);
+    assertEquals(42, tag.getLineNumber());
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsOtherMethod() throws IOException {
+    SootClass cl = new SootClass("TestClass", Modifier.PUBLIC);
+    SootMethod method = new SootMethod("a", Collections.emptyList(), VoidType.v(), Modifier.PUBLIC);
+    SootMethod other = new SootMethod("b", Collections.emptyList(), VoidType.v(), Modifier.PUBLIC);
+    cl.addMethod(method);
+    cl.addMethod(other);
+    JimpleBody body = Jimple.v().newBody(method);
+    body.getUnits().add(Jimple.v().newReturnVoidStmt());
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    new JimpleBodyWriter(bos).write(body, method.getSubSignature());
+    new JimpleBodyReader(new ByteArrayInputStream(bos.toByteArray())).read(other);
+  }
+}
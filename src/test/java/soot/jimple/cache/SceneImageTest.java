@@ -0,0 +1,227 @@
+package soot.jimple.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.Body;
+import soot.G;
+import soot.Kind;
+import soot.Modifier;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Unit;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.options.Options;
+
+/**
+ * Tests that a Scene and its call graph survive a round trip through a {@link SceneImage}.
+ */
+public class SceneImageTest {
+
+  private Path file;
+
+  @Before
+  public void initialize() throws IOException {
+    reset();
+    Scene.v().loadNecessaryClasses();
+    file = Files.createTempFile("scene", ".img");
+  }
+
+  @After
+  public void cleanUp() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  private static void reset() {
+    G.reset();
+    Options.v().set_whole_program(true);
+  }
+
+  private static String buildScene() {
+    SootClass cl = new SootClass("TestClass", Modifier.PUBLIC);
+    cl.setSuperclass(Scene.v().getSootClass("java.lang.Object"));
+    Scene.v().addClass(cl);
+    cl.setApplicationClass();
+    SootMethod caller = new SootMethod("caller", Collections.emptyList(), VoidType.v(), Modifier.PUBLIC | Modifier.STATIC);
+    SootMethod callee = new SootMethod("callee", Collections.emptyList(), VoidType.v(), Modifier.PUBLIC | Modifier.STATIC);
+    cl.addMethod(caller);
+    cl.addMethod(callee);
+
+    Jimple jimp = Jimple.v();
+    JimpleBody callerBody = jimp.newBody(caller);
+    Unit call = jimp.newInvokeStmt(jimp.newStaticInvokeExpr(callee.makeRef()));
+    callerBody.getUnits().add(call);
+    callerBody.getUnits().add(jimp.newReturnVoidStmt());
+    caller.setActiveBody(callerBody);
+    JimpleBody calleeBody = jimp.newBody(callee);
+    calleeBody.getUnits().add(jimp.newReturnVoidStmt());
+    callee.setActiveBody(calleeBody);
+
+    Scene.v().setEntryPoints(Collections.singletonList(caller));
+    CallGraph cg = Scene.v().internalMakeCallGraph();
+    cg.addEdge(new Edge(caller, call, callee, Kind.STATIC));
+    Scene.v().setCallGraph(cg);
+    return callerBody.toString();
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    String callerBody = buildScene();
+    SceneImage.v().save(file);
+
+    reset();
+    assertTrue(SceneImage.v().restore(file));
+    assertTrue(SceneImage.v().isRestored());
+
+    SootClass cl = Scene.v().getSootClass("TestClass");
+    assertTrue(cl.isApplicationClass());
+    assertEquals("java.lang.Object", cl.getSuperclass().getName());
+    SootMethod caller = cl.getMethodByName("caller");
+    SootMethod callee = cl.getMethodByName("callee");
+    assertEquals(Collections.singletonList(caller), Scene.v().getEntryPoints());
+    assertEquals(callerBody, caller.retrieveActiveBody().toString());
+
+    CallGraph cg = Scene.v().getCallGraph();
+    assertEquals(1, cg.size());
+    Edge e = cg.edgesOutOf(caller).next();
+    assertEquals(callee, e.tgt());
+    assertEquals(Kind.STATIC, e.kind());
+    assertEquals(caller.getActiveBody().getUnits().getFirst(), e.srcUnit());
+  }
+
+  @Test
+  public void ignoresDamagedImage() throws IOException {
+    buildScene();
+    SceneImage.v().save(file);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] { 0x55 }), channel.size() - 1);
+    }
+
+    reset();
+    assertFalse(SceneImage.v().restore(file));
+    assertFalse(Scene.v().containsClass("TestClass"));
+  }
+
+  @Test
+  public void missingBodyIsReadFromClassPath() throws IOException {
+    buildScene();
+    SootMethod init = Scene.v().getMethod("<java.lang.Object: void <init>()>");
+    assertFalse(init.hasActiveBody());
+    SceneImage.v().save(file);
+
+    reset();
+    assertTrue(SceneImage.v().restore(file));
+    Body body = Scene.v().getMethod("<java.lang.Object: void <init>()>").retrieveActiveBody();
+    assertFalse(body.getUnits().isEmpty());
+  }
+
+  @Test
+  public void rejectedAfterClassInProcessDirIsEdited() throws IOException {
+    Path dir = Files.createTempDirectory("classes");
+    Path cls = dir.resolve("soot").resolve("A.class");
+    try {
+      Files.createDirectories(cls.getParent());
+      Files.copy(Paths.get("src/test/resources/Clinit/bin/soot/A.class"), cls);
+      Options.v().set_process_dir(Collections.singletonList(dir.toString()));
+      buildScene();
+      SceneImage.v().save(file);
+
+      reset();
+      Options.v().set_process_dir(Collections.singletonList(dir.toString()));
+      assertTrue(SceneImage.v().restore(file));
+
+      // Editing a file does not change the modification time of the directory itself
+      long dirModified = dir.toFile().lastModified();
+      Files.write(cls, Files.readAllBytes(cls));
+      assertTrue(cls.toFile().setLastModified(cls.toFile().lastModified() + 10000));
+      assertTrue(dir.toFile().setLastModified(dirModified));
+
+      reset();
+      Options.v().set_process_dir(Collections.singletonList(dir.toString()));
+      assertFalse(SceneImage.v().restore(file));
+      assertFalse(SceneImage.v().isRestored());
+    } finally {
+      Files.deleteIfExists(cls);
+      Files.deleteIfExists(cls.getParent());
+      Files.deleteIfExists(dir);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void refusesCallsFromBodiesNotStored() throws IOException {
+    buildScene();
+    SootClass cl = Scene.v().getSootClass("TestClass");
+    SootMethod other = new SootMethod("other", Collections.emptyList(), VoidType.v(), Modifier.PUBLIC | Modifier.STATIC);
+    cl.addMethod(other);
+    Unit call = Jimple.v().newInvokeStmt(Jimple.v().newStaticInvokeExpr(cl.getMethodByName("callee").makeRef()));
+    Scene.v().getCallGraph().addEdge(new Edge(other, call, cl.getMethodByName("callee"), Kind.STATIC));
+    SceneImage.v().save(file);
+  }
+
+  @Test
+  public void restoresCallGraphWithPointsToAnalysis() throws IOException {
+    Options.v().setPhaseOption("cg.spark", "on");
+    buildScene();
+    SceneImage.v().save(file);
+
+    reset();
+    Options.v().setPhaseOption("cg.spark", "on");
+    Options.v().set_scene_image(file.toString());
+    assertTrue(SceneImage.v().isEnabled());
+    assertTrue(SceneImage.v().restoreFromOptions());
+    SootClass cl = Scene.v().getSootClass("TestClass");
+    assertEquals(1, Scene.v().getCallGraph().size());
+    assertTrue(Scene.v().getReachableMethods().contains(cl.getMethodByName("callee")));
+  }
+
+  @Test
+  public void notUsedWhenPointsToSetsAreNeeded() {
+    Options.v().set_scene_image(file.toString());
+    Options.v().set_scene_image_rebuild_pta(true);
+    assertTrue(SceneImage.v().isEnabled());
+    Options.v().setPhaseOption("cg.spark", "on");
+    assertFalse(SceneImage.v().isEnabled());
+  }
+}
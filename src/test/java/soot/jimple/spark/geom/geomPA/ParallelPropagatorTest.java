@@ -0,0 +1,224 @@
+package soot.jimple.spark.geom.geomPA;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.G;
+import soot.Local;
+import soot.MethodOrMethodContext;
+import soot.PackManager;
+import soot.PhaseOptions;
+import soot.PointsToAnalysis;
+import soot.RefLikeType;
+import soot.Scene;
+import soot.SootMethod;
+import soot.jimple.spark.builder.ContextInsensitiveBuilder;
+import soot.jimple.spark.geom.dataMgr.Obj_full_extractor;
+import soot.jimple.spark.geom.dataRep.IntervalContextVar;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.jimple.spark.solver.PropWorklist;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.options.Options;
+import soot.options.SparkOptions;
+
+/**
+ * Runs the geometric points-to analysis with the parallel and the sequential solvers on a sample program of the tests,
+ * checks that they compute the same points-to sets and reports the time each of them takes. As the sample is small, the
+ * parallel solver is also run with rounds of a few pointers that are all handed to the threads, for the Geom and the
+ * HeapIns encodings, and compared on the context sensitive points-to sets as well.
+ */
+public class ParallelPropagatorTest {
+  private static final Logger logger = LoggerFactory.getLogger(ParallelPropagatorTest.class);
+
+  @Test
+  public void sameResultAsSequentialSolver() {
+    Path cp = Paths.get("src", "test", "resources", "Clinit", "bin");
+    Map<String, Set<String>> fifo = runGeom(cp, "FIFO", 1);
+    Map<String, Set<String>> oneThread = runGeom(cp, "Parallel", 1);
+    Map<String, Set<String>> fourThreads = runGeom(cp, "Parallel", 4);
+
+    assertFalse(fifo.isEmpty());
+    // The program is too small for the figure budgets to merge anything
+    assertEquals(fifo, oneThread);
+    assertEquals(oneThread, fourThreads);
+  }
+
+  @Test
+  public void sameContextsOnParallelPath() {
+    compareOnParallelPath("Geom");
+  }
+
+  @Test
+  public void sameContextsOnParallelPathHeapIns() {
+    compareOnParallelPath("HeapIns");
+  }
+
+  private static void compareOnParallelPath(String encoding) {
+    Path cp = Paths.get("src", "test", "resources", "Clinit", "bin");
+    Map<String, Set<String>> fifo = solve(cp, encoding, null);
+    final int[] parallelSteps = new int[1];
+    Map<String, Set<String>> parallel = solve(cp, encoding, geomPTA -> new ParallelPropagator(geomPTA, 4, 1, 8) {
+      @Override
+      protected void forEach(int size, IntConsumer action) {
+        if (executor != null && size >= parallelThreshold) {
+          parallelSteps[0]++;
+        }
+        super.forEach(size, action);
+      }
+    });
+
+    assertFalse(fifo.isEmpty());
+    assertTrue(parallelSteps[0] > 0);
+    assertEquals(fifo, parallel);
+  }
+
+  /**
+   * Builds and propagates the PAG the way Spark does, then runs the geometric analysis on it with the FIFO worklist or with
+   * the given parallel solver. Returns the context insensitive points-to sets of the locals and their context sensitive
+   * points-to sets for each call edge into their method.
+   */
+  private static Map<String, Set<String>> solve(Path cp, String encoding,
+      Function<GeomPointsTo, ParallelPropagator> parallel) {
+    setUp(cp, 4);
+    Options.v().setPhaseOption("cg.spark", "geom-encoding:" + encoding);
+    Options.v().setPhaseOption("cg.spark", "geom-worklist:" + (parallel == null ? "FIFO" : "Parallel"));
+    SparkOptions opts = new SparkOptions(PhaseOptions.v().getPhaseOptions("cg.spark"));
+
+    ContextInsensitiveBuilder b = new ContextInsensitiveBuilder();
+    GeomPointsTo geomPTA = (GeomPointsTo) b.setup(opts);
+    b.build();
+    geomPTA.getTypeManager().makeTypeMask();
+    geomPTA.cleanUpMerges();
+    new PropWorklist(geomPTA).propagate();
+    Scene.v().setPointsToAnalysis(geomPTA);
+
+    geomPTA.parametrize(0);
+    if (parallel != null) {
+      geomPTA.parallelPropagator = parallel.apply(geomPTA);
+    }
+    geomPTA.solve();
+
+    Map<String, Set<String>> ret = collect(geomPTA);
+    GeomQueries queries = new GeomQueries(geomPTA);
+    for (Iterator<MethodOrMethodContext> it = Scene.v().getReachableMethods().listener(); it.hasNext();) {
+      SootMethod m = it.next().method();
+      if (!m.hasActiveBody()) {
+        continue;
+      }
+      for (Iterator<Edge> edges = Scene.v().getCallGraph().edgesInto(m); edges.hasNext();) {
+        Edge e = edges.next();
+        for (Local l : m.getActiveBody().getLocals()) {
+          if (!(l.getType() instanceof RefLikeType)) {
+            continue;
+          }
+          Obj_full_extractor visitor = new Obj_full_extractor();
+          Set<String> objects = new TreeSet<String>();
+          if (queries.kCFA(new Edge[] { e }, l, visitor)) {
+            List<IntervalContextVar> contexts = visitor.outList;
+            for (IntervalContextVar cv : contexts) {
+              objects.add(describe((AllocNode) cv.var) + " [" + cv.L + ", " + cv.R + ")");
+            }
+          }
+          ret.put(m.getSignature() + " " + l.getName() + " from " + e.src() + " " + e.srcUnit() + " " + e.kind(), objects);
+        }
+      }
+    }
+    return ret;
+  }
+
+  private static Map<String, Set<String>> runGeom(Path cp, String worklist, int threads) {
+    setUp(cp, threads);
+    Options.v().setPhaseOption("cg.spark", "geom-worklist:" + worklist);
+
+    long start = System.nanoTime();
+    PackManager.v().getPack("cg").apply();
+    logger.info(String.format("Geometric analysis with worklist %s on %d threads took %d ms", worklist, threads,
+        (System.nanoTime() - start) / 1000000));
+
+    return collect(Scene.v().getPointsToAnalysis());
+  }
+
+  private static void setUp(Path cp, int threads) {
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Options.v().set_num_threads(threads);
+    Options.v().setPhaseOption("cg.spark", "on");
+    Options.v().setPhaseOption("cg.spark", "geom-pta:true");
+    Scene.v().loadNecessaryClasses();
+    Scene.v().setEntryPoints(Collections.singletonList(Scene.v().getMainMethod()));
+  }
+
+  private static Map<String, Set<String>> collect(PointsToAnalysis pta) {
+    Map<String, Set<String>> ret = new TreeMap<String, Set<String>>();
+    for (Iterator<MethodOrMethodContext> it = Scene.v().getReachableMethods().listener(); it.hasNext();) {
+      SootMethod m = it.next().method();
+      if (!m.hasActiveBody()) {
+        continue;
+      }
+      for (Local l : m.getActiveBody().getLocals()) {
+        if (!(l.getType() instanceof RefLikeType)) {
+          continue;
+        }
+        final Set<String> objects = new TreeSet<String>();
+        ((PointsToSetInternal) pta.reachingObjects(l)).forall(new P2SetVisitor() {
+          @Override
+          public void visit(Node n) {
+            objects.add(describe((AllocNode) n));
+          }
+        });
+        ret.put(m.getSignature() + " " + l.getName(), objects);
+      }
+    }
+    return ret;
+  }
+
+  private static String describe(AllocNode an) {
+    return an.getType() + " " + an.getNewExpr() + " in " + an.getMethod();
+  }
+}
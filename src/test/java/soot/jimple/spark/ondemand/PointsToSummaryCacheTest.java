@@ -0,0 +1,151 @@
+package soot.jimple.spark.ondemand;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import soot.G;
+import soot.Local;
+import soot.MethodOrMethodContext;
+import soot.PackManager;
+import soot.PointsToSet;
+import soot.RefLikeType;
+import soot.Scene;
+import soot.SootMethod;
+import soot.jimple.spark.ondemand.PointsToSummaryCache.SummaryKind;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.options.Options;
+
+/**
+ * Runs the same demand-driven queries with and without sharing traversal results between them, and checks that the answers
+ * are the same.
+ */
+public class PointsToSummaryCacheTest {
+
+  @Test
+  public void sameResultsWithAndWithoutSummaries() {
+    Path cp = Paths.get("src", "test", "resources", "Clinit", "bin");
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Options.v().setPhaseOption("cg.spark", "on");
+    Scene.v().loadNecessaryClasses();
+    Scene.v().setEntryPoints(Collections.singletonList(Scene.v().getMainMethod()));
+    PackManager.v().getPack("cg").apply();
+
+    List<Local> queries = new ArrayList<Local>();
+    for (Iterator<MethodOrMethodContext> it = Scene.v().getReachableMethods().listener(); it.hasNext();) {
+      SootMethod m = it.next().method();
+      if (m.getDeclaringClass().isApplicationClass() && m.hasActiveBody()) {
+        for (Local l : m.getActiveBody().getLocals()) {
+          if (l.getType() instanceof RefLikeType) {
+            queries.add(l);
+          }
+        }
+      }
+    }
+    assertFalse(queries.isEmpty());
+
+    DemandCSPointsTo plain = DemandCSPointsTo.makeWithBudget(DemandCSPointsTo.DEFAULT_MAX_TRAVERSAL,
+        DemandCSPointsTo.DEFAULT_MAX_PASSES, false);
+    plain.setUseSummaryCache(false);
+    DemandCSPointsTo shared = DemandCSPointsTo.makeWithBudget(DemandCSPointsTo.DEFAULT_MAX_TRAVERSAL,
+        DemandCSPointsTo.DEFAULT_MAX_PASSES, false);
+    // Answer every query by a traversal, so that the second round has to go through the summaries
+    plain.disableCache();
+    shared.disableCache();
+
+    Map<String, Set<String>> expected = answers(plain, queries);
+    assertEquals(expected, answers(shared, queries));
+    final long firstMisses = misses(shared);
+    assertEquals(expected, answers(shared, queries));
+    final long secondMisses = misses(shared);
+
+    // Clearing the cache drops the summaries, so the same queries miss more often than with the summaries in place
+    shared.clearCache();
+    assertEquals(expected, answers(shared, queries));
+    assertTrue(misses(shared) - secondMisses > secondMisses - firstMisses);
+
+    long hits = 0;
+    for (SummaryKind kind : SummaryKind.values()) {
+      hits += shared.getSummaryCache().getHits(kind);
+      assertEquals(0, plain.getSummaryCache().getHits(kind) + plain.getSummaryCache().getMisses(kind));
+    }
+    assertTrue(hits > 0);
+  }
+
+  private static long misses(DemandCSPointsTo analysis) {
+    long misses = 0;
+    for (SummaryKind kind : SummaryKind.values()) {
+      misses += analysis.getSummaryCache().getMisses(kind);
+    }
+    return misses;
+  }
+
+  private static Map<String, Set<String>> answers(DemandCSPointsTo analysis, List<Local> queries) {
+    Map<String, Set<String>> ret = new TreeMap<String, Set<String>>();
+    for (int i = 0; i < queries.size(); i++) {
+      ret.put(i + " " + queries.get(i), elements(analysis.reachingObjects(queries.get(i))));
+    }
+    return ret;
+  }
+
+  private static Set<String> elements(PointsToSet set) {
+    final Set<String> ret = new TreeSet<String>();
+    if (set instanceof AllocAndContextSet) {
+      for (AllocAndContext allocAndContext : (AllocAndContextSet) set) {
+        ret.add(allocAndContext.toString());
+      }
+    } else if (set instanceof WrappedPointsToSet) {
+      ((WrappedPointsToSet) set).getWrapped().forall(new P2SetVisitor() {
+        @Override
+        public void visit(Node n) {
+          ret.add("insensitive " + n);
+        }
+      });
+    } else {
+      assertTrue(set.isEmpty());
+    }
+    return ret;
+  }
+}
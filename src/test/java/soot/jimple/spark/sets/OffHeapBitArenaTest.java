@@ -0,0 +1,223 @@
+package soot.jimple.spark.sets;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import soot.G;
+import soot.PackManager;
+import soot.PhaseOptions;
+import soot.Scene;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.pag.VarNode;
+import soot.jimple.toolkits.pointer.DumbPointerAnalysis;
+import soot.options.Options;
+import soot.options.SparkOptions;
+
+/**
+ * Tests the block management of {@link OffHeapBitArena} and checks that {@link OffHeapBitPointsToSet} behaves like an
+ * on-heap set.
+ */
+public class OffHeapBitArenaTest {
+
+  @Test
+  public void reusesFreedBlocks() {
+    OffHeapBitArena arena = new OffHeapBitArena();
+    try {
+      long a = arena.allocate(3);
+      assertEquals(4, OffHeapBitArena.capacityFor(3));
+      assertEquals(4 * 8, arena.getAllocatedBytes());
+      arena.setWord(a, 3, -1L);
+      arena.free(a, 4);
+      assertEquals(0, arena.getAllocatedBytes());
+
+      // The freed block is handed out again, cleared
+      long b = arena.allocate(4);
+      assertEquals(a, b);
+      for (int i = 0; i < 4; i++) {
+        assertEquals(0L, arena.getWord(b, i));
+      }
+      long c = arena.allocate(4);
+      assertTrue(c != b);
+    } finally {
+      arena.close();
+    }
+  }
+
+  @Test
+  public void growsMapping() {
+    OffHeapBitArena arena = new OffHeapBitArena();
+    try {
+      // Blocks of half a chunk; the third one needs a second chunk
+      final int words = 1 << 22;
+      long[] blocks = new long[3];
+      for (int i = 0; i < blocks.length; i++) {
+        blocks[i] = arena.allocate(words);
+        arena.setWord(blocks[i], words - 1, i + 1);
+      }
+      // two chunks of 64 MB
+      assertEquals(2L << 26, arena.getMappedBytes());
+      for (int i = 0; i < blocks.length; i++) {
+        assertEquals(i + 1, arena.getWord(blocks[i], words - 1));
+      }
+    } finally {
+      arena.close();
+    }
+    assertTrue(arena.isClosed());
+    assertEquals(0, arena.getMappedBytes());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void refusesAllocationAfterClose() {
+    OffHeapBitArena arena = new OffHeapBitArena();
+    arena.close();
+    arena.allocate(1);
+  }
+
+  @Test
+  public void matchesOnHeapSet() {
+    PAG pag = runSpark("offheap");
+    P2SetFactory<? extends PointsToSetInternal> factory = pag.getSetFactory();
+    PointsToSetInternal offHeap = factory.newSet(null, pag);
+    PointsToSetInternal other = factory.newSet(null, pag);
+    PointsToSetInternal onHeap = new HashPointsToSet(null, pag);
+    int i = 0;
+    for (AllocNode n : pag.getAllocNodeNumberer()) {
+      if (i++ % 3 != 0) {
+        assertEquals(onHeap.add(n), offHeap.add(n));
+      } else {
+        other.add(n);
+      }
+    }
+    // more than the explicit array holds, so that the set uses a block of the arena
+    assertTrue(onHeap.size() > 16);
+    assertEquals(elements(onHeap), elements(offHeap));
+
+    PointsToSetInternal merged = factory.newSet(null, pag);
+    assertTrue(merged.addAll(offHeap, null));
+    assertTrue(merged.addAll(other, offHeap));
+    assertFalse(merged.addAll(other, null));
+    assertEquals(pag.getAllocNodeNumberer().size(), merged.size());
+    for (AllocNode n : pag.getAllocNodeNumberer()) {
+      assertTrue(merged.contains(n));
+      assertEquals(onHeap.contains(n), offHeap.contains(n));
+    }
+
+    merged.release();
+    assertTrue(merged.isEmpty());
+    Scene.v().releasePointsToAnalysis();
+  }
+
+  @Test
+  public void closedWhenReplaced() {
+    PAG pag = runSpark("offheap");
+    PointsToSetInternal set = fill(pag);
+
+    // Analyses that are not a PAG may be built on top of it, and the same PAG may be set again
+    Scene.v().setPointsToAnalysis(DumbPointerAnalysis.v());
+    Scene.v().setPointsToAnalysis(pag);
+    assertEquals(pag.getAllocNodeNumberer().size(), set.size());
+
+    Scene.v().setPointsToAnalysis(new PAG(new SparkOptions(PhaseOptions.v().getPhaseOptions("cg.spark"))));
+    try {
+      set.size();
+      fail("The arena of the replaced PAG is still open");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    Scene.v().releasePointsToAnalysis();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void closedByReset() {
+    PointsToSetInternal set = fill(runSpark("offheap"));
+    G.reset();
+    set.size();
+  }
+
+  private static PointsToSetInternal fill(PAG pag) {
+    PointsToSetInternal set = pag.getSetFactory().newSet(null, pag);
+    for (AllocNode n : pag.getAllocNodeNumberer()) {
+      set.add(n);
+    }
+    // more than the explicit array holds, so that the set uses a block of the arena
+    assertTrue(set.size() > 16);
+    return set;
+  }
+
+  @Test
+  public void sameResultAsHybridSets() {
+    assertEquals(pointsTo(runSpark("hybrid")), pointsTo(runSpark("offheap")));
+  }
+
+  private static PAG runSpark(String setImpl) {
+    Path cp = Paths.get("src", "test", "resources", "Clinit", "bin");
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Options.v().setPhaseOption("cg.spark", "on");
+    Options.v().setPhaseOption("cg.spark", "set-impl:" + setImpl);
+    Scene.v().loadNecessaryClasses();
+    Scene.v().setEntryPoints(Collections.singletonList(Scene.v().getMainMethod()));
+    PackManager.v().getPack("cg").apply();
+    return (PAG) Scene.v().getPointsToAnalysis();
+  }
+
+  private static Set<String> pointsTo(PAG pag) {
+    Set<String> ret = new HashSet<String>();
+    for (VarNode vn : pag.getVarNodeNumberer()) {
+      for (String obj : elements(vn.getP2Set())) {
+        ret.add(vn + " -> " + obj);
+      }
+    }
+    return ret;
+  }
+
+  private static Set<String> elements(PointsToSetInternal set) {
+    final Set<String> ret = new HashSet<String>();
+    set.forall(new P2SetVisitor() {
+      @Override
+      public void visit(Node n) {
+        ret.add(n.toString());
+      }
+    });
+    return ret;
+  }
+}
@@ -0,0 +1,149 @@
+package soot.jimple.spark.solver;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import soot.Body;
+import soot.G;
+import soot.Local;
+import soot.MethodOrMethodContext;
+import soot.PackManager;
+import soot.RefLikeType;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.AssignStmt;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.options.Options;
+
+/**
+ * Retracts and re-adds methods, and checks that the incremental update arrives at the same points-to sets as an analysis of
+ * the current bodies from scratch.
+ */
+public class PropIncrementalTest {
+
+  @Test
+  public void updateOfUnchangedMethodsKeepsPointsToSets() {
+    runSpark();
+    PAG pag = (PAG) Scene.v().getPointsToAnalysis();
+    Map<String, Set<String>> before = pointsToSets(pag);
+    assertFalse(before.isEmpty());
+
+    pag.updateMethods(Collections.singletonList(Scene.v().getMainMethod()));
+    assertEquals(before, pointsToSets(pag));
+
+    List<SootMethod> appMethods = new ArrayList<SootMethod>();
+    for (Iterator<MethodOrMethodContext> it = Scene.v().getReachableMethods().listener(); it.hasNext();) {
+      SootMethod m = it.next().method();
+      if (m.getDeclaringClass().isApplicationClass()) {
+        appMethods.add(m);
+      }
+    }
+    pag.updateMethods(appMethods);
+    assertEquals(before, pointsToSets(pag));
+  }
+
+  @Test
+  public void updateAfterRemovingStoreMatchesFreshAnalysis() {
+    runSpark();
+    PAG pag = (PAG) Scene.v().getPointsToAnalysis();
+    SootMethod init = Scene.v().getMethod("<soot.A1: void <init>()>");
+    Body body = init.retrieveActiveBody();
+    Unit store = null;
+    for (Unit u : body.getUnits()) {
+      if (u instanceof AssignStmt && ((AssignStmt) u).getLeftOp() instanceof InstanceFieldRef) {
+        store = u;
+      }
+    }
+    assertNotNull(store);
+    body.getUnits().remove(store);
+
+    pag.updateMethods(Collections.singletonList(init));
+    Map<String, Set<String>> incremental = pointsToSets(pag);
+
+    // Analyze the changed program from scratch
+    PackManager.v().getPack("cg").apply();
+    Map<String, Set<String>> fresh = pointsToSets((PAG) Scene.v().getPointsToAnalysis());
+    assertFalse(fresh.isEmpty());
+    assertEquals(fresh, incremental);
+  }
+
+  private static void runSpark() {
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(
+        Collections.singletonList(Paths.get("src", "test", "resources", "Clinit", "bin").toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Options.v().setPhaseOption("cg.spark", "on");
+    Scene.v().loadNecessaryClasses();
+    Scene.v().setEntryPoints(Collections.singletonList(Scene.v().getMainMethod()));
+    PackManager.v().getPack("cg").apply();
+  }
+
+  private static Map<String, Set<String>> pointsToSets(PAG pag) {
+    Map<String, Set<String>> ret = new TreeMap<String, Set<String>>();
+    for (Iterator<MethodOrMethodContext> it = Scene.v().getReachableMethods().listener(); it.hasNext();) {
+      SootMethod m = it.next().method();
+      if (!m.hasActiveBody()) {
+        continue;
+      }
+      for (Local l : m.getActiveBody().getLocals()) {
+        if (!(l.getType() instanceof RefLikeType)) {
+          continue;
+        }
+        final Set<String> objects = new TreeSet<String>();
+        ((PointsToSetInternal) pag.reachingObjects(l)).forall(new P2SetVisitor() {
+          @Override
+          public void visit(Node n) {
+            AllocNode an = (AllocNode) n;
+            objects.add(an.getType() + " " + an.getNewExpr() + " in " + an.getMethod());
+          }
+        });
+        ret.put(m.getSignature() + " " + l.getName(), objects);
+      }
+    }
+    return ret;
+  }
+}
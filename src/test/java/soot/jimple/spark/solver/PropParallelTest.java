@@ -0,0 +1,178 @@
+package soot.jimple.spark.solver;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.G;
+import soot.Local;
+import soot.MethodOrMethodContext;
+import soot.PackManager;
+import soot.RefLikeType;
+import soot.Scene;
+import soot.SootMethod;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.pag.VarNode;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.options.Options;
+
+/**
+ * Runs Spark with the parallel and the serial propagators on the sample programs of the tests, checks that they compute
+ * the same points-to sets and reports the time each of them takes. As the samples are small, the parallel path is also run
+ * with a threshold of one edge per round.
+ */
+public class PropParallelTest {
+  private static final Logger logger = LoggerFactory.getLogger(PropParallelTest.class);
+
+  @Test
+  public void sameResultAsSerialPropagators() {
+    Path cp = Paths.get("src", "test", "resources", "Clinit", "bin");
+    // Iter only serves as a further point of comparison for the timings
+    runSpark(cp, "iter");
+    Map<String, Set<String>> worklist = runSpark(cp, "worklist");
+    Map<String, Set<String>> parallel = runSpark(cp, "parallel");
+
+    assertFalse(worklist.isEmpty());
+    assertEquals(worklist, parallel);
+  }
+
+  @Test
+  public void sameResultOnParallelPath() {
+    Path cp = Paths.get("src", "test", "resources", "Clinit", "bin");
+    Map<String, Set<String>> worklist = propagate(cp, "hybrid", false);
+    Map<String, Set<String>> parallel = propagate(cp, "hybrid", true);
+
+    assertFalse(worklist.isEmpty());
+    assertEquals(worklist, parallel);
+  }
+
+  @Test
+  public void sharedSetsArePropagatedSerially() {
+    Path cp = Paths.get("src", "test", "resources", "Clinit", "bin");
+    Map<String, Set<String>> worklist = propagate(cp, "sharedlist", false);
+    Map<String, Set<String>> parallel = propagate(cp, "sharedlist", true);
+
+    assertEquals(worklist, parallel);
+  }
+
+  /**
+   * Builds the PAG without propagating it, then propagates it with the serial worklist or with a parallel propagator that
+   * hands every round to the threads.
+   */
+  private static Map<String, Set<String>> propagate(Path cp, String setImpl, boolean parallel) {
+    setUp(cp, "none");
+    Options.v().setPhaseOption("cg.spark", "set-impl:" + setImpl);
+    PackManager.v().getPack("cg").apply();
+    final PAG pag = (PAG) Scene.v().getPointsToAnalysis();
+    if (parallel) {
+      final boolean concurrent = PropParallel.supportsConcurrentUpdates(pag.getOpts());
+      final int[] parallelRounds = new int[1];
+      new PropParallel(pag, 4, 1) {
+        @Override
+        protected void propagateSimpleEdges(List<VarNode> sources, PointsToSetInternal[] newSets) {
+          if (executor != null) {
+            parallelRounds[0]++;
+          }
+          super.propagateSimpleEdges(sources, newSets);
+        }
+      }.propagate();
+      if (concurrent) {
+        assertTrue(parallelRounds[0] > 0);
+      } else {
+        assertEquals(0, parallelRounds[0]);
+      }
+    } else {
+      new PropWorklist(pag).propagate();
+    }
+    return collect(pag);
+  }
+
+  private static Map<String, Set<String>> runSpark(Path cp, String propagator) {
+    setUp(cp, propagator);
+
+    long start = System.nanoTime();
+    PackManager.v().getPack("cg").apply();
+    logger.info(String.format("Spark with propagator %s took %d ms", propagator, (System.nanoTime() - start) / 1000000));
+
+    return collect((PAG) Scene.v().getPointsToAnalysis());
+  }
+
+  private static void setUp(Path cp, String propagator) {
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Options.v().set_num_threads(4);
+    Options.v().setPhaseOption("cg.spark", "on");
+    Options.v().setPhaseOption("cg.spark", "propagator:" + propagator);
+    Scene.v().loadNecessaryClasses();
+    Scene.v().setEntryPoints(Collections.singletonList(Scene.v().getMainMethod()));
+  }
+
+  private static Map<String, Set<String>> collect(PAG pag) {
+    Map<String, Set<String>> ret = new TreeMap<String, Set<String>>();
+    for (Iterator<MethodOrMethodContext> it = Scene.v().getReachableMethods().listener(); it.hasNext();) {
+      SootMethod m = it.next().method();
+      if (!m.hasActiveBody()) {
+        continue;
+      }
+      for (Local l : m.getActiveBody().getLocals()) {
+        if (!(l.getType() instanceof RefLikeType)) {
+          continue;
+        }
+        final Set<String> objects = new TreeSet<String>();
+        ((PointsToSetInternal) pag.reachingObjects(l)).forall(new P2SetVisitor() {
+          @Override
+          public void visit(Node n) {
+            AllocNode an = (AllocNode) n;
+            objects.add(an.getType() + " " + an.getNewExpr() + " in " + an.getMethod());
+          }
+        });
+        ret.put(m.getSignature() + " " + l.getName(), objects);
+      }
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,187 @@
+package soot.jimple.toolkit.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.MethodOrMethodContext;
+import soot.Modifier;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.Stmt;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.CompactCallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.util.queue.QueueReader;
+
+/**
+ * Checks that {@link CompactCallGraph} answers queries the same way as {@link CallGraph}.
+ */
+public class CompactCallGraphTest {
+
+  private SootMethod main;
+  private SootMethod foo;
+  private SootMethod bar;
+
+  @Before
+  public void initialize() {
+    G.reset();
+    SootClass cl = new SootClass("TestClass", Modifier.PUBLIC);
+    main = newMethod(cl, "main");
+    foo = newMethod(cl, "foo");
+    bar = newMethod(cl, "bar");
+  }
+
+  private static SootMethod newMethod(SootClass cl, String name) {
+    SootMethod m = new SootMethod(name, Collections.emptyList(), VoidType.v(), Modifier.PUBLIC | Modifier.STATIC);
+    cl.addMethod(m);
+    return m;
+  }
+
+  private static Stmt call(SootMethod callee) {
+    return Jimple.v().newInvokeStmt(Jimple.v().newStaticInvokeExpr(callee.makeRef()));
+  }
+
+  private static List<Edge> toList(Iterator<Edge> it) {
+    List<Edge> ret = new ArrayList<>();
+    it.forEachRemaining(ret::add);
+    return ret;
+  }
+
+  @Test
+  public void queries() {
+    CompactCallGraph cg = new CompactCallGraph();
+    Stmt s1 = call(foo);
+    Stmt s2 = call(bar);
+    Stmt s3 = call(bar);
+    Edge e1 = new Edge(main, s1, foo);
+    Edge e2 = new Edge(main, s2, bar);
+    Edge e3 = new Edge(foo, s3, bar);
+
+    QueueReader<Edge> listener = cg.listener();
+    assertTrue(cg.addEdge(e1));
+    assertTrue(cg.addEdge(e2));
+    assertTrue(cg.addEdge(e3));
+    assertFalse(cg.addEdge(new Edge(main, s1, foo)));
+    assertEquals(3, cg.size());
+    assertEquals(3, toList(listener).size());
+
+    assertEquals(Collections.singletonList(e1), toList(cg.edgesOutOf(s1)));
+    assertEquals(Arrays.asList(e1, e2), toList(cg.edgesOutOf(main)));
+    assertEquals(Arrays.asList(e2, e3), toList(cg.edgesInto(bar)));
+    assertSame(e2, cg.findEdge(s2, bar));
+    assertNull(cg.findEdge(s2, foo));
+    assertTrue(cg.isEntryMethod(main));
+    assertFalse(cg.isEntryMethod(bar));
+    assertTrue(cg.getBytesPerEdge() > 0);
+
+    assertTrue(cg.removeEdge(new Edge(main, s2, bar)));
+    assertFalse(cg.removeEdge(e2));
+    assertTrue(e2.isInvalid());
+    assertEquals(2, cg.size());
+    assertEquals(Collections.singletonList(e3), toList(cg.edgesInto(bar)));
+    assertEquals(Arrays.asList(e1, e3), toList(cg.iterator()));
+    assertEquals(Arrays.asList(e1, e3), toList(cg.listener()));
+
+    Stmt s4 = call(foo);
+    assertTrue(cg.swapEdgesOutOf(s1, s4));
+    assertFalse(cg.edgesOutOf(s1).hasNext());
+    assertEquals(foo, cg.edgesOutOf(s4).next().tgt());
+    assertTrue(cg.removeAllEdgesOutOf(s4));
+    assertTrue(cg.isEntryMethod(foo));
+    assertEquals(1, cg.size());
+  }
+
+  @Test
+  public void recyclesEdgeIds() {
+    CompactCallGraph cg = new CompactCallGraph();
+    Stmt s1 = call(foo);
+    assertTrue(cg.addEdge(new Edge(main, s1, foo)));
+    assertTrue(cg.addEdge(new Edge(foo, call(bar), bar)));
+    final Stmt s2 = call(bar);
+    assertTrue(cg.addEdge(new Edge(main, s2, foo)));
+    assertTrue(cg.removeEdge(new Edge(main, s2, foo)));
+    final long indexSize = cg.getIndexSizeInBytes();
+    // Far more edges than the initial arrays hold, but never more than three at a time
+    for (int i = 0; i < 10000; i++) {
+      Edge e = new Edge(main, s2, bar);
+      assertTrue(cg.addEdge(e));
+      assertEquals(3, cg.size());
+      assertTrue(cg.removeEdge(e));
+    }
+    assertEquals(2, cg.size());
+    assertEquals(Collections.singletonList(foo), toList(cg.edgesOutOf(main)).stream().map(Edge::tgt)
+        .collect(Collectors.toList()));
+    assertEquals(1, toList(cg.edgesInto(bar)).size());
+    assertEquals(indexSize, cg.getIndexSizeInBytes());
+  }
+
+  @Test
+  public void iteratorSkipsRemovedAndReusedEdge() {
+    CompactCallGraph cg = new CompactCallGraph();
+    Edge e1 = new Edge(main, call(foo), foo);
+    Edge e2 = new Edge(main, call(bar), bar);
+    Edge e3 = new Edge(main, call(foo), foo);
+    cg.addEdge(e1);
+    cg.addEdge(e2);
+    cg.addEdge(e3);
+    Iterator<Edge> it = cg.edgesOutOf(main);
+    assertSame(e1, it.next());
+    // e2 is where the iterator stands; its id goes to an edge out of another method
+    cg.removeEdge(e2);
+    cg.addEdge(new Edge(foo, call(bar), bar));
+    assertSame(e3, it.next());
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void sourceMethods() {
+    CompactCallGraph cg = new CompactCallGraph();
+    cg.addEdge(new Edge(main, call(foo), foo));
+    cg.addEdge(new Edge(main, call(bar), bar));
+    cg.addEdge(new Edge(foo, call(bar), bar));
+    List<MethodOrMethodContext> sources = new ArrayList<>();
+    cg.sourceMethods().forEachRemaining(sources::add);
+    assertEquals(2, sources.size());
+    assertTrue(sources.contains(main));
+    assertTrue(sources.contains(foo));
+  }
+}
@@ -0,0 +1,135 @@
+package soot.jimple.toolkits.ide;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import soot.G;
+import soot.MethodOrMethodContext;
+import soot.PackManager;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.toolkits.ide.exampleproblems.IFDSPossibleTypes;
+import soot.jimple.toolkits.ide.exampleproblems.IFDSReachingDefinitions;
+import soot.jimple.toolkits.ide.exampleproblems.IFDSUninitializedVariables;
+import soot.jimple.toolkits.ide.icfg.JimpleBasedInterproceduralCFG;
+import soot.options.Options;
+import soot.toolkits.scalar.Pair;
+
+/**
+ * Checks that {@link ForkJoinIFDSSolver} computes the same results as heros' solver on the example problems.
+ */
+public class ForkJoinIFDSSolverTest {
+
+  @BeforeClass
+  public static void setup() {
+    Path cp = Paths.get("src", "test", "resources", "Clinit", "bin");
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Scene.v().loadNecessaryClasses();
+    Scene.v().setEntryPoints(Collections.singletonList(Scene.v().getMainMethod()));
+    PackManager.v().getPack("cg").apply();
+  }
+
+  @Test
+  public void reachingDefinitions() {
+    compare(new IFDSReachingDefinitions(new JimpleBasedInterproceduralCFG()));
+  }
+
+  @Test
+  public void manySeeds() {
+    // Seed the start point of every reachable method, so that the seeds make up several batches
+    final Map<Unit, Set<Pair<Value, Set<DefinitionStmt>>>> seeds
+        = new HashMap<Unit, Set<Pair<Value, Set<DefinitionStmt>>>>();
+    final JimpleBasedInterproceduralCFG icfg = new JimpleBasedInterproceduralCFG();
+    IFDSReachingDefinitions problem = new IFDSReachingDefinitions(icfg) {
+      @Override
+      public Map<Unit, Set<Pair<Value, Set<DefinitionStmt>>>> initialSeeds() {
+        return seeds;
+      }
+    };
+    for (Iterator<MethodOrMethodContext> it = Scene.v().getReachableMethods().listener(); it.hasNext();) {
+      SootMethod m = it.next().method();
+      if (m.hasActiveBody()) {
+        for (Unit startPoint : icfg.getStartPointsOf(m)) {
+          seeds.put(startPoint, Collections.singleton(problem.zeroValue()));
+        }
+      }
+    }
+    assertTrue(seeds.size() > 4 * 64);
+    compare(problem);
+  }
+
+  @Test
+  public void possibleTypes() {
+    compare(new IFDSPossibleTypes(new JimpleBasedInterproceduralCFG()));
+  }
+
+  @Test
+  public void uninitializedVariables() {
+    compare(new IFDSUninitializedVariables(new JimpleBasedInterproceduralCFG()));
+  }
+
+  private static <D> void compare(IFDSTabulationProblem<Unit, D, SootMethod, InterproceduralCFG<Unit, SootMethod>> problem) {
+    JimpleIFDSSolver<D, InterproceduralCFG<Unit, SootMethod>> expected
+        = new JimpleIFDSSolver<D, InterproceduralCFG<Unit, SootMethod>>(problem);
+    expected.solve();
+    ForkJoinIFDSSolver<D, InterproceduralCFG<Unit, SootMethod>> actual
+        = new ForkJoinIFDSSolver<D, InterproceduralCFG<Unit, SootMethod>>(problem);
+    actual.solve();
+
+    assertTrue(actual.getPropagationCount() > 0);
+    for (Iterator<MethodOrMethodContext> it = Scene.v().getReachableMethods().listener(); it.hasNext();) {
+      SootMethod m = it.next().method();
+      if (!m.hasActiveBody()) {
+        continue;
+      }
+      for (Unit u : m.getActiveBody().getUnits()) {
+        assertEquals(m + ": " + u, expected.ifdsResultsAt(u), actual.ifdsResultsAt(u));
+      }
+    }
+  }
+}
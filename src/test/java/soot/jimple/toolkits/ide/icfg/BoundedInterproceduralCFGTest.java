@@ -0,0 +1,121 @@
+package soot.jimple.toolkits.ide.icfg;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.cache.CacheStats;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import soot.Body;
+import soot.G;
+import soot.MethodOrMethodContext;
+import soot.PackManager;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.Jimple;
+import soot.options.Options;
+
+/**
+ * Checks that an ICFG in memory-bounded mode evicts unit graphs and still answers like an unbounded one.
+ */
+public class BoundedInterproceduralCFGTest {
+
+  @Test
+  public void evictsAndRebuildsUnitGraphs() {
+    Path cp = Paths.get("src", "test", "resources", "Clinit", "bin");
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Scene.v().loadNecessaryClasses();
+    Scene.v().setEntryPoints(Collections.singletonList(Scene.v().getMainMethod()));
+    PackManager.v().getPack("cg").apply();
+
+    // room for the largest body only, so that moving on to another body evicts
+    int largest = 0;
+    for (Iterator<MethodOrMethodContext> it = Scene.v().getReachableMethods().listener(); it.hasNext();) {
+      SootMethod m = it.next().method();
+      if (m.hasActiveBody()) {
+        largest = Math.max(largest, m.getActiveBody().getUnits().size());
+      }
+    }
+    JimpleBasedInterproceduralCFG unbounded = new JimpleBasedInterproceduralCFG();
+    JimpleBasedInterproceduralCFG bounded = new JimpleBasedInterproceduralCFG(true, false, largest);
+    assertEquals(unbounded.allNonCallStartNodes(), bounded.allNonCallStartNodes());
+    for (int round = 0; round < 2; round++) {
+      for (Iterator<MethodOrMethodContext> it = Scene.v().getReachableMethods().listener(); it.hasNext();) {
+        SootMethod m = it.next().method();
+        if (!m.hasActiveBody()) {
+          continue;
+        }
+        for (Unit u : m.getActiveBody().getUnits()) {
+          assertEquals(m, bounded.getMethodOf(u));
+          assertEquals(unbounded.getSuccsOf(u), bounded.getSuccsOf(u));
+          assertEquals(unbounded.getPredsOf(u), bounded.getPredsOf(u));
+        }
+      }
+    }
+
+    CacheStats stats = bounded.getUnitGraphCacheStats();
+    assertTrue(stats.hitCount() > 0);
+    assertTrue(stats.missCount() > 0);
+    assertTrue(stats.evictionCount() > 0);
+  }
+
+  @Test
+  public void ownerMapKeepsInsertionOrder() {
+    G.reset();
+    Body b1 = Jimple.v().newBody();
+    Body b2 = Jimple.v().newBody();
+    List<Unit> units = new ArrayList<Unit>();
+    NumberedUnitOwnerMap map = new NumberedUnitOwnerMap();
+    // enough units to grow the table several times
+    for (int i = 0; i < 5000; i++) {
+      Unit u = Jimple.v().newNopStmt();
+      units.add(u);
+      assertNull(map.put(u, i % 2 == 0 ? b1 : b2));
+    }
+    assertEquals(b2, map.put(units.get(1), b1));
+    assertEquals(units.size(), map.size());
+    assertEquals(units, new ArrayList<Unit>(map.keySet()));
+    for (int i = 0; i < units.size(); i++) {
+      assertEquals(i % 2 == 0 || i == 1 ? b1 : b2, map.get(units.get(i)));
+    }
+    assertNull(map.get(Jimple.v().newNopStmt()));
+  }
+}
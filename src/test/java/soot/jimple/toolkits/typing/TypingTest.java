@@ -0,0 +1,103 @@
+package soot.jimple.toolkits.typing;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.IntType;
+import soot.Local;
+import soot.Modifier;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.Type;
+import soot.jimple.internal.JimpleLocal;
+import soot.jimple.toolkits.typing.fast.BottomType;
+import soot.jimple.toolkits.typing.fast.BytecodeHierarchy;
+import soot.jimple.toolkits.typing.fast.Typing;
+
+/**
+ * Checks that copies of a {@link Typing} are independent of each other and that least common ancestors are memoized.
+ */
+public class TypingTest {
+
+  @Before
+  public void init() {
+    G.reset();
+    Scene.v().loadNecessaryClasses();
+  }
+
+  @Test
+  public void copiesAreIndependent() {
+    Local a = new JimpleLocal("a", IntType.v());
+    Local b = new JimpleLocal("b", IntType.v());
+    Local c = new JimpleLocal("c", IntType.v());
+    Typing tg = new Typing(Arrays.asList(a, b));
+    assertSame(BottomType.v(), tg.get(a));
+    assertTrue(tg.getAllLocals().isEmpty());
+
+    assertNull(tg.set(a, IntType.v()));
+    Typing copy = new Typing(tg);
+    copy.set(b, RefType.v("java.lang.Object"));
+    copy.set(c, IntType.v());
+
+    assertSame(BottomType.v(), tg.get(b));
+    assertSame(BottomType.v(), tg.get(c));
+    assertEquals(Collections.singletonList(a), tg.getAllLocals());
+    assertEquals(3, copy.getAllLocals().size());
+    assertEquals(IntType.v(), copy.getMap().get(c));
+
+    // Bottom is never stored
+    assertNull(copy.set(a, BottomType.v()));
+    assertEquals(IntType.v(), copy.get(a));
+  }
+
+  @Test
+  public void memoizesLeastCommonAncestors() {
+    SootClass parent = new SootClass("Parent", Modifier.PUBLIC);
+    parent.setSuperclass(Scene.v().getObjectType().getSootClass());
+    Scene.v().addClass(parent);
+    SootClass left = new SootClass("Left", Modifier.PUBLIC);
+    left.setSuperclass(parent);
+    Scene.v().addClass(left);
+    SootClass right = new SootClass("Right", Modifier.PUBLIC);
+    right.setSuperclass(parent);
+    Scene.v().addClass(right);
+
+    Collection<Type> lcas = BytecodeHierarchy.lcas_(left.getType(), right.getType());
+    assertEquals(Collections.singletonList(parent.getType()), lcas);
+    assertSame(lcas, BytecodeHierarchy.lcas_(left.getType(), right.getType()));
+  }
+}
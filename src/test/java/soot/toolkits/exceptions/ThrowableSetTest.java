@@ -24,16 +24,22 @@ package soot.toolkits.exceptions;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.BeforeClass;
 import org.junit.FixMethodOrder;
@@ -1516,6 +1522,55 @@ public class ThrowableSetTest {
 		assertTrue(bothPhantoms == bothPhantoms2);
 	}
 
+	@Test
+	public void test_15_WhichCatchableConcurrently() throws Exception {
+		if (DUMP_INTERNALS) {
+			System.err.println("\n\ntestWhichCatchableConcurrently()");
+		}
+
+		final ThrowableSet set0 = mgr.EMPTY.add(AnySubType.v(util.ERROR)).add(util.UNDECLARED_THROWABLE_EXCEPTION);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<ThrowableSet.Pair>> results = new ArrayList<Future<ThrowableSet.Pair>>();
+		for (int i = 0; i < 16; i++) {
+			results.add(executor.submit(() -> set0.whichCatchableAs(util.LINKAGE_ERROR)));
+		}
+		ThrowableSet.Pair first = set0.whichCatchableAs(util.LINKAGE_ERROR);
+		for (Future<ThrowableSet.Pair> result : results) {
+			// Sets are interned even when they are created concurrently
+			assertSame(first.getCaught(), result.get().getCaught());
+			assertSame(first.getUncaught(), result.get().getUncaught());
+		}
+		executor.shutdown();
+
+		// The partition is remembered by the set
+		assertSame(first, set0.whichCatchableAs(util.LINKAGE_ERROR));
+		assertSameMembers(first,
+				new RefLikeType[] { AnySubType.v(util.LINKAGE_ERROR) },
+				new AnySubType[] {},
+				new RefLikeType[] { AnySubType.v(util.ERROR), util.UNDECLARED_THROWABLE_EXCEPTION },
+				new AnySubType[] { AnySubType.v(util.LINKAGE_ERROR) });
+	}
+
+	@Test
+	public void test_16_HashConsedBits() {
+		if (DUMP_INTERNALS) {
+			System.err.println("\n\ntestHashConsedBits()");
+		}
+
+		ThrowableSet set0 = mgr.EMPTY.add(util.LINKAGE_ERROR).add(util.UNDECLARED_THROWABLE_EXCEPTION);
+		ThrowableSet set1 = mgr.EMPTY.add(util.UNDECLARED_THROWABLE_EXCEPTION).add(util.LINKAGE_ERROR);
+		assertSame(set0, set1);
+		assertEquals(set0.hashCode(), set1.hashCode());
+
+		// Adding a subset, or the set itself, leaves the set unchanged
+		ThrowableSet subset = mgr.EMPTY.add(util.LINKAGE_ERROR);
+		assertSame(set0, set0.add(subset));
+		assertSame(set0, set0.add(set0));
+		assertFalse(subset.equals(set0));
+		assertTrue(set0.catchableAs(util.LINKAGE_ERROR));
+		assertFalse(subset.catchableAs(util.UNDECLARED_THROWABLE_EXCEPTION));
+	}
+
 	void printAllSets() {
 		for (ThrowableSet s : mgr.getThrowableSets()) {
 			System.err.println(s.toString());
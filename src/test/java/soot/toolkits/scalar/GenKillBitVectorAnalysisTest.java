@@ -0,0 +1,168 @@
+package soot.toolkits.scalar;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import soot.toolkits.graph.DirectedGraph;
+import soot.util.BitVector;
+
+public class GenKillBitVectorAnalysisTest {
+
+  /**
+   * 0: x = ..; 1: loop head, branching to 2 or 3; 2, 3: y = ..; 4: use y; 5: back to 1 or exit to 6: use x
+   */
+  private static final int[][] SUCCS = { { 1 }, { 2, 3 }, { 4 }, { 4 }, { 5 }, { 1, 6 }, {} };
+  private static final int[][] DEFS = { { 0 }, {}, { 1 }, { 1 }, {}, {}, {} };
+  private static final int[][] USES = { {}, {}, {}, {}, { 1 }, {}, { 0 } };
+
+  private static class Graph implements DirectedGraph<Integer> {
+    private final List<List<Integer>> succs = new ArrayList<List<Integer>>();
+    private final List<List<Integer>> preds = new ArrayList<List<Integer>>();
+
+    Graph(int[][] edges) {
+      for (int i = 0; i < edges.length; i++) {
+        succs.add(new ArrayList<Integer>());
+        preds.add(new ArrayList<Integer>());
+      }
+      for (int i = 0; i < edges.length; i++) {
+        for (int s : edges[i]) {
+          succs.get(i).add(s);
+          preds.get(s).add(i);
+        }
+      }
+    }
+
+    @Override
+    public List<Integer> getHeads() {
+      return Arrays.asList(0);
+    }
+
+    @Override
+    public List<Integer> getTails() {
+      return Arrays.asList(succs.size() - 1);
+    }
+
+    @Override
+    public List<Integer> getPredsOf(Integer s) {
+      return preds.get(s);
+    }
+
+    @Override
+    public List<Integer> getSuccsOf(Integer s) {
+      return succs.get(s);
+    }
+
+    @Override
+    public int size() {
+      return succs.size();
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+      List<Integer> nodes = new ArrayList<Integer>();
+      for (int i = 0; i < succs.size(); i++) {
+        nodes.add(i);
+      }
+      return nodes.iterator();
+    }
+  }
+
+  private static BitVector bits(int... bs) {
+    BitVector ret = new BitVector(128);
+    for (int b : bs) {
+      ret.set(b);
+    }
+    return ret;
+  }
+
+  @Test
+  public void mustDefinedAcrossWords() {
+    // defines bit b and b + 64 to cover more than one word
+    GenKillBitVectorAnalysis<Integer> a = new GenKillBitVectorAnalysis<Integer>(new Graph(SUCCS), true, false) {
+      {
+        doAnalysis();
+      }
+
+      @Override
+      protected int universeSize() {
+        return 70;
+      }
+
+      @Override
+      protected void computeGenKill(Integer node, BitVector gen, BitVector kill) {
+        for (int b : DEFS[node]) {
+          gen.set(b);
+          gen.set(b + 64);
+        }
+      }
+    };
+    assertEquals(bits(), a.getFlowBefore(0));
+    // y is not defined on the path entering the loop
+    assertEquals(bits(0, 64), a.getFlowBefore(1));
+    assertEquals(bits(0, 1, 64, 65), a.getFlowBefore(4));
+    assertEquals(bits(0, 1, 64, 65), a.getFlowAfter(6));
+    assertTrue(a.isSetAfter(2, 65));
+    assertFalse(a.isSetBefore(2, 65));
+  }
+
+  @Test
+  public void liveness() {
+    GenKillBitVectorAnalysis<Integer> a = new GenKillBitVectorAnalysis<Integer>(new Graph(SUCCS), false, true) {
+      {
+        doAnalysis();
+      }
+
+      @Override
+      protected int universeSize() {
+        return 2;
+      }
+
+      @Override
+      protected void computeGenKill(Integer node, BitVector gen, BitVector kill) {
+        for (int b : USES[node]) {
+          gen.set(b);
+        }
+        for (int b : DEFS[node]) {
+          kill.set(b);
+        }
+      }
+    };
+    assertEquals(bits(), a.getFlowBefore(0));
+    assertEquals(bits(0), a.getFlowAfter(0));
+    assertEquals(bits(0, 1), a.getFlowBefore(4));
+    assertEquals(bits(0), a.getFlowAfter(4));
+    assertEquals(bits(0), a.getFlowBefore(1));
+    assertEquals(bits(), a.getFlowAfter(6));
+  }
+}
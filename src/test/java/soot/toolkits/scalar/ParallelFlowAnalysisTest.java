@@ -0,0 +1,175 @@
+package soot.toolkits.scalar;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+
+import soot.G;
+import soot.options.Options;
+import soot.toolkits.graph.DirectedGraph;
+
+public class ParallelFlowAnalysisTest {
+
+  private static class Graph implements DirectedGraph<Integer> {
+    private final List<List<Integer>> succs = new ArrayList<List<Integer>>();
+    private final List<List<Integer>> preds = new ArrayList<List<Integer>>();
+
+    Graph(int size) {
+      for (int i = 0; i < size; i++) {
+        succs.add(new ArrayList<Integer>());
+        preds.add(new ArrayList<Integer>());
+      }
+    }
+
+    void addEdge(int from, int to) {
+      if (!succs.get(from).contains(to)) {
+        succs.get(from).add(to);
+        preds.get(to).add(from);
+      }
+    }
+
+    @Override
+    public List<Integer> getHeads() {
+      return Arrays.asList(0);
+    }
+
+    @Override
+    public List<Integer> getTails() {
+      return Arrays.asList(succs.size() - 1);
+    }
+
+    @Override
+    public List<Integer> getPredsOf(Integer s) {
+      return preds.get(s);
+    }
+
+    @Override
+    public List<Integer> getSuccsOf(Integer s) {
+      return succs.get(s);
+    }
+
+    @Override
+    public int size() {
+      return succs.size();
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+      List<Integer> nodes = new ArrayList<Integer>();
+      for (int i = 0; i < succs.size(); i++) {
+        nodes.add(i);
+      }
+      return nodes.iterator();
+    }
+  }
+
+  /**
+   * Reaching definitions where node {@code i} defines variable {@code i % 13}.
+   */
+  private static class ReachingDefs extends ForwardFlowAnalysis<Integer, Set<Integer>> {
+    ReachingDefs(Graph graph) {
+      super(graph);
+      doAnalysis();
+    }
+
+    @Override
+    protected boolean supportsParallelSolving() {
+      return true;
+    }
+
+    @Override
+    protected Set<Integer> newInitialFlow() {
+      return new HashSet<Integer>();
+    }
+
+    @Override
+    protected void flowThrough(Set<Integer> in, Integer d, Set<Integer> out) {
+      out.clear();
+      for (Integer def : in) {
+        if (def % 13 != d % 13) {
+          out.add(def);
+        }
+      }
+      out.add(d);
+    }
+
+    @Override
+    protected void merge(Set<Integer> in1, Set<Integer> in2, Set<Integer> out) {
+      out.clear();
+      out.addAll(in1);
+      out.addAll(in2);
+    }
+
+    @Override
+    protected void copy(Set<Integer> source, Set<Integer> dest) {
+      dest.clear();
+      dest.addAll(source);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    G.reset();
+  }
+
+  @Test
+  public void sameResultAsSequential() {
+    Random random = new Random(42);
+    for (int round = 0; round < 20; round++) {
+      // a chain with forward branches and some loops
+      int size = 100 + random.nextInt(2000);
+      Graph graph = new Graph(size);
+      for (int i = 0; i < size - 1; i++) {
+        graph.addEdge(i, i + 1);
+        if (random.nextInt(5) == 0) {
+          graph.addEdge(i, Math.min(size - 1, i + 1 + random.nextInt(20)));
+        }
+        if (random.nextInt(25) == 0) {
+          graph.addEdge(i, Math.max(0, i - random.nextInt(40)));
+        }
+      }
+
+      Options.v().set_parallel_flow_threshold(-1);
+      ReachingDefs sequential = new ReachingDefs(graph);
+      Options.v().set_parallel_flow_threshold(1);
+      ReachingDefs parallel = new ReachingDefs(graph);
+
+      for (int i = 0; i < size; i++) {
+        assertEquals(sequential.getFlowBefore(i), parallel.getFlowBefore(i));
+        assertEquals(sequential.getFlowAfter(i), parallel.getFlowAfter(i));
+      }
+    }
+  }
+}
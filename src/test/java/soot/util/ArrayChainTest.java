@@ -0,0 +1,111 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ArrayChainTest {
+
+  @Test
+  public void basicOperations() {
+    ArrayChain<String> chain = new ArrayChain<String>();
+    chain.addLast("b");
+    chain.addFirst("a");
+    chain.addLast("d");
+    chain.insertBefore("c", "d");
+    assertEquals("[a, b, c, d]", chain.toString());
+    assertEquals("c", chain.getSuccOf("b"));
+    assertEquals("b", chain.getPredOf("c"));
+    assertNull(chain.getPredOf("a"));
+    assertTrue(chain.follows("d", "b"));
+    assertFalse(chain.follows("a", "b"));
+
+    chain.remove("b");
+    assertEquals("c", chain.getSuccOf("a"));
+    assertEquals(3, chain.size());
+    assertFalse(chain.contains("b"));
+  }
+
+  @Test
+  public void iteratorRemove() {
+    ArrayChain<Integer> chain = new ArrayChain<Integer>();
+    for (int i = 0; i < 10; i++) {
+      chain.add(i);
+    }
+    for (Iterator<Integer> it = chain.iterator(); it.hasNext();) {
+      if (it.next() % 2 == 0) {
+        it.remove();
+      }
+    }
+    assertEquals("[1, 3, 5, 7, 9]", chain.toString());
+
+    List<Integer> range = new ArrayList<Integer>();
+    for (Iterator<Integer> it = chain.iterator(3, 7); it.hasNext();) {
+      range.add(it.next());
+    }
+    assertEquals("[3, 5, 7]", range.toString());
+  }
+
+  @Test
+  public void sameAsHashChain() {
+    // enough removals and insertions to trigger compaction and growth
+    Random random = new Random(1);
+    ArrayChain<Integer> array = new ArrayChain<Integer>(4);
+    HashChain<Integer> hash = new HashChain<Integer>();
+    int nextId = 0;
+    for (int op = 0; op < 20000; op++) {
+      List<Integer> current = new ArrayList<Integer>(hash);
+      int kind = random.nextInt(6);
+      if (current.isEmpty() || kind < 2) {
+        Integer item = nextId++;
+        array.addLast(item);
+        hash.addLast(item);
+      } else if (kind < 4) {
+        Integer point = current.get(random.nextInt(current.size()));
+        Integer item = nextId++;
+        array.insertBefore(item, point);
+        hash.insertBefore(item, point);
+      } else {
+        Integer item = current.get(random.nextInt(current.size()));
+        array.remove(item);
+        hash.remove(item);
+      }
+      assertEquals(new ArrayList<Integer>(hash), new ArrayList<Integer>(array));
+    }
+    for (Integer item : hash) {
+      assertEquals(hash.getSuccOf(item), array.getSuccOf(item));
+      assertEquals(hash.getPredOf(item), array.getPredOf(item));
+    }
+  }
+}